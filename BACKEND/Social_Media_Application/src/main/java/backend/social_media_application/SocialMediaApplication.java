@@ -2,15 +2,12 @@ package backend.social_media_application;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
-<<<<<<< Updated upstream
-
-@SpringBootApplication
-=======
 import org.springframework.data.mongodb.config.EnableMongoAuditing;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
 @EnableMongoAuditing
->>>>>>> Stashed changes
+@EnableScheduling
 public class SocialMediaApplication {
 
     public static void main(String[] args) {
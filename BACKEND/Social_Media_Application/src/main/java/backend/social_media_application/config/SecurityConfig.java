@@ -78,6 +78,7 @@ package backend.social_media_application.config;
 
 import backend.social_media_application.security.JwtAuthenticationEntryPoint;
 import backend.social_media_application.security.JwtAuthenticationFilter;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -108,6 +109,12 @@ public class SecurityConfig {
     private final UserDetailsService userDetailsService;
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
 
+    @Value("${server.port:8080}")
+    private int serverPort;
+
+    @Value("${management.server.port:-1}")
+    private int managementPort;
+
     public SecurityConfig(JwtAuthenticationEntryPoint authenticationEntryPoint,
                           UserDetailsService userDetailsService,
                           JwtAuthenticationFilter jwtAuthenticationFilter) {
@@ -129,6 +136,11 @@ public class SecurityConfig {
                         .requestMatchers("/api/auth/**").permitAll()
                         .requestMatchers("/api/public/**").permitAll()
                         .requestMatchers("/api/files/**").permitAll() // Added this line
+                        .requestMatchers("/actuator/health").permitAll()
+                        // Scrapes are only let through on the management port, which isn't exposed publicly
+                        .requestMatchers(request -> managementPort > 0 && managementPort != serverPort
+                                && request.getLocalPort() == managementPort
+                                && "/actuator/prometheus".equals(request.getRequestURI())).permitAll()
                         .anyRequest().authenticated()
                 );
 
@@ -0,0 +1,73 @@
+package backend.social_media_application.config;
+
+import backend.social_media_application.service.storage.BlobStore;
+import backend.social_media_application.service.storage.FileSystemBlobStore;
+import backend.social_media_application.service.storage.ObservedBlobStore;
+import backend.social_media_application.service.storage.S3BlobStore;
+import io.micrometer.observation.ObservationRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.DefaultCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.core.checksums.RequestChecksumCalculation;
+import software.amazon.awssdk.core.checksums.ResponseChecksumValidation;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.S3ClientBuilder;
+
+import java.net.URI;
+import java.nio.file.Paths;
+
+/**
+ * Picks where uploaded files live: app.storage.type=filesystem keeps them in
+ * the upload dir, s3 puts them in a bucket shared by every instance. Either
+ * way calls are traced as storage.blob spans.
+ */
+@Configuration
+public class StorageConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "app.storage.type", havingValue = "filesystem", matchIfMissing = true)
+    public BlobStore fileSystemBlobStore(@Value("${app.file.upload-dir:./uploads}") String uploadDir,
+                                         ObservationRegistry observationRegistry) {
+        return new ObservedBlobStore(new FileSystemBlobStore(Paths.get(uploadDir)), "filesystem", observationRegistry);
+    }
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "app.storage.type", havingValue = "s3")
+    public S3Client s3Client(@Value("${app.storage.s3.endpoint:}") String endpoint,
+                             @Value("${app.storage.s3.region:us-east-1}") String region,
+                             @Value("${app.storage.s3.access-key:}") String accessKey,
+                             @Value("${app.storage.s3.secret-key:}") String secretKey) {
+        S3ClientBuilder builder = S3Client.builder()
+                .region(Region.of(region))
+                // MinIO and most self-hosted stores only speak path-style and don't send CRC32 trailers
+                .forcePathStyle(true)
+                .requestChecksumCalculation(RequestChecksumCalculation.WHEN_REQUIRED)
+                .responseChecksumValidation(ResponseChecksumValidation.WHEN_REQUIRED);
+        if (!endpoint.isBlank()) {
+            builder.endpointOverride(URI.create(endpoint));
+        }
+        builder.credentialsProvider(accessKey.isBlank()
+                ? DefaultCredentialsProvider.create()
+                : StaticCredentialsProvider.create(AwsBasicCredentials.create(accessKey, secretKey)));
+        return builder.build();
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.storage.type", havingValue = "s3")
+    public BlobStore s3BlobStore(S3Client s3Client,
+                                 @Value("${app.storage.s3.bucket}") String bucket,
+                                 @Value("${app.storage.s3.part-size:8MB}") DataSize partSize,
+                                 @Value("${app.storage.s3.upload-parallelism:4}") int uploadParallelism,
+                                 ObservationRegistry observationRegistry) {
+        // The part upload pool stays inside the store: an ExecutorService bean would replace Boot's task executor
+        long partBytes = Math.max(S3BlobStore.MIN_PART_SIZE, partSize.toBytes());
+        return new ObservedBlobStore(new S3BlobStore(s3Client, bucket, partBytes, uploadParallelism), "s3",
+                observationRegistry);
+    }
+}
@@ -0,0 +1,42 @@
+package backend.social_media_application.config;
+
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.observation.ObservationRegistry;
+import io.opentelemetry.exporter.logging.otlp.OtlpJsonLoggingSpanExporter;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.observability.ContextProviderFactory;
+import org.springframework.data.mongodb.observability.MongoObservationCommandListener;
+
+/**
+ * Tracing beyond what Spring wires up by itself. HTTP requests and the
+ * security filter chain are observed out of the box; this adds a span per
+ * Mongo command and an optional exporter that writes spans as OTLP JSON log
+ * lines, for local runs without a collector.
+ */
+@Configuration
+public class TracingConfig {
+
+    @Bean
+    public MongoClientSettingsBuilderCustomizer mongoObservationCustomizer(ObservationRegistry observationRegistry) {
+        // The context provider hands the driver the current request's observation, so commands nest under it
+        return builder -> builder
+                .contextProvider(ContextProviderFactory.create(observationRegistry))
+                .addCommandListener(new MongoObservationCommandListener(observationRegistry));
+    }
+
+    @Bean
+    public MeterFilter mongoObservationMeterFilter() {
+        // Command latency is already recorded as mongodb.driver.commands; keep only the spans
+        return MeterFilter.denyNameStartsWith("spring.data.mongodb.command");
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.tracing.log-exporter", havingValue = "true")
+    public SpanExporter loggingSpanExporter() {
+        return OtlpJsonLoggingSpanExporter.create();
+    }
+}
@@ -0,0 +1,45 @@
+package backend.social_media_application.config;
+
+import backend.social_media_application.service.UploadAdmissionService;
+import backend.social_media_application.util.SecurityUtil;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Runs admission control on upload endpoints before the handler (and so the
+ * multipart parser) touches the request body.
+ */
+@Component
+public class UploadAdmissionInterceptor implements HandlerInterceptor {
+
+    private static final String PERMIT_ATTRIBUTE = UploadAdmissionInterceptor.class.getName() + ".permit";
+
+    private final UploadAdmissionService uploadAdmissionService;
+
+    public UploadAdmissionInterceptor(UploadAdmissionService uploadAdmissionService) {
+        this.uploadAdmissionService = uploadAdmissionService;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        String method = request.getMethod();
+        if (!"POST".equals(method) && !"PUT".equals(method)) {
+            return true;
+        }
+        String userId = SecurityUtil.getCurrentUserId();
+        String userKey = userId != null ? userId : "ip:" + request.getRemoteAddr();
+        request.setAttribute(PERMIT_ATTRIBUTE,
+                uploadAdmissionService.admit(userKey, request.getContentLengthLong()));
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        if (request.getAttribute(PERMIT_ATTRIBUTE) instanceof UploadAdmissionService.Permit permit) {
+            permit.release();
+        }
+    }
+}
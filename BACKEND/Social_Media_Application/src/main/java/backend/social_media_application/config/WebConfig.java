@@ -1,11 +1,14 @@
 package backend.social_media_application.config;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 import org.springframework.web.filter.CorsFilter;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
@@ -14,10 +17,17 @@ import java.util.Arrays;
 
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
+    private static final Logger logger = LoggerFactory.getLogger(WebConfig.class);
 
     @Value("${app.file.upload-dir:./uploads}")
     private String uploadDir;
 
+    private final UploadAdmissionInterceptor uploadAdmissionInterceptor;
+
+    public WebConfig(UploadAdmissionInterceptor uploadAdmissionInterceptor) {
+        this.uploadAdmissionInterceptor = uploadAdmissionInterceptor;
+    }
+
     @Bean
     public CorsFilter corsFilter() {
         CorsConfiguration config = new CorsConfiguration();
@@ -50,6 +60,14 @@ public class WebConfig implements WebMvcConfigurer {
         return new CorsFilter(source);
     }
 
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        // Endpoints that take an upload body; resumable chunks arrive as PUT /api/uploads/{id}
+        registry.addInterceptor(uploadAdmissionInterceptor)
+                .addPathPatterns("/api/profiles/avatar", "/api/profiles/avatar/stream",
+                        "/api/profiles/cover", "/api/profiles/cover/stream", "/api/uploads/*");
+    }
+
     @Override
     public void addResourceHandlers(ResourceHandlerRegistry registry) {
         String absolutePath = Paths.get(uploadDir).toAbsolutePath().normalize().toString();
@@ -58,6 +76,6 @@ public class WebConfig implements WebMvcConfigurer {
                 .setCachePeriod(3600)
                 .resourceChain(true);
 
-        System.out.println("Resource handler configured with absolute path: file:" + absolutePath + "/");
+        logger.info("Resource handler configured with absolute path: file:{}/", absolutePath);
     }
 }
\ No newline at end of file
@@ -0,0 +1,65 @@
+package backend.social_media_application.controller;
+
+import backend.social_media_application.dto.AudienceDTO;
+import backend.social_media_application.dto.AudienceRequest;
+import backend.social_media_application.dto.UserCard;
+import backend.social_media_application.service.AudienceService;
+import backend.social_media_application.util.SecurityUtil;
+import jakarta.validation.Valid;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/audiences")
+@PreAuthorize("isAuthenticated()")
+public class AudienceController {
+
+    private final AudienceService audienceService;
+
+    public AudienceController(AudienceService audienceService) {
+        this.audienceService = audienceService;
+    }
+
+    @GetMapping
+    public ResponseEntity<List<AudienceDTO>> getAudiences() {
+        String currentUserId = SecurityUtil.getCurrentUserObjectId();
+        return ResponseEntity.ok(audienceService.getAudiences(currentUserId));
+    }
+
+    @PostMapping
+    public ResponseEntity<AudienceDTO> createAudience(@Valid @RequestBody AudienceRequest request) {
+        String currentUserId = SecurityUtil.getCurrentUserObjectId();
+        return ResponseEntity.ok(audienceService.createAudience(currentUserId, request));
+    }
+
+    @GetMapping("/{audienceId}/members")
+    public ResponseEntity<List<UserCard>> getMembers(@PathVariable String audienceId) {
+        String currentUserId = SecurityUtil.getCurrentUserObjectId();
+        return ResponseEntity.ok(audienceService.getMembers(currentUserId, audienceId));
+    }
+
+    @PostMapping("/{audienceId}/members")
+    public ResponseEntity<AudienceDTO> addMembers(@PathVariable String audienceId,
+                                                  @RequestBody List<String> memberIds) {
+        String currentUserId = SecurityUtil.getCurrentUserObjectId();
+        return ResponseEntity.ok(audienceService.addMembers(currentUserId, audienceId, memberIds));
+    }
+
+    @DeleteMapping("/{audienceId}/members")
+    public ResponseEntity<AudienceDTO> removeMembers(@PathVariable String audienceId,
+                                                     @RequestBody List<String> memberIds) {
+        String currentUserId = SecurityUtil.getCurrentUserObjectId();
+        return ResponseEntity.ok(audienceService.removeMembers(currentUserId, audienceId, memberIds));
+    }
+
+    @DeleteMapping("/{audienceId}")
+    public ResponseEntity<?> deleteAudience(@PathVariable String audienceId) {
+        String currentUserId = SecurityUtil.getCurrentUserObjectId();
+        audienceService.deleteAudience(currentUserId, audienceId);
+        return ResponseEntity.ok(Map.of("message", "Audience deleted successfully"));
+    }
+}
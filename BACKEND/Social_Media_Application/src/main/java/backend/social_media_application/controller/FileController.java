@@ -0,0 +1,277 @@
+package backend.social_media_application.controller;
+
+import backend.social_media_application.exception.BadRequestException;
+import backend.social_media_application.exception.FileStorageException;
+import backend.social_media_application.exception.ResourceNotFoundException;
+import backend.social_media_application.service.FileStorageService;
+import backend.social_media_application.service.ImagePipelineService;
+import backend.social_media_application.service.storage.BlobInfo;
+import backend.social_media_application.util.DirectBufferCache;
+import backend.social_media_application.util.ImageTypeSniffer;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+
+@RestController
+@RequestMapping("/api/files")
+public class FileController {
+
+    // Tomcat request attributes for handing the body to sendfile after the handler returns
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    // Below this, sendfile setup costs more than copying
+    private static final long SENDFILE_MIN_BYTES = 48 * 1024;
+
+    private static final String IMMUTABLE_CACHE = "public, max-age=31536000, immutable";
+    private static final String DEFAULT_CACHE = "public, max-age=3600";
+    // The original standing in for a variant that hasn't been generated yet
+    private static final String STOPGAP_CACHE = "no-cache";
+
+    private final FileStorageService fileStorageService;
+    private final ImagePipelineService imagePipelineService;
+    private final DirectBufferCache memoryCache;
+
+    public FileController(FileStorageService fileStorageService,
+                          ImagePipelineService imagePipelineService,
+                          @Value("${app.files.memory-cache-size:64MB}") DataSize memoryCacheSize,
+                          @Value("${app.files.memory-cache-max-file-size:64KB}") DataSize memoryCacheMaxFileSize) {
+        this.fileStorageService = fileStorageService;
+        this.imagePipelineService = imagePipelineService;
+        this.memoryCache = new DirectBufferCache(memoryCacheSize.toBytes(), (int) memoryCacheMaxFileSize.toBytes());
+    }
+
+    /**
+     * Serve a stored file. With ?size=N the smallest resized variant whose
+     * longest edge is at least N px is served instead, falling back to the
+     * original until the variants have been generated. That stand-in goes out
+     * with a weak ETag and no-cache, so clients switch to the variant once it
+     * exists instead of keeping the original for the ?size= URL.
+     *
+     * Content-addressed files get a strong ETag from their hash and are cached
+     * as immutable; small ones are kept in memory. Larger bodies go out through
+     * sendfile when the blob store keeps files on local disk and the container
+     * supports it, and are streamed from the store otherwise. Single byte
+     * ranges are honoured.
+     */
+    @GetMapping("/{*filePath}")
+    public void getFile(@PathVariable String filePath,
+                        @RequestParam(required = false) Integer size,
+                        HttpServletRequest request,
+                        HttpServletResponse response) throws IOException {
+        String requested = filePath.startsWith("/") ? filePath.substring(1) : filePath;
+        if (size != null && size <= 0) {
+            throw new BadRequestException("Size must be positive");
+        }
+
+        String served;
+        try {
+            served = size != null ? imagePipelineService.resolveVariant(requested, size) : requested;
+        } catch (FileStorageException e) {
+            throw new ResourceNotFoundException("File not found: " + requested);
+        }
+
+        boolean stopgap = size != null && served.equals(requested) && imagePipelineService.hasVariantFor(size);
+        boolean immutable = FileStorageService.isContentAddressed(served) && !stopgap;
+        boolean memoryCacheable = FileStorageService.isContentAddressed(served);
+        ByteBuffer cached = memoryCacheable ? memoryCache.get(served) : null;
+        long length;
+        String etag;
+        if (cached != null) {
+            length = cached.remaining();
+            etag = etag(served, null);
+        } else {
+            Optional<BlobInfo> blob;
+            try {
+                blob = fileStorageService.stat(served);
+            } catch (FileStorageException e) {
+                throw new ResourceNotFoundException("File not found: " + requested);
+            }
+            if (blob.isEmpty()) {
+                throw new ResourceNotFoundException("File not found: " + requested);
+            }
+            length = blob.get().size();
+            etag = etag(served, blob.get());
+            if (memoryCacheable && memoryCache.accepts(length)) {
+                try (InputStream in = fileStorageService.open(served)) {
+                    cached = memoryCache.load(served, in, length);
+                }
+            }
+        }
+
+        if (stopgap) {
+            etag = "W/" + etag;
+        }
+
+        // Only image types are ever served, so a stored file can never render as a page on this origin
+        MediaType contentType = MediaTypeFactory.getMediaType(served)
+                .filter(type -> ImageTypeSniffer.isImageType(type.toString()))
+                .orElse(MediaType.APPLICATION_OCTET_STREAM);
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.CACHE_CONTROL,
+                stopgap ? STOPGAP_CACHE : immutable ? IMMUTABLE_CACHE : DEFAULT_CACHE);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+
+        if (matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        long start = 0;
+        long end = length - 1;
+        String range = request.getHeader(HttpHeaders.RANGE);
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        // If-Range needs a strong match, so a weak ETag always gets the whole body
+        if (range != null && (ifRange == null || (!stopgap && ifRange.equals(etag)))) {
+            long[] bounds = parseRange(range, length);
+            if (bounds == null) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                return;
+            }
+            if (bounds.length == 2) {
+                start = bounds[0];
+                end = bounds[1];
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+            }
+        }
+
+        long count = end - start + 1;
+        response.setContentType(contentType.toString());
+        response.setContentLengthLong(count);
+        if ("HEAD".equals(request.getMethod()) || count <= 0) {
+            return;
+        }
+
+        if (cached != null) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            ByteBuffer body = cached.position((int) start).limit((int) (start + count));
+            while (body.hasRemaining()) {
+                out.write(body);
+            }
+            return;
+        }
+
+        Optional<Path> local = fileStorageService.localPath(served);
+        if (local.isEmpty()) {
+            // Remote store: relay the ranged GET
+            try (InputStream in = fileStorageService.open(served, start, count)) {
+                in.transferTo(response.getOutputStream());
+            }
+            return;
+        }
+        Path path = local.get();
+        if (count >= SENDFILE_MIN_BYTES && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+            // The container streams the file from the page cache once we return
+            request.setAttribute(SENDFILE_FILENAME, path.toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, start + count);
+        } else {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+                long position = start;
+                long remaining = count;
+                while (remaining > 0) {
+                    long sent = channel.transferTo(position, remaining, out);
+                    if (sent <= 0) {
+                        break;
+                    }
+                    position += sent;
+                    remaining -= sent;
+                }
+            }
+        }
+    }
+
+    /**
+     * Strong ETag. Content-addressed names already carry the hash; other files
+     * are only ever replaced whole, so size and mtime identify their contents.
+     */
+    private static String etag(String filePath, BlobInfo blob) {
+        if (FileStorageService.isContentAddressed(filePath)) {
+            String name = filePath.substring(filePath.lastIndexOf('/') + 1);
+            int dot = name.lastIndexOf('.');
+            return "\"" + (dot > 0 ? name.substring(0, dot) : name) + "\"";
+        }
+        return "\"" + Long.toHexString(blob.size()) + "-"
+                + Long.toHexString(blob.lastModified().toEpochMilli()) + "\"";
+    }
+
+    // Weak comparison, as If-None-Match calls for
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        if (etag.startsWith("W/")) {
+            etag = etag.substring(2);
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            candidate = candidate.trim();
+            if (candidate.startsWith("W/")) {
+                candidate = candidate.substring(2);
+            }
+            if (candidate.equals("*") || candidate.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Parse a single "bytes=" range. Returns {start, end} (inclusive), an empty
+     * array to serve the whole file, or null when the range can't be satisfied.
+     */
+    static long[] parseRange(String header, long length) {
+        if (!header.startsWith("bytes=") || header.indexOf(',') >= 0) {
+            // Multiple ranges are rare for images; the full body is a valid answer
+            return new long[0];
+        }
+        String spec = header.substring("bytes=".length()).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0) {
+            return new long[0];
+        }
+        try {
+            String first = spec.substring(0, dash).trim();
+            String last = spec.substring(dash + 1).trim();
+            long start;
+            long end;
+            if (first.isEmpty()) {
+                // Suffix range: the last N bytes
+                long suffix = Long.parseLong(last);
+                if (suffix <= 0) {
+                    return null;
+                }
+                start = Math.max(0, length - suffix);
+                end = length - 1;
+            } else {
+                start = Long.parseLong(first);
+                end = last.isEmpty() ? length - 1 : Math.min(Long.parseLong(last), length - 1);
+            }
+            if (start >= length || start > end) {
+                return null;
+            }
+            return new long[]{start, end};
+        } catch (NumberFormatException e) {
+            return new long[0];
+        }
+    }
+}
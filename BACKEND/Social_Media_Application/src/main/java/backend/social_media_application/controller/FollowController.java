@@ -0,0 +1,54 @@
+package backend.social_media_application.controller;
+
+import backend.social_media_application.dto.UserCard;
+import backend.social_media_application.service.FollowService;
+import backend.social_media_application.util.SecurityUtil;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/users")
+public class FollowController {
+
+    private final FollowService followService;
+
+    public FollowController(FollowService followService) {
+        this.followService = followService;
+    }
+
+    @PostMapping("/{userId}/follow")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<?> follow(@PathVariable String userId) {
+        String currentUserId = SecurityUtil.getCurrentUserId();
+        boolean created = followService.follow(currentUserId, userId);
+        return ResponseEntity.ok(Map.of("following", true, "changed", created));
+    }
+
+    @DeleteMapping("/{userId}/follow")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<?> unfollow(@PathVariable String userId) {
+        String currentUserId = SecurityUtil.getCurrentUserId();
+        boolean removed = followService.unfollow(currentUserId, userId);
+        return ResponseEntity.ok(Map.of("following", false, "changed", removed));
+    }
+
+    @GetMapping("/{userId}/followers")
+    public ResponseEntity<List<UserCard>> getFollowers(@PathVariable String userId,
+                                                       @RequestParam(defaultValue = "0") int page,
+                                                       @RequestParam(defaultValue = "20") int size) {
+        String viewerId = SecurityUtil.getCurrentUserObjectId();
+        return ResponseEntity.ok(followService.getFollowers(viewerId, userId, page, size));
+    }
+
+    @GetMapping("/{userId}/following")
+    public ResponseEntity<List<UserCard>> getFollowing(@PathVariable String userId,
+                                                       @RequestParam(defaultValue = "0") int page,
+                                                       @RequestParam(defaultValue = "20") int size) {
+        String viewerId = SecurityUtil.getCurrentUserObjectId();
+        return ResponseEntity.ok(followService.getFollowing(viewerId, userId, page, size));
+    }
+}
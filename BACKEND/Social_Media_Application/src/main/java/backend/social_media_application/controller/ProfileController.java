@@ -1,20 +1,29 @@
 package backend.social_media_application.controller;
 
 import backend.social_media_application.dto.profile.*;
+import backend.social_media_application.exception.BadRequestException;
 import backend.social_media_application.model.Profile;
 import backend.social_media_application.service.ProfileService;
+import backend.social_media_application.util.ImageTypeSniffer;
+import backend.social_media_application.util.MultipartStreamUtil;
+import backend.social_media_application.util.MultipartStreamUtil.StreamedFile;
 import backend.social_media_application.util.SecurityUtil;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
+import org.apache.commons.fileupload2.core.FileUploadSizeException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.InputStream;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
@@ -26,6 +35,9 @@ public class ProfileController {
 
     private final ProfileService profileService;
 
+    @Value("${spring.servlet.multipart.max-file-size:10MB}")
+    private DataSize maxUploadSize;
+
     @Autowired
     public ProfileController(ProfileService profileService) {
         this.profileService = profileService;
@@ -34,8 +46,8 @@ public class ProfileController {
     @GetMapping("/{username}")
     public ResponseEntity<ProfileDTO> getProfile(@PathVariable String username) {
         try {
-            logger.info("Fetching profile for username: {}", username);
-            String currentUserId = SecurityUtil.getCurrentUserId();
+            logger.debug("Fetching profile for username: {}", username);
+            String currentUserId = SecurityUtil.getCurrentUserObjectId();
             ProfileDTO profileDTO = profileService.getProfile(username, currentUserId);
             return ResponseEntity.ok(profileDTO);
         } catch (Exception e) {
@@ -48,8 +60,9 @@ public class ProfileController {
     @PreAuthorize("isAuthenticated()")
     public ResponseEntity<?> updateProfile(@Valid @RequestBody ProfileUpdateRequest updateRequest) {
         try {
-            logger.info("Updating profile with data: {}", updateRequest);
             String currentUserId = SecurityUtil.getCurrentUserId();
+            // The request body can hold personal details, so it is not logged
+            logger.debug("Updating profile for user: {}", currentUserId);
 
             if (currentUserId == null) {
                 logger.error("No authenticated user found for profile update");
@@ -57,7 +70,6 @@ public class ProfileController {
                         .body(Collections.singletonMap("error", "Authentication required"));
             }
 
-            logger.debug("Current user ID: {}", currentUserId);
             ProfileDTO profileDTO = profileService.updateProfile(currentUserId, updateRequest);
             return ResponseEntity.ok(profileDTO);
         } catch (Exception e) {
@@ -74,12 +86,17 @@ public class ProfileController {
         try {
             String currentUserId = SecurityUtil.getCurrentUserId();
             logger.info("Received avatar upload request for user: {}", currentUserId);
-            logger.info("File details - Name: {}, Size: {}, ContentType: {}",
+            logger.debug("File details - Name: {}, Size: {}, ContentType: {}",
                     file.getOriginalFilename(), file.getSize(), file.getContentType());
+            try (InputStream content = file.getInputStream()) {
+                ImageTypeSniffer.requireImage(content);
+            }
 
             String filePath = profileService.uploadAvatar(currentUserId, file);
             logger.info("Avatar uploaded successfully to: {}", filePath);
             return ResponseEntity.ok(filePath);
+        } catch (BadRequestException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         } catch (Exception e) {
             logger.error("Error uploading avatar: ", e);
             Map<String, String> response = new HashMap<>();
@@ -95,12 +112,63 @@ public class ProfileController {
         try {
             String currentUserId = SecurityUtil.getCurrentUserId();
             logger.info("Received cover photo upload request for user: {}", currentUserId);
-            logger.info("File details - Name: {}, Size: {}, ContentType: {}",
+            logger.debug("File details - Name: {}, Size: {}, ContentType: {}",
                     file.getOriginalFilename(), file.getSize(), file.getContentType());
+            try (InputStream content = file.getInputStream()) {
+                ImageTypeSniffer.requireImage(content);
+            }
 
             String filePath = profileService.uploadCoverPhoto(currentUserId, file);
             logger.info("Cover photo uploaded successfully to: {}", filePath);
             return ResponseEntity.ok(filePath);
+        } catch (BadRequestException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            logger.error("Error uploading cover photo: ", e);
+            Map<String, String> response = new HashMap<>();
+            response.put("error", "Failed to upload cover photo: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+
+    @PostMapping(value = "/avatar/stream", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<?> uploadAvatarStream(HttpServletRequest request) {
+        try {
+            String currentUserId = SecurityUtil.getCurrentUserId();
+            logger.info("Received streamed avatar upload request for user: {}", currentUserId);
+
+            StreamedFile file = MultipartStreamUtil.openFilePart(request, "file", maxUploadSize.toBytes());
+            // Only the first bytes are read, so other content is turned away before the rest is transferred
+            InputStream content = ImageTypeSniffer.requireImage(file.inputStream());
+            String filePath = profileService.uploadAvatar(currentUserId, file.filename(), content);
+            logger.info("Avatar uploaded successfully to: {}", filePath);
+            return ResponseEntity.ok(filePath);
+        } catch (BadRequestException | FileUploadSizeException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            logger.error("Error uploading avatar: ", e);
+            Map<String, String> response = new HashMap<>();
+            response.put("error", "Failed to upload avatar: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+
+    @PostMapping(value = "/cover/stream", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<?> uploadCoverPhotoStream(HttpServletRequest request) {
+        try {
+            String currentUserId = SecurityUtil.getCurrentUserId();
+            logger.info("Received streamed cover photo upload request for user: {}", currentUserId);
+
+            StreamedFile file = MultipartStreamUtil.openFilePart(request, "file", maxUploadSize.toBytes());
+            // Only the first bytes are read, so other content is turned away before the rest is transferred
+            InputStream content = ImageTypeSniffer.requireImage(file.inputStream());
+            String filePath = profileService.uploadCoverPhoto(currentUserId, file.filename(), content);
+            logger.info("Cover photo uploaded successfully to: {}", filePath);
+            return ResponseEntity.ok(filePath);
+        } catch (BadRequestException | FileUploadSizeException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         } catch (Exception e) {
             logger.error("Error uploading cover photo: ", e);
             Map<String, String> response = new HashMap<>();
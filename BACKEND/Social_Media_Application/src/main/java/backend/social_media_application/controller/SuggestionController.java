@@ -0,0 +1,30 @@
+package backend.social_media_application.controller;
+
+import backend.social_media_application.dto.FriendSuggestionDTO;
+import backend.social_media_application.service.SuggestionService;
+import backend.social_media_application.util.SecurityUtil;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/suggestions")
+public class SuggestionController {
+
+    private final SuggestionService suggestionService;
+
+    public SuggestionController(SuggestionService suggestionService) {
+        this.suggestionService = suggestionService;
+    }
+
+    @GetMapping
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<List<FriendSuggestionDTO>> getSuggestions() {
+        String currentUserId = SecurityUtil.getCurrentUserId();
+        return ResponseEntity.ok(suggestionService.getSuggestions(currentUserId));
+    }
+}
@@ -0,0 +1,97 @@
+package backend.social_media_application.controller;
+
+import backend.social_media_application.dto.UploadSessionDTO;
+import backend.social_media_application.dto.UploadSessionRequest;
+import backend.social_media_application.exception.BadRequestException;
+import backend.social_media_application.service.UploadSessionService;
+import backend.social_media_application.util.ImageTypeSniffer;
+import backend.social_media_application.util.SecurityUtil;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+@RestController
+@RequestMapping("/api/uploads")
+@PreAuthorize("isAuthenticated()")
+public class UploadController {
+
+    // Content-Range: bytes <start>-<end>/<total>, end inclusive
+    private static final Pattern CONTENT_RANGE = Pattern.compile("bytes (\\d+)-(\\d+)/(\\d+|\\*)");
+
+    private final UploadSessionService uploadSessionService;
+
+    public UploadController(UploadSessionService uploadSessionService) {
+        this.uploadSessionService = uploadSessionService;
+    }
+
+    @PostMapping
+    public ResponseEntity<UploadSessionDTO> createSession(@Valid @RequestBody UploadSessionRequest request) {
+        String currentUserId = SecurityUtil.getCurrentUserId();
+        return ResponseEntity.ok(uploadSessionService.createSession(currentUserId, request));
+    }
+
+    @GetMapping("/{uploadId}")
+    public ResponseEntity<UploadSessionDTO> getSession(@PathVariable String uploadId) {
+        String currentUserId = SecurityUtil.getCurrentUserId();
+        return ResponseEntity.ok(uploadSessionService.getSession(currentUserId, uploadId));
+    }
+
+    @PutMapping("/{uploadId}")
+    public ResponseEntity<UploadSessionDTO> writeChunk(@PathVariable String uploadId,
+                                                       @RequestHeader("Content-Range") String contentRange,
+                                                       HttpServletRequest request) throws IOException {
+        long[] range = parseContentRange(contentRange);
+        long start = range[0];
+        long end = range[1];
+
+        String currentUserId = SecurityUtil.getCurrentUserId();
+        // The raw body is streamed straight into the part file; the first chunk must start like an image
+        InputStream body = start == 0
+                ? ImageTypeSniffer.requireImage(request.getInputStream())
+                : request.getInputStream();
+        return ResponseEntity.ok(uploadSessionService.writeChunk(
+                currentUserId, uploadId, start, end - start + 1, body));
+    }
+
+    @PostMapping("/{uploadId}/commit")
+    public ResponseEntity<UploadSessionDTO> commit(@PathVariable String uploadId) {
+        String currentUserId = SecurityUtil.getCurrentUserId();
+        return ResponseEntity.ok(uploadSessionService.commit(currentUserId, uploadId));
+    }
+
+    @DeleteMapping("/{uploadId}")
+    public ResponseEntity<?> abort(@PathVariable String uploadId) {
+        String currentUserId = SecurityUtil.getCurrentUserId();
+        uploadSessionService.abort(currentUserId, uploadId);
+        return ResponseEntity.ok(Map.of("message", "Upload cancelled"));
+    }
+
+    /**
+     * Parse "bytes <start>-<end>/<total>" into {start, end}, end inclusive
+     */
+    static long[] parseContentRange(String contentRange) {
+        Matcher matcher = CONTENT_RANGE.matcher(contentRange.trim());
+        if (!matcher.matches()) {
+            throw new BadRequestException("Invalid Content-Range header: " + contentRange);
+        }
+        try {
+            long start = Long.parseLong(matcher.group(1));
+            long end = Long.parseLong(matcher.group(2));
+            if (end < start) {
+                throw new BadRequestException("Invalid Content-Range header: " + contentRange);
+            }
+            return new long[]{start, end};
+        } catch (NumberFormatException e) {
+            // Digits too long for a long
+            throw new BadRequestException("Invalid Content-Range header: " + contentRange);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package backend.social_media_application.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import java.util.ArrayList;
+import java.util.List;
+
+public class AudienceRequest {
+    @NotBlank(message = "Audience name is required")
+    @Size(max = 50, message = "Audience name must be at most 50 characters")
+    private String name;
+
+    private List<String> memberIds = new ArrayList<>();
+
+    // Optional set algebra over the owner's existing audiences
+    private List<String> unionOf = new ArrayList<>();
+    private List<String> intersectionOf = new ArrayList<>();
+
+    // Getters and Setters
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+
+    public List<String> getMemberIds() { return memberIds; }
+    public void setMemberIds(List<String> memberIds) { this.memberIds = memberIds; }
+
+    public List<String> getUnionOf() { return unionOf; }
+    public void setUnionOf(List<String> unionOf) { this.unionOf = unionOf; }
+
+    public List<String> getIntersectionOf() { return intersectionOf; }
+    public void setIntersectionOf(List<String> intersectionOf) { this.intersectionOf = intersectionOf; }
+}
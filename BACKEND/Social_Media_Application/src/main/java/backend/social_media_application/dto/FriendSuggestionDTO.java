@@ -0,0 +1,18 @@
+package backend.social_media_application.dto;
+
+public class FriendSuggestionDTO {
+    private UserCard user;
+    private int mutualCount;
+
+    public FriendSuggestionDTO(UserCard user, int mutualCount) {
+        this.user = user;
+        this.mutualCount = mutualCount;
+    }
+
+    // Getters and Setters
+    public UserCard getUser() { return user; }
+    public void setUser(UserCard user) { this.user = user; }
+
+    public int getMutualCount() { return mutualCount; }
+    public void setMutualCount(int mutualCount) { this.mutualCount = mutualCount; }
+}
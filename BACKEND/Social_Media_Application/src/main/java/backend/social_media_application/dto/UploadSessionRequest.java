@@ -0,0 +1,26 @@
+package backend.social_media_application.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+
+public class UploadSessionRequest {
+    @NotNull(message = "Upload kind is required")
+    private String kind;
+
+    @NotBlank(message = "Filename is required")
+    private String filename;
+
+    @Positive(message = "Size must be positive")
+    private long size;
+
+    // Getters and Setters
+    public String getKind() { return kind; }
+    public void setKind(String kind) { this.kind = kind; }
+
+    public String getFilename() { return filename; }
+    public void setFilename(String filename) { this.filename = filename; }
+
+    public long getSize() { return size; }
+    public void setSize(long size) { this.size = size; }
+}
@@ -0,0 +1,11 @@
+package backend.social_media_application.dto;
+
+/**
+ * Compact, immutable view of a user for lists, mentions and headers
+ */
+public record UserCard(String id,
+                       String username,
+                       String displayName,
+                       String avatar,
+                       boolean verified) {
+}
@@ -11,6 +11,7 @@ public class UserDTO {
     private String firstName;
     private String lastName;
     private String avatar;
+    private String avatarPlaceholder;
     private String bio;
 
     @JsonProperty("isVerified")
@@ -36,6 +37,9 @@ public class UserDTO {
     public String getAvatar() { return avatar; }
     public void setAvatar(String avatar) { this.avatar = avatar; }
 
+    public String getAvatarPlaceholder() { return avatarPlaceholder; }
+    public void setAvatarPlaceholder(String avatarPlaceholder) { this.avatarPlaceholder = avatarPlaceholder; }
+
     public String getBio() { return bio; }
     public void setBio(String bio) { this.bio = bio; }
 
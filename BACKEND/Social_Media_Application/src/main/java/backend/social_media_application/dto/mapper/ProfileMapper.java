@@ -2,9 +2,11 @@ package backend.social_media_application.dto.mapper;
 
 import backend.social_media_application.dto.profile.*;
 import backend.social_media_application.model.*;
+import backend.social_media_application.util.PrivacyPolicy;
 import org.springframework.stereotype.Component;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.function.Predicate;
 
 @Component
 public class ProfileMapper {
@@ -12,7 +14,30 @@ public class ProfileMapper {
     public ProfileDTO toProfileDTO(User user, Profile profile,
                                    List<Education> educations,
                                    List<WorkExperience> workExperiences) {
+        return toProfileDTO(user, profile, educations, workExperiences, PrivacyPolicy.DEFAULT, ViewerRelation.OWNER);
+    }
+
+    public ProfileDTO toProfileDTO(User user, Profile profile,
+                                   List<Education> educations,
+                                   List<WorkExperience> workExperiences,
+                                   PrivacyPolicy policy,
+                                   ViewerRelation relation) {
+        return toProfileDTO(user, profile, educations, workExperiences, policy, relation, audienceId -> false);
+    }
+
+    /**
+     * Build the profile as seen by a viewer, dropping every section and item
+     * the owner's policy hides from that relation. audienceMember tells whether
+     * the viewer belongs to a given SPECIFIC_FRIENDS audience.
+     */
+    public ProfileDTO toProfileDTO(User user, Profile profile,
+                                   List<Education> educations,
+                                   List<WorkExperience> workExperiences,
+                                   PrivacyPolicy policy,
+                                   ViewerRelation relation,
+                                   Predicate<String> audienceMember) {
         ProfileDTO profileDTO = new ProfileDTO();
+        int sections = policy.visibleSections(relation, audienceMember);
 
         // Set user info
         profileDTO.setUserId(user.getId());
@@ -20,50 +45,114 @@ public class ProfileMapper {
         profileDTO.setFirstName(user.getFirstName());
         profileDTO.setLastName(user.getLastName());
         profileDTO.setAvatar(user.getAvatar());
+        profileDTO.setAvatarVariants(user.getAvatarVariants());
+        profileDTO.setAvatarPlaceholder(user.getAvatarPlaceholder());
         profileDTO.setBio(user.getBio());
-        profileDTO.setFollowerCount(user.getFollowers().size());
-        profileDTO.setFollowingCount(user.getFollowing().size());
+        profileDTO.setFollowerCount(user.getFollowerCount());
+        profileDTO.setFollowingCount(user.getFollowingCount());
 
         // Set profile info
         if (profile != null) {
             profileDTO.setId(profile.getId());
             profileDTO.setCoverPhoto(profile.getCoverPhoto());
-            profileDTO.setBirthDate(profile.getBirthDate());
-            profileDTO.setGender(profile.getGender());
-            profileDTO.setRelationshipStatus(profile.getRelationshipStatus());
-            profileDTO.setPhoneNumber(profile.getPhoneNumber());
-            profileDTO.setWebsite(profile.getWebsite());
-            profileDTO.setAlternativeEmail(profile.getAlternativeEmail());
-            profileDTO.setCurrentCity(profile.getCurrentCity());
-            profileDTO.setHometown(profile.getHometown());
-            profileDTO.setPlacesLived(profile.getPlacesLived());
-            profileDTO.setInterests(profile.getInterests());
-            profileDTO.setMusic(profile.getMusic());
-            profileDTO.setMovies(profile.getMovies());
-            profileDTO.setBooks(profile.getBooks());
-            profileDTO.setSports(profile.getSports());
-            profileDTO.setLifeEvents(profile.getLifeEvents());
+            profileDTO.setCoverPhotoVariants(profile.getCoverPhotoVariants());
+            profileDTO.setCoverPhotoPlaceholder(profile.getCoverPhotoPlaceholder());
+
+            if (PrivacyPolicy.isVisible(sections, ProfileSection.BASIC_INFO)) {
+                profileDTO.setBirthDate(profile.getBirthDate());
+                profileDTO.setGender(profile.getGender());
+                profileDTO.setCurrentCity(profile.getCurrentCity());
+                profileDTO.setHometown(profile.getHometown());
+                profileDTO.setPlacesLived(profile.getPlacesLived());
+            } else {
+                profileDTO.setPlacesLived(null);
+            }
+
+            if (PrivacyPolicy.isVisible(sections, ProfileSection.CONTACT_INFO)) {
+                profileDTO.setPhoneNumber(profile.getPhoneNumber());
+                profileDTO.setWebsite(profile.getWebsite());
+                profileDTO.setAlternativeEmail(profile.getAlternativeEmail());
+            }
+
+            if (PrivacyPolicy.isVisible(sections, ProfileSection.RELATIONSHIPS)) {
+                profileDTO.setRelationshipStatus(profile.getRelationshipStatus());
+            }
+
+            if (PrivacyPolicy.isVisible(sections, ProfileSection.INTERESTS)) {
+                profileDTO.setInterests(profile.getInterests());
+                profileDTO.setMusic(profile.getMusic());
+                profileDTO.setMovies(profile.getMovies());
+                profileDTO.setBooks(profile.getBooks());
+                profileDTO.setSports(profile.getSports());
+            } else {
+                profileDTO.setInterests(null);
+                profileDTO.setMusic(null);
+                profileDTO.setMovies(null);
+                profileDTO.setBooks(null);
+                profileDTO.setSports(null);
+            }
+
+            if (PrivacyPolicy.isVisible(sections, ProfileSection.LIFE_EVENTS)) {
+                List<Profile.LifeEvent> lifeEvents = new ArrayList<>(profile.getLifeEvents().size());
+                for (Profile.LifeEvent lifeEvent : profile.getLifeEvents()) {
+                    if (isItemVisible(lifeEvent.getVisibility(), lifeEvent.getAudienceId(), relation, audienceMember)) {
+                        lifeEvents.add(lifeEvent);
+                    }
+                }
+                profileDTO.setLifeEvents(lifeEvents);
+            } else {
+                profileDTO.setLifeEvents(null);
+            }
         }
 
         // Set education info
-        if (educations != null && !educations.isEmpty()) {
-            List<EducationDTO> educationDTOs = educations.stream()
-                    .map(this::toEducationDTO)
-                    .collect(Collectors.toList());
-            profileDTO.setEducation(educationDTOs);
+        if (PrivacyPolicy.isVisible(sections, ProfileSection.EDUCATION)) {
+            if (educations != null && !educations.isEmpty()) {
+                List<EducationDTO> educationDTOs = new ArrayList<>(educations.size());
+                for (Education education : educations) {
+                    if (isItemVisible(education.getVisibility(), relation)) {
+                        educationDTOs.add(toEducationDTO(education));
+                    }
+                }
+                profileDTO.setEducation(educationDTOs);
+            }
+        } else {
+            profileDTO.setEducation(null);
         }
 
         // Set work experience info
-        if (workExperiences != null && !workExperiences.isEmpty()) {
-            List<WorkExperienceDTO> workExperienceDTOs = workExperiences.stream()
-                    .map(this::toWorkExperienceDTO)
-                    .collect(Collectors.toList());
-            profileDTO.setWorkExperience(workExperienceDTOs);
+        if (PrivacyPolicy.isVisible(sections, ProfileSection.WORK_EXPERIENCE)) {
+            if (workExperiences != null && !workExperiences.isEmpty()) {
+                List<WorkExperienceDTO> workExperienceDTOs = new ArrayList<>(workExperiences.size());
+                for (WorkExperience workExperience : workExperiences) {
+                    if (isItemVisible(workExperience.getVisibility(), relation)) {
+                        workExperienceDTOs.add(toWorkExperienceDTO(workExperience));
+                    }
+                }
+                profileDTO.setWorkExperience(workExperienceDTOs);
+            }
+        } else {
+            profileDTO.setWorkExperience(null);
         }
 
         return profileDTO;
     }
 
+    /**
+     * Items without their own visibility follow their section's setting
+     */
+    private boolean isItemVisible(String visibility, ViewerRelation relation) {
+        return visibility == null || relation.canSee(Visibility.of(visibility));
+    }
+
+    private boolean isItemVisible(String visibility, String audienceId, ViewerRelation relation,
+                                  Predicate<String> audienceMember) {
+        if (isItemVisible(visibility, relation)) {
+            return true;
+        }
+        return Visibility.of(visibility) == Visibility.SPECIFIC_FRIENDS && audienceMember.test(audienceId);
+    }
+
     public EducationDTO toEducationDTO(Education education) {
         EducationDTO dto = new EducationDTO();
         dto.setId(education.getId());
@@ -74,6 +163,7 @@ public class ProfileMapper {
         dto.setEndDate(education.getEndDate());
         dto.setCurrent(education.isCurrent());
         dto.setDescription(education.getDescription());
+        dto.setVisibility(education.getVisibility());
         return dto;
     }
 
@@ -87,6 +177,7 @@ public class ProfileMapper {
         dto.setEndDate(workExperience.getEndDate());
         dto.setCurrent(workExperience.isCurrent());
         dto.setDescription(workExperience.getDescription());
+        dto.setVisibility(workExperience.getVisibility());
         return dto;
     }
 
@@ -97,6 +188,7 @@ public class ProfileMapper {
         dto.setProfileVisibility(privacySettings.getProfileVisibility());
         dto.setFriendListVisibility(privacySettings.getFriendListVisibility());
         dto.setSectionVisibility(privacySettings.getSectionVisibility());
+        dto.setSectionAudiences(privacySettings.getSectionAudiences());
         dto.setAllowSearchEngines(privacySettings.isAllowSearchEngines());
         dto.setShowInFriendSuggestions(privacySettings.isShowInFriendSuggestions());
         dto.setAllowFriendRequests(privacySettings.isAllowFriendRequests());
@@ -133,7 +225,7 @@ public class ProfileMapper {
         education.setEndDate(dto.getEndDate());
         education.setCurrent(dto.isCurrent());
         education.setDescription(dto.getDescription());
-        education.setVisibility("FRIENDS"); // Default visibility
+        education.setVisibility(dto.getVisibility() != null ? dto.getVisibility() : "FRIENDS"); // Default visibility
         return education;
     }
 
@@ -148,7 +240,7 @@ public class ProfileMapper {
         workExperience.setEndDate(dto.getEndDate());
         workExperience.setCurrent(dto.isCurrent());
         workExperience.setDescription(dto.getDescription());
-        workExperience.setVisibility("FRIENDS"); // Default visibility
+        workExperience.setVisibility(dto.getVisibility() != null ? dto.getVisibility() : "FRIENDS"); // Default visibility
         return workExperience;
     }
 }
\ No newline at end of file
@@ -11,6 +11,7 @@ public class PrivacySettingsDTO {
     private String profileVisibility;
     private String friendListVisibility;
     private Map<String, String> sectionVisibility = new HashMap<>();
+    private Map<String, String> sectionAudiences = new HashMap<>();
     private boolean allowSearchEngines;
     private boolean showInFriendSuggestions;
     private boolean allowFriendRequests;
@@ -40,6 +41,11 @@ public class PrivacySettingsDTO {
         this.sectionVisibility = sectionVisibility;
     }
 
+    public Map<String, String> getSectionAudiences() { return sectionAudiences; }
+    public void setSectionAudiences(Map<String, String> sectionAudiences) {
+        this.sectionAudiences = sectionAudiences;
+    }
+
     public boolean isAllowSearchEngines() { return allowSearchEngines; }
     public void setAllowSearchEngines(boolean allowSearchEngines) {
         this.allowSearchEngines = allowSearchEngines;
@@ -6,6 +6,7 @@ import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 @JsonInclude(JsonInclude.Include.NON_NULL)
@@ -17,6 +18,10 @@ public class ProfileDTO {
     private String lastName;
     private String avatar;
     private String coverPhoto;
+    private Map<String, String> avatarVariants;
+    private Map<String, String> coverPhotoVariants;
+    private String avatarPlaceholder;
+    private String coverPhotoPlaceholder;
     private String bio;
     private LocalDate birthDate;
     private String gender;
@@ -70,6 +75,18 @@ public class ProfileDTO {
     public String getCoverPhoto() { return coverPhoto; }
     public void setCoverPhoto(String coverPhoto) { this.coverPhoto = coverPhoto; }
 
+    public Map<String, String> getAvatarVariants() { return avatarVariants; }
+    public void setAvatarVariants(Map<String, String> avatarVariants) { this.avatarVariants = avatarVariants; }
+
+    public Map<String, String> getCoverPhotoVariants() { return coverPhotoVariants; }
+    public void setCoverPhotoVariants(Map<String, String> coverPhotoVariants) { this.coverPhotoVariants = coverPhotoVariants; }
+
+    public String getAvatarPlaceholder() { return avatarPlaceholder; }
+    public void setAvatarPlaceholder(String avatarPlaceholder) { this.avatarPlaceholder = avatarPlaceholder; }
+
+    public String getCoverPhotoPlaceholder() { return coverPhotoPlaceholder; }
+    public void setCoverPhotoPlaceholder(String coverPhotoPlaceholder) { this.coverPhotoPlaceholder = coverPhotoPlaceholder; }
+
     public String getBio() { return bio; }
     public void setBio(String bio) { this.bio = bio; }
 
@@ -13,6 +13,7 @@ public class WorkExperienceDTO {
     private LocalDate endDate;
     private boolean current;
     private String description;
+    private String visibility;
 
     // Getters and setters
     public String getId() { return id; }
@@ -38,4 +39,7 @@ public class WorkExperienceDTO {
 
     public String getDescription() { return description; }
     public void setDescription(String description) { this.description = description; }
+
+    public String getVisibility() { return visibility; }
+    public void setVisibility(String visibility) { this.visibility = visibility; }
 }
\ No newline at end of file
@@ -0,0 +1,26 @@
+package backend.social_media_application.exception;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * An upload turned away before its body was read; the client should retry
+ * after the given number of seconds
+ */
+public class UploadRejectedException extends RuntimeException {
+    private final HttpStatus status;
+    private final long retryAfterSeconds;
+
+    public UploadRejectedException(HttpStatus status, String message, long retryAfterSeconds) {
+        super(message);
+        this.status = status;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public HttpStatus getStatus() {
+        return status;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,169 @@
+package backend.social_media_application.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.IThrowableProxy;
+import ch.qos.logback.classic.spi.LoggerContextVO;
+import ch.qos.logback.core.encoder.Encoder;
+import ch.qos.logback.core.encoder.EncoderBase;
+import org.slf4j.Marker;
+import org.slf4j.event.KeyValuePair;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Wraps another encoder and hands it events whose message has been passed
+ * through {@link SecretRedactor}. Behind an AsyncAppender this runs on the
+ * logging thread, so request threads never pay for the regexes.
+ */
+public class RedactingEncoder extends EncoderBase<ILoggingEvent> {
+
+    private Encoder<ILoggingEvent> delegate;
+
+    public void setDelegate(Encoder<ILoggingEvent> delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void start() {
+        if (delegate == null) {
+            addError("No delegate encoder set for " + getClass().getSimpleName());
+            return;
+        }
+        if (!delegate.isStarted()) {
+            delegate.setContext(getContext());
+            delegate.start();
+        }
+        super.start();
+    }
+
+    @Override
+    public void stop() {
+        if (delegate != null) {
+            delegate.stop();
+        }
+        super.stop();
+    }
+
+    @Override
+    public byte[] headerBytes() {
+        return delegate.headerBytes();
+    }
+
+    @Override
+    public byte[] encode(ILoggingEvent event) {
+        String message = event.getFormattedMessage();
+        String redacted = SecretRedactor.redact(message);
+        return delegate.encode(redacted == message ? event : new RedactedEvent(event, redacted));
+    }
+
+    @Override
+    public byte[] footerBytes() {
+        return delegate.footerBytes();
+    }
+
+    /**
+     * The original event with its message replaced. Arguments are dropped so
+     * nothing can re-format the unredacted values.
+     */
+    private record RedactedEvent(ILoggingEvent event, String message) implements ILoggingEvent {
+
+        @Override
+        public String getThreadName() {
+            return event.getThreadName();
+        }
+
+        @Override
+        public Level getLevel() {
+            return event.getLevel();
+        }
+
+        @Override
+        public String getMessage() {
+            return message;
+        }
+
+        @Override
+        public Object[] getArgumentArray() {
+            return null;
+        }
+
+        @Override
+        public String getFormattedMessage() {
+            return message;
+        }
+
+        @Override
+        public String getLoggerName() {
+            return event.getLoggerName();
+        }
+
+        @Override
+        public LoggerContextVO getLoggerContextVO() {
+            return event.getLoggerContextVO();
+        }
+
+        @Override
+        public IThrowableProxy getThrowableProxy() {
+            return event.getThrowableProxy();
+        }
+
+        @Override
+        public StackTraceElement[] getCallerData() {
+            return event.getCallerData();
+        }
+
+        @Override
+        public boolean hasCallerData() {
+            return event.hasCallerData();
+        }
+
+        @Override
+        public List<Marker> getMarkerList() {
+            return event.getMarkerList();
+        }
+
+        @Override
+        public Map<String, String> getMDCPropertyMap() {
+            return event.getMDCPropertyMap();
+        }
+
+        @Override
+        @SuppressWarnings("deprecation")
+        public Map<String, String> getMdc() {
+            return event.getMdc();
+        }
+
+        @Override
+        public long getTimeStamp() {
+            return event.getTimeStamp();
+        }
+
+        @Override
+        public int getNanoseconds() {
+            return event.getNanoseconds();
+        }
+
+        @Override
+        public Instant getInstant() {
+            return event.getInstant();
+        }
+
+        @Override
+        public long getSequenceNumber() {
+            return event.getSequenceNumber();
+        }
+
+        @Override
+        public List<KeyValuePair> getKeyValuePairs() {
+            return event.getKeyValuePairs();
+        }
+
+        @Override
+        public void prepareForDeferredProcessing() {
+            event.prepareForDeferredProcessing();
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package backend.social_media_application.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps one in N INFO-and-below events from chatty loggers, configured as
+ * comma-separated "logger.prefix=N" pairs. The longest matching prefix wins.
+ * Warnings and errors are never sampled. Being a turbo filter, dropped
+ * events are discarded before a LoggingEvent is even created.
+ */
+public class SamplingTurboFilter extends TurboFilter {
+
+    private record Rule(long rate, AtomicLong counter) {
+    }
+
+    private static final Rule UNSAMPLED = new Rule(1, new AtomicLong());
+
+    private final Map<String, Rule> rules = new ConcurrentHashMap<>();
+    private final Map<String, Rule> rulesByLogger = new ConcurrentHashMap<>();
+
+    public void setSamples(String samples) {
+        rules.clear();
+        rulesByLogger.clear();
+        if (samples == null || samples.isBlank()) {
+            return;
+        }
+        for (String sample : samples.split(",")) {
+            String[] parts = sample.trim().split("=");
+            if (parts.length != 2) {
+                addWarn("Ignoring malformed sample rule: " + sample);
+                continue;
+            }
+            try {
+                long rate = Long.parseLong(parts[1].trim());
+                if (rate > 1) {
+                    rules.put(parts[0].trim(), new Rule(rate, new AtomicLong()));
+                }
+            } catch (NumberFormatException e) {
+                addWarn("Ignoring malformed sample rule: " + sample);
+            }
+        }
+    }
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params,
+                              Throwable t) {
+        // A null format is an isXxxEnabled() check, which must not consume a sample
+        if (format == null || level == null || level.isGreaterOrEqual(Level.WARN) || rules.isEmpty()) {
+            return FilterReply.NEUTRAL;
+        }
+        Rule rule = rulesByLogger.computeIfAbsent(logger.getName(), this::findRule);
+        if (rule == UNSAMPLED) {
+            return FilterReply.NEUTRAL;
+        }
+        return rule.counter().getAndIncrement() % rule.rate() == 0 ? FilterReply.NEUTRAL : FilterReply.DENY;
+    }
+
+    private Rule findRule(String loggerName) {
+        String name = loggerName;
+        while (true) {
+            Rule rule = rules.get(name);
+            if (rule != null) {
+                return rule;
+            }
+            int dot = name.lastIndexOf('.');
+            if (dot < 0) {
+                return UNSAMPLED;
+            }
+            name = name.substring(0, dot);
+        }
+    }
+}
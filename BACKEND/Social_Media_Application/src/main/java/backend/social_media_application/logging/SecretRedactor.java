@@ -0,0 +1,46 @@
+package backend.social_media_application.logging;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Masks credentials that end up in log messages: JWTs, bearer tokens and
+ * the values of password/OTP/token/secret fields.
+ */
+public class SecretRedactor {
+
+    static final String MASK = "[REDACTED]";
+
+    // Compact JWS/JWE: base64url header starting with {" then two or more dot-separated parts
+    private static final Pattern JWT = Pattern.compile("eyJ[A-Za-z0-9_-]+\\.[A-Za-z0-9_-]+\\.[A-Za-z0-9_-]*");
+
+    private static final Pattern BEARER = Pattern.compile("(?i)(bearer\\s+)[A-Za-z0-9._~+/=-]+");
+
+    // key=value, key: value and "key":"value" forms
+    private static final Pattern SECRET_FIELD = Pattern.compile(
+            "(?i)(\\b(?:password|passwd|otp|otpcode|otp_code|token|secret|authorization)\\b[\"']?\\s*[:=]\\s*[\"']?)"
+                    + "(?!bearer\\s)([^\\s\"',}&]+)");
+
+    /**
+     * Redact a message, returning the same instance when there was nothing to mask
+     */
+    public static String redact(String message) {
+        if (message == null || message.isEmpty() || !mayContainSecret(message)) {
+            return message;
+        }
+        String redacted = JWT.matcher(message).replaceAll(MASK);
+        redacted = BEARER.matcher(redacted).replaceAll("$1" + Matcher.quoteReplacement(MASK));
+        redacted = SECRET_FIELD.matcher(redacted).replaceAll("$1" + Matcher.quoteReplacement(MASK));
+        return redacted;
+    }
+
+    // Cheap scan so most messages skip the regexes entirely
+    private static boolean mayContainSecret(String message) {
+        if (message.contains("eyJ")) {
+            return true;
+        }
+        String lower = message.toLowerCase();
+        return lower.contains("bearer") || lower.contains("pass") || lower.contains("otp")
+                || lower.contains("token") || lower.contains("secret") || lower.contains("authorization");
+    }
+}
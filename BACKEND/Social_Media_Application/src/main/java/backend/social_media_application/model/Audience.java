@@ -0,0 +1,52 @@
+package backend.social_media_application.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+import java.time.LocalDateTime;
+
+@Document(collection = "audiences")
+@CompoundIndex(name = "owner_name_idx", def = "{ 'ownerId': 1, 'name': 1 }", unique = true)
+public class Audience {
+    @Id
+    private String id;
+
+    private String ownerId;
+    private String name;
+
+    // Serialized RoaringBitmap of member UserSequence numbers
+    private byte[] members;
+    private int memberCount;
+
+    @Version
+    private Long version;
+
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+
+    // Getters and setters
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+
+    public String getOwnerId() { return ownerId; }
+    public void setOwnerId(String ownerId) { this.ownerId = ownerId; }
+
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+
+    public byte[] getMembers() { return members; }
+    public void setMembers(byte[] members) { this.members = members; }
+
+    public int getMemberCount() { return memberCount; }
+    public void setMemberCount(int memberCount) { this.memberCount = memberCount; }
+
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+}
@@ -0,0 +1,45 @@
+package backend.social_media_application.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+import java.time.LocalDateTime;
+
+/**
+ * Reference count of a content-addressed upload, keyed by its stored path
+ * (blobs/ab/cd/<sha256>.<ext>). Counts may drop to zero; the files are
+ * removed later by the orphan collector, not when the last reference goes.
+ */
+@Document(collection = "blob_refs")
+public class BlobRef {
+    @Id
+    private String path;
+
+    private String sha256;
+    private long size;
+
+    @Indexed
+    private long refCount;
+
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+
+    // Getters and setters
+    public String getPath() { return path; }
+    public void setPath(String path) { this.path = path; }
+
+    public String getSha256() { return sha256; }
+    public void setSha256(String sha256) { this.sha256 = sha256; }
+
+    public long getSize() { return size; }
+    public void setSize(long size) { this.size = size; }
+
+    public long getRefCount() { return refCount; }
+    public void setRefCount(long refCount) { this.refCount = refCount; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+}
@@ -0,0 +1,37 @@
+package backend.social_media_application.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+@Document(collection = "blocks")
+@CompoundIndexes({
+        @CompoundIndex(name = "blocker_blocked_idx", def = "{ 'blockerId': 1, 'blockedId': 1 }", unique = true),
+        @CompoundIndex(name = "blocked_blocker_idx", def = "{ 'blockedId': 1, 'blockerId': 1 }")
+})
+public class Block {
+    @Id
+    private String id;
+
+    private String blockerId;
+    private String blockedId;
+    private String reason;
+    private long blockedAt;
+
+    // Getters and setters
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+
+    public String getBlockerId() { return blockerId; }
+    public void setBlockerId(String blockerId) { this.blockerId = blockerId; }
+
+    public String getBlockedId() { return blockedId; }
+    public void setBlockedId(String blockedId) { this.blockedId = blockedId; }
+
+    public String getReason() { return reason; }
+    public void setReason(String reason) { this.reason = reason; }
+
+    public long getBlockedAt() { return blockedAt; }
+    public void setBlockedAt(long blockedAt) { this.blockedAt = blockedAt; }
+}
@@ -1,10 +1,12 @@
 package backend.social_media_application.model;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.mapping.Document;
 import java.time.LocalDate;
 
 @Document(collection = "educations")
+@CompoundIndex(name = "user_visibility_idx", def = "{ 'userId': 1, 'visibility': 1 }")
 public class Education {
     @Id
     private String id;
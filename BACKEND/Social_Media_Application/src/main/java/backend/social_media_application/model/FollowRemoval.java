@@ -0,0 +1,35 @@
+package backend.social_media_application.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+import java.util.Date;
+
+/**
+ * Tombstone for a removed follow edge, so other app nodes can drop it from
+ * their in-memory graph. Only needs to outlive the graph sync window.
+ */
+@Document(collection = "follow_removals")
+public class FollowRemoval {
+    @Id
+    private String id;
+
+    private String followerId;
+    private String followeeId;
+
+    @Indexed(expireAfter = "1d")
+    private Date removedAt;
+
+    // Getters and setters
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+
+    public String getFollowerId() { return followerId; }
+    public void setFollowerId(String followerId) { this.followerId = followerId; }
+
+    public String getFolloweeId() { return followeeId; }
+    public void setFolloweeId(String followeeId) { this.followeeId = followeeId; }
+
+    public Date getRemovedAt() { return removedAt; }
+    public void setRemovedAt(Date removedAt) { this.removedAt = removedAt; }
+}
@@ -0,0 +1,54 @@
+package backend.social_media_application.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Precomputed suggestion list for one user, keyed by that user's id
+ */
+@Document(collection = "friend_suggestions")
+public class FriendSuggestions {
+    @Id
+    private String userId;
+
+    private List<Suggestion> suggestions = new ArrayList<>();
+    private LocalDateTime computedAt;
+
+    // Embedded class for a single ranked candidate
+    public static class Suggestion {
+        private String userId;
+        private int mutualCount;
+        private int score;
+
+        public Suggestion() {}
+
+        public Suggestion(String userId, int mutualCount, int score) {
+            this.userId = userId;
+            this.mutualCount = mutualCount;
+            this.score = score;
+        }
+
+        // Getters and setters
+        public String getUserId() { return userId; }
+        public void setUserId(String userId) { this.userId = userId; }
+
+        public int getMutualCount() { return mutualCount; }
+        public void setMutualCount(int mutualCount) { this.mutualCount = mutualCount; }
+
+        public int getScore() { return score; }
+        public void setScore(int score) { this.score = score; }
+    }
+
+    // Getters and setters
+    public String getUserId() { return userId; }
+    public void setUserId(String userId) { this.userId = userId; }
+
+    public List<Suggestion> getSuggestions() { return suggestions; }
+    public void setSuggestions(List<Suggestion> suggestions) { this.suggestions = suggestions; }
+
+    public LocalDateTime getComputedAt() { return computedAt; }
+    public void setComputedAt(LocalDateTime computedAt) { this.computedAt = computedAt; }
+}
@@ -2,62 +2,111 @@ package backend.social_media_application.model;
 
 import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.mapping.Document;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
-
+import java.util.Objects;
+
+/**
+ * Sparse privacy overrides for a user.
+ *
+ * Only values that differ from the defaults are stored; a null field means
+ * "use the default". Getters return the effective value with the defaults
+ * merged in, and setters drop values equal to the default, so a user who
+ * never changes anything needs no document at all.
+ */
 @Document(collection = "privacy_settings")
 public class PrivacySettings {
-    @Id
-    private String id;
-
-    private String userId;
 
     // Default visibility options: PUBLIC, FRIENDS, SPECIFIC_FRIENDS, ONLY_ME
-    private String defaultPostVisibility = "FRIENDS";
-    private String profileVisibility = "PUBLIC";
-    private String friendListVisibility = "FRIENDS";
-
-    // Section-specific privacy settings
-    private Map<String, String> sectionVisibility = new HashMap<>();
+    public static final String DEFAULT_POST_VISIBILITY = "FRIENDS";
+    public static final String DEFAULT_PROFILE_VISIBILITY = "PUBLIC";
+    public static final String DEFAULT_FRIEND_LIST_VISIBILITY = "FRIENDS";
+
+    // Default section visibility, shared by every user without overrides
+    public static final Map<String, String> DEFAULT_SECTION_VISIBILITY = Map.of(
+            "BASIC_INFO", "PUBLIC",
+            "WORK_EXPERIENCE", "FRIENDS",
+            "EDUCATION", "FRIENDS",
+            "CONTACT_INFO", "ONLY_ME",
+            "RELATIONSHIPS", "FRIENDS",
+            "LIFE_EVENTS", "FRIENDS",
+            "INTERESTS", "PUBLIC");
 
-    // Search visibility
-    private boolean allowSearchEngines = true;
-    private boolean showInFriendSuggestions = true;
-    private boolean allowFriendRequests = true;
-
-    // Data usage preferences
-    private boolean allowDataForRecommendations = true;
-
-    // Blocked users
-    private Map<String, BlockedUserInfo> blockedUsers = new HashMap<>();
-
-    // Nested class for blocked user info
-    public static class BlockedUserInfo {
-        private String userId;
-        private String reason;
-        private long blockedAt;
-
-        // Getters and setters
-        public String getUserId() { return userId; }
-        public void setUserId(String userId) { this.userId = userId; }
+    @Id
+    private String id;
 
-        public String getReason() { return reason; }
-        public void setReason(String reason) { this.reason = reason; }
+    private String userId;
 
-        public long getBlockedAt() { return blockedAt; }
-        public void setBlockedAt(long blockedAt) { this.blockedAt = blockedAt; }
+    private String defaultPostVisibility;
+    private String profileVisibility;
+    private String friendListVisibility;
+
+    // Section-specific overrides
+    private Map<String, String> sectionVisibility;
+
+    // Audience id for each section set to SPECIFIC_FRIENDS
+    private Map<String, String> sectionAudiences;
+
+    // Search visibility, all default to true
+    private Boolean allowSearchEngines;
+    private Boolean showInFriendSuggestions;
+    private Boolean allowFriendRequests;
+
+    // Data usage preferences, defaults to true
+    private Boolean allowDataForRecommendations;
+
+    /**
+     * True if anything differs from the defaults and the document is worth storing
+     */
+    public boolean hasOverrides() {
+        return defaultPostVisibility != null || profileVisibility != null || friendListVisibility != null
+                || (sectionVisibility != null && !sectionVisibility.isEmpty())
+                || (sectionAudiences != null && !sectionAudiences.isEmpty())
+                || allowSearchEngines != null || showInFriendSuggestions != null
+                || allowFriendRequests != null || allowDataForRecommendations != null;
     }
 
-    // Constructor to initialize default section visibility
-    public PrivacySettings() {
-        // Initialize default section visibility
-        sectionVisibility.put("BASIC_INFO", "PUBLIC");
-        sectionVisibility.put("WORK_EXPERIENCE", "FRIENDS");
-        sectionVisibility.put("EDUCATION", "FRIENDS");
-        sectionVisibility.put("CONTACT_INFO", "ONLY_ME");
-        sectionVisibility.put("RELATIONSHIPS", "FRIENDS");
-        sectionVisibility.put("LIFE_EVENTS", "FRIENDS");
-        sectionVisibility.put("INTERESTS", "PUBLIC");
+    /**
+     * Drop stored values that equal the defaults, e.g. from documents written
+     * before settings became sparse. Returns true if anything changed.
+     */
+    public boolean normalize() {
+        String post = defaultPostVisibility;
+        String profile = profileVisibility;
+        String friendList = friendListVisibility;
+        Map<String, String> sections = sectionVisibility;
+        Map<String, String> audiences = sectionAudiences;
+        Boolean search = allowSearchEngines;
+        Boolean suggestions = showInFriendSuggestions;
+        Boolean friendRequests = allowFriendRequests;
+        Boolean recommendations = allowDataForRecommendations;
+
+        setDefaultPostVisibility(post);
+        setProfileVisibility(profile);
+        setFriendListVisibility(friendList);
+        sectionVisibility = null;
+        if (sections != null) {
+            sections.forEach(this::setSectionVisibility);
+        }
+        sectionAudiences = null;
+        if (audiences != null) {
+            audiences.forEach(this::setSectionAudience);
+        }
+        setAllowSearchEngines(search == null || search);
+        setShowInFriendSuggestions(suggestions == null || suggestions);
+        setAllowFriendRequests(friendRequests == null || friendRequests);
+        setAllowDataForRecommendations(recommendations == null || recommendations);
+
+        return !Objects.equals(post, defaultPostVisibility)
+                || !Objects.equals(profile, profileVisibility)
+                || !Objects.equals(friendList, friendListVisibility)
+                || !Objects.equals(sections, sectionVisibility)
+                || !Objects.equals(audiences, sectionAudiences)
+                || !Objects.equals(search, allowSearchEngines)
+                || !Objects.equals(suggestions, showInFriendSuggestions)
+                || !Objects.equals(friendRequests, allowFriendRequests)
+                || !Objects.equals(recommendations, allowDataForRecommendations);
     }
 
     // Getters and setters
@@ -67,48 +116,103 @@ public class PrivacySettings {
     public String getUserId() { return userId; }
     public void setUserId(String userId) { this.userId = userId; }
 
-    public String getDefaultPostVisibility() { return defaultPostVisibility; }
+    public String getDefaultPostVisibility() {
+        return defaultPostVisibility != null ? defaultPostVisibility : DEFAULT_POST_VISIBILITY;
+    }
     public void setDefaultPostVisibility(String defaultPostVisibility) {
-        this.defaultPostVisibility = defaultPostVisibility;
+        this.defaultPostVisibility = override(defaultPostVisibility, DEFAULT_POST_VISIBILITY);
     }
 
-    public String getProfileVisibility() { return profileVisibility; }
+    public String getProfileVisibility() {
+        return profileVisibility != null ? profileVisibility : DEFAULT_PROFILE_VISIBILITY;
+    }
     public void setProfileVisibility(String profileVisibility) {
-        this.profileVisibility = profileVisibility;
+        this.profileVisibility = override(profileVisibility, DEFAULT_PROFILE_VISIBILITY);
     }
 
-    public String getFriendListVisibility() { return friendListVisibility; }
+    public String getFriendListVisibility() {
+        return friendListVisibility != null ? friendListVisibility : DEFAULT_FRIEND_LIST_VISIBILITY;
+    }
     public void setFriendListVisibility(String friendListVisibility) {
-        this.friendListVisibility = friendListVisibility;
+        this.friendListVisibility = override(friendListVisibility, DEFAULT_FRIEND_LIST_VISIBILITY);
+    }
+
+    /**
+     * Effective visibility of every section, read-only
+     */
+    public Map<String, String> getSectionVisibility() {
+        if (sectionVisibility == null || sectionVisibility.isEmpty()) {
+            return DEFAULT_SECTION_VISIBILITY;
+        }
+        Map<String, String> merged = new HashMap<>(DEFAULT_SECTION_VISIBILITY);
+        merged.putAll(sectionVisibility);
+        return Collections.unmodifiableMap(merged);
     }
 
-    public Map<String, String> getSectionVisibility() { return sectionVisibility; }
-    public void setSectionVisibility(Map<String, String> sectionVisibility) {
-        this.sectionVisibility = sectionVisibility;
+    /**
+     * Unknown section keys are dropped rather than stored, so normalize() also
+     * cleans them out of older documents; callers validate user input first
+     */
+    public void setSectionVisibility(String section, String visibility) {
+        if (visibility == null || ProfileSection.of(section) == null
+                || visibility.equals(DEFAULT_SECTION_VISIBILITY.get(section))) {
+            if (sectionVisibility != null) {
+                sectionVisibility.remove(section);
+                if (sectionVisibility.isEmpty()) {
+                    sectionVisibility = null;
+                }
+            }
+            return;
+        }
+        if (sectionVisibility == null) {
+            sectionVisibility = new HashMap<>();
+        }
+        sectionVisibility.put(section, visibility);
     }
 
-    public boolean isAllowSearchEngines() { return allowSearchEngines; }
+    public Map<String, String> getSectionAudiences() {
+        return sectionAudiences != null ? Collections.unmodifiableMap(sectionAudiences) : Map.of();
+    }
+
+    public void setSectionAudience(String section, String audienceId) {
+        if (audienceId == null) {
+            if (sectionAudiences != null) {
+                sectionAudiences.remove(section);
+                if (sectionAudiences.isEmpty()) {
+                    sectionAudiences = null;
+                }
+            }
+            return;
+        }
+        if (sectionAudiences == null) {
+            sectionAudiences = new HashMap<>();
+        }
+        sectionAudiences.put(section, audienceId);
+    }
+
+    public boolean isAllowSearchEngines() { return allowSearchEngines == null || allowSearchEngines; }
     public void setAllowSearchEngines(boolean allowSearchEngines) {
-        this.allowSearchEngines = allowSearchEngines;
+        this.allowSearchEngines = allowSearchEngines ? null : Boolean.FALSE;
     }
 
-    public boolean isShowInFriendSuggestions() { return showInFriendSuggestions; }
+    public boolean isShowInFriendSuggestions() { return showInFriendSuggestions == null || showInFriendSuggestions; }
     public void setShowInFriendSuggestions(boolean showInFriendSuggestions) {
-        this.showInFriendSuggestions = showInFriendSuggestions;
+        this.showInFriendSuggestions = showInFriendSuggestions ? null : Boolean.FALSE;
     }
 
-    public boolean isAllowFriendRequests() { return allowFriendRequests; }
+    public boolean isAllowFriendRequests() { return allowFriendRequests == null || allowFriendRequests; }
     public void setAllowFriendRequests(boolean allowFriendRequests) {
-        this.allowFriendRequests = allowFriendRequests;
+        this.allowFriendRequests = allowFriendRequests ? null : Boolean.FALSE;
     }
 
-    public boolean isAllowDataForRecommendations() { return allowDataForRecommendations; }
+    public boolean isAllowDataForRecommendations() {
+        return allowDataForRecommendations == null || allowDataForRecommendations;
+    }
     public void setAllowDataForRecommendations(boolean allowDataForRecommendations) {
-        this.allowDataForRecommendations = allowDataForRecommendations;
+        this.allowDataForRecommendations = allowDataForRecommendations ? null : Boolean.FALSE;
     }
 
-    public Map<String, BlockedUserInfo> getBlockedUsers() { return blockedUsers; }
-    public void setBlockedUsers(Map<String, BlockedUserInfo> blockedUsers) {
-        this.blockedUsers = blockedUsers;
+    private static String override(String value, String defaultValue) {
+        return value == null || value.equals(defaultValue) ? null : value;
     }
-}
\ No newline at end of file
+}
@@ -7,6 +7,7 @@ import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 @Document(collection = "profiles")
@@ -16,6 +17,12 @@ public class Profile {
 
     private String userId;
     private String coverPhoto;
+
+    // Resized copies of the cover photo keyed by longest edge in px, filled in by ImagePipelineService
+    private Map<String, String> coverPhotoVariants;
+
+    // BlurHash of the cover photo for clients to paint while it loads, filled in by ImagePipelineService
+    private String coverPhotoPlaceholder;
     private LocalDate birthDate;
     private String gender;
     private String relationshipStatus;
@@ -50,6 +57,9 @@ public class Profile {
         private String category;
         private String visibility;
 
+        // Audience that may see the event when visibility is SPECIFIC_FRIENDS
+        private String audienceId;
+
         // Getters and setters
         public String getId() { return id; }
         public void setId(String id) { this.id = id; }
@@ -68,6 +78,9 @@ public class Profile {
 
         public String getVisibility() { return visibility; }
         public void setVisibility(String visibility) { this.visibility = visibility; }
+
+        public String getAudienceId() { return audienceId; }
+        public void setAudienceId(String audienceId) { this.audienceId = audienceId; }
     }
 
     // Getters and setters
@@ -80,6 +93,12 @@ public class Profile {
     public String getCoverPhoto() { return coverPhoto; }
     public void setCoverPhoto(String coverPhoto) { this.coverPhoto = coverPhoto; }
 
+    public Map<String, String> getCoverPhotoVariants() { return coverPhotoVariants; }
+    public void setCoverPhotoVariants(Map<String, String> coverPhotoVariants) { this.coverPhotoVariants = coverPhotoVariants; }
+
+    public String getCoverPhotoPlaceholder() { return coverPhotoPlaceholder; }
+    public void setCoverPhotoPlaceholder(String coverPhotoPlaceholder) { this.coverPhotoPlaceholder = coverPhotoPlaceholder; }
+
     public LocalDate getBirthDate() { return birthDate; }
     public void setBirthDate(LocalDate birthDate) { this.birthDate = birthDate; }
 
@@ -0,0 +1,36 @@
+package backend.social_media_application.model;
+
+/**
+ * Profile sections that can be given their own visibility in PrivacySettings
+ */
+public enum ProfileSection {
+    BASIC_INFO,
+    WORK_EXPERIENCE,
+    EDUCATION,
+    CONTACT_INFO,
+    RELATIONSHIPS,
+    LIFE_EVENTS,
+    INTERESTS;
+
+    private static final ProfileSection[] VALUES = values();
+
+    private final int bit = 1 << ordinal();
+
+    public int bit() { return bit; }
+
+    public static ProfileSection[] all() {
+        return VALUES;
+    }
+
+    /**
+     * Parse a section key, returning null for unknown keys
+     */
+    public static ProfileSection of(String value) {
+        for (ProfileSection section : VALUES) {
+            if (section.name().equals(value)) {
+                return section;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,76 @@
+package backend.social_media_application.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+import java.time.LocalDateTime;
+
+/**
+ * State of a resumable chunked upload. The bytes live in a part file under
+ * the upload directory; this document records how many of them have arrived.
+ */
+@Document(collection = "upload_sessions")
+@CompoundIndex(name = "user_status_idx", def = "{ 'userId': 1, 'status': 1 }")
+public class UploadSession {
+
+    public enum Kind { AVATAR, COVER }
+
+    public enum Status { OPEN, COMMITTING, COMMITTED }
+
+    @Id
+    private String id;
+
+    private String userId;
+    private Kind kind;
+    private String filename;
+    private long totalSize;
+
+    // Length of the contiguous prefix received so far; clients resume from here
+    private long receivedBytes;
+
+    private Status status = Status.OPEN;
+    private String filePath;
+
+    // When a commit claimed the session; a stale claim means the committing node died
+    private LocalDateTime commitStartedAt;
+
+    private LocalDateTime createdAt;
+
+    @Indexed
+    private LocalDateTime expiresAt;
+
+    // Getters and setters
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+
+    public String getUserId() { return userId; }
+    public void setUserId(String userId) { this.userId = userId; }
+
+    public Kind getKind() { return kind; }
+    public void setKind(Kind kind) { this.kind = kind; }
+
+    public String getFilename() { return filename; }
+    public void setFilename(String filename) { this.filename = filename; }
+
+    public long getTotalSize() { return totalSize; }
+    public void setTotalSize(long totalSize) { this.totalSize = totalSize; }
+
+    public long getReceivedBytes() { return receivedBytes; }
+    public void setReceivedBytes(long receivedBytes) { this.receivedBytes = receivedBytes; }
+
+    public Status getStatus() { return status; }
+    public void setStatus(Status status) { this.status = status; }
+
+    public String getFilePath() { return filePath; }
+    public void setFilePath(String filePath) { this.filePath = filePath; }
+
+    public LocalDateTime getCommitStartedAt() { return commitStartedAt; }
+    public void setCommitStartedAt(LocalDateTime commitStartedAt) { this.commitStartedAt = commitStartedAt; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+    public LocalDateTime getExpiresAt() { return expiresAt; }
+    public void setExpiresAt(LocalDateTime expiresAt) { this.expiresAt = expiresAt; }
+}
@@ -3,13 +3,15 @@ package backend.social_media_application.model;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.index.Indexed;
 import java.time.LocalDateTime;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Map;
 
 @Document(collection = "users")
+@CompoundIndex(name = "user_card_idx",
+        def = "{ '_id': 1, 'username': 1, 'firstName': 1, 'lastName': 1, 'avatar': 1, 'isVerified': 1 }")
 public class User {
     @Id
     private String id;
@@ -25,13 +27,20 @@ public class User {
     private String firstName;
     private String lastName;
     private String avatar;
+
+    // Resized copies of the avatar keyed by longest edge in px, filled in by ImagePipelineService
+    private Map<String, String> avatarVariants;
+
+    // BlurHash of the avatar for clients to paint while it loads, filled in by ImagePipelineService
+    private String avatarPlaceholder;
     private String bio;
 
     private String profileId;
     private String privacySettingsId;
 
-    private List<String> followers = new ArrayList<>();
-    private List<String> following = new ArrayList<>();
+    // Maintained by FollowService alongside the follows edge collection
+    private int followerCount;
+    private int followingCount;
 
     private boolean isVerified;
     private boolean isActive = true;
@@ -64,14 +73,20 @@ public class User {
     public String getAvatar() { return avatar; }
     public void setAvatar(String avatar) { this.avatar = avatar; }
 
+    public Map<String, String> getAvatarVariants() { return avatarVariants; }
+    public void setAvatarVariants(Map<String, String> avatarVariants) { this.avatarVariants = avatarVariants; }
+
+    public String getAvatarPlaceholder() { return avatarPlaceholder; }
+    public void setAvatarPlaceholder(String avatarPlaceholder) { this.avatarPlaceholder = avatarPlaceholder; }
+
     public String getBio() { return bio; }
     public void setBio(String bio) { this.bio = bio; }
 
-    public List<String> getFollowers() { return followers; }
-    public void setFollowers(List<String> followers) { this.followers = followers; }
+    public int getFollowerCount() { return followerCount; }
+    public void setFollowerCount(int followerCount) { this.followerCount = followerCount; }
 
-    public List<String> getFollowing() { return following; }
-    public void setFollowing(List<String> following) { this.following = following; }
+    public int getFollowingCount() { return followingCount; }
+    public void setFollowingCount(int followingCount) { this.followingCount = followingCount; }
 
     public boolean isVerified() { return isVerified; }
     public void setVerified(boolean verified) { isVerified = verified; }
@@ -0,0 +1,34 @@
+package backend.social_media_application.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * Stable small integer assigned to a user, used as the member key in
+ * audience bitmaps. Kept out of the users document so full user saves
+ * can never drop it.
+ */
+@Document(collection = "user_sequences")
+public class UserSequence {
+    @Id
+    private String userId;
+
+    @Indexed(unique = true)
+    private int seq;
+
+    public UserSequence() {
+    }
+
+    public UserSequence(String userId, int seq) {
+        this.userId = userId;
+        this.seq = seq;
+    }
+
+    // Getters and setters
+    public String getUserId() { return userId; }
+    public void setUserId(String userId) { this.userId = userId; }
+
+    public int getSeq() { return seq; }
+    public void setSeq(int seq) { this.seq = seq; }
+}
@@ -0,0 +1,50 @@
+package backend.social_media_application.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * How the viewer of some content relates to its owner
+ */
+public enum ViewerRelation {
+    OWNER(Visibility.PUBLIC.bit() | Visibility.FRIENDS.bit()
+            | Visibility.SPECIFIC_FRIENDS.bit() | Visibility.ONLY_ME.bit()),
+    FRIEND(Visibility.PUBLIC.bit() | Visibility.FRIENDS.bit()),
+    STRANGER(Visibility.PUBLIC.bit());
+
+    // Bitmask of Visibility values this relation may see
+    private final int allowedVisibilities;
+
+    // Stored visibility values for repository $in filters. Null is included because
+    // items without their own visibility follow their section's setting.
+    private final List<String> allowedVisibilityValues;
+
+    ViewerRelation(int allowedVisibilities) {
+        this.allowedVisibilities = allowedVisibilities;
+
+        List<String> values = new ArrayList<>();
+        for (Visibility visibility : Visibility.values()) {
+            if ((allowedVisibilities & visibility.bit()) != 0) {
+                values.add(visibility.name());
+            }
+        }
+        values.add(null);
+        this.allowedVisibilityValues = Collections.unmodifiableList(values);
+    }
+
+    public int allowedVisibilities() { return allowedVisibilities; }
+
+    public List<String> allowedVisibilityValues() { return allowedVisibilityValues; }
+
+    public boolean canSee(Visibility visibility) {
+        return visibility != null && (allowedVisibilities & visibility.bit()) != 0;
+    }
+
+    public static ViewerRelation of(boolean isOwner, boolean areConnected) {
+        if (isOwner) {
+            return OWNER;
+        }
+        return areConnected ? FRIEND : STRANGER;
+    }
+}
@@ -0,0 +1,36 @@
+package backend.social_media_application.model;
+
+/**
+ * Audience a piece of profile content is shown to
+ */
+public enum Visibility {
+    PUBLIC,
+    FRIENDS,
+    SPECIFIC_FRIENDS,
+    ONLY_ME;
+
+    private static final Visibility[] VALUES = values();
+
+    private final int bit = 1 << ordinal();
+
+    public int bit() { return bit; }
+
+    public static Visibility fromOrdinal(int ordinal) {
+        return VALUES[ordinal];
+    }
+
+    /**
+     * Parse a stored visibility value, returning null for null or unknown values
+     */
+    public static Visibility of(String value) {
+        if (value == null) {
+            return null;
+        }
+        for (Visibility visibility : VALUES) {
+            if (visibility.name().equals(value)) {
+                return visibility;
+            }
+        }
+        return null;
+    }
+}
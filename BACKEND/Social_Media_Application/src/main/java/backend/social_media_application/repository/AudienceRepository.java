@@ -0,0 +1,21 @@
+package backend.social_media_application.repository;
+
+import backend.social_media_application.model.Audience;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.stereotype.Repository;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface AudienceRepository extends MongoRepository<Audience, String> {
+    // Listing doesn't need the member bitmaps
+    @Query(value = "{ 'ownerId': ?0 }", fields = "{ 'members': 0 }", sort = "{ 'name': 1 }")
+    List<Audience> findSummariesByOwnerId(String ownerId);
+
+    // Only what's needed to check a cached bitmap is still current
+    @Query(value = "{ '_id': ?0 }", fields = "{ 'ownerId': 1, 'version': 1 }")
+    Optional<Audience> findVersionById(String id);
+
+    boolean existsByOwnerIdAndName(String ownerId, String name);
+}
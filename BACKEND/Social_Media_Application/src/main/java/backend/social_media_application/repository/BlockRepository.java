@@ -0,0 +1,24 @@
+package backend.social_media_application.repository;
+
+import backend.social_media_application.model.Block;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.stereotype.Repository;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface BlockRepository extends MongoRepository<Block, String> {
+    boolean existsByBlockerIdAndBlockedId(String blockerId, String blockedId);
+    long deleteByBlockerIdAndBlockedId(String blockerId, String blockedId);
+
+    // Every block edge touching a user, in either direction
+    @Query(value = "{ $or: [ { 'blockerId': ?0 }, { 'blockedId': ?0 } ] }",
+            fields = "{ 'blockerId': 1, 'blockedId': 1 }")
+    List<Block> findEdgesFor(String userId);
+
+    // Block edges between a user and any of the given users, in either direction
+    @Query(value = "{ $or: [ { 'blockerId': ?0, 'blockedId': { $in: ?1 } }, { 'blockedId': ?0, 'blockerId': { $in: ?1 } } ] }",
+            fields = "{ 'blockerId': 1, 'blockedId': 1 }")
+    List<Block> findEdgesBetween(String userId, Collection<String> otherUserIds);
+}
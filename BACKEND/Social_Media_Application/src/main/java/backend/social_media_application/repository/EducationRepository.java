@@ -2,11 +2,18 @@ package backend.social_media_application.repository;
 
 import backend.social_media_application.model.Education;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface EducationRepository extends MongoRepository<Education, String> {
     List<Education> findByUserId(String userId);
+
+    // Served by user_visibility_idx so hidden items never leave the database
+    @Query("{ 'userId': ?0, 'visibility': { $in: ?1 } }")
+    List<Education> findVisibleByUserId(String userId, Collection<String> visibilities);
+
     void deleteByUserIdAndId(String userId, String id);
 }
\ No newline at end of file
@@ -0,0 +1,30 @@
+package backend.social_media_application.repository;
+
+import backend.social_media_application.model.Follow;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.stereotype.Repository;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface FollowRepository extends MongoRepository<Follow, String> {
+    // Both lookups only need the edge ids, so they are answered from the edge indexes
+    @Query(value = "{ 'followeeId': ?0 }", fields = "{ 'followerId': 1, 'followeeId': 1 }", sort = "{ 'followerId': 1 }")
+    List<Follow> findFollowersOf(String userId, Pageable pageable);
+
+    @Query(value = "{ 'followerId': ?0 }", fields = "{ 'followerId': 1, 'followeeId': 1 }", sort = "{ 'followeeId': 1 }")
+    List<Follow> findFollowingOf(String userId, Pageable pageable);
+
+    // Edges from a user to any of the given users, and from any of them to the user
+    @Query(value = "{ 'followerId': ?0, 'followeeId': { $in: ?1 } }", fields = "{ 'followerId': 1, 'followeeId': 1 }")
+    List<Follow> findFollowingAmong(String followerId, Collection<String> followeeIds);
+
+    @Query(value = "{ 'followeeId': ?0, 'followerId': { $in: ?1 } }", fields = "{ 'followerId': 1, 'followeeId': 1 }")
+    List<Follow> findFollowersAmong(String followeeId, Collection<String> followerIds);
+
+    boolean existsByFollowerIdAndFolloweeId(String followerId, String followeeId);
+    long countByFollowerId(String followerId);
+    long countByFolloweeId(String followeeId);
+}
@@ -0,0 +1,9 @@
+package backend.social_media_application.repository;
+
+import backend.social_media_application.model.FriendSuggestions;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface FriendSuggestionsRepository extends MongoRepository<FriendSuggestions, String> {
+}
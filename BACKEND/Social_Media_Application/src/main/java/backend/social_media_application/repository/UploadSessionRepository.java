@@ -0,0 +1,13 @@
+package backend.social_media_application.repository;
+
+import backend.social_media_application.model.UploadSession;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface UploadSessionRepository extends MongoRepository<UploadSession, String> {
+    long countByUserIdAndStatus(String userId, UploadSession.Status status);
+    List<UploadSession> findByExpiresAtBefore(LocalDateTime time);
+}
@@ -3,7 +3,10 @@ package backend.social_media_application.repository;
 
 import backend.social_media_application.model.User;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -12,4 +15,8 @@ public interface UserRepository extends MongoRepository<User, String> {
     Optional<User> findByUsername(String username);
     boolean existsByEmail(String email);
     boolean existsByUsername(String username);
-}
\ No newline at end of file
+
+    // Projection served entirely from the user_card_idx covered index
+    @Query(fields = "{ '_id': 1, 'username': 1, 'firstName': 1, 'lastName': 1, 'avatar': 1, 'isVerified': 1 }")
+    List<User> findCardsByIdIn(Collection<String> ids);
+}
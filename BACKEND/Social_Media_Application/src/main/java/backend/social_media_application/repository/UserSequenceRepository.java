@@ -0,0 +1,13 @@
+package backend.social_media_application.repository;
+
+import backend.social_media_application.model.UserSequence;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface UserSequenceRepository extends MongoRepository<UserSequence, String> {
+    List<UserSequence> findByUserIdIn(Collection<String> userIds);
+    List<UserSequence> findBySeqIn(Collection<Integer> seqs);
+}
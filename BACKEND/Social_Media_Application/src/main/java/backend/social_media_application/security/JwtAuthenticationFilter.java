@@ -1,5 +1,7 @@
 package backend.social_media_application.security;
 
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -19,33 +21,52 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtTokenProvider tokenProvider;
     private final UserDetailsService userDetailsService;
+    private final ObservationRegistry observationRegistry;
 
     public JwtAuthenticationFilter(JwtTokenProvider tokenProvider,
-                                   UserDetailsService userDetailsService) {
+                                   UserDetailsService userDetailsService,
+                                   ObservationRegistry observationRegistry) {
         this.tokenProvider = tokenProvider;
         this.userDetailsService = userDetailsService;
+        this.observationRegistry = observationRegistry;
     }
 
     @Override
     protected void doFilterInternal(HttpServletRequest request,
                                     HttpServletResponse response,
                                     FilterChain filterChain) throws ServletException, IOException {
-        try {
+        // Observes only the token check and user lookup, not the rest of the chain
+        Observation observation = Observation.createNotStarted("security.jwt.authentication", observationRegistry)
+                .contextualName("jwt authentication")
+                .start();
+        String outcome = "anonymous";
+        try (Observation.Scope scope = observation.openScope()) {
             String jwt = getJwtFromRequest(request);
 
-            if (StringUtils.hasText(jwt) && tokenProvider.validateToken(jwt)) {
-                String userId = tokenProvider.getUserIdFromToken(jwt);
+            if (StringUtils.hasText(jwt)) {
+                outcome = "invalid";
+                String userId = Observation.createNotStarted("security.jwt.verify", observationRegistry)
+                        .contextualName("jwt verify")
+                        .observe(() -> tokenProvider.validateToken(jwt) ? tokenProvider.getUserIdFromToken(jwt) : null);
 
-                UserDetails userDetails = userDetailsService.loadUserByUsername(userId);
-                UsernamePasswordAuthenticationToken authentication =
-                        new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
-                authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                if (userId != null) {
+                    UserDetails userDetails = Observation.createNotStarted("security.user.load", observationRegistry)
+                            .contextualName("user load")
+                            .observe(() -> userDetailsService.loadUserByUsername(userId));
+                    UsernamePasswordAuthenticationToken authentication =
+                            new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+                    authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
 
-                SecurityContextHolder.getContext().setAuthentication(authentication);
+                    SecurityContextHolder.getContext().setAuthentication(authentication);
+                    outcome = "authenticated";
+                }
             }
         } catch (Exception ex) {
+            outcome = "error";
+            observation.error(ex);
             logger.error("Could not set user authentication in security context", ex);
         }
+        observation.lowCardinalityKeyValue("outcome", outcome).stop();
 
         filterChain.doFilter(request, response);
     }
@@ -0,0 +1,329 @@
+package backend.social_media_application.service;
+
+import backend.social_media_application.dto.AudienceDTO;
+import backend.social_media_application.dto.AudienceRequest;
+import backend.social_media_application.dto.UserCard;
+import backend.social_media_application.exception.BadRequestException;
+import backend.social_media_application.exception.ResourceNotFoundException;
+import backend.social_media_application.model.Audience;
+import backend.social_media_application.repository.AudienceRepository;
+import backend.social_media_application.util.LruCache;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Named audience lists used by SPECIFIC_FRIENDS visibility.
+ *
+ * Members are stored as a RoaringBitmap over UserSequence numbers, serialized
+ * into a single binary field. Deserialized bitmaps are cached and treated as
+ * read-only: every update builds a new bitmap and replaces the cache entry.
+ * Edits made on other nodes are picked up by checking the stored version of
+ * an entry once it is older than the revalidation interval; the bitmap is
+ * only decoded again when the version changed.
+ */
+@Service
+public class AudienceService {
+
+    private static final int MAX_AUDIENCES_PER_USER = 100;
+    private static final int MAX_UPDATE_ATTEMPTS = 3;
+    private static final int UNRESOLVED = Integer.MIN_VALUE;
+    private static final CachedAudience MISSING = new CachedAudience(null, new RoaringBitmap(), null, Long.MAX_VALUE);
+
+    private final AudienceRepository audienceRepository;
+    private final UserSequenceService userSequenceService;
+    private final UserCardService userCardService;
+    private final LruCache<String, CachedAudience> audiences;
+    private final long revalidateAfterMs;
+
+    public AudienceService(AudienceRepository audienceRepository,
+                           UserSequenceService userSequenceService,
+                           UserCardService userCardService,
+                           @Value("${app.audiences.cache-size:20000}") int cacheSize,
+                           @Value("${app.audiences.revalidate-after-ms:10000}") long revalidateAfterMs) {
+        this.audienceRepository = audienceRepository;
+        this.userSequenceService = userSequenceService;
+        this.userCardService = userCardService;
+        this.audiences = new LruCache<>(cacheSize);
+        this.revalidateAfterMs = revalidateAfterMs;
+    }
+
+    /**
+     * Check if a user is a member of an audience
+     */
+    public boolean isMember(String audienceId, String userId) {
+        return membershipOf(userId).test(audienceId);
+    }
+
+    /**
+     * Membership test for one user across many audiences. The user's number is
+     * looked up on the first check and reused, so evaluating a whole page of
+     * owners costs at most one lookup.
+     */
+    public Predicate<String> membershipOf(String userId) {
+        if (userId == null) {
+            return audienceId -> false;
+        }
+        int[] seq = {UNRESOLVED};
+        return audienceId -> {
+            if (audienceId == null) {
+                return false;
+            }
+            if (seq[0] == UNRESOLVED) {
+                seq[0] = userSequenceService.findSeq(userId);
+            }
+            return seq[0] != UserSequenceService.NONE && bitmap(audienceId).contains(seq[0]);
+        };
+    }
+
+    /**
+     * Check if the audience exists and belongs to the user
+     */
+    public boolean isOwnedBy(String audienceId, String ownerId) {
+        return ownerId != null && ownerId.equals(cached(audienceId).ownerId());
+    }
+
+    /**
+     * Members of any of the given audiences
+     */
+    public RoaringBitmap union(Collection<String> audienceIds) {
+        RoaringBitmap result = new RoaringBitmap();
+        for (String audienceId : audienceIds) {
+            result.or(bitmap(audienceId));
+        }
+        return result;
+    }
+
+    /**
+     * Members of every one of the given audiences
+     */
+    public RoaringBitmap intersect(Collection<String> audienceIds) {
+        RoaringBitmap result = null;
+        for (String audienceId : audienceIds) {
+            RoaringBitmap members = bitmap(audienceId);
+            result = result == null ? members.clone() : RoaringBitmap.and(result, members);
+            if (result.isEmpty()) {
+                break;
+            }
+        }
+        return result != null ? result : new RoaringBitmap();
+    }
+
+    /**
+     * Get the current user's audiences, without members
+     */
+    public List<AudienceDTO> getAudiences(String ownerId) {
+        return audienceRepository.findSummariesByOwnerId(ownerId).stream()
+                .map(this::toDTO)
+                .toList();
+    }
+
+    /**
+     * Create an audience from explicit members plus optional unions and
+     * intersections of the owner's existing audiences
+     */
+    public AudienceDTO createAudience(String ownerId, AudienceRequest request) {
+        if (audienceRepository.findSummariesByOwnerId(ownerId).size() >= MAX_AUDIENCES_PER_USER) {
+            throw new BadRequestException("You can have at most " + MAX_AUDIENCES_PER_USER + " audiences");
+        }
+
+        RoaringBitmap members = toBitmap(request.getMemberIds());
+        if (!request.getUnionOf().isEmpty()) {
+            requireOwned(ownerId, request.getUnionOf());
+            members.or(union(request.getUnionOf()));
+        }
+        if (!request.getIntersectionOf().isEmpty()) {
+            requireOwned(ownerId, request.getIntersectionOf());
+            members.or(intersect(request.getIntersectionOf()));
+        }
+
+        Audience audience = new Audience();
+        audience.setOwnerId(ownerId);
+        audience.setName(request.getName().trim());
+        audience.setCreatedAt(LocalDateTime.now());
+        setMembers(audience, members);
+
+        try {
+            audience = audienceRepository.save(audience);
+        } catch (DuplicateKeyException e) {
+            throw new BadRequestException("You already have an audience named " + audience.getName());
+        }
+        audiences.put(audience.getId(), cachedFrom(audience, members));
+        return toDTO(audience);
+    }
+
+    /**
+     * Add users to an audience
+     */
+    public AudienceDTO addMembers(String ownerId, String audienceId, Collection<String> memberIds) {
+        RoaringBitmap added = toBitmap(memberIds);
+        return updateMembers(ownerId, audienceId, members -> members.or(added));
+    }
+
+    /**
+     * Remove users from an audience
+     */
+    public AudienceDTO removeMembers(String ownerId, String audienceId, Collection<String> memberIds) {
+        RoaringBitmap removed = new RoaringBitmap();
+        for (String memberId : memberIds) {
+            int seq = userSequenceService.findSeq(memberId);
+            if (seq != UserSequenceService.NONE) {
+                removed.add(seq);
+            }
+        }
+        return updateMembers(ownerId, audienceId, members -> members.andNot(removed));
+    }
+
+    /**
+     * List the members of one of the current user's audiences
+     */
+    public List<UserCard> getMembers(String ownerId, String audienceId) {
+        requireOwned(ownerId, List.of(audienceId));
+        List<Integer> seqs = new ArrayList<>();
+        bitmap(audienceId).forEach((int seq) -> seqs.add(seq));
+
+        Map<Integer, String> userIds = userSequenceService.findUserIds(seqs);
+        return new ArrayList<>(userCardService.hydrate(userIds.values()).values());
+    }
+
+    /**
+     * Delete one of the current user's audiences
+     */
+    public void deleteAudience(String ownerId, String audienceId) {
+        requireOwned(ownerId, List.of(audienceId));
+        audienceRepository.deleteById(audienceId);
+        audiences.put(audienceId, MISSING);
+    }
+
+    private AudienceDTO updateMembers(String ownerId, String audienceId, Consumer<RoaringBitmap> change) {
+        // Retry on concurrent edits to the same audience rather than losing one of them
+        for (int attempt = 1; ; attempt++) {
+            Audience audience = audienceRepository.findById(audienceId)
+                    .filter(found -> found.getOwnerId().equals(ownerId))
+                    .orElseThrow(() -> new ResourceNotFoundException("Audience not found with id: " + audienceId));
+
+            RoaringBitmap members = deserialize(audience.getMembers());
+            change.accept(members);
+            setMembers(audience, members);
+            audience.setUpdatedAt(LocalDateTime.now());
+
+            try {
+                audience = audienceRepository.save(audience);
+                audiences.put(audienceId, cachedFrom(audience, members));
+                return toDTO(audience);
+            } catch (OptimisticLockingFailureException e) {
+                if (attempt == MAX_UPDATE_ATTEMPTS) {
+                    throw new BadRequestException("Audience is being modified, please try again");
+                }
+            }
+        }
+    }
+
+    private RoaringBitmap toBitmap(Collection<String> memberIds) {
+        RoaringBitmap members = new RoaringBitmap();
+        if (memberIds == null || memberIds.isEmpty()) {
+            return members;
+        }
+        // Only existing users can be added
+        Collection<String> known = userCardService.hydrate(memberIds).keySet();
+        if (known.size() < memberIds.stream().distinct().count()) {
+            throw new BadRequestException("Audience members must be existing users");
+        }
+        userSequenceService.getOrAssignSeqs(known).values().forEach(members::add);
+        return members;
+    }
+
+    private void requireOwned(String ownerId, Collection<String> audienceIds) {
+        for (String audienceId : audienceIds) {
+            if (!isOwnedBy(audienceId, ownerId)) {
+                throw new ResourceNotFoundException("Audience not found with id: " + audienceId);
+            }
+        }
+    }
+
+    private RoaringBitmap bitmap(String audienceId) {
+        return cached(audienceId).members();
+    }
+
+    private CachedAudience cached(String audienceId) {
+        if (audienceId == null) {
+            return MISSING;
+        }
+        CachedAudience current = audiences.get(audienceId);
+        if (current == null) {
+            // Unknown ids are cached too, so stale references from settings stay cheap
+            return audiences.computeIfAbsent(audienceId, this::load);
+        }
+        if (System.currentTimeMillis() - current.checkedAt() < revalidateAfterMs) {
+            return current;
+        }
+
+        // Another node may have changed or deleted it; a version read is much cheaper than the bitmap
+        Long version = audienceRepository.findVersionById(audienceId).map(Audience::getVersion).orElse(null);
+        CachedAudience fresh = version == null ? MISSING
+                : version.equals(current.version()) ? current.checkedNow()
+                : load(audienceId);
+        return audiences.replace(audienceId, current, fresh) ? fresh : cached(audienceId);
+    }
+
+    private CachedAudience load(String audienceId) {
+        return audienceRepository.findById(audienceId)
+                .map(audience -> cachedFrom(audience, deserialize(audience.getMembers())))
+                .orElse(MISSING);
+    }
+
+    private CachedAudience cachedFrom(Audience audience, RoaringBitmap members) {
+        return new CachedAudience(audience.getOwnerId(), members, audience.getVersion(), System.currentTimeMillis());
+    }
+
+    private void setMembers(Audience audience, RoaringBitmap members) {
+        members.runOptimize();
+        ByteBuffer buffer = ByteBuffer.allocate(members.serializedSizeInBytes());
+        members.serialize(buffer);
+        audience.setMembers(buffer.array());
+        audience.setMemberCount(members.getCardinality());
+    }
+
+    private RoaringBitmap deserialize(byte[] bytes) {
+        RoaringBitmap members = new RoaringBitmap();
+        if (bytes == null || bytes.length == 0) {
+            return members;
+        }
+        try {
+            members.deserialize(ByteBuffer.wrap(bytes));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Corrupt audience bitmap", e);
+        }
+        return members;
+    }
+
+    // Decoded, read-only view of an audience as of the given version
+    private record CachedAudience(String ownerId, RoaringBitmap members, Long version, long checkedAt) {
+        CachedAudience checkedNow() {
+            return new CachedAudience(ownerId, members, version, System.currentTimeMillis());
+        }
+    }
+
+    private AudienceDTO toDTO(Audience audience) {
+        AudienceDTO dto = new AudienceDTO();
+        dto.setId(audience.getId());
+        dto.setName(audience.getName());
+        dto.setMemberCount(audience.getMemberCount());
+        dto.setCreatedAt(audience.getCreatedAt());
+        dto.setUpdatedAt(audience.getUpdatedAt());
+        return dto;
+    }
+}
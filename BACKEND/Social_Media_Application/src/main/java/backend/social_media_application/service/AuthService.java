@@ -12,6 +12,10 @@ import backend.social_media_application.security.JwtTokenProvider;
 import backend.social_media_application.security.UserPrincipal;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.annotation.Counted;
+import io.micrometer.core.annotation.Timed;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
@@ -22,28 +26,34 @@ import org.springframework.stereotype.Service;
 import java.util.Date;
 
 @Service
+@Timed(value = "app.service", histogram = true)
+@Counted(value = "app.service.failures", recordFailuresOnly = true)
 public class AuthService {
+    private static final Logger logger = LoggerFactory.getLogger(AuthService.class);
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final AuthenticationManager authenticationManager;
     private final JwtTokenProvider tokenProvider;
     private final OTPService otpService;
+    private final UserCardService userCardService;
 
     public AuthService(UserRepository userRepository,
                        PasswordEncoder passwordEncoder,
                        AuthenticationManager authenticationManager,
                        JwtTokenProvider tokenProvider,
-                       OTPService otpService) {
+                       OTPService otpService,
+                       UserCardService userCardService) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.authenticationManager = authenticationManager;
         this.tokenProvider = tokenProvider;
         this.otpService = otpService;
+        this.userCardService = userCardService;
     }
 
     public AuthResponse register(SignupRequest signupRequest) {
-        System.out.println("Starting registration for email: " + signupRequest.getEmail());
+        logger.debug("Starting registration for email: {}", signupRequest.getEmail());
 
         if (userRepository.existsByEmail(signupRequest.getEmail())) {
             throw new BadRequestException("Email already in use!");
@@ -62,36 +72,28 @@ public class AuthService {
         user.setActive(true);
         user.setVerified(false); // Email not verified yet
 
-        System.out.println("Saving user to database...");
         User savedUser = userRepository.save(user);
-        System.out.println("User saved with ID: " + savedUser.getId());
+        logger.info("Registered user {}", savedUser.getId());
 
         // Generate and send OTP after saving user
-        System.out.println("Generating and sending OTP...");
         otpService.generateAndSendOTP(signupRequest.getEmail());
-        System.out.println("OTP sent to: " + signupRequest.getEmail());
 
         try {
-            System.out.println("Attempting authentication...");
             Authentication authentication = authenticationManager.authenticate(
                     new UsernamePasswordAuthenticationToken(
                             signupRequest.getEmail(),
                             signupRequest.getPassword()
                     )
             );
-            System.out.println("Authentication successful");
 
-            System.out.println("Generating token...");
+            // Never log the token itself
             String token = tokenProvider.generateToken(authentication);
-            System.out.println("Token generated: " + token);
-
-            System.out.println("Converting user to DTO...");
             UserDTO userDTO = convertToDTO(savedUser);
 
             return new AuthResponse(token, userDTO);
 
         } catch (Exception e) {
-            System.out.println("Authentication failed: " + e.getMessage());
+            logger.warn("Authentication after signup failed for user {}: {}", savedUser.getId(), e.getMessage());
             // Create Authentication object from UserPrincipal
             UserPrincipal userPrincipal = UserPrincipal.create(savedUser);
             Authentication authentication = new UsernamePasswordAuthenticationToken(
@@ -126,10 +128,11 @@ public class AuthService {
 
             user.setVerified(true);
             userRepository.save(user);
-            System.out.println("Email verified successfully for: " + email);
+            userCardService.invalidate(user.getId());
+            logger.info("Email verified for user {}", user.getId());
             return true;
         }
-        System.out.println("Email verification failed for: " + email);
+        logger.info("Email verification failed for: {}", email);
         return false;
     }
 
@@ -142,7 +145,7 @@ public class AuthService {
         }
 
         otpService.generateAndSendOTP(email);
-        System.out.println("OTP resent to: " + email);
+        logger.info("OTP resent to: {}", email);
     }
 
     private UserDTO convertToDTO(User user) {
@@ -153,6 +156,7 @@ public class AuthService {
         userDTO.setFirstName(user.getFirstName());
         userDTO.setLastName(user.getLastName());
         userDTO.setAvatar(user.getAvatar());
+        userDTO.setAvatarPlaceholder(user.getAvatarPlaceholder());
         userDTO.setBio(user.getBio());
         userDTO.setVerified(user.isVerified());
         userDTO.setCreatedAt(user.getCreatedAt());
@@ -0,0 +1,54 @@
+package backend.social_media_application.service;
+
+import backend.social_media_application.model.BlobRef;
+import backend.social_media_application.service.FileStorageService.StoredFile;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * Reference counts for content-addressed uploads. Every user or profile that
+ * points at a blob holds one reference, so identical images uploaded by many
+ * users are stored once.
+ */
+@Service
+public class BlobRefService {
+
+    private final MongoTemplate mongoTemplate;
+
+    public BlobRefService(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    /**
+     * Take a reference on a stored blob, creating its record on first use
+     */
+    public void acquire(StoredFile blob) {
+        LocalDateTime now = LocalDateTime.now();
+        mongoTemplate.upsert(new Query(where("_id").is(blob.path())),
+                new Update().inc("refCount", 1)
+                        .set("updatedAt", now)
+                        .setOnInsert("sha256", blob.sha256())
+                        .setOnInsert("size", blob.size())
+                        .setOnInsert("createdAt", now),
+                BlobRef.class);
+    }
+
+    /**
+     * Drop a reference. Paths from before content addressing have no record
+     * and are ignored.
+     */
+    public void release(String path) {
+        if (path == null) {
+            return;
+        }
+        mongoTemplate.updateFirst(new Query(where("_id").is(path).and("refCount").gt(0)),
+                new Update().inc("refCount", -1).set("updatedAt", LocalDateTime.now()),
+                BlobRef.class);
+    }
+}
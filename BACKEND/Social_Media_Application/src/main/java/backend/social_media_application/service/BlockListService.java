@@ -0,0 +1,373 @@
+package backend.social_media_application.service;
+
+import backend.social_media_application.model.Block;
+import backend.social_media_application.repository.BlockRepository;
+import backend.social_media_application.util.BloomFilter;
+import backend.social_media_application.util.LruCache;
+import com.mongodb.client.result.UpdateResult;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * Block checks backed by the blocks edge collection.
+ *
+ * Every user involved in at least one block gets a Bloom filter of the users
+ * on the other side of their blocks, in either direction. A miss in the filter
+ * (or no filter at all) proves there is no block without touching the database;
+ * only possible hits fall through to a small exact cache and then to Mongo.
+ * Until the filters have been loaded every check goes to Mongo, and a periodic
+ * sync picks up blocks recorded by other nodes.
+ *
+ * Published filters are never modified, so readers need no lock: writers add
+ * to a copy and swap it in, and rebuilds query Mongo before touching the map.
+ */
+@Service
+public class BlockListService {
+    private static final Logger logger = LoggerFactory.getLogger(BlockListService.class);
+
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+    private static final int MIN_FILTER_KEYS = 16;
+    private static final long SYNC_OVERLAP_MS = 60_000;
+
+    private final BlockRepository blockRepository;
+    private final MongoTemplate mongoTemplate;
+    private final Map<String, BloomFilter> filters = new ConcurrentHashMap<>();
+    private final LruCache<String, Boolean> exactCache;
+
+    // Filters only prove "not blocked" once a full load has succeeded
+    private volatile boolean filtersLoaded;
+    private volatile long syncedUpTo;
+
+    @Value("${app.blocks.preload:true}")
+    private boolean preload;
+
+    @Value("${app.blocks.migrate-embedded:false}")
+    private boolean migrateEmbedded;
+
+    public BlockListService(BlockRepository blockRepository,
+                            MongoTemplate mongoTemplate,
+                            @Value("${app.blocks.exact-cache-size:10000}") int exactCacheSize) {
+        this.blockRepository = blockRepository;
+        this.mongoTemplate = mongoTemplate;
+        this.exactCache = new LruCache<>(exactCacheSize);
+    }
+
+    /**
+     * Build the per-user filters from the blocks collection on startup
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadFilters() {
+        if (migrateEmbedded) {
+            migrateEmbeddedBlocks();
+        }
+        if (preload) {
+            reloadFilters();
+        }
+    }
+
+    /**
+     * Pick up blocks recorded by other app nodes, or retry the initial load if
+     * it failed. Blocks removed on another node can stay in effect here until
+     * their exact cache entry is evicted; this errs on the side of hiding.
+     */
+    @Scheduled(initialDelayString = "${app.blocks.sync-interval-ms:5000}",
+            fixedDelayString = "${app.blocks.sync-interval-ms:5000}")
+    public synchronized void syncFilters() {
+        if (!preload) {
+            return;
+        }
+        if (!filtersLoaded) {
+            reloadFilters();
+            return;
+        }
+
+        long syncStart = System.currentTimeMillis();
+        // Server-generated ids are roughly time ordered; the overlap covers clock skew and late commits
+        Query query = new Query(where("_id").gte(new ObjectId(new Date(syncedUpTo - SYNC_OVERLAP_MS))));
+        query.fields().include("blockerId").include("blockedId").exclude("_id");
+        try (var edges = mongoTemplate.stream(query, Document.class, "blocks")) {
+            edges.forEach(edge -> {
+                String blocker = edge.getString("blockerId");
+                String blocked = edge.getString("blockedId");
+                addToFilter(blocker, blocked);
+                addToFilter(blocked, blocker);
+                // Drop any cached "not blocked" answer for the pair
+                exactCache.remove(pairKey(blocker, blocked));
+            });
+            syncedUpTo = syncStart;
+        } catch (RuntimeException e) {
+            logger.warn("Could not sync block filters: {}", e.getMessage());
+        }
+    }
+
+    private synchronized void reloadFilters() {
+        long loadStart = System.currentTimeMillis();
+        Map<String, List<String>> counterparts = new HashMap<>();
+        Query query = new Query();
+        query.fields().include("blockerId").include("blockedId").exclude("_id");
+        try (var edges = mongoTemplate.stream(query, Document.class, "blocks")) {
+            edges.forEach(edge -> {
+                String blocker = edge.getString("blockerId");
+                String blocked = edge.getString("blockedId");
+                counterparts.computeIfAbsent(blocker, k -> new ArrayList<>()).add(blocked);
+                counterparts.computeIfAbsent(blocked, k -> new ArrayList<>()).add(blocker);
+            });
+        } catch (RuntimeException e) {
+            logger.error("Could not load block filters, block checks will query the database until a retry succeeds", e);
+            return;
+        }
+
+        // Merge rather than replace: block() may have updated a filter while the stream was running
+        counterparts.forEach(this::addToFilter);
+        syncedUpTo = loadStart;
+        filtersLoaded = true;
+
+        long bytes = 0;
+        for (BloomFilter filter : filters.values()) {
+            bytes += filter.sizeInBytes();
+        }
+        logger.info("Loaded block filters for {} users ({} bytes)", filters.size(), bytes);
+    }
+
+    /**
+     * Check if either user has blocked the other
+     */
+    public boolean isBlockedEitherWay(String userA, String userB) {
+        if (userA == null || userB == null || userA.equals(userB)) {
+            return false;
+        }
+
+        // Common case: neither user is involved in a block with the other
+        BloomFilter filter = filters.get(userA);
+        if (filtersLoaded && (filter == null || !filter.mightContain(userB))) {
+            return false;
+        }
+
+        String key = pairKey(userA, userB);
+        Boolean cached = exactCache.get(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        boolean blocked = blockRepository.existsByBlockerIdAndBlockedId(userA, userB)
+                || blockRepository.existsByBlockerIdAndBlockedId(userB, userA);
+        exactCache.put(key, blocked);
+        return blocked;
+    }
+
+    /**
+     * Find which of the given users have a block with the user in either direction.
+     * Bit i of the result is set when otherUserIds.get(i) is blocked.
+     */
+    public BitSet findBlockedAmong(String userId, List<String> otherUserIds) {
+        BitSet blocked = new BitSet(otherUserIds.size());
+        if (userId == null) {
+            return blocked;
+        }
+
+        // Only ids that pass the Bloom filter and aren't in the exact cache need a query
+        boolean useFilter = filtersLoaded;
+        BloomFilter filter = filters.get(userId);
+        if (useFilter && filter == null) {
+            return blocked;
+        }
+        Map<String, List<Integer>> unresolved = new HashMap<>();
+        for (int i = 0; i < otherUserIds.size(); i++) {
+            String other = otherUserIds.get(i);
+            if (other == null || other.equals(userId) || (useFilter && !filter.mightContain(other))) {
+                continue;
+            }
+            Boolean cached = exactCache.get(pairKey(userId, other));
+            if (cached != null) {
+                blocked.set(i, cached);
+            } else {
+                unresolved.computeIfAbsent(other, k -> new ArrayList<>()).add(i);
+            }
+        }
+        if (unresolved.isEmpty()) {
+            return blocked;
+        }
+
+        Map<String, Boolean> found = new HashMap<>();
+        for (Block block : blockRepository.findEdgesBetween(userId, unresolved.keySet())) {
+            found.put(userId.equals(block.getBlockerId()) ? block.getBlockedId() : block.getBlockerId(), true);
+        }
+        for (Map.Entry<String, List<Integer>> entry : unresolved.entrySet()) {
+            boolean isBlocked = found.containsKey(entry.getKey());
+            exactCache.put(pairKey(userId, entry.getKey()), isBlocked);
+            if (isBlocked) {
+                entry.getValue().forEach(blocked::set);
+            }
+        }
+        return blocked;
+    }
+
+    /**
+     * Check if blocker has blocked the target
+     */
+    public boolean isBlocked(String blockerId, String targetId) {
+        return isBlockedEitherWay(blockerId, targetId)
+                && blockRepository.existsByBlockerIdAndBlockedId(blockerId, targetId);
+    }
+
+    /**
+     * Record a block. Returns false if it already existed.
+     */
+    public boolean block(String blockerId, String blockedId, String reason) {
+        Update update = new Update()
+                .setOnInsert("blockerId", blockerId)
+                .setOnInsert("blockedId", blockedId)
+                .set("reason", reason)
+                .setOnInsert("blockedAt", System.currentTimeMillis());
+
+        UpdateResult result;
+        try {
+            result = mongoTemplate.upsert(edgeQuery(blockerId, blockedId), update, Block.class);
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+
+        addToFilter(blockerId, blockedId);
+        addToFilter(blockedId, blockerId);
+        exactCache.put(pairKey(blockerId, blockedId), true);
+        return result.getUpsertedId() != null;
+    }
+
+    /**
+     * Remove a block. Returns false if there was nothing to remove.
+     */
+    public boolean unblock(String blockerId, String blockedId) {
+        if (blockRepository.deleteByBlockerIdAndBlockedId(blockerId, blockedId) == 0) {
+            return false;
+        }
+
+        // Bloom filters can't forget keys, so rebuild both sides from the database
+        rebuildFilter(blockerId);
+        rebuildFilter(blockedId);
+        exactCache.remove(pairKey(blockerId, blockedId));
+        return true;
+    }
+
+    private void addToFilter(String userId, String counterpartId) {
+        addToFilter(userId, List.of(counterpartId));
+    }
+
+    private void addToFilter(String userId, List<String> counterpartIds) {
+        while (true) {
+            BloomFilter current = filters.get(userId);
+            // Syncs and reloads see the same edges again; don't count them against capacity twice
+            List<String> missing = current == null ? counterpartIds
+                    : counterpartIds.stream().filter(id -> !current.mightContain(id)).toList();
+            if (missing.isEmpty()) {
+                return;
+            }
+            BloomFilter next = current == null ? newFilter(missing) : current.copy();
+            if (current != null) {
+                missing.forEach(next::put);
+            }
+            if (next.isOverCapacity()) {
+                rebuildFilter(userId);
+                return;
+            }
+            boolean swapped = current == null
+                    ? filters.putIfAbsent(userId, next) == null
+                    : filters.replace(userId, current, next);
+            if (swapped) {
+                return;
+            }
+        }
+    }
+
+    private void rebuildFilter(String userId) {
+        BloomFilter current = filters.get(userId);
+        BloomFilter rebuilt = loadFilter(userId);
+        // If a block was added meanwhile, the current filter already covers every stored edge;
+        // it may also still match removed ones, which only costs an exact check
+        if (current == null) {
+            if (rebuilt != null) {
+                filters.putIfAbsent(userId, rebuilt);
+            }
+        } else if (rebuilt == null) {
+            filters.remove(userId, current);
+        } else {
+            filters.replace(userId, current, rebuilt);
+        }
+    }
+
+    private BloomFilter loadFilter(String userId) {
+        List<String> counterparts = new ArrayList<>();
+        for (Block block : blockRepository.findEdgesFor(userId)) {
+            counterparts.add(userId.equals(block.getBlockerId()) ? block.getBlockedId() : block.getBlockerId());
+        }
+        return counterparts.isEmpty() ? null : newFilter(counterparts);
+    }
+
+    private BloomFilter newFilter(List<String> counterparts) {
+        // Leave headroom so new blocks don't force an immediate rebuild
+        BloomFilter filter = new BloomFilter(Math.max(MIN_FILTER_KEYS, counterparts.size() * 2), FALSE_POSITIVE_RATE);
+        counterparts.forEach(filter::put);
+        return filter;
+    }
+
+    /**
+     * One-off migration of the legacy embedded PrivacySettings.blockedUsers maps
+     * into the blocks collection. Enable with app.blocks.migrate-embedded=true.
+     */
+    private void migrateEmbeddedBlocks() {
+        Query legacy = new Query(where("blockedUsers").exists(true));
+        legacy.fields().include("userId").include("blockedUsers");
+
+        int migrated = 0;
+        try (var documents = mongoTemplate.stream(legacy, Document.class, "privacy_settings")) {
+            for (Document document : (Iterable<Document>) documents::iterator) {
+                String blockerId = document.getString("userId");
+                Document blockedUsers = document.get("blockedUsers", Document.class);
+                if (blockerId != null && blockedUsers != null) {
+                    for (Map.Entry<String, Object> entry : blockedUsers.entrySet()) {
+                        Document info = (Document) entry.getValue();
+                        Update update = new Update()
+                                .setOnInsert("blockerId", blockerId)
+                                .setOnInsert("blockedId", entry.getKey())
+                                .setOnInsert("reason", info.getString("reason"))
+                                .setOnInsert("blockedAt", info.get("blockedAt", 0L));
+                        mongoTemplate.upsert(edgeQuery(blockerId, entry.getKey()), update, Block.class);
+                    }
+                }
+                mongoTemplate.updateFirst(new Query(where("_id").is(document.get("_id"))),
+                        new Update().unset("blockedUsers"), "privacy_settings");
+                migrated++;
+            }
+        }
+
+        logger.info("Migrated embedded block lists for {} users", migrated);
+    }
+
+    private Query edgeQuery(String blockerId, String blockedId) {
+        return new Query(where("blockerId").is(blockerId).and("blockedId").is(blockedId));
+    }
+
+    private String pairKey(String userA, String userB) {
+        return userA.compareTo(userB) < 0 ? userA + '|' + userB : userB + '|' + userA;
+    }
+}
@@ -1,5 +1,7 @@
 package backend.social_media_application.service;
 
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
 import org.springframework.mail.SimpleMailMessage;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.stereotype.Service;
@@ -8,9 +10,11 @@ import org.springframework.stereotype.Service;
 public class EmailService {
 
     private final JavaMailSender mailSender;
+    private final ObservationRegistry observationRegistry;
 
-    public EmailService(JavaMailSender mailSender) {
+    public EmailService(JavaMailSender mailSender, ObservationRegistry observationRegistry) {
         this.mailSender = mailSender;
+        this.observationRegistry = observationRegistry;
     }
 
     public void sendOTPEmail(String to, String otp) {
@@ -21,6 +25,10 @@ public class EmailService {
                 "\n\nThis OTP will expire in 10 minutes." +
                 "\n\nIf you didn't request this, please ignore this email.");
 
-        mailSender.send(message);
+        // The SMTP round trip is usually the slowest part of signup
+        Observation.createNotStarted("mail.send", observationRegistry)
+                .contextualName("smtp send")
+                .lowCardinalityKeyValue("mail.type", "otp")
+                .observe(() -> mailSender.send(message));
     }
 }
\ No newline at end of file
@@ -1,6 +1,12 @@
 package backend.social_media_application.service;
 
+import backend.social_media_application.exception.BadRequestException;
 import backend.social_media_application.exception.FileStorageException;
+import backend.social_media_application.service.storage.BlobInfo;
+import backend.social_media_application.service.storage.BlobStore;
+import backend.social_media_application.util.ImageTypeSniffer;
+import io.micrometer.core.annotation.Counted;
+import io.micrometer.core.annotation.Timed;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
@@ -10,17 +16,52 @@ import org.springframework.web.multipart.MultipartFile;
 
 import jakarta.annotation.PostConstruct;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.function.Consumer;
 
+/**
+ * Upload storage. Incoming bytes are always staged on local disk under the
+ * upload dir (to hash them, and so slow clients never hold a remote write
+ * open), then handed whole to the configured BlobStore, which may be the
+ * same directory or a shared bucket.
+ */
 @Service
+@Timed(value = "app.service", histogram = true)
+@Counted(value = "app.service.failures", recordFailuresOnly = true)
 public class FileStorageService {
     private static final Logger logger = LoggerFactory.getLogger(FileStorageService.class);
 
-    @Value("${app.file.upload-dir:./uploads}")
-    private String uploadDir;
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+    // Part files of resumable uploads; kept under the upload dir so commits are a rename
+    private static final String SESSIONS_DIR = ".sessions";
+
+    // Temp files being written; on the upload dir's filesystem so filesystem stores can rename them
+    private static final String STAGING_DIR = ".staging";
+
+    // Content-addressed uploads, sharded as blobs/ab/cd/<sha256>.<ext>
+    private static final String BLOBS_DIR = "blobs";
+
+    private final BlobStore blobStore;
+    private final String uploadDir;
+
+    public FileStorageService(BlobStore blobStore, @Value("${app.file.upload-dir:./uploads}") String uploadDir) {
+        this.blobStore = blobStore;
+        this.uploadDir = uploadDir;
+    }
 
     /**
      * Initialize upload directory on startup
@@ -35,6 +76,8 @@ public class FileStorageService {
             // Also create subdirectories for avatars and covers
             Files.createDirectories(Paths.get(uploadDir, "avatars").toAbsolutePath().normalize());
             Files.createDirectories(Paths.get(uploadDir, "covers").toAbsolutePath().normalize());
+            Files.createDirectories(Paths.get(uploadDir, SESSIONS_DIR).toAbsolutePath().normalize());
+            Files.createDirectories(Paths.get(uploadDir, STAGING_DIR).toAbsolutePath().normalize());
 
             logger.info("File storage initialized successfully");
         } catch (IOException ex) {
@@ -47,56 +90,360 @@ public class FileStorageService {
      * Store a file in the specified subdirectory
      */
     public String storeFile(MultipartFile file, String subDirectory, String filename) {
+        if (file.isEmpty()) {
+            logger.error("Failed to store empty file: {}", filename);
+            throw new FileStorageException("Failed to store empty file: " + filename);
+        }
+        try (InputStream in = file.getInputStream()) {
+            return storeStream(in, subDirectory, filename).path();
+        } catch (IOException ex) {
+            logger.error("Could not store file {}: {}", filename, ex.getMessage(), ex);
+            throw new FileStorageException("Could not store file " + filename, ex);
+        }
+    }
+
+    /**
+     * Store a stream in the specified subdirectory with a single pass over the data.
+     *
+     * The bytes go through a fixed-size buffer into a staged temp file while
+     * the SHA-256 and size are computed, then the whole file is handed to the
+     * blob store, so readers never see a partial file.
+     */
+    public StoredFile storeStream(InputStream in, String subDirectory, String filename) {
+        filename = StringUtils.cleanPath(filename);
+        if (filename.contains("..") || filename.contains("/")) {
+            logger.error("Filename contains invalid path sequence: {}", filename);
+            throw new FileStorageException("Filename contains invalid path sequence: " + filename);
+        }
+
+        String key = checkPath(subDirectory + "/" + filename);
+        Path tempPath = null;
         try {
-            // Create the directory if it doesn't exist
-            Path targetLocation = Paths.get(uploadDir, subDirectory).toAbsolutePath().normalize();
+            tempPath = createStagingFile();
+
+            StoredFile copied = copyAndHash(in, tempPath);
+            if (copied.size() == 0) {
+                logger.error("Failed to store empty file: {}", filename);
+                throw new FileStorageException("Failed to store empty file: " + filename);
+            }
+
+            blobStore.put(key, tempPath);
+            logger.info("Stored {} ({} bytes, sha256 {})", key, copied.size(), copied.sha256());
+            return new StoredFile(key, copied.size(), copied.sha256());
+        } catch (IOException ex) {
+            logger.error("Could not store file {}: {}", filename, ex.getMessage(), ex);
+            throw new FileStorageException("Could not store file " + filename, ex);
+        } finally {
+            deleteQuietly(tempPath);
+        }
+    }
 
-            logger.info("Storing file '{}' in directory: {}", filename, targetLocation);
+    /**
+     * Store an uploaded file under its content hash
+     */
+    public StoredFile storeBlob(MultipartFile file) {
+        if (file.isEmpty()) {
+            logger.error("Failed to store empty file: {}", file.getOriginalFilename());
+            throw new FileStorageException("Failed to store empty file: " + file.getOriginalFilename());
+        }
+        try (InputStream in = file.getInputStream()) {
+            return storeBlob(in, file.getOriginalFilename());
+        } catch (IOException ex) {
+            logger.error("Could not store file {}: {}", file.getOriginalFilename(), ex.getMessage(), ex);
+            throw new FileStorageException("Could not store file " + file.getOriginalFilename(), ex);
+        }
+    }
 
-            System.out.println("Upload directory from properties: " + uploadDir);
-            System.out.println("Target location absolute path: " + targetLocation.toString());
+    /**
+     * Store a stream under its content hash. The SHA-256 is computed while the
+     * bytes go to a temp file; if a blob with that hash is already stored, the
+     * temp file is dropped and the existing blob is reused. The extension comes
+     * from the sniffed image type; the original filename is only used in logs.
+     */
+    public StoredFile storeBlob(InputStream in, String originalFilename) {
+        Path tempPath = null;
+        try {
+            tempPath = createStagingFile();
 
-            if (!Files.exists(targetLocation)) {
-                logger.info("Creating directory: {}", targetLocation);
-                Files.createDirectories(targetLocation);
+            StoredFile copied = copyAndHash(in, tempPath);
+            if (copied.size() == 0) {
+                logger.error("Failed to store empty file: {}", originalFilename);
+                throw new FileStorageException("Failed to store empty file: " + originalFilename);
             }
+            return placeBlob(tempPath, copied.sha256(), copied.size(), imageExtension(tempPath, originalFilename));
+        } catch (IOException ex) {
+            logger.error("Could not store file {}: {}", originalFilename, ex.getMessage(), ex);
+            throw new FileStorageException("Could not store file " + originalFilename, ex);
+        } finally {
+            deleteQuietly(tempPath);
+        }
+    }
 
-            // Clean the filename
-            filename = StringUtils.cleanPath(filename);
-            logger.debug("Cleaned filename: {}", filename);
+    /**
+     * Write a chunk of a resumable upload at the given offset of its part file.
+     * Returns the number of bytes written, which never exceeds maxLength.
+     */
+    public long writeChunk(String sessionId, long position, InputStream in, long maxLength) {
+        Path partPath = partPath(sessionId);
+        ByteBuffer buffer = ByteBuffer.allocate(COPY_BUFFER_SIZE);
+        long written = 0;
+        try (FileChannel channel = FileChannel.open(partPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            int read;
+            while ((read = in.read(buffer.array())) != -1) {
+                if (written + read > maxLength) {
+                    throw new FileStorageException("Chunk extends past the end of the upload");
+                }
+                buffer.clear().limit(read);
+                while (buffer.hasRemaining()) {
+                    // Positional writes let retried or out-of-order chunks land in the right place
+                    written += channel.write(buffer, position + written);
+                }
+                buffer.clear();
+            }
+            return written;
+        } catch (IOException ex) {
+            logger.error("Could not write chunk for upload {}: {}", sessionId, ex.getMessage(), ex);
+            throw new FileStorageException("Could not write chunk for upload " + sessionId, ex);
+        }
+    }
 
-            // Check if the file's name contains invalid characters
-            if (filename.contains("..")) {
-                logger.error("Filename contains invalid path sequence: {}", filename);
-                throw new FileStorageException("Filename contains invalid path sequence: " + filename);
+    /**
+     * Move a completed part file into blob storage, hashing it on the way
+     */
+    public StoredFile storeCompletedUpload(String sessionId, String originalFilename) {
+        Path partPath = partPath(sessionId);
+        try {
+            MessageDigest digest = sha256();
+            ByteBuffer buffer = ByteBuffer.allocate(COPY_BUFFER_SIZE);
+            long size = 0;
+            try (FileChannel channel = FileChannel.open(partPath, StandardOpenOption.READ)) {
+                int read;
+                while ((read = channel.read(buffer)) != -1) {
+                    digest.update(buffer.array(), 0, read);
+                    buffer.clear();
+                    size += read;
+                }
             }
 
-            // Check if file is empty
-            if (file.isEmpty()) {
-                logger.error("Failed to store empty file: {}", filename);
-                throw new FileStorageException("Failed to store empty file: " + filename);
+            String extension = imageExtension(partPath, originalFilename);
+            return placeBlob(partPath, HexFormat.of().formatHex(digest.digest()), size, extension);
+        } catch (IOException ex) {
+            logger.error("Could not store upload {}: {}", sessionId, ex.getMessage(), ex);
+            throw new FileStorageException("Could not store upload " + sessionId, ex);
+        }
+    }
+
+    /**
+     * Image type the part file of an upload starts with, or null if it isn't one we accept
+     */
+    public String sniffUpload(String sessionId) {
+        try {
+            return ImageTypeSniffer.sniff(partPath(sessionId));
+        } catch (IOException ex) {
+            logger.error("Could not read upload {}: {}", sessionId, ex.getMessage(), ex);
+            throw new FileStorageException("Could not read upload " + sessionId, ex);
+        }
+    }
+
+    /**
+     * Remove the part file of an abandoned upload
+     */
+    public void deleteChunks(String sessionId) {
+        deleteQuietly(partPath(sessionId));
+    }
+
+    public record StoredFile(String path, long size, String sha256) {
+    }
+
+    /**
+     * Relative path of the blob with the given hash. Two levels of two hex
+     * characters keep every directory down to a few hundred entries.
+     */
+    public static String blobPath(String sha256, String extension) {
+        return BLOBS_DIR + "/" + sha256.substring(0, 2) + "/" + sha256.substring(2, 4) + "/" + sha256
+                + (extension.isEmpty() ? "" : "." + extension);
+    }
+
+    /**
+     * True for paths under blob storage, whose contents never change
+     */
+    public static boolean isContentAddressed(String filePath) {
+        return filePath.startsWith(BLOBS_DIR + "/");
+    }
+
+    private StoredFile placeBlob(Path source, String sha256, long size, String extension) throws IOException {
+        String relativePath = blobPath(sha256, extension);
+
+        if (blobStore.stat(relativePath).isPresent() && touchIfPresent(relativePath)) {
+            // Same content is already stored, so the upload only costs a metadata write.
+            // The staged copy is only dropped once the touch has renewed the blob's grace period.
+            Files.delete(source);
+            logger.info("Reusing stored blob {}", relativePath);
+        } else {
+            blobStore.put(relativePath, source);
+            logger.info("Stored blob {} ({} bytes)", relativePath, size);
+        }
+        return new StoredFile(relativePath, size, sha256);
+    }
+
+    // The orphan collector may delete the blob between stat and touch; then it is stored again
+    private boolean touchIfPresent(String relativePath) throws IOException {
+        try {
+            blobStore.touch(relativePath);
+            return true;
+        } catch (NoSuchFileException ex) {
+            return false;
+        }
+    }
+
+    private StoredFile copyAndHash(InputStream in, Path target) throws IOException {
+        MessageDigest digest = sha256();
+        ByteBuffer buffer = ByteBuffer.allocate(COPY_BUFFER_SIZE);
+        long size = 0;
+        try (FileChannel channel = FileChannel.open(target, StandardOpenOption.WRITE)) {
+            int read;
+            while ((read = in.read(buffer.array())) != -1) {
+                digest.update(buffer.array(), 0, read);
+                buffer.clear().limit(read);
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                buffer.clear();
+                size += read;
             }
+        }
+        return new StoredFile(target.toString(), size, HexFormat.of().formatHex(digest.digest()));
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 not available", ex);
+        }
+    }
 
-            // Copy file to the target location
-            Path targetPath = targetLocation.resolve(filename);
-            logger.debug("Target path: {}", targetPath);
+    // Blobs are served publicly with a type guessed from the extension, so it must come from the bytes
+    private static String imageExtension(Path file, String originalFilename) throws IOException {
+        String type = ImageTypeSniffer.sniff(file);
+        if (type == null) {
+            logger.warn("Rejected upload {}: not a JPEG, PNG, GIF or WebP image", originalFilename);
+            throw new BadRequestException("Unsupported image type; expected JPEG, PNG, GIF or WebP");
+        }
+        return ImageTypeSniffer.extensionFor(type);
+    }
 
-            Files.copy(file.getInputStream(), targetPath, StandardCopyOption.REPLACE_EXISTING);
-            logger.info("File stored successfully: {}", targetPath);
+    private Path partPath(String sessionId) {
+        if (!sessionId.matches("[A-Za-z0-9]+")) {
+            throw new FileStorageException("Invalid upload id: " + sessionId);
+        }
+        return Paths.get(uploadDir, SESSIONS_DIR, sessionId + ".part").toAbsolutePath().normalize();
+    }
 
-            System.out.println("File stored at: " + targetPath.toAbsolutePath().toString());
-            System.out.println("File exists after storage: " + Files.exists(targetPath));
-            System.out.println("File size: " + Files.size(targetPath));
+    private Path createStagingFile() throws IOException {
+        Path staging = Paths.get(uploadDir, STAGING_DIR).toAbsolutePath().normalize();
+        Files.createDirectories(staging);
+        return Files.createTempFile(staging, "upload-", ".tmp");
+    }
 
-            // Return the relative path
-            String relativePath = subDirectory + "/" + filename;
-            logger.debug("Returning relative path: {}", relativePath);
-            return relativePath;
+    private void deleteQuietly(Path path) {
+        if (path == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException ex) {
+            logger.warn("Could not delete temp file {}: {}", path, ex.getMessage());
+        }
+    }
 
+    /**
+     * Size and age of a stored file, or empty if it doesn't exist
+     */
+    public Optional<BlobInfo> stat(String filePath) {
+        String key = checkPath(filePath);
+        try {
+            return blobStore.stat(key);
         } catch (IOException ex) {
-            logger.error("Could not store file {}: {}", filename, ex.getMessage(), ex);
-            throw new FileStorageException("Could not store file " + filename, ex);
+            throw new FileStorageException("Could not read file: " + filePath, ex);
+        }
+    }
+
+    public boolean exists(String filePath) {
+        return stat(filePath).isPresent();
+    }
+
+    /**
+     * Stream part of a stored file
+     */
+    public InputStream open(String filePath, long offset, long length) {
+        String key = checkPath(filePath);
+        try {
+            return blobStore.open(key, offset, length);
+        } catch (IOException ex) {
+            throw new FileStorageException("Could not read file: " + filePath, ex);
+        }
+    }
+
+    /**
+     * Stream a whole stored file
+     */
+    public InputStream open(String filePath) {
+        return open(filePath, 0, Long.MAX_VALUE);
+    }
+
+    /**
+     * The stored file on local disk, when the blob store keeps one
+     */
+    public Optional<Path> localPath(String filePath) {
+        return blobStore.localPath(checkPath(filePath));
+    }
+
+    /**
+     * Visit every stored file
+     */
+    public void listFiles(Consumer<BlobInfo> visitor) {
+        try {
+            blobStore.list(visitor);
+        } catch (IOException ex) {
+            throw new FileStorageException("Could not list stored files", ex);
+        }
+    }
+
+    /**
+     * Delete staged temp files left behind by interrupted uploads
+     */
+    public int cleanStaging(Instant olderThan) {
+        Path staging = Paths.get(uploadDir, STAGING_DIR).toAbsolutePath().normalize();
+        int deleted = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(staging)) {
+            for (Path file : files) {
+                if (Files.getLastModifiedTime(file).toInstant().isBefore(olderThan) && Files.deleteIfExists(file)) {
+                    deleted++;
+                }
+            }
+        } catch (IOException ex) {
+            logger.warn("Could not clean staging directory {}: {}", staging, ex.getMessage());
+        }
+        return deleted;
+    }
+
+    /**
+     * Validate a stored file path such as "avatars/x.jpg". Paths that escape the
+     * upload root or point at hidden entries such as in-progress uploads are
+     * rejected.
+     */
+    private String checkPath(String filePath) {
+        Path path = Paths.get(filePath).normalize();
+        if (filePath.isEmpty() || path.isAbsolute() || path.startsWith("..")) {
+            throw new FileStorageException("Invalid file path: " + filePath);
+        }
+        for (Path part : path) {
+            if (part.toString().startsWith(".")) {
+                throw new FileStorageException("Invalid file path: " + filePath);
+            }
         }
+        return path.toString().replace('\\', '/');
     }
 
     /**
@@ -104,18 +451,18 @@ public class FileStorageService {
      */
     public void deleteFile(String filePath) {
         try {
-            Path targetPath = Paths.get(uploadDir, filePath).toAbsolutePath().normalize();
-            logger.info("Deleting file: {}", targetPath);
+            String key = checkPath(filePath);
+            logger.info("Deleting file: {}", key);
 
-            boolean deleted = Files.deleteIfExists(targetPath);
+            boolean deleted = blobStore.delete(key);
             if (deleted) {
-                logger.info("File deleted successfully: {}", targetPath);
+                logger.info("File deleted successfully: {}", key);
             } else {
-                logger.warn("File not found for deletion: {}", targetPath);
+                logger.warn("File not found for deletion: {}", key);
             }
         } catch (IOException ex) {
             logger.error("Could not delete file: {}: {}", filePath, ex.getMessage(), ex);
             throw new FileStorageException("Could not delete file: " + filePath, ex);
         }
     }
-}
\ No newline at end of file
+}
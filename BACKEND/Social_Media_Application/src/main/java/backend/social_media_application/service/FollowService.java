@@ -0,0 +1,229 @@
+package backend.social_media_application.service;
+
+import backend.social_media_application.dto.UserCard;
+import backend.social_media_application.exception.BadRequestException;
+import backend.social_media_application.exception.ResourceNotFoundException;
+import backend.social_media_application.model.Follow;
+import backend.social_media_application.model.FollowRemoval;
+import backend.social_media_application.model.ProfileSection;
+import backend.social_media_application.model.User;
+import backend.social_media_application.repository.FollowRepository;
+import backend.social_media_application.repository.UserRepository;
+import com.mongodb.client.result.DeleteResult;
+import com.mongodb.client.result.UpdateResult;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+@Service
+public class FollowService {
+    private static final Logger logger = LoggerFactory.getLogger(FollowService.class);
+
+    private static final int MAX_PAGE_SIZE = 100;
+
+    private final FollowRepository followRepository;
+    private final UserRepository userRepository;
+    private final UserCardService userCardService;
+    private final SocialGraphService socialGraphService;
+    private final BlockListService blockListService;
+    private final PrivacyEvaluator privacyEvaluator;
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${app.follows.migrate-embedded:false}")
+    private boolean migrateEmbedded;
+
+    public FollowService(FollowRepository followRepository,
+                         UserRepository userRepository,
+                         UserCardService userCardService,
+                         SocialGraphService socialGraphService,
+                         BlockListService blockListService,
+                         PrivacyEvaluator privacyEvaluator,
+                         MongoTemplate mongoTemplate) {
+        this.followRepository = followRepository;
+        this.userRepository = userRepository;
+        this.userCardService = userCardService;
+        this.socialGraphService = socialGraphService;
+        this.blockListService = blockListService;
+        this.privacyEvaluator = privacyEvaluator;
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    /**
+     * Follow a user. Returns false if the edge already existed.
+     */
+    public boolean follow(String currentUserId, String targetUserId) {
+        String followerId = resolveUser(currentUserId).getId();
+        if (followerId.equals(targetUserId)) {
+            throw new BadRequestException("You cannot follow yourself");
+        }
+        if (!userRepository.existsById(targetUserId)) {
+            throw new ResourceNotFoundException("User not found with id: " + targetUserId);
+        }
+        if (blockListService.isBlockedEitherWay(followerId, targetUserId)) {
+            throw new BadRequestException("You cannot follow this user");
+        }
+
+        // Upsert keeps repeated follow requests idempotent
+        Update update = new Update()
+                .setOnInsert("followerId", followerId)
+                .setOnInsert("followeeId", targetUserId)
+                .setOnInsert("createdAt", LocalDateTime.now());
+
+        UpdateResult result;
+        try {
+            result = mongoTemplate.upsert(edgeQuery(followerId, targetUserId), update, Follow.class);
+        } catch (DuplicateKeyException e) {
+            // A concurrent request inserted the same edge first
+            return false;
+        }
+
+        if (result.getUpsertedId() == null) {
+            return false;
+        }
+
+        adjustCounts(followerId, targetUserId, 1);
+        socialGraphService.addEdge(followerId, targetUserId);
+        return true;
+    }
+
+    /**
+     * Unfollow a user. Returns false if there was no edge to remove.
+     */
+    public boolean unfollow(String currentUserId, String targetUserId) {
+        String followerId = resolveUser(currentUserId).getId();
+
+        DeleteResult result = mongoTemplate.remove(edgeQuery(followerId, targetUserId), Follow.class);
+        if (result.getDeletedCount() == 0) {
+            return false;
+        }
+
+        adjustCounts(followerId, targetUserId, -1);
+        socialGraphService.removeEdge(followerId, targetUserId);
+
+        // Lets other nodes drop the edge from their graphs
+        FollowRemoval removal = new FollowRemoval();
+        removal.setFollowerId(followerId);
+        removal.setFolloweeId(targetUserId);
+        removal.setRemovedAt(new Date());
+        mongoTemplate.insert(removal);
+        return true;
+    }
+
+    /**
+     * Check if one user follows another
+     */
+    public boolean isFollowing(String followerId, String followeeId) {
+        return followRepository.existsByFollowerIdAndFolloweeId(followerId, followeeId);
+    }
+
+    /**
+     * Get a page of users following the given user, leaving out anyone the viewer may not see
+     */
+    public List<UserCard> getFollowers(String viewerId, String userId, int page, int size) {
+        List<String> ids = followRepository.findFollowersOf(userId, pageRequest(page, size)).stream()
+                .map(Follow::getFollowerId)
+                .collect(Collectors.toList());
+        return visibleCards(viewerId, ids);
+    }
+
+    /**
+     * Get a page of users the given user follows, leaving out anyone the viewer may not see
+     */
+    public List<UserCard> getFollowing(String viewerId, String userId, int page, int size) {
+        List<String> ids = followRepository.findFollowingOf(userId, pageRequest(page, size)).stream()
+                .map(Follow::getFolloweeId)
+                .collect(Collectors.toList());
+        return visibleCards(viewerId, ids);
+    }
+
+    private List<UserCard> visibleCards(String viewerId, List<String> ids) {
+        List<String> visible = privacyEvaluator.filterVisible(viewerId, ids, ProfileSection.BASIC_INFO);
+        return new ArrayList<>(userCardService.hydrate(visible).values());
+    }
+
+    /**
+     * One-off migration of the legacy embedded followers/following arrays into
+     * the follows collection. Enable with app.follows.migrate-embedded=true.
+     * Runs before SocialGraphService loads the edges into memory.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void migrateEmbeddedFollows() {
+        if (!migrateEmbedded) {
+            return;
+        }
+
+        Query legacy = new Query(new Criteria().orOperator(
+                where("followers").exists(true), where("following").exists(true)));
+        legacy.fields().include("_id").include("following");
+
+        List<String> migratedUsers = new ArrayList<>();
+        try (var documents = mongoTemplate.stream(legacy, Document.class, "users")) {
+            documents.forEach(document -> {
+                String userId = document.get("_id").toString();
+                List<?> following = document.getList("following", Object.class, List.of());
+                for (Object followeeId : following) {
+                    Update update = new Update()
+                            .setOnInsert("followerId", userId)
+                            .setOnInsert("followeeId", followeeId.toString())
+                            .setOnInsert("createdAt", LocalDateTime.now());
+                    mongoTemplate.upsert(edgeQuery(userId, followeeId.toString()), update, Follow.class);
+                }
+                migratedUsers.add(userId);
+            });
+        }
+
+        // Recount from the edges, then drop the arrays so user loads stay small
+        for (String userId : migratedUsers) {
+            Update update = new Update()
+                    .set("followerCount", (int) followRepository.countByFolloweeId(userId))
+                    .set("followingCount", (int) followRepository.countByFollowerId(userId))
+                    .unset("followers")
+                    .unset("following");
+            mongoTemplate.updateFirst(new Query(where("_id").is(userId)), update, User.class);
+        }
+
+        logger.info("Migrated embedded follow lists for {} users", migratedUsers.size());
+    }
+
+    private void adjustCounts(String followerId, String followeeId, int delta) {
+        mongoTemplate.updateFirst(new Query(where("_id").is(followerId)),
+                new Update().inc("followingCount", delta), User.class);
+        mongoTemplate.updateFirst(new Query(where("_id").is(followeeId)),
+                new Update().inc("followerCount", delta), User.class);
+    }
+
+    private Query edgeQuery(String followerId, String followeeId) {
+        return new Query(where("followerId").is(followerId).and("followeeId").is(followeeId));
+    }
+
+    private PageRequest pageRequest(int page, int size) {
+        return PageRequest.of(Math.max(page, 0), Math.min(Math.max(size, 1), MAX_PAGE_SIZE));
+    }
+
+    private User resolveUser(String userId) {
+        return userRepository.findByEmail(userId)
+                .orElseGet(() -> userRepository.findById(userId)
+                        .orElseThrow(() -> new ResourceNotFoundException("User not found with id/email: " + userId)));
+    }
+}
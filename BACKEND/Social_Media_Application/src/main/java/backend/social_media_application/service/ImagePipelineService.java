@@ -0,0 +1,413 @@
+package backend.social_media_application.service;
+
+import backend.social_media_application.model.Profile;
+import backend.social_media_application.model.User;
+import backend.social_media_application.util.BlurHash;
+import backend.social_media_application.util.LruCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * Background pipeline that turns uploaded avatars and cover photos into
+ * resized JPEG variants and a BlurHash placeholder that clients can paint
+ * before any image has loaded.
+ *
+ * Each image is decoded once (subsampled while decoding when it is much larger
+ * than the biggest variant) and then scaled down step by step, each size
+ * starting from the previous one. Variants are re-encoded from raw pixels, so
+ * EXIF and other metadata are not carried over. The work queue is bounded;
+ * when it is full the upload still succeeds and clients keep getting the
+ * original.
+ */
+@Service
+public class ImagePipelineService {
+    private static final Logger logger = LoggerFactory.getLogger(ImagePipelineService.class);
+
+    private static final String VARIANTS_DIR = "variants";
+
+    // Refuse to decode anything larger than this, whatever the file size
+    private static final long MAX_PIXELS = 100_000_000L;
+
+    // BlurHash detail: 4x3 components (a ~28 character string) sampled from a 32px thumbnail
+    private static final int PLACEHOLDER_COMPONENTS_X = 4;
+    private static final int PLACEHOLDER_COMPONENTS_Y = 3;
+    private static final int PLACEHOLDER_SAMPLE_SIZE = 32;
+
+    public enum Kind { AVATAR, COVER }
+
+    private final FileStorageService fileStorageService;
+    private final MongoTemplate mongoTemplate;
+    private final ThreadPoolExecutor executor;
+    private final int[] sizes;
+    private final float jpegQuality;
+
+    // Variants never change once written, so found resolutions are kept
+    private final LruCache<String, String> resolvedVariants;
+
+    private final Timer processTimer;
+    private final Counter processed;
+    private final Counter failed;
+    private final Counter rejected;
+
+    public ImagePipelineService(FileStorageService fileStorageService,
+                                MongoTemplate mongoTemplate,
+                                MeterRegistry meterRegistry,
+                                @Value("${app.images.variant-sizes:64,256,1024}") int[] sizes,
+                                @Value("${app.images.jpeg-quality:0.85}") float jpegQuality,
+                                @Value("${app.images.threads:2}") int threads,
+                                @Value("${app.images.queue-capacity:200}") int queueCapacity,
+                                @Value("${app.images.resolve-cache-size:10000}") int resolveCacheSize) {
+        this.fileStorageService = fileStorageService;
+        this.mongoTemplate = mongoTemplate;
+        this.sizes = Arrays.stream(sizes).sorted().toArray();
+        this.jpegQuality = jpegQuality;
+        this.resolvedVariants = new LruCache<>(resolveCacheSize);
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "image-pipeline-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+
+        Gauge.builder("images.pipeline.queue.depth", executor, e -> e.getQueue().size())
+                .description("Images waiting to be resized")
+                .register(meterRegistry);
+        Gauge.builder("images.pipeline.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Images being resized right now")
+                .register(meterRegistry);
+        this.processTimer = Timer.builder("images.pipeline.duration")
+                .description("Time to decode an image and write all of its variants")
+                .register(meterRegistry);
+        this.processed = meterRegistry.counter("images.pipeline.images", "outcome", "processed");
+        this.failed = meterRegistry.counter("images.pipeline.images", "outcome", "failed");
+        this.rejected = meterRegistry.counter("images.pipeline.images", "outcome", "rejected");
+    }
+
+    /**
+     * Queue variant generation for a newly stored image
+     */
+    public void submit(Kind kind, String ownerId, String filePath) {
+        try {
+            executor.execute(() -> process(kind, ownerId, filePath));
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            logger.warn("Image pipeline is full, serving {} without variants", filePath);
+        }
+    }
+
+    /**
+     * Pick the stored file to serve for a requested display size: the smallest
+     * variant at least that big, or the original if no such variant exists yet.
+     */
+    public String resolveVariant(String filePath, int requestedSize) {
+        String key = filePath + "@" + requestedSize;
+        String cached = resolvedVariants.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        for (int size : sizes) {
+            if (size < requestedSize) {
+                continue;
+            }
+            String variant = variantPath(filePath, size);
+            if (fileStorageService.exists(variant)) {
+                resolvedVariants.put(key, variant);
+                return variant;
+            }
+        }
+        // Not cached: the variants may still be on their way
+        return filePath;
+    }
+
+    /**
+     * True when a configured variant size would satisfy the requested size, so
+     * serving the original for it is only a stopgap until the variant exists
+     */
+    public boolean hasVariantFor(int requestedSize) {
+        for (int size : sizes) {
+            if (size >= requestedSize) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Where the variant of the given size is stored, e.g. avatars/x.png at
+     * 256px becomes avatars/variants/x_256.jpg
+     */
+    public static String variantPath(String filePath, int size) {
+        int slash = filePath.lastIndexOf('/');
+        String dir = slash >= 0 ? filePath.substring(0, slash + 1) : "";
+        String name = filePath.substring(slash + 1);
+        int dot = name.lastIndexOf('.');
+        String base = dot > 0 ? name.substring(0, dot) : name;
+        return dir + VARIANTS_DIR + "/" + base + "_" + size + ".jpg";
+    }
+
+    /**
+     * Number of variants generated per image
+     */
+    public int variantCount() {
+        return sizes.length;
+    }
+
+    /**
+     * Every variant path the given image can have, whether generated yet or not
+     */
+    public List<String> variantPaths(String filePath) {
+        List<String> paths = new ArrayList<>(sizes.length);
+        for (int size : sizes) {
+            paths.add(variantPath(filePath, size));
+        }
+        return paths;
+    }
+
+    void process(Kind kind, String ownerId, String filePath) {
+        Timer.Sample sample = Timer.start();
+        try {
+            // Content-addressed uploads share variants, so a re-upload of known content only
+            // decodes the smallest variant again for its placeholder
+            Map<String, String> existing = existingVariants(filePath);
+            if (!existing.isEmpty()) {
+                BufferedImage smallest = decode(existing.get(String.valueOf(smallestSize(existing))));
+                recordVariants(kind, ownerId, filePath, existing, smallest != null ? placeholder(smallest) : null);
+                processed.increment();
+                return;
+            }
+
+            BufferedImage image = decode(filePath);
+            if (image == null) {
+                logger.warn("Not a readable image, skipping variants: {}", filePath);
+                failed.increment();
+                return;
+            }
+
+            Map<String, String> variants = writeVariants(image, filePath);
+            recordVariants(kind, ownerId, filePath, variants, placeholder(image));
+            processed.increment();
+        } catch (Exception e) {
+            failed.increment();
+            logger.error("Could not create variants for {}: {}", filePath, e.getMessage(), e);
+        } finally {
+            sample.stop(processTimer);
+        }
+    }
+
+    private BufferedImage decode(String filePath) throws IOException {
+        try (InputStream source = new BufferedInputStream(fileStorageService.open(filePath));
+             ImageInputStream input = ImageIO.createImageInputStream(source)) {
+            if (input == null) {
+                return null;
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if ((long) width * height > MAX_PIXELS) {
+                    throw new IOException("Image is too large to process: " + width + "x" + height);
+                }
+
+                // Skip pixels while decoding so huge photos never fully land in memory,
+                // keeping at least twice the largest variant for the smooth scaling below
+                ImageReadParam param = reader.getDefaultReadParam();
+                int step = Math.max(1, Math.max(width, height) / (2 * sizes[sizes.length - 1]));
+                if (step > 1) {
+                    param.setSourceSubsampling(step, step, 0, 0);
+                }
+                return toRgb(reader.read(0, param));
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private Map<String, String> writeVariants(BufferedImage image, String filePath) throws IOException {
+        Map<String, String> variants = new LinkedHashMap<>();
+        int slash = filePath.lastIndexOf('/');
+        String subDirectory = (slash >= 0 ? filePath.substring(0, slash + 1) : "") + VARIANTS_DIR;
+
+        // Largest first, so each variant is scaled from the one before it
+        BufferedImage current = image;
+        for (int i = sizes.length - 1; i >= 0; i--) {
+            int size = sizes[i];
+            if (Math.max(image.getWidth(), image.getHeight()) <= size) {
+                // Never upscale; the original already fits
+                continue;
+            }
+            current = scaleDown(current, size);
+
+            String variant = variantPath(filePath, size);
+            String filename = variant.substring(variant.lastIndexOf('/') + 1);
+            fileStorageService.storeStream(new ByteArrayInputStream(encodeJpeg(current)), subDirectory, filename);
+            variants.put(String.valueOf(size), variant);
+        }
+        return variants;
+    }
+
+    /**
+     * BlurHash of the image, computed from a tiny copy since only the lowest
+     * frequencies survive anyway
+     */
+    static String placeholder(BufferedImage image) {
+        BufferedImage sample = Math.max(image.getWidth(), image.getHeight()) > PLACEHOLDER_SAMPLE_SIZE
+                ? scaleDown(image, PLACEHOLDER_SAMPLE_SIZE)
+                : image;
+        return BlurHash.encode(sample, PLACEHOLDER_COMPONENTS_X, PLACEHOLDER_COMPONENTS_Y);
+    }
+
+    private static int smallestSize(Map<String, String> variants) {
+        return variants.keySet().stream().mapToInt(Integer::parseInt).min().orElseThrow();
+    }
+
+    private Map<String, String> existingVariants(String filePath) {
+        Map<String, String> variants = new LinkedHashMap<>();
+        for (int i = sizes.length - 1; i >= 0; i--) {
+            String variant = variantPath(filePath, sizes[i]);
+            if (fileStorageService.exists(variant)) {
+                variants.put(String.valueOf(sizes[i]), variant);
+            }
+        }
+        return variants;
+    }
+
+    private void recordVariants(Kind kind, String ownerId, String filePath, Map<String, String> variants,
+                                String placeholder) {
+        if (variants.isEmpty() && placeholder == null) {
+            return;
+        }
+        // Only attach the results if the image is still current; a newer upload may have replaced it
+        if (kind == Kind.AVATAR) {
+            mongoTemplate.updateFirst(new Query(where("_id").is(ownerId).and("avatar").is(filePath)),
+                    variantUpdate("avatar", variants, placeholder), User.class);
+        } else {
+            mongoTemplate.updateFirst(new Query(where("_id").is(ownerId).and("coverPhoto").is(filePath)),
+                    variantUpdate("coverPhoto", variants, placeholder), Profile.class);
+        }
+    }
+
+    private static Update variantUpdate(String field, Map<String, String> variants, String placeholder) {
+        Update update = new Update();
+        if (!variants.isEmpty()) {
+            update.set(field + "Variants", variants);
+        }
+        if (placeholder != null) {
+            update.set(field + "Placeholder", placeholder);
+        }
+        return update;
+    }
+
+    private static BufferedImage toRgb(BufferedImage image) {
+        if (image.getType() == BufferedImage.TYPE_INT_RGB) {
+            return image;
+        }
+        // JPEG has no alpha, so transparent areas are flattened onto white
+        BufferedImage rgb = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = rgb.createGraphics();
+        try {
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, rgb.getWidth(), rgb.getHeight());
+            g.drawImage(image, 0, 0, null);
+        } finally {
+            g.dispose();
+        }
+        return rgb;
+    }
+
+    /**
+     * Scale so the longest edge is the target size, halving at most once per
+     * pass so bilinear filtering doesn't skip pixels
+     */
+    static BufferedImage scaleDown(BufferedImage image, int targetLongestEdge) {
+        double scale = (double) targetLongestEdge / Math.max(image.getWidth(), image.getHeight());
+        int targetWidth = Math.max(1, (int) Math.round(image.getWidth() * scale));
+        int targetHeight = Math.max(1, (int) Math.round(image.getHeight() * scale));
+
+        BufferedImage current = image;
+        while (current.getWidth() != targetWidth || current.getHeight() != targetHeight) {
+            int width = Math.max(targetWidth, current.getWidth() / 2);
+            int height = Math.max(targetHeight, current.getHeight() / 2);
+            BufferedImage next = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            Graphics2D g = next.createGraphics();
+            try {
+                g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                g.drawImage(current, 0, 0, width, height, null);
+            } finally {
+                g.dispose();
+            }
+            current = next;
+        }
+        return current;
+    }
+
+    private byte[] encodeJpeg(BufferedImage image) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ImageOutputStream output = ImageIO.createImageOutputStream(out)) {
+            writer.setOutput(output);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(jpegQuality);
+            param.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+            // No metadata is passed, so nothing from the upload is copied over
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -2,12 +2,19 @@ package backend.social_media_application.service;
 
 import backend.social_media_application.model.OTP;
 import backend.social_media_application.repository.OTPRepository;
+import io.micrometer.core.annotation.Counted;
+import io.micrometer.core.annotation.Timed;
 import org.apache.commons.lang3.RandomStringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 import java.time.LocalDateTime;
 
 @Service
+@Timed(value = "app.service", histogram = true)
+@Counted(value = "app.service.failures", recordFailuresOnly = true)
 public class OTPService {
+    private static final Logger logger = LoggerFactory.getLogger(OTPService.class);
 
     private final OTPRepository otpRepository;
     private final EmailService emailService;
@@ -24,11 +31,6 @@ public class OTPService {
         // Generate 6-digit OTP
         String otpCode = RandomStringUtils.randomNumeric(6);
 
-        // Print OTP to console for testing
-        System.out.println("===========================================");
-        System.out.println("OTP for " + email + ": " + otpCode);
-        System.out.println("===========================================");
-
         // Save OTP to database
         OTP otp = new OTP(email, otpCode, 10); // 10 minutes expiry
         otpRepository.save(otp);
@@ -36,9 +38,9 @@ public class OTPService {
         // Send email
         try {
             emailService.sendOTPEmail(email, otpCode);
-            System.out.println("OTP email sent successfully to: " + email);
+            logger.info("OTP email sent to: {}", email);
         } catch (Exception e) {
-            System.out.println("Failed to send OTP email: " + e.getMessage());
+            logger.error("Failed to send OTP email to {}: {}", email, e.getMessage());
             // Still return the OTP for testing even if email fails
         }
 
@@ -46,24 +48,25 @@ public class OTPService {
     }
 
     public boolean verifyOTP(String email, String otpCode) {
-        System.out.println("Verifying OTP for " + email + ": " + otpCode);
+        // The code itself is never logged
+        logger.debug("Verifying OTP for: {}", email);
 
         OTP otp = otpRepository.findByEmailAndOtpAndUsedFalse(email, otpCode)
                 .orElse(null);
 
         if (otp == null) {
-            System.out.println("OTP not found or already used");
+            logger.info("OTP not found or already used for: {}", email);
             return false;
         }
 
         if (otp.isExpired()) {
-            System.out.println("OTP has expired");
+            logger.info("OTP has expired for: {}", email);
             return false;
         }
 
         otp.setUsed(true);
         otpRepository.save(otp);
-        System.out.println("OTP verified successfully");
+        logger.debug("OTP verified for: {}", email);
         return true;
     }
 }
@@ -0,0 +1,217 @@
+package backend.social_media_application.service;
+
+import backend.social_media_application.exception.FileStorageException;
+import backend.social_media_application.model.BlobRef;
+import backend.social_media_application.model.Profile;
+import backend.social_media_application.model.User;
+import backend.social_media_application.service.storage.BlobInfo;
+import backend.social_media_application.util.BloomFilter;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * Mark-and-sweep collector for uploaded files nothing points at any more.
+ *
+ * Mark streams every avatar and cover photo path (and their variants) into a
+ * Bloom filter; sweep lists the blob store and deletes files that are not in
+ * the filter and are older than the grace period. A false positive only keeps
+ * an orphan around until the next run, and the grace period covers uploads
+ * that are stored but not yet referenced. Deletes are rate limited so a large
+ * backlog doesn't saturate the disk. Staged temp files left by interrupted
+ * uploads are removed once they are past the grace period too.
+ */
+@Service
+public class OrphanCollectorService {
+    private static final Logger logger = LoggerFactory.getLogger(OrphanCollectorService.class);
+
+    private static final double FALSE_POSITIVE_RATE = 0.001;
+    private static final int REPORT_SAMPLE_SIZE = 20;
+
+    private final MongoTemplate mongoTemplate;
+    private final FileStorageService fileStorageService;
+    private final ImagePipelineService imagePipelineService;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    @Value("${app.uploads.gc.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.uploads.gc.dry-run:false}")
+    private boolean dryRun;
+
+    @Value("${app.uploads.gc.grace-hours:24}")
+    private long graceHours;
+
+    @Value("${app.uploads.gc.deletes-per-second:50}")
+    private int deletesPerSecond;
+
+    public OrphanCollectorService(MongoTemplate mongoTemplate,
+                                  FileStorageService fileStorageService,
+                                  ImagePipelineService imagePipelineService) {
+        this.mongoTemplate = mongoTemplate;
+        this.fileStorageService = fileStorageService;
+        this.imagePipelineService = imagePipelineService;
+    }
+
+    /**
+     * Scheduled collection; with app.uploads.gc.dry-run=true it only reports
+     */
+    @Scheduled(initialDelayString = "${app.uploads.gc.initial-delay-ms:600000}",
+            fixedDelayString = "${app.uploads.gc.interval-ms:86400000}")
+    public void collectOrphans() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            collect(dryRun);
+        } catch (RuntimeException e) {
+            logger.error("Orphaned upload collection failed", e);
+        }
+    }
+
+    /**
+     * Run one mark-and-sweep pass. In dry-run mode nothing is deleted and the
+     * report lists what would have been.
+     */
+    public Report collect(boolean dryRun) {
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("Orphan collection is already running");
+        }
+        long start = System.nanoTime();
+        try {
+            BloomFilter referenced = markReferenced();
+            Report report = sweep(referenced, dryRun);
+            logger.info("Orphaned uploads{}: scanned {} files, {} orphans ({} bytes), deleted {} and {} staged"
+                            + " temp files in {} ms, e.g. {}",
+                    dryRun ? " (dry run)" : "", report.filesScanned(), report.orphanFiles(), report.orphanBytes(),
+                    report.deletedFiles(), report.stagingFilesDeleted(), (System.nanoTime() - start) / 1_000_000,
+                    report.sample());
+            return report;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private BloomFilter markReferenced() {
+        long documents = mongoTemplate.estimatedCount(User.class) + mongoTemplate.estimatedCount(Profile.class);
+        long expected = Math.max(1_000, documents * (1 + imagePipelineService.variantCount()) * 5 / 4);
+        BloomFilter referenced = new BloomFilter((int) Math.min(Integer.MAX_VALUE, expected), FALSE_POSITIVE_RATE);
+
+        markField(User.class, "avatar", referenced);
+        markField(Profile.class, "coverPhoto", referenced);
+        return referenced;
+    }
+
+    private void markField(Class<?> entityClass, String field, BloomFilter referenced) {
+        Query query = new Query(where(field).ne(null));
+        query.fields().include(field);
+        String collection = mongoTemplate.getCollectionName(entityClass);
+        try (var documents = mongoTemplate.stream(query, Document.class, collection)) {
+            documents.forEach(document -> {
+                String path = document.getString(field);
+                referenced.put(path);
+                // Variants belong to their original, recorded yet or not
+                imagePipelineService.variantPaths(path).forEach(referenced::put);
+            });
+        }
+    }
+
+    private Report sweep(BloomFilter referenced, boolean dryRun) {
+        Instant cutoff = Instant.now().minus(Duration.ofHours(graceHours));
+        long nanosPerDelete = deletesPerSecond > 0 ? TimeUnit.SECONDS.toNanos(1) / deletesPerSecond : 0;
+
+        SweepVisitor visitor = new SweepVisitor(referenced, cutoff, dryRun, nanosPerDelete);
+        fileStorageService.listFiles(visitor);
+        int stagingDeleted = dryRun ? 0 : fileStorageService.cleanStaging(cutoff);
+        return new Report(dryRun, visitor.scanned, visitor.orphans, visitor.orphanBytes, visitor.deleted,
+                stagingDeleted, List.copyOf(visitor.sample));
+    }
+
+    private final class SweepVisitor implements Consumer<BlobInfo> {
+        private final BloomFilter referenced;
+        private final Instant cutoff;
+        private final boolean dryRun;
+        private final long nanosPerDelete;
+
+        private long nextDeleteAt = System.nanoTime();
+        private long scanned;
+        private long orphans;
+        private long orphanBytes;
+        private long deleted;
+        private final List<String> sample = new ArrayList<>();
+
+        SweepVisitor(BloomFilter referenced, Instant cutoff, boolean dryRun, long nanosPerDelete) {
+            this.referenced = referenced;
+            this.cutoff = cutoff;
+            this.dryRun = dryRun;
+            this.nanosPerDelete = nanosPerDelete;
+        }
+
+        @Override
+        public void accept(BlobInfo blob) {
+            if (Thread.currentThread().isInterrupted()) {
+                return;
+            }
+            scanned++;
+            if (blob.lastModified().isAfter(cutoff) || referenced.mightContain(blob.key())) {
+                return;
+            }
+
+            orphans++;
+            orphanBytes += blob.size();
+            if (sample.size() < REPORT_SAMPLE_SIZE) {
+                sample.add(blob.key());
+            }
+            if (!dryRun) {
+                delete(blob.key());
+            }
+        }
+
+        private void delete(String relativePath) {
+            throttle();
+            try {
+                fileStorageService.deleteFile(relativePath);
+                // Drop the ref record of a blob nobody holds any more
+                mongoTemplate.remove(new Query(where("_id").is(relativePath).and("refCount").lte(0)),
+                        BlobRef.class);
+                deleted++;
+            } catch (FileStorageException e) {
+                logger.warn("Could not delete orphaned upload {}: {}", relativePath, e.getMessage());
+            }
+        }
+
+        private void throttle() {
+            long wait = nextDeleteAt - System.nanoTime();
+            if (wait > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(wait);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            nextDeleteAt = Math.max(nextDeleteAt, System.nanoTime()) + nanosPerDelete;
+        }
+    }
+
+    /**
+     * Outcome of one collection pass, with a few of the orphaned paths
+     */
+    public record Report(boolean dryRun, long filesScanned, long orphanFiles, long orphanBytes,
+                         long deletedFiles, long stagingFilesDeleted, List<String> sample) {
+    }
+}
@@ -0,0 +1,85 @@
+package backend.social_media_application.service;
+
+import backend.social_media_application.model.ProfileSection;
+import backend.social_media_application.model.ViewerRelation;
+import backend.social_media_application.util.PrivacyPolicy;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Privacy checks for lists of content owners.
+ *
+ * Policies, blocks and connections are resolved in bulk up front (one query
+ * per kind at most), then the compiled rules run over the list in a single
+ * pass, so list endpoints don't issue a query per entry.
+ */
+@Service
+public class PrivacyEvaluator {
+
+    private final PrivacyPolicyService privacyPolicyService;
+    private final BlockListService blockListService;
+    private final SocialGraphService socialGraphService;
+    private final AudienceService audienceService;
+
+    public PrivacyEvaluator(PrivacyPolicyService privacyPolicyService,
+                            BlockListService blockListService,
+                            SocialGraphService socialGraphService,
+                            AudienceService audienceService) {
+        this.privacyPolicyService = privacyPolicyService;
+        this.blockListService = blockListService;
+        this.socialGraphService = socialGraphService;
+        this.audienceService = audienceService;
+    }
+
+    /**
+     * Work out which owners' section the viewer may see. Bit i of the result is
+     * set when the i-th owner, in iteration order, is visible. A null viewer is
+     * treated as a stranger.
+     */
+    public BitSet evaluate(String viewerId, Collection<String> ownerIds, ProfileSection section) {
+        List<String> owners = ownerIds instanceof List<String> list ? list : new ArrayList<>(ownerIds);
+        BitSet allowed = new BitSet(owners.size());
+        if (owners.isEmpty()) {
+            return allowed;
+        }
+
+        Map<String, PrivacyPolicy> policies = privacyPolicyService.getPolicies(owners);
+        BitSet blocked = blockListService.findBlockedAmong(viewerId, owners);
+        BitSet connected = viewerId != null
+                ? socialGraphService.findConnectedAmong(viewerId, owners)
+                : new BitSet();
+        Predicate<String> audienceMember = audienceService.membershipOf(viewerId);
+
+        for (int i = 0; i < owners.size(); i++) {
+            String ownerId = owners.get(i);
+            if (ownerId == null || blocked.get(i)) {
+                continue;
+            }
+            ViewerRelation relation = ViewerRelation.of(ownerId.equals(viewerId), connected.get(i));
+            PrivacyPolicy policy = policies.getOrDefault(ownerId, PrivacyPolicy.DEFAULT);
+            if (policy.canViewProfile(relation)
+                    && PrivacyPolicy.isVisible(policy.visibleSections(relation, audienceMember), section)) {
+                allowed.set(i);
+            }
+        }
+        return allowed;
+    }
+
+    /**
+     * Keep only the owners whose section the viewer may see, preserving order
+     */
+    public List<String> filterVisible(String viewerId, List<String> ownerIds, ProfileSection section) {
+        BitSet allowed = evaluate(viewerId, ownerIds, section);
+        List<String> visible = new ArrayList<>(allowed.cardinality());
+        for (int i = allowed.nextSetBit(0); i >= 0; i = allowed.nextSetBit(i + 1)) {
+            visible.add(ownerIds.get(i));
+        }
+        return visible;
+    }
+}
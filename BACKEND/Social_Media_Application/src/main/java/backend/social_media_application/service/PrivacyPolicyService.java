@@ -0,0 +1,80 @@
+package backend.social_media_application.service;
+
+import backend.social_media_application.repository.PrivacySettingsRepository;
+import backend.social_media_application.util.LruCache;
+import backend.social_media_application.util.PrivacyPolicy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compiled privacy policies, cached per node.
+ *
+ * Invalidation only reaches the node that saved the change, so entries also
+ * expire after a short TTL; that bounds how long another node keeps applying
+ * a policy the user has since tightened.
+ */
+@Service
+public class PrivacyPolicyService {
+
+    private final PrivacySettingsRepository privacySettingsRepository;
+    private final LruCache<String, PrivacyPolicy> cache;
+
+    public PrivacyPolicyService(PrivacySettingsRepository privacySettingsRepository,
+                                @Value("${app.privacy.policy-cache-size:50000}") int cacheSize,
+                                @Value("${app.privacy.policy-cache-ttl-ms:30000}") long cacheTtlMs) {
+        this.privacySettingsRepository = privacySettingsRepository;
+        this.cache = new LruCache<>(cacheSize, cacheTtlMs);
+    }
+
+    /**
+     * Get the compiled privacy policy for a user
+     */
+    public PrivacyPolicy getPolicy(String userId) {
+        return cache.computeIfAbsent(userId, id -> privacySettingsRepository.findByUserId(id)
+                .map(PrivacyPolicy::compile)
+                .orElse(PrivacyPolicy.DEFAULT));
+    }
+
+    /**
+     * Get compiled policies for many users, loading all cache misses with one query
+     */
+    public Map<String, PrivacyPolicy> getPolicies(Collection<String> userIds) {
+        Map<String, PrivacyPolicy> policies = new HashMap<>(userIds.size() * 2);
+        List<String> missing = new ArrayList<>();
+        for (String userId : userIds) {
+            PrivacyPolicy policy = cache.get(userId);
+            if (policy != null) {
+                policies.put(userId, policy);
+            } else if (userId != null) {
+                missing.add(userId);
+            }
+        }
+        if (missing.isEmpty()) {
+            return policies;
+        }
+
+        // Read before the query, so an invalidation during it keeps these results out of the cache
+        long loadedAt = cache.generation();
+        privacySettingsRepository.findByUserIdIn(missing)
+                .forEach(settings -> policies.put(settings.getUserId(), PrivacyPolicy.compile(settings)));
+        for (String userId : missing) {
+            // Users without stored settings get the defaults
+            PrivacyPolicy policy = policies.computeIfAbsent(userId, id -> PrivacyPolicy.DEFAULT);
+            policies.put(userId, cache.putLoaded(userId, policy, loadedAt));
+        }
+        return policies;
+    }
+
+    /**
+     * Drop the cached policy after the user's settings change
+     */
+    public void invalidate(String userId) {
+        cache.remove(userId);
+    }
+}
@@ -5,42 +5,102 @@ import backend.social_media_application.dto.mapper.ProfileMapper;
 import backend.social_media_application.exception.BadRequestException;
 import backend.social_media_application.exception.ResourceNotFoundException;
 import backend.social_media_application.model.PrivacySettings;
+import backend.social_media_application.model.ProfileSection;
 import backend.social_media_application.model.User;
+import backend.social_media_application.model.Visibility;
 import backend.social_media_application.repository.PrivacySettingsRepository;
 import backend.social_media_application.repository.UserRepository;
+import io.micrometer.core.annotation.Counted;
+import io.micrometer.core.annotation.Timed;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Map;
+import java.util.Objects;
 
 @Service
+@Timed(value = "app.service", histogram = true)
+@Counted(value = "app.service.failures", recordFailuresOnly = true)
 public class PrivacySettingsService {
+    private static final Logger logger = LoggerFactory.getLogger(PrivacySettingsService.class);
 
     private final UserRepository userRepository;
     private final PrivacySettingsRepository privacySettingsRepository;
     private final ProfileMapper profileMapper;
+    private final PrivacyPolicyService privacyPolicyService;
+    private final BlockListService blockListService;
+    private final FollowService followService;
+    private final AudienceService audienceService;
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${app.privacy.prune-defaults:false}")
+    private boolean pruneDefaults;
 
     @Autowired
     public PrivacySettingsService(UserRepository userRepository,
                                   PrivacySettingsRepository privacySettingsRepository,
-                                  ProfileMapper profileMapper) {
+                                  ProfileMapper profileMapper,
+                                  PrivacyPolicyService privacyPolicyService,
+                                  BlockListService blockListService,
+                                  FollowService followService,
+                                  AudienceService audienceService,
+                                  MongoTemplate mongoTemplate) {
         this.userRepository = userRepository;
         this.privacySettingsRepository = privacySettingsRepository;
         this.profileMapper = profileMapper;
+        this.privacyPolicyService = privacyPolicyService;
+        this.blockListService = blockListService;
+        this.followService = followService;
+        this.audienceService = audienceService;
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    /**
+     * One-off cleanup of documents written before settings became sparse:
+     * default values are stripped and documents left empty are deleted.
+     * Enable with app.privacy.prune-defaults=true.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void pruneDefaultSettings() {
+        if (!pruneDefaults) {
+            return;
+        }
+
+        int rewritten = 0;
+        int deleted = 0;
+        try (var documents = mongoTemplate.stream(new Query(), PrivacySettings.class)) {
+            for (PrivacySettings settings : (Iterable<PrivacySettings>) documents::iterator) {
+                if (!settings.normalize()) {
+                    continue;
+                }
+                if (settings.hasOverrides()) {
+                    privacySettingsRepository.save(settings);
+                    rewritten++;
+                } else {
+                    privacySettingsRepository.delete(settings);
+                    deleted++;
+                }
+            }
+        }
+
+        logger.info("Pruned default privacy settings: {} rewritten, {} deleted", rewritten, deleted);
     }
 
     /**
-     * Get privacy settings for a user
+     * Get privacy settings for a user. Users without overrides get the
+     * defaults without anything being written.
      */
     public PrivacySettingsDTO getPrivacySettings(String userId) {
         PrivacySettings privacySettings = privacySettingsRepository.findByUserId(userId)
-                .orElseGet(() -> {
-                    // Create default privacy settings if not exist
-                    PrivacySettings newSettings = new PrivacySettings();
-                    newSettings.setUserId(userId);
-                    return privacySettingsRepository.save(newSettings);
-                });
+                .orElseGet(PrivacySettings::new);
 
         return profileMapper.toPrivacySettingsDTO(privacySettings);
     }
@@ -79,13 +139,29 @@ public class PrivacySettingsService {
         if (updatedSettings.getSectionVisibility() != null && !updatedSettings.getSectionVisibility().isEmpty()) {
             // Validate each section visibility setting
             for (Map.Entry<String, String> entry : updatedSettings.getSectionVisibility().entrySet()) {
+                if (ProfileSection.of(entry.getKey()) == null) {
+                    throw new BadRequestException("Invalid profile section: " + entry.getKey());
+                }
                 validateVisibility(entry.getValue());
             }
 
-            // Update section visibility
-            Map<String, String> currentSectionVisibility = privacySettings.getSectionVisibility();
-            currentSectionVisibility.putAll(updatedSettings.getSectionVisibility());
-            privacySettings.setSectionVisibility(currentSectionVisibility);
+            // Update section visibility; values equal to the default are dropped
+            for (Map.Entry<String, String> entry : updatedSettings.getSectionVisibility().entrySet()) {
+                privacySettings.setSectionVisibility(entry.getKey(), entry.getValue());
+            }
+        }
+
+        if (updatedSettings.getSectionAudiences() != null && !updatedSettings.getSectionAudiences().isEmpty()) {
+            // Sections can only be shared with the user's own audiences; a null id clears it
+            for (Map.Entry<String, String> entry : updatedSettings.getSectionAudiences().entrySet()) {
+                if (ProfileSection.of(entry.getKey()) == null) {
+                    throw new BadRequestException("Invalid profile section: " + entry.getKey());
+                }
+                if (entry.getValue() != null && !audienceService.isOwnedBy(entry.getValue(), userId)) {
+                    throw new ResourceNotFoundException("Audience not found with id: " + entry.getValue());
+                }
+                privacySettings.setSectionAudience(entry.getKey(), entry.getValue());
+            }
         }
 
         // Set boolean privacy options
@@ -94,11 +170,17 @@ public class PrivacySettingsService {
         privacySettings.setAllowFriendRequests(updatedSettings.isAllowFriendRequests());
         privacySettings.setAllowDataForRecommendations(updatedSettings.isAllowDataForRecommendations());
 
-        // Save updated settings
-        privacySettings = privacySettingsRepository.save(privacySettings);
+        // Only users who differ from the defaults keep a document
+        if (privacySettings.hasOverrides()) {
+            privacySettings = privacySettingsRepository.save(privacySettings);
+        } else if (privacySettings.getId() != null) {
+            privacySettingsRepository.delete(privacySettings);
+            privacySettings.setId(null);
+        }
+        privacyPolicyService.invalidate(userId);
 
-        // Update user's privacySettingsId if necessary
-        if (user.getPrivacySettingsId() == null) {
+        // Keep the user's privacySettingsId in step with the stored document
+        if (!Objects.equals(user.getPrivacySettingsId(), privacySettings.getId())) {
             user.setPrivacySettingsId(privacySettings.getId());
             userRepository.save(user);
         }
@@ -122,25 +204,10 @@ public class PrivacySettingsService {
         userRepository.findById(userToBlockId)
                 .orElseThrow(() -> new ResourceNotFoundException("User to block not found"));
 
-        // Get or create privacy settings
-        PrivacySettings privacySettings = privacySettingsRepository.findByUserId(userId)
-                .orElseGet(() -> {
-                    PrivacySettings newSettings = new PrivacySettings();
-                    newSettings.setUserId(userId);
-                    return privacySettingsRepository.save(newSettings);
-                });
-
-        // Create blocked user info
-        PrivacySettings.BlockedUserInfo blockedUserInfo = new PrivacySettings.BlockedUserInfo();
-        blockedUserInfo.setUserId(userToBlockId);
-        blockedUserInfo.setReason(reason);
-        blockedUserInfo.setBlockedAt(System.currentTimeMillis());
-
-        // Add to blocked users
-        privacySettings.getBlockedUsers().put(userToBlockId, blockedUserInfo);
-
-        // Save privacy settings
-        privacySettingsRepository.save(privacySettings);
+        // Blocking also removes any follow relationship in both directions
+        blockListService.block(userId, userToBlockId, reason);
+        followService.unfollow(userId, userToBlockId);
+        followService.unfollow(userToBlockId, userId);
     }
 
     /**
@@ -148,44 +215,24 @@ public class PrivacySettingsService {
      */
     @Transactional
     public void unblockUser(String userId, String userToUnblockId) {
-        // Get privacy settings
-        PrivacySettings privacySettings = privacySettingsRepository.findByUserId(userId)
-                .orElseThrow(() -> new ResourceNotFoundException("Privacy settings not found"));
-
-        // Remove from blocked users
-        if (privacySettings.getBlockedUsers().remove(userToUnblockId) == null) {
+        if (!blockListService.unblock(userId, userToUnblockId)) {
             throw new BadRequestException("User is not blocked");
         }
-
-        // Save privacy settings
-        privacySettingsRepository.save(privacySettings);
     }
 
     /**
      * Check if a user is blocked
      */
     public boolean isUserBlocked(String userId, String targetUserId) {
-        return privacySettingsRepository.findByUserId(userId)
-                .map(settings -> settings.getBlockedUsers().containsKey(targetUserId))
-                .orElse(false);
+        return blockListService.isBlocked(userId, targetUserId);
     }
 
     /**
      * Validate visibility value
      */
     private void validateVisibility(String visibility) {
-        if (visibility == null) {
-            return;
-        }
-
-        switch (visibility) {
-            case "PUBLIC":
-            case "FRIENDS":
-            case "SPECIFIC_FRIENDS":
-            case "ONLY_ME":
-                break;
-            default:
-                throw new BadRequestException("Invalid visibility value: " + visibility);
+        if (visibility != null && Visibility.of(visibility) == null) {
+            throw new BadRequestException("Invalid visibility value: " + visibility);
         }
     }
 }
\ No newline at end of file
@@ -6,45 +6,73 @@ import backend.social_media_application.exception.BadRequestException;
 import backend.social_media_application.exception.ResourceNotFoundException;
 import backend.social_media_application.model.*;
 import backend.social_media_application.repository.*;
+import backend.social_media_application.util.PrivacyPolicy;
+import io.micrometer.core.annotation.Counted;
+import io.micrometer.core.annotation.Timed;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.IncorrectResultSizeDataAccessException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.InputStream;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
+import java.util.function.Predicate;
 
 @Service
+@Timed(value = "app.service", histogram = true)
+@Counted(value = "app.service.failures", recordFailuresOnly = true)
 public class ProfileService {
+    private static final Logger logger = LoggerFactory.getLogger(ProfileService.class);
 
     private final UserRepository userRepository;
     private final ProfileRepository profileRepository;
     private final EducationRepository educationRepository;
     private final WorkExperienceRepository workExperienceRepository;
-    private final PrivacySettingsRepository privacySettingsRepository;
     private final ProfileMapper profileMapper;
     private final FileStorageService fileStorageService;
     private final PrivacySettingsService privacySettingsService;
+    private final UserCardService userCardService;
+    private final PrivacyPolicyService privacyPolicyService;
+    private final SocialGraphService socialGraphService;
+    private final BlockListService blockListService;
+    private final AudienceService audienceService;
+    private final ImagePipelineService imagePipelineService;
+    private final BlobRefService blobRefService;
 
     @Autowired
     public ProfileService(UserRepository userRepository,
                           ProfileRepository profileRepository,
                           EducationRepository educationRepository,
                           WorkExperienceRepository workExperienceRepository,
-                          PrivacySettingsRepository privacySettingsRepository,
                           ProfileMapper profileMapper,
                           FileStorageService fileStorageService,
-                          PrivacySettingsService privacySettingsService) {
+                          PrivacySettingsService privacySettingsService,
+                          UserCardService userCardService,
+                          PrivacyPolicyService privacyPolicyService,
+                          SocialGraphService socialGraphService,
+                          BlockListService blockListService,
+                          AudienceService audienceService,
+                          ImagePipelineService imagePipelineService,
+                          BlobRefService blobRefService) {
         this.userRepository = userRepository;
         this.profileRepository = profileRepository;
         this.educationRepository = educationRepository;
         this.workExperienceRepository = workExperienceRepository;
-        this.privacySettingsRepository = privacySettingsRepository;
         this.profileMapper = profileMapper;
         this.fileStorageService = fileStorageService;
         this.privacySettingsService = privacySettingsService;
+        this.userCardService = userCardService;
+        this.privacyPolicyService = privacyPolicyService;
+        this.socialGraphService = socialGraphService;
+        this.blockListService = blockListService;
+        this.audienceService = audienceService;
+        this.imagePipelineService = imagePipelineService;
+        this.blobRefService = blobRefService;
     }
 
     /**
@@ -54,33 +82,45 @@ public class ProfileService {
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found with username: " + username));
 
-        // Check if the requested profile is the current user's profile
+        // Work out how the viewer relates to the profile owner
         boolean isOwnProfile = user.getId().equals(currentUserId);
+        if (!isOwnProfile && blockListService.isBlockedEitherWay(user.getId(), currentUserId)) {
+            // Blocked users see the same response as for a missing account
+            throw new ResourceNotFoundException("User not found with username: " + username);
+        }
+        boolean areConnected = !isOwnProfile && currentUserId != null
+                && socialGraphService.areConnected(user.getId(), currentUserId);
+        ViewerRelation relation = ViewerRelation.of(isOwnProfile, areConnected);
+
+        PrivacyPolicy policy = isOwnProfile ? PrivacyPolicy.DEFAULT : privacyPolicyService.getPolicy(user.getId());
+        if (!policy.canViewProfile(relation)) {
+            throw new BadRequestException("This profile is private");
+        }
 
         // Get the profile data
         Profile profile = profileRepository.findByUserId(user.getId())
                 .orElse(null);
 
-        // If not viewing own profile, apply privacy filters
-        if (!isOwnProfile && profile != null) {
-            PrivacySettings privacySettings = privacySettingsRepository.findByUserId(user.getId())
-                    .orElse(new PrivacySettings());
-
-            // Check profile visibility
-            if ("ONLY_ME".equals(privacySettings.getProfileVisibility())) {
-                throw new BadRequestException("This profile is private");
-            }
+        // SPECIFIC_FRIENDS sections and items are granted through audience membership
+        Predicate<String> audienceMember = audienceService.membershipOf(currentUserId);
 
-            // Additional privacy checks would be applied here
-            // For now, we're allowing access to the basic profile
+        // Only query the sections the viewer is allowed to see, and only the items within them
+        int sections = policy.visibleSections(relation, audienceMember);
+        List<Education> educations = List.of();
+        if (PrivacyPolicy.isVisible(sections, ProfileSection.EDUCATION)) {
+            educations = isOwnProfile
+                    ? educationRepository.findByUserId(user.getId())
+                    : educationRepository.findVisibleByUserId(user.getId(), relation.allowedVisibilityValues());
+        }
+        List<WorkExperience> workExperiences = List.of();
+        if (PrivacyPolicy.isVisible(sections, ProfileSection.WORK_EXPERIENCE)) {
+            workExperiences = isOwnProfile
+                    ? workExperienceRepository.findByUserId(user.getId())
+                    : workExperienceRepository.findVisibleByUserId(user.getId(), relation.allowedVisibilityValues());
         }
-
-        // Get education and work experiences
-        List<Education> educations = educationRepository.findByUserId(user.getId());
-        List<WorkExperience> workExperiences = workExperienceRepository.findByUserId(user.getId());
 
         // Convert to DTO
-        return profileMapper.toProfileDTO(user, profile, educations, workExperiences);
+        return profileMapper.toProfileDTO(user, profile, educations, workExperiences, policy, relation, audienceMember);
     }
 
     /**
@@ -137,21 +177,53 @@ public class ProfileService {
      */
     @Transactional
     public String uploadAvatar(String userId, MultipartFile file) {
-        User user = userRepository.findByEmail(userId)
+        User user = findUserForUpload(userId);
+        return saveAvatar(user, fileStorageService.storeBlob(file));
+    }
+
+    /**
+     * Upload avatar image streamed straight from the request body
+     */
+    @Transactional
+    public String uploadAvatar(String userId, String originalFilename, InputStream content) {
+        User user = findUserForUpload(userId);
+        return saveAvatar(user, fileStorageService.storeBlob(content, originalFilename));
+    }
+
+    /**
+     * Use a completed resumable upload as the avatar
+     */
+    @Transactional
+    public String uploadAvatarFromSession(String userId, String sessionId, String originalFilename) {
+        User user = findUserForUpload(userId);
+        return saveAvatar(user, fileStorageService.storeCompletedUpload(sessionId, originalFilename));
+    }
+
+    private User findUserForUpload(String userId) {
+        return userRepository.findByEmail(userId)
                 .orElseGet(() -> userRepository.findById(userId)
                         .orElseThrow(() -> new ResourceNotFoundException("User not found with id/email: " + userId)));
+    }
 
-        // Generate a unique filename
-        String filename = "avatar_" + userId + "_" + UUID.randomUUID() + "_" + file.getOriginalFilename();
-
-        // Store the file
-        String filePath = fileStorageService.storeFile(file, "avatars", filename);
+    private String saveAvatar(User user, FileStorageService.StoredFile stored) {
+        String previous = user.getAvatar();
+        if (stored.path().equals(previous)) {
+            // Same image again; nothing changes
+            return previous;
+        }
+        blobRefService.acquire(stored);
 
-        // Update user's avatar
-        user.setAvatar(filePath);
+        // Update user's avatar; variants and placeholder of the previous one no longer apply
+        user.setAvatar(stored.path());
+        user.setAvatarVariants(null);
+        user.setAvatarPlaceholder(null);
         userRepository.save(user);
+        userCardService.invalidate(user.getId());
+        blobRefService.release(previous);
 
-        return filePath;
+        imagePipelineService.submit(ImagePipelineService.Kind.AVATAR, user.getId(), stored.path());
+
+        return stored.path();
     }
 
     /**
@@ -159,6 +231,29 @@ public class ProfileService {
      */
     @Transactional
     public String uploadCoverPhoto(String userId, MultipartFile file) {
+        Profile profile = findOrCreateProfileForUpload(userId);
+        return saveCoverPhoto(profile, fileStorageService.storeBlob(file));
+    }
+
+    /**
+     * Upload cover photo streamed straight from the request body
+     */
+    @Transactional
+    public String uploadCoverPhoto(String userId, String originalFilename, InputStream content) {
+        Profile profile = findOrCreateProfileForUpload(userId);
+        return saveCoverPhoto(profile, fileStorageService.storeBlob(content, originalFilename));
+    }
+
+    /**
+     * Use a completed resumable upload as the cover photo
+     */
+    @Transactional
+    public String uploadCoverPhotoFromSession(String userId, String sessionId, String originalFilename) {
+        Profile profile = findOrCreateProfileForUpload(userId);
+        return saveCoverPhoto(profile, fileStorageService.storeCompletedUpload(sessionId, originalFilename));
+    }
+
+    private Profile findOrCreateProfileForUpload(String userId) {
         // Find all profiles for this user
         List<Profile> userProfiles = profileRepository.findAllByUserId(userId);
 
@@ -174,23 +269,30 @@ public class ProfileService {
 
             // Optionally: Log a warning about duplicate profiles
             if (userProfiles.size() > 1) {
-                System.out.println("WARNING: Found " + userProfiles.size() +
-                        " profiles for user " + userId + ". Using the first one.");
+                logger.warn("Found {} profiles for user {}. Using the first one.", userProfiles.size(), userId);
             }
         }
+        return profile;
+    }
 
-        // Generate a unique filename
-        String filename = "cover_" + userId + "_" + UUID.randomUUID() + "_" + file.getOriginalFilename();
-
-        // Store the file
-        String filePath = fileStorageService.storeFile(file, "covers", filename);
+    private String saveCoverPhoto(Profile profile, FileStorageService.StoredFile stored) {
+        String previous = profile.getCoverPhoto();
+        if (stored.path().equals(previous)) {
+            return previous;
+        }
+        blobRefService.acquire(stored);
 
         // Update profile's cover photo
-        profile.setCoverPhoto(filePath);
+        profile.setCoverPhoto(stored.path());
+        profile.setCoverPhotoVariants(null);
+        profile.setCoverPhotoPlaceholder(null);
         profile.setUpdatedAt(LocalDateTime.now());
-        profileRepository.save(profile);
+        profile = profileRepository.save(profile);
+        blobRefService.release(previous);
+
+        imagePipelineService.submit(ImagePipelineService.Kind.COVER, profile.getId(), stored.path());
 
-        return filePath;
+        return stored.path();
     }
 
     /**
@@ -204,6 +306,7 @@ public class ProfileService {
                         .orElseThrow(() -> new ResourceNotFoundException("User not found with id/email: " + userId)));
 
         // Convert DTO to entity
+        validateEntryVisibility(educationDTO.getVisibility());
         Education education = profileMapper.toEducation(educationDTO, userId);
 
         // Save education
@@ -235,6 +338,9 @@ public class ProfileService {
         education.setEndDate(educationDTO.getEndDate());
         education.setCurrent(educationDTO.isCurrent());
         education.setDescription(educationDTO.getDescription());
+        if (educationDTO.getVisibility() != null) {
+            education.setVisibility(validateEntryVisibility(educationDTO.getVisibility()));
+        }
 
         // Save updated entity
         education = educationRepository.save(education);
@@ -272,6 +378,7 @@ public class ProfileService {
                         .orElseThrow(() -> new ResourceNotFoundException("User not found with id/email: " + userId)));
 
         // Convert DTO to entity
+        validateEntryVisibility(workExperienceDTO.getVisibility());
         WorkExperience workExperience = profileMapper.toWorkExperience(workExperienceDTO, userId);
 
         // Save work experience
@@ -303,6 +410,9 @@ public class ProfileService {
         workExperience.setEndDate(workExperienceDTO.getEndDate());
         workExperience.setCurrent(workExperienceDTO.isCurrent());
         workExperience.setDescription(workExperienceDTO.getDescription());
+        if (workExperienceDTO.getVisibility() != null) {
+            workExperience.setVisibility(validateEntryVisibility(workExperienceDTO.getVisibility()));
+        }
 
         // Save updated entity
         workExperience = workExperienceRepository.save(workExperience);
@@ -342,6 +452,8 @@ public class ProfileService {
                     return newProfile;
                 });
 
+        validateLifeEventAudience(userId, lifeEvent);
+
         // Generate ID for the life event
         lifeEvent.setId(UUID.randomUUID().toString());
 
@@ -393,4 +505,44 @@ public class ProfileService {
         // Return updated profile
         return profileMapper.toProfileDTO(user, profile, educations, workExperiences);
     }
-}
\ No newline at end of file
+
+    /**
+     * Validate a per-item visibility value
+     */
+    private String validateItemVisibility(String visibility) {
+        if (visibility != null && Visibility.of(visibility) == null) {
+            throw new BadRequestException("Invalid visibility value: " + visibility);
+        }
+        return visibility;
+    }
+
+    /**
+     * Education and work entries have no audience to grant access through, so
+     * SPECIFIC_FRIENDS would hide them from everyone but the owner
+     */
+    private String validateEntryVisibility(String visibility) {
+        validateItemVisibility(visibility);
+        if (visibility != null && Visibility.of(visibility) == Visibility.SPECIFIC_FRIENDS) {
+            throw new BadRequestException("SPECIFIC_FRIENDS visibility is not supported for education and work entries");
+        }
+        return visibility;
+    }
+
+    /**
+     * SPECIFIC_FRIENDS life events need an audience owned by the user
+     */
+    private void validateLifeEventAudience(String userId, Profile.LifeEvent lifeEvent) {
+        validateItemVisibility(lifeEvent.getVisibility());
+        if (Visibility.of(lifeEvent.getVisibility()) != Visibility.SPECIFIC_FRIENDS) {
+            lifeEvent.setAudienceId(null);
+            return;
+        }
+
+        User owner = userRepository.findByEmail(userId)
+                .orElseGet(() -> userRepository.findById(userId)
+                        .orElseThrow(() -> new ResourceNotFoundException("User not found with id/email: " + userId)));
+        if (lifeEvent.getAudienceId() == null || !audienceService.isOwnedBy(lifeEvent.getAudienceId(), owner.getId())) {
+            throw new BadRequestException("SPECIFIC_FRIENDS visibility requires one of your audiences");
+        }
+    }
+}
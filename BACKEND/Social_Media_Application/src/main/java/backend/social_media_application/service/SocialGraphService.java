@@ -0,0 +1,548 @@
+package backend.social_media_application.service;
+
+import backend.social_media_application.model.Follow;
+import backend.social_media_application.repository.FollowRepository;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * In-memory copy of the follow graph for connection checks.
+ *
+ * String user ids are remapped to dense ints and each user's followees and
+ * followers are kept as sorted primitive int arrays, so lookups are binary
+ * searches and mutual counts are sorted-array intersections.
+ *
+ * The startup load builds a fresh graph without holding the lock and swaps it
+ * in at the end, replaying follows and unfollows that happened meanwhile.
+ * Until a load has succeeded, checks are answered from the follows collection.
+ * Afterwards a periodic sync applies follows and unfollow tombstones written
+ * by other app nodes.
+ */
+@Service
+public class SocialGraphService {
+    private static final Logger logger = LoggerFactory.getLogger(SocialGraphService.class);
+
+    private static final int[] EMPTY = new int[0];
+    private static final int ARRAY_HEADER_BYTES = 16;
+    // Re-read this much before the last sync to cover clock skew and late commits
+    private static final long SYNC_OVERLAP_MS = 60_000;
+
+    private final MongoTemplate mongoTemplate;
+    private final FollowRepository followRepository;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final AtomicBoolean loading = new AtomicBoolean();
+
+    @Value("${app.graph.preload:true}")
+    private boolean preload;
+
+    // Guarded by lock
+    private Adjacency graph = new Adjacency();
+    private volatile boolean loaded;
+    private volatile long syncedUpTo;
+    // Edge changes made while a load is streaming, replayed onto the new graph; guarded by lock
+    private List<EdgeChange> pendingChanges;
+
+    public SocialGraphService(MongoTemplate mongoTemplate, FollowRepository followRepository) {
+        this.mongoTemplate = mongoTemplate;
+        this.followRepository = followRepository;
+    }
+
+    /**
+     * Load every follow edge into memory once the application has started,
+     * after FollowService has migrated any embedded follow lists
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    public void loadGraph() {
+        if (!preload || !loading.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            load();
+        } finally {
+            loading.set(false);
+        }
+    }
+
+    /**
+     * Retry a load that failed; checks keep going to the database until it succeeds
+     */
+    @Scheduled(initialDelayString = "${app.graph.retry-interval-ms:60000}",
+            fixedDelayString = "${app.graph.retry-interval-ms:60000}")
+    public void retryLoad() {
+        if (preload && !loaded) {
+            loadGraph();
+        }
+    }
+
+    /**
+     * Apply follows and unfollows made through other app nodes since the last
+     * sync or load. A change made here while a sync is running can be undone
+     * by it, and is then restored by the next sync.
+     */
+    @Scheduled(initialDelayString = "${app.graph.sync-interval-ms:5000}",
+            fixedDelayString = "${app.graph.sync-interval-ms:5000}")
+    public void syncEdges() {
+        if (!preload || !loaded || !loading.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            long syncStart = System.currentTimeMillis();
+            Query query = new Query(where("_id").gte(new ObjectId(new Date(syncedUpTo - SYNC_OVERLAP_MS))));
+            query.fields().include("followerId").include("followeeId").exclude("_id");
+
+            // Removals are read first: an edge followed again afterwards then shows up in the second read
+            List<EdgeChange> changes = new ArrayList<>();
+            try (var removals = mongoTemplate.stream(query, Document.class, "follow_removals")) {
+                removals.forEach(edge -> changes.add(
+                        new EdgeChange(edge.getString("followerId"), edge.getString("followeeId"), false)));
+            }
+            try (var follows = mongoTemplate.stream(query, Document.class, "follows")) {
+                follows.forEach(edge -> changes.add(
+                        new EdgeChange(edge.getString("followerId"), edge.getString("followeeId"), true)));
+            }
+
+            for (EdgeChange change : changes) {
+                if (change.added()) {
+                    addEdge(change.followerId(), change.followeeId());
+                } else {
+                    removeEdge(change.followerId(), change.followeeId());
+                }
+            }
+            syncedUpTo = syncStart;
+        } catch (RuntimeException e) {
+            logger.warn("Could not sync follow graph: {}", e.getMessage());
+        } finally {
+            loading.set(false);
+        }
+    }
+
+    /**
+     * True once the in-memory graph is complete. Without preloading the graph
+     * only ever holds edges applied through this service.
+     */
+    public boolean isLoaded() {
+        return loaded || !preload;
+    }
+
+    private void load() {
+        long start = System.nanoTime();
+        long loadStart = System.currentTimeMillis();
+        Query query = new Query();
+        query.fields().include("followerId").include("followeeId").exclude("_id");
+
+        lock.writeLock().lock();
+        try {
+            pendingChanges = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        // Append unsorted while streaming, then sort every list once at the end
+        Adjacency fresh = new Adjacency();
+        try (var edges = mongoTemplate.stream(query, Document.class, "follows")) {
+            edges.forEach(edge -> fresh.appendEdge(
+                    fresh.denseId(edge.getString("followerId")),
+                    fresh.denseId(edge.getString("followeeId"))));
+            for (int i = 0; i < fresh.nodeCount; i++) {
+                fresh.sortAndDedupe(i);
+            }
+        } catch (RuntimeException e) {
+            logger.error("Could not load follow graph, connection checks will query the database until a retry succeeds", e);
+            lock.writeLock().lock();
+            try {
+                pendingChanges = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            for (EdgeChange change : pendingChanges) {
+                if (change.added()) {
+                    fresh.addEdge(change.followerId(), change.followeeId());
+                } else {
+                    fresh.removeEdge(change.followerId(), change.followeeId());
+                }
+            }
+            pendingChanges = null;
+            graph = fresh;
+            syncedUpTo = loadStart;
+            loaded = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        GraphStats stats = getStats();
+        logger.info("Loaded follow graph in {} ms: {} users, {} edges, {} adjacency bytes ({} bytes/edge)",
+                (System.nanoTime() - start) / 1_000_000, stats.users(), stats.edges(),
+                stats.adjacencyBytes(), String.format("%.1f", stats.bytesPerEdge()));
+    }
+
+    /**
+     * Apply a new follow edge
+     */
+    public void addEdge(String followerId, String followeeId) {
+        lock.writeLock().lock();
+        try {
+            graph.addEdge(followerId, followeeId);
+            if (pendingChanges != null) {
+                pendingChanges.add(new EdgeChange(followerId, followeeId, true));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Apply a removed follow edge
+     */
+    public void removeEdge(String followerId, String followeeId) {
+        lock.writeLock().lock();
+        try {
+            graph.removeEdge(followerId, followeeId);
+            if (pendingChanges != null) {
+                pendingChanges.add(new EdgeChange(followerId, followeeId, false));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Check if one user follows another
+     */
+    public boolean follows(String followerId, String followeeId) {
+        if (!isLoaded()) {
+            return followRepository.existsByFollowerIdAndFolloweeId(followerId, followeeId);
+        }
+        lock.readLock().lock();
+        try {
+            Integer a = graph.denseIds.get(followerId);
+            Integer b = graph.denseIds.get(followeeId);
+            return a != null && b != null && graph.contains(a, b);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Two users are connected when they follow each other
+     */
+    public boolean areConnected(String userA, String userB) {
+        if (!isLoaded()) {
+            return follows(userA, userB) && follows(userB, userA);
+        }
+        lock.readLock().lock();
+        try {
+            Integer a = graph.denseIds.get(userA);
+            Integer b = graph.denseIds.get(userB);
+            return a != null && b != null && graph.contains(a, b) && graph.contains(b, a);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Check connections to many users under a single lock acquisition.
+     * Bit i of the result is set when the user is connected to otherUserIds.get(i).
+     */
+    public BitSet findConnectedAmong(String userId, List<String> otherUserIds) {
+        if (!isLoaded()) {
+            return findConnectedInDatabase(userId, otherUserIds);
+        }
+        BitSet connected = new BitSet(otherUserIds.size());
+        lock.readLock().lock();
+        try {
+            Integer a = graph.denseIds.get(userId);
+            if (a == null || graph.followingSize[a] == 0) {
+                return connected;
+            }
+            for (int i = 0; i < otherUserIds.size(); i++) {
+                Integer b = graph.denseIds.get(otherUserIds.get(i));
+                if (b != null && graph.contains(a, b) && graph.contains(b, a)) {
+                    connected.set(i);
+                }
+            }
+            return connected;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Count the users that both users follow. Only used for ranking, so it is
+     * 0 until the graph has loaded rather than a pair of unbounded queries.
+     */
+    public int mutualConnectionCount(String userA, String userB) {
+        lock.readLock().lock();
+        try {
+            Integer a = graph.denseIds.get(userA);
+            Integer b = graph.denseIds.get(userB);
+            if (a == null || b == null) {
+                return 0;
+            }
+            return intersectionSize(graph.following[a], graph.followingSize[a],
+                    graph.following[b], graph.followingSize[b]);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Copy the followee lists for offline batch jobs, indexed by dense id.
+     * The copy is detached so long-running jobs don't block follow updates.
+     */
+    public GraphSnapshot snapshot() {
+        lock.readLock().lock();
+        try {
+            int[][] lists = new int[graph.nodeCount][];
+            for (int i = 0; i < graph.nodeCount; i++) {
+                lists[i] = graph.followingSize[i] == 0 ? EMPTY : Arrays.copyOf(graph.following[i], graph.followingSize[i]);
+            }
+            return new GraphSnapshot(Arrays.copyOf(graph.userIds, graph.nodeCount), lists);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Report graph size and the memory held by the adjacency arrays
+     */
+    public GraphStats getStats() {
+        lock.readLock().lock();
+        try {
+            long bytes = 0;
+            for (int i = 0; i < graph.nodeCount; i++) {
+                bytes += arrayBytes(graph.following[i]) + arrayBytes(graph.followers[i]);
+            }
+            double perEdge = graph.edgeCount == 0 ? 0 : (double) bytes / graph.edgeCount;
+            return new GraphStats(graph.nodeCount, graph.edgeCount, bytes, perEdge);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public record GraphStats(int users, long edges, long adjacencyBytes, double bytesPerEdge) {
+    }
+
+    public record GraphSnapshot(String[] userIds, int[][] following) {
+    }
+
+    private record EdgeChange(String followerId, String followeeId, boolean added) {
+    }
+
+    private BitSet findConnectedInDatabase(String userId, List<String> otherUserIds) {
+        BitSet connected = new BitSet(otherUserIds.size());
+        Set<String> following = new HashSet<>();
+        for (Follow follow : followRepository.findFollowingAmong(userId, otherUserIds)) {
+            following.add(follow.getFolloweeId());
+        }
+        if (following.isEmpty()) {
+            return connected;
+        }
+        Set<String> followedBy = new HashSet<>();
+        for (Follow follow : followRepository.findFollowersAmong(userId, following)) {
+            followedBy.add(follow.getFollowerId());
+        }
+        for (int i = 0; i < otherUserIds.size(); i++) {
+            if (followedBy.contains(otherUserIds.get(i))) {
+                connected.set(i);
+            }
+        }
+        return connected;
+    }
+
+    /**
+     * Dense id remapping plus adjacency arrays indexed by dense id; only the
+     * first size[i] slots of each list are used. Not thread-safe on its own.
+     */
+    private static final class Adjacency {
+        private final Map<String, Integer> denseIds = new HashMap<>();
+        private String[] userIds = new String[1024];
+        private int nodeCount;
+        private int[][] following = new int[1024][];
+        private int[] followingSize = new int[1024];
+        private int[][] followers = new int[1024][];
+        private int[] followersSize = new int[1024];
+        private long edgeCount;
+
+        private void addEdge(String followerId, String followeeId) {
+            int a = denseId(followerId);
+            int b = denseId(followeeId);
+            if (insertSorted(following, followingSize, a, b)) {
+                insertSorted(followers, followersSize, b, a);
+                edgeCount++;
+            }
+        }
+
+        private void removeEdge(String followerId, String followeeId) {
+            Integer a = denseIds.get(followerId);
+            Integer b = denseIds.get(followeeId);
+            if (a == null || b == null) {
+                return;
+            }
+            if (removeSorted(following, followingSize, a, b)) {
+                removeSorted(followers, followersSize, b, a);
+                edgeCount--;
+            }
+        }
+
+        private boolean contains(int a, int b) {
+            return Arrays.binarySearch(following[a], 0, followingSize[a], b) >= 0;
+        }
+
+        private int denseId(String userId) {
+            Integer existing = denseIds.get(userId);
+            if (existing != null) {
+                return existing;
+            }
+
+            int id = nodeCount++;
+            if (id == userIds.length) {
+                int capacity = userIds.length * 2;
+                userIds = Arrays.copyOf(userIds, capacity);
+                following = Arrays.copyOf(following, capacity);
+                followingSize = Arrays.copyOf(followingSize, capacity);
+                followers = Arrays.copyOf(followers, capacity);
+                followersSize = Arrays.copyOf(followersSize, capacity);
+            }
+            userIds[id] = userId;
+            following[id] = EMPTY;
+            followers[id] = EMPTY;
+            denseIds.put(userId, id);
+            return id;
+        }
+
+        private void appendEdge(int a, int b) {
+            append(following, followingSize, a, b);
+            append(followers, followersSize, b, a);
+            edgeCount++;
+        }
+
+        private void append(int[][] lists, int[] sizes, int node, int value) {
+            int[] list = lists[node];
+            if (sizes[node] == list.length) {
+                list = Arrays.copyOf(list, Math.max(4, list.length * 2));
+                lists[node] = list;
+            }
+            list[sizes[node]++] = value;
+        }
+
+        private void sortAndDedupe(int node) {
+            int removed = dedupe(following, followingSize, node);
+            dedupe(followers, followersSize, node);
+            edgeCount -= removed;
+        }
+
+        private int dedupe(int[][] lists, int[] sizes, int node) {
+            int size = sizes[node];
+            if (size == 0) {
+                return 0;
+            }
+            int[] list = lists[node];
+            Arrays.sort(list, 0, size);
+            int unique = 1;
+            for (int i = 1; i < size; i++) {
+                if (list[i] != list[unique - 1]) {
+                    list[unique++] = list[i];
+                }
+            }
+            sizes[node] = unique;
+            // Trim the slack left over from doubling during the bulk load
+            lists[node] = Arrays.copyOf(list, unique);
+            return size - unique;
+        }
+
+        private boolean insertSorted(int[][] lists, int[] sizes, int node, int value) {
+            int[] list = lists[node];
+            int size = sizes[node];
+            int pos = Arrays.binarySearch(list, 0, size, value);
+            if (pos >= 0) {
+                return false;
+            }
+            pos = -pos - 1;
+            if (size == list.length) {
+                list = Arrays.copyOf(list, Math.max(4, size + (size >> 1) + 1));
+                lists[node] = list;
+            }
+            System.arraycopy(list, pos, list, pos + 1, size - pos);
+            list[pos] = value;
+            sizes[node] = size + 1;
+            return true;
+        }
+
+        private boolean removeSorted(int[][] lists, int[] sizes, int node, int value) {
+            int[] list = lists[node];
+            int size = sizes[node];
+            int pos = Arrays.binarySearch(list, 0, size, value);
+            if (pos < 0) {
+                return false;
+            }
+            System.arraycopy(list, pos + 1, list, pos, size - pos - 1);
+            sizes[node] = size - 1;
+            return true;
+        }
+    }
+
+    private int intersectionSize(int[] a, int aSize, int[] b, int bSize) {
+        // Probe the larger list with binary search when the sizes are very skewed
+        if (aSize > bSize) {
+            return intersectionSize(b, bSize, a, aSize);
+        }
+        int count = 0;
+        if ((long) aSize * 32 < bSize) {
+            for (int i = 0; i < aSize; i++) {
+                if (Arrays.binarySearch(b, 0, bSize, a[i]) >= 0) {
+                    count++;
+                }
+            }
+            return count;
+        }
+        int i = 0;
+        int j = 0;
+        while (i < aSize && j < bSize) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                count++;
+                i++;
+                j++;
+            }
+        }
+        return count;
+    }
+
+    private long arrayBytes(int[] list) {
+        return list.length == 0 ? 0 : ARRAY_HEADER_BYTES + 4L * list.length;
+    }
+}
@@ -0,0 +1,495 @@
+package backend.social_media_application.service;
+
+import backend.social_media_application.dto.FriendSuggestionDTO;
+import backend.social_media_application.dto.UserCard;
+import backend.social_media_application.exception.ResourceNotFoundException;
+import backend.social_media_application.model.FriendSuggestions;
+import backend.social_media_application.model.ProfileSection;
+import backend.social_media_application.model.User;
+import backend.social_media_application.repository.FriendSuggestionsRepository;
+import backend.social_media_application.repository.UserRepository;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * Friends-of-friends suggestion engine.
+ *
+ * A periodic batch walks a snapshot of the follow graph in parallel, ranks
+ * second-degree candidates by mutual follows, shared interests and matching
+ * city/hometown, and stores the top results per user in friend_suggestions.
+ */
+@Service
+public class SuggestionService {
+    private static final Logger logger = LoggerFactory.getLogger(SuggestionService.class);
+
+    private static final int MUTUAL_WEIGHT = 10;
+    private static final int INTEREST_WEIGHT = 3;
+    private static final int CITY_WEIGHT = 5;
+    private static final int HOMETOWN_WEIGHT = 3;
+
+    // Bounds the work done for users who follow very popular accounts
+    static final int MAX_SECOND_DEGREE_PER_FRIEND = 5_000;
+    private static final int LEAF_SIZE = 256;
+    private static final int NO_TOKEN = -1;
+
+    private final SocialGraphService socialGraphService;
+    private final FriendSuggestionsRepository friendSuggestionsRepository;
+    private final UserRepository userRepository;
+    private final UserCardService userCardService;
+    private final PrivacyEvaluator privacyEvaluator;
+    private final MongoTemplate mongoTemplate;
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    @Value("${app.suggestions.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.suggestions.size:20}")
+    private int suggestionsPerUser;
+
+    @Value("${app.suggestions.parallelism:0}")
+    private int parallelism;
+
+    public SuggestionService(SocialGraphService socialGraphService,
+                             FriendSuggestionsRepository friendSuggestionsRepository,
+                             UserRepository userRepository,
+                             UserCardService userCardService,
+                             PrivacyEvaluator privacyEvaluator,
+                             MongoTemplate mongoTemplate) {
+        this.socialGraphService = socialGraphService;
+        this.friendSuggestionsRepository = friendSuggestionsRepository;
+        this.userRepository = userRepository;
+        this.userCardService = userCardService;
+        this.privacyEvaluator = privacyEvaluator;
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    /**
+     * Get the precomputed suggestions for the current user
+     */
+    public List<FriendSuggestionDTO> getSuggestions(String currentUserId) {
+        User user = userRepository.findByEmail(currentUserId)
+                .orElseGet(() -> userRepository.findById(currentUserId)
+                        .orElseThrow(() -> new ResourceNotFoundException("User not found with id/email: " + currentUserId)));
+
+        FriendSuggestions stored = friendSuggestionsRepository.findById(user.getId()).orElse(null);
+        if (stored == null || stored.getSuggestions().isEmpty()) {
+            return List.of();
+        }
+
+        // Drop anyone the user started following since the last batch
+        List<FriendSuggestions.Suggestion> candidates = stored.getSuggestions().stream()
+                .filter(s -> !socialGraphService.follows(user.getId(), s.getUserId()))
+                .collect(Collectors.toList());
+
+        // Blocks and privacy changes since the batch are checked for the whole list at once
+        BitSet visible = privacyEvaluator.evaluate(user.getId(),
+                candidates.stream().map(FriendSuggestions.Suggestion::getUserId).collect(Collectors.toList()),
+                ProfileSection.BASIC_INFO);
+        List<FriendSuggestions.Suggestion> fresh = new ArrayList<>(visible.cardinality());
+        for (int i = visible.nextSetBit(0); i >= 0; i = visible.nextSetBit(i + 1)) {
+            fresh.add(candidates.get(i));
+        }
+
+        Map<String, UserCard> cards = userCardService.hydrate(
+                fresh.stream().map(FriendSuggestions.Suggestion::getUserId).collect(Collectors.toList()));
+
+        List<FriendSuggestionDTO> result = new ArrayList<>();
+        for (FriendSuggestions.Suggestion suggestion : fresh) {
+            UserCard card = cards.get(suggestion.getUserId());
+            if (card != null) {
+                result.add(new FriendSuggestionDTO(card, suggestion.getMutualCount()));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Recompute and store suggestions for every user in the follow graph
+     */
+    @Scheduled(initialDelayString = "${app.suggestions.initial-delay-ms:60000}",
+            fixedDelayString = "${app.suggestions.refresh-interval-ms:3600000}")
+    public void refreshSuggestions() {
+        if (!enabled) {
+            return;
+        }
+        if (!socialGraphService.isLoaded()) {
+            // An empty or partial graph would replace good suggestions with nothing
+            logger.info("Follow graph not loaded yet, skipping friend suggestions");
+            return;
+        }
+        if (!running.compareAndSet(false, true)) {
+            return;
+        }
+
+        long start = System.nanoTime();
+        try {
+            BatchInput input = loadBatchInput();
+            int n = input.userIds.length;
+            if (n == 0) {
+                return;
+            }
+
+            int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            AtomicInteger written = new AtomicInteger();
+            try {
+                ThreadLocal<Scratch> scratch = ThreadLocal.withInitial(() -> new Scratch(n, suggestionsPerUser));
+                pool.invoke(new SuggestionTask(input, scratch, written, LocalDateTime.now(), 0, n));
+            } finally {
+                pool.shutdown();
+            }
+
+            logger.info("Computed friend suggestions for {} users in {} ms using {} threads",
+                    written.get(), (System.nanoTime() - start) / 1_000_000, threads);
+        } catch (RuntimeException e) {
+            logger.error("Friend suggestion batch failed", e);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private BatchInput loadBatchInput() {
+        SocialGraphService.GraphSnapshot snapshot = socialGraphService.snapshot();
+        String[] userIds = snapshot.userIds();
+        int n = userIds.length;
+
+        Map<String, Integer> denseIds = new HashMap<>(n * 2);
+        for (int i = 0; i < n; i++) {
+            denseIds.put(userIds[i], i);
+        }
+
+        // Some profiles are keyed by email rather than id, so accept both
+        Query users = new Query();
+        users.fields().include("_id").include("email");
+        try (var documents = mongoTemplate.stream(users, Document.class, "users")) {
+            documents.forEach(document -> {
+                Integer id = denseIds.get(document.get("_id").toString());
+                String email = document.getString("email");
+                if (id != null && email != null) {
+                    denseIds.putIfAbsent(email, id);
+                }
+            });
+        }
+
+        boolean[] hidden = new boolean[n];
+        boolean[] noData = new boolean[n];
+        Query optedOut = new Query(new Criteria().orOperator(
+                where("showInFriendSuggestions").is(false),
+                where("allowDataForRecommendations").is(false)));
+        optedOut.fields().include("userId").include("showInFriendSuggestions").include("allowDataForRecommendations");
+        try (var documents = mongoTemplate.stream(optedOut, Document.class, "privacy_settings")) {
+            documents.forEach(document -> {
+                Integer id = denseIds.get(document.getString("userId"));
+                if (id != null) {
+                    hidden[id] = Boolean.FALSE.equals(document.getBoolean("showInFriendSuggestions"));
+                    noData[id] = Boolean.FALSE.equals(document.getBoolean("allowDataForRecommendations"));
+                }
+            });
+        }
+
+        // Intern interests and places to ints so scoring compares primitives
+        Map<String, Integer> tokens = new HashMap<>();
+        int[][] interests = new int[n][];
+        int[] city = new int[n];
+        int[] hometown = new int[n];
+        Arrays.fill(city, NO_TOKEN);
+        Arrays.fill(hometown, NO_TOKEN);
+
+        Query profiles = new Query();
+        profiles.fields().include("userId").include("interests").include("currentCity").include("hometown");
+        try (var documents = mongoTemplate.stream(profiles, Document.class, "profiles")) {
+            documents.forEach(document -> {
+                Integer id = denseIds.get(document.getString("userId"));
+                if (id == null) {
+                    return;
+                }
+                interests[id] = internAll(tokens, document.getList("interests", String.class, List.of()));
+                city[id] = intern(tokens, document.getString("currentCity"));
+                hometown[id] = intern(tokens, document.getString("hometown"));
+            });
+        }
+
+        return new BatchInput(userIds, snapshot.following(), hidden, noData, interests, city, hometown,
+                ThreadLocalRandom.current().nextInt());
+    }
+
+    private int[] internAll(Map<String, Integer> tokens, Collection<String> values) {
+        int[] ids = values.stream()
+                .mapToInt(value -> intern(tokens, value))
+                .filter(id -> id != NO_TOKEN)
+                .sorted()
+                .distinct()
+                .toArray();
+        return ids.length == 0 ? null : ids;
+    }
+
+    private int intern(Map<String, Integer> tokens, String value) {
+        if (value == null || value.isBlank()) {
+            return NO_TOKEN;
+        }
+        return tokens.computeIfAbsent(value.trim().toLowerCase(), key -> tokens.size());
+    }
+
+    /**
+     * Graph and profile data for one batch; rotation varies which neighbours are sampled per batch
+     */
+    record BatchInput(String[] userIds, int[][] following, boolean[] hidden, boolean[] noData,
+                      int[][] interests, int[] city, int[] hometown, int rotation) {
+    }
+
+    /**
+     * Per-thread working memory, reused across every user a worker processes
+     */
+    static class Scratch {
+        final int[] counts;
+        final int[] touched;
+        final TopK topK;
+
+        Scratch(int n, int k) {
+            this.counts = new int[n];
+            this.touched = new int[n];
+            this.topK = new TopK(k);
+        }
+    }
+
+    private class SuggestionTask extends RecursiveAction {
+        private final BatchInput input;
+        private final ThreadLocal<Scratch> scratch;
+        private final AtomicInteger written;
+        private final LocalDateTime computedAt;
+        private final int from;
+        private final int to;
+
+        SuggestionTask(BatchInput input, ThreadLocal<Scratch> scratch, AtomicInteger written,
+                       LocalDateTime computedAt, int from, int to) {
+            this.input = input;
+            this.scratch = scratch;
+            this.written = written;
+            this.computedAt = computedAt;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= LEAF_SIZE) {
+                computeRange();
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new SuggestionTask(input, scratch, written, computedAt, from, mid),
+                    new SuggestionTask(input, scratch, written, computedAt, mid, to));
+        }
+
+        private void computeRange() {
+            Scratch s = scratch.get();
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, FriendSuggestions.class);
+
+            for (int u = from; u < to; u++) {
+                List<FriendSuggestions.Suggestion> suggestions = suggestFor(input, u, s);
+                bulk.upsert(new Query(where("_id").is(input.userIds[u])),
+                        new Update().set("suggestions", suggestions).set("computedAt", computedAt));
+            }
+
+            bulk.execute();
+            written.addAndGet(to - from);
+        }
+    }
+
+    /**
+     * Rank u's second-degree candidates. Followees with more than MAX_SECOND_DEGREE_PER_FRIEND
+     * follows contribute a window starting at a per-user, per-batch offset, so no fixed slice
+     * of the id space is always favoured.
+     */
+    static List<FriendSuggestions.Suggestion> suggestFor(BatchInput input, int u, Scratch s) {
+        int[] mine = input.following[u];
+        if (mine.length == 0) {
+            return List.of();
+        }
+
+        // Count how many of u's followees follow each second-degree candidate
+        int touchedCount = 0;
+        for (int friend : mine) {
+            int[] theirs = input.following[friend];
+            int limit = Math.min(theirs.length, MAX_SECOND_DEGREE_PER_FRIEND);
+            int offset = limit < theirs.length ? sampleOffset(input.rotation, u, friend, theirs.length) : 0;
+            for (int k = 0; k < limit; k++) {
+                int index = offset + k;
+                int candidate = theirs[index < theirs.length ? index : index - theirs.length];
+                if (candidate != u && s.counts[candidate]++ == 0) {
+                    s.touched[touchedCount++] = candidate;
+                }
+            }
+        }
+
+        s.topK.reset();
+        for (int t = 0; t < touchedCount; t++) {
+            int candidate = s.touched[t];
+            if (input.hidden[candidate] || Arrays.binarySearch(mine, candidate) >= 0) {
+                continue;
+            }
+            s.topK.offer(s.counts[candidate] * MUTUAL_WEIGHT + affinity(input, u, candidate), candidate);
+        }
+
+        long[] ranked = s.topK.drainDescending();
+        List<FriendSuggestions.Suggestion> suggestions = new ArrayList<>(ranked.length);
+        for (long entry : ranked) {
+            int candidate = TopK.candidate(entry);
+            suggestions.add(new FriendSuggestions.Suggestion(
+                    input.userIds[candidate], s.counts[candidate], TopK.score(entry)));
+        }
+
+        for (int t = 0; t < touchedCount; t++) {
+            s.counts[s.touched[t]] = 0;
+        }
+        return suggestions;
+    }
+
+    private static int affinity(BatchInput input, int u, int candidate) {
+        if (input.noData[u] || input.noData[candidate]) {
+            return 0;
+        }
+        int score = sharedCount(input.interests[u], input.interests[candidate]) * INTEREST_WEIGHT;
+        if (input.city[u] != NO_TOKEN && input.city[u] == input.city[candidate]) {
+            score += CITY_WEIGHT;
+        }
+        if (input.hometown[u] != NO_TOKEN && input.hometown[u] == input.hometown[candidate]) {
+            score += HOMETOWN_WEIGHT;
+        }
+        return score;
+    }
+
+    private static int sharedCount(int[] a, int[] b) {
+        if (a == null || b == null) {
+            return 0;
+        }
+        int count = 0;
+        int i = 0;
+        int j = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                count++;
+                i++;
+                j++;
+            }
+        }
+        return count;
+    }
+
+    // Mixes the batch rotation with the (user, followee) pair into a start index
+    private static int sampleOffset(int rotation, int u, int friend, int length) {
+        long h = (rotation * 0x9E3779B97F4A7C15L) ^ ((long) u << 32 | (friend & 0xffffffffL));
+        h = (h ^ (h >>> 33)) * 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        return (int) Math.floorMod(h, (long) length);
+    }
+
+    /**
+     * Bounded min-heap keeping the k best (score, candidate) pairs packed into longs
+     */
+    static class TopK {
+        private final long[] heap;
+        private int size;
+
+        TopK(int k) {
+            this.heap = new long[Math.max(k, 1)];
+        }
+
+        static int score(long entry) {
+            return (int) (entry >>> 32);
+        }
+
+        static int candidate(long entry) {
+            return (int) entry;
+        }
+
+        void reset() {
+            size = 0;
+        }
+
+        void offer(int score, int candidate) {
+            long entry = ((long) score << 32) | (candidate & 0xffffffffL);
+            if (size < heap.length) {
+                heap[size] = entry;
+                siftUp(size++);
+            } else if (entry > heap[0]) {
+                heap[0] = entry;
+                siftDown(0);
+            }
+        }
+
+        long[] drainDescending() {
+            long[] result = Arrays.copyOf(heap, size);
+            Arrays.sort(result);
+            for (int i = 0, j = result.length - 1; i < j; i++, j--) {
+                long tmp = result[i];
+                result[i] = result[j];
+                result[j] = tmp;
+            }
+            size = 0;
+            return result;
+        }
+
+        private void siftUp(int i) {
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (heap[parent] <= heap[i]) {
+                    return;
+                }
+                swap(parent, i);
+                i = parent;
+            }
+        }
+
+        private void siftDown(int i) {
+            while (true) {
+                int left = 2 * i + 1;
+                if (left >= size) {
+                    return;
+                }
+                int smallest = left + 1 < size && heap[left + 1] < heap[left] ? left + 1 : left;
+                if (heap[i] <= heap[smallest]) {
+                    return;
+                }
+                swap(i, smallest);
+                i = smallest;
+            }
+        }
+
+        private void swap(int a, int b) {
+            long tmp = heap[a];
+            heap[a] = heap[b];
+            heap[b] = tmp;
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package backend.social_media_application.service;
+
+import backend.social_media_application.exception.UploadRejectedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Admission control for upload bodies. Each upload reserves its declared size
+ * from a global in-flight byte budget and one of its user's concurrent upload
+ * slots before the body is read, and gives both back when the request ends.
+ * A user over their cap gets 429; a full budget gets 503. Both carry
+ * Retry-After, so one client can't hold all upload threads and temp disk.
+ */
+@Service
+public class UploadAdmissionService {
+
+    private final long maxInFlightBytes;
+    private final int maxConcurrentPerUser;
+    private final long unknownLengthBytes;
+    private final long retryAfterSeconds;
+
+    private final AtomicLong inFlightBytes = new AtomicLong();
+    private final Map<String, Integer> uploadsByUser = new ConcurrentHashMap<>();
+    private final Counter rejectedByUser;
+    private final Counter rejectedByBudget;
+
+    public UploadAdmissionService(MeterRegistry meterRegistry,
+                                  @Value("${app.uploads.admission.max-inflight-bytes:256MB}") DataSize maxInFlightBytes,
+                                  @Value("${app.uploads.admission.max-concurrent-per-user:2}") int maxConcurrentPerUser,
+                                  @Value("${spring.servlet.multipart.max-request-size:10MB}") DataSize maxRequestSize,
+                                  @Value("${app.uploads.admission.retry-after-seconds:5}") long retryAfterSeconds) {
+        this.maxInFlightBytes = maxInFlightBytes.toBytes();
+        this.maxConcurrentPerUser = maxConcurrentPerUser;
+        this.unknownLengthBytes = maxRequestSize.toBytes();
+        this.retryAfterSeconds = retryAfterSeconds;
+
+        Gauge.builder("uploads.admission.inflight.bytes", inFlightBytes, AtomicLong::get)
+                .description("Bytes reserved by uploads in progress")
+                .register(meterRegistry);
+        rejectedByUser = Counter.builder("uploads.admission.rejected").tag("reason", "user-limit")
+                .register(meterRegistry);
+        rejectedByBudget = Counter.builder("uploads.admission.rejected").tag("reason", "capacity")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Reserve capacity for an upload of the given Content-Length (-1 if
+     * unknown, which reserves the largest allowed request)
+     */
+    public Permit admit(String userKey, long contentLength) {
+        long bytes = contentLength >= 0 ? contentLength : unknownLengthBytes;
+
+        int[] count = new int[1];
+        uploadsByUser.compute(userKey, (key, current) -> {
+            count[0] = current == null ? 0 : current;
+            return count[0] < maxConcurrentPerUser ? count[0] + 1 : current;
+        });
+        if (count[0] >= maxConcurrentPerUser) {
+            rejectedByUser.increment();
+            throw new UploadRejectedException(HttpStatus.TOO_MANY_REQUESTS,
+                    "Too many uploads in progress; wait for one to finish", retryAfterSeconds);
+        }
+
+        if (!reserve(bytes)) {
+            releaseSlot(userKey);
+            rejectedByBudget.increment();
+            throw new UploadRejectedException(HttpStatus.SERVICE_UNAVAILABLE,
+                    "Upload capacity is exhausted; try again shortly", retryAfterSeconds);
+        }
+        return new Permit(userKey, bytes);
+    }
+
+    private boolean reserve(long bytes) {
+        while (true) {
+            long current = inFlightBytes.get();
+            // A single upload larger than the whole budget may still run when nothing else is
+            if (current > 0 && current + bytes > maxInFlightBytes) {
+                return false;
+            }
+            if (inFlightBytes.compareAndSet(current, current + bytes)) {
+                return true;
+            }
+        }
+    }
+
+    private void releaseSlot(String userKey) {
+        uploadsByUser.computeIfPresent(userKey, (key, current) -> current > 1 ? current - 1 : null);
+    }
+
+    public long inFlightBytes() {
+        return inFlightBytes.get();
+    }
+
+    public int uploadsInProgress(String userKey) {
+        return uploadsByUser.getOrDefault(userKey, 0);
+    }
+
+    /**
+     * Capacity held by one upload; release it exactly once when the request ends
+     */
+    public final class Permit {
+        private final String userKey;
+        private final long bytes;
+        private boolean released;
+
+        private Permit(String userKey, long bytes) {
+            this.userKey = userKey;
+            this.bytes = bytes;
+        }
+
+        public synchronized void release() {
+            if (released) {
+                return;
+            }
+            released = true;
+            inFlightBytes.addAndGet(-bytes);
+            releaseSlot(userKey);
+        }
+    }
+}
@@ -0,0 +1,240 @@
+package backend.social_media_application.service;
+
+import backend.social_media_application.dto.UploadSessionDTO;
+import backend.social_media_application.dto.UploadSessionRequest;
+import backend.social_media_application.exception.BadRequestException;
+import backend.social_media_application.exception.ResourceNotFoundException;
+import backend.social_media_application.model.UploadSession;
+import backend.social_media_application.repository.UploadSessionRepository;
+import backend.social_media_application.util.ImageTypeSniffer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.io.InputStream;
+import java.time.LocalDateTime;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * Resumable chunked uploads for avatars and cover photos.
+ *
+ * A client creates a session with the final size, PUTs byte ranges in order
+ * (each starting at or before the current offset, so retried or overlapping
+ * chunks are fine), asks for the current offset after a reconnect, and
+ * commits once every byte has arrived. Session state lives in Mongo and the
+ * bytes in a part file, so uploads survive restarts.
+ */
+@Service
+public class UploadSessionService {
+    private static final Logger logger = LoggerFactory.getLogger(UploadSessionService.class);
+
+    private static final int MAX_OPEN_SESSIONS_PER_USER = 5;
+
+    // A commit claim older than this belongs to a node that died mid-commit
+    private static final long STALE_COMMIT_MINUTES = 5;
+
+    private final UploadSessionRepository uploadSessionRepository;
+    private final FileStorageService fileStorageService;
+    private final ProfileService profileService;
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${spring.servlet.multipart.max-file-size:10MB}")
+    private DataSize maxUploadSize;
+
+    @Value("${app.uploads.session-ttl-hours:24}")
+    private long sessionTtlHours;
+
+    public UploadSessionService(UploadSessionRepository uploadSessionRepository,
+                                FileStorageService fileStorageService,
+                                ProfileService profileService,
+                                MongoTemplate mongoTemplate) {
+        this.uploadSessionRepository = uploadSessionRepository;
+        this.fileStorageService = fileStorageService;
+        this.profileService = profileService;
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    /**
+     * Start a new upload session
+     */
+    public UploadSessionDTO createSession(String userId, UploadSessionRequest request) {
+        UploadSession.Kind kind;
+        try {
+            kind = UploadSession.Kind.valueOf(request.getKind());
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid upload kind: " + request.getKind());
+        }
+        if (request.getSize() > maxUploadSize.toBytes()) {
+            throw new BadRequestException("File is larger than the " + maxUploadSize.toMegabytes() + "MB limit");
+        }
+        if (uploadSessionRepository.countByUserIdAndStatus(userId, UploadSession.Status.OPEN) >= MAX_OPEN_SESSIONS_PER_USER) {
+            throw new BadRequestException("Too many uploads in progress");
+        }
+
+        UploadSession session = new UploadSession();
+        session.setUserId(userId);
+        session.setKind(kind);
+        session.setFilename(request.getFilename());
+        session.setTotalSize(request.getSize());
+        session.setCreatedAt(LocalDateTime.now());
+        session.setExpiresAt(session.getCreatedAt().plusHours(sessionTtlHours));
+        return toDTO(uploadSessionRepository.save(session));
+    }
+
+    /**
+     * Get the session, including the offset to resume from
+     */
+    public UploadSessionDTO getSession(String userId, String sessionId) {
+        return toDTO(findOwned(userId, sessionId));
+    }
+
+    /**
+     * Write the bytes [start, start + length) of the upload. Chunks must start
+     * at or before the current offset, so the received prefix never has gaps.
+     * Only a chunk starting at 0, which the controller sniffs, may write the
+     * image header.
+     */
+    public UploadSessionDTO writeChunk(String userId, String sessionId, long start, long length, InputStream content) {
+        UploadSession session = findOwned(userId, sessionId);
+        if (session.getStatus() != UploadSession.Status.OPEN) {
+            throw new BadRequestException("Upload is already being committed");
+        }
+        if (start < 0 || start > session.getReceivedBytes()) {
+            throw new BadRequestException("Chunk must start at or before offset " + session.getReceivedBytes());
+        }
+        if (start > 0 && start < ImageTypeSniffer.HEADER_BYTES) {
+            throw new BadRequestException("The first " + ImageTypeSniffer.HEADER_BYTES
+                    + " bytes can only be written by a chunk starting at 0");
+        }
+        if (length <= 0 || start + length > session.getTotalSize()) {
+            throw new BadRequestException("Chunk extends past the end of the upload");
+        }
+
+        long written = fileStorageService.writeChunk(sessionId, start, content, length);
+        if (written != length) {
+            // A short body leaves the offset where it was; the client resends from there
+            throw new BadRequestException("Expected " + length + " bytes but received " + written);
+        }
+
+        // $max keeps the offset monotonic when retried chunks race each other
+        UploadSession updated = mongoTemplate.findAndModify(
+                new Query(where("_id").is(sessionId)),
+                new Update().max("receivedBytes", start + written),
+                FindAndModifyOptions.options().returnNew(true),
+                UploadSession.class);
+        return toDTO(updated != null ? updated : session);
+    }
+
+    /**
+     * Finish the upload and hand the file to the profile. The session is
+     * claimed first, so concurrent commits can't both store the file.
+     */
+    public UploadSessionDTO commit(String userId, String sessionId) {
+        UploadSession session = findOwned(userId, sessionId);
+        if (session.getStatus() == UploadSession.Status.COMMITTED) {
+            // Committing twice is a no-op so clients can safely retry
+            return toDTO(session);
+        }
+        if (session.getReceivedBytes() != session.getTotalSize()) {
+            throw new BadRequestException("Upload incomplete: " + session.getReceivedBytes()
+                    + " of " + session.getTotalSize() + " bytes received");
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        Query claimable = new Query(where("_id").is(sessionId).orOperator(
+                where("status").is(UploadSession.Status.OPEN),
+                where("status").is(UploadSession.Status.COMMITTING)
+                        .and("commitStartedAt").lt(now.minusMinutes(STALE_COMMIT_MINUTES))));
+        UploadSession claimed = mongoTemplate.findAndModify(claimable,
+                new Update().set("status", UploadSession.Status.COMMITTING).set("commitStartedAt", now),
+                FindAndModifyOptions.options().returnNew(true),
+                UploadSession.class);
+        if (claimed == null) {
+            UploadSession current = findOwned(userId, sessionId);
+            if (current.getStatus() == UploadSession.Status.COMMITTED) {
+                return toDTO(current);
+            }
+            throw new BadRequestException("Upload is already being committed");
+        }
+
+        String filePath;
+        try {
+            // Check what was actually assembled: the header could have been sent more than once
+            if (fileStorageService.sniffUpload(sessionId) == null) {
+                throw new BadRequestException("Unsupported image type; expected JPEG, PNG, GIF or WebP");
+            }
+            filePath = claimed.getKind() == UploadSession.Kind.AVATAR
+                    ? profileService.uploadAvatarFromSession(userId, sessionId, claimed.getFilename())
+                    : profileService.uploadCoverPhotoFromSession(userId, sessionId, claimed.getFilename());
+        } catch (RuntimeException e) {
+            // Release the claim so the client can retry
+            mongoTemplate.updateFirst(
+                    new Query(where("_id").is(sessionId).and("status").is(UploadSession.Status.COMMITTING)),
+                    new Update().set("status", UploadSession.Status.OPEN).unset("commitStartedAt"),
+                    UploadSession.class);
+            throw e;
+        }
+
+        claimed.setStatus(UploadSession.Status.COMMITTED);
+        claimed.setFilePath(filePath);
+        return toDTO(uploadSessionRepository.save(claimed));
+    }
+
+    /**
+     * Abandon an upload and free its disk space
+     */
+    public void abort(String userId, String sessionId) {
+        UploadSession session = findOwned(userId, sessionId);
+        fileStorageService.deleteChunks(sessionId);
+        uploadSessionRepository.delete(session);
+    }
+
+    /**
+     * Remove expired sessions and their part files
+     */
+    @Scheduled(fixedDelayString = "${app.uploads.cleanup-interval-ms:3600000}")
+    public void removeExpiredSessions() {
+        int removed = 0;
+        LocalDateTime now = LocalDateTime.now();
+        for (UploadSession session : uploadSessionRepository.findByExpiresAtBefore(now)) {
+            if (session.getStatus() == UploadSession.Status.COMMITTING && session.getCommitStartedAt() != null
+                    && session.getCommitStartedAt().isAfter(now.minusMinutes(STALE_COMMIT_MINUTES))) {
+                // A commit is still reading the part file; it is cleaned up on a later run if it dies
+                continue;
+            }
+            if (session.getStatus() != UploadSession.Status.COMMITTED) {
+                fileStorageService.deleteChunks(session.getId());
+            }
+            uploadSessionRepository.delete(session);
+            removed++;
+        }
+        if (removed > 0) {
+            logger.info("Removed {} expired upload sessions", removed);
+        }
+    }
+
+    private UploadSession findOwned(String userId, String sessionId) {
+        return uploadSessionRepository.findById(sessionId)
+                .filter(session -> session.getUserId().equals(userId))
+                .orElseThrow(() -> new ResourceNotFoundException("Upload not found with id: " + sessionId));
+    }
+
+    private UploadSessionDTO toDTO(UploadSession session) {
+        UploadSessionDTO dto = new UploadSessionDTO();
+        dto.setUploadId(session.getId());
+        dto.setKind(session.getKind().name());
+        dto.setSize(session.getTotalSize());
+        dto.setOffset(session.getReceivedBytes());
+        dto.setStatus(session.getStatus().name());
+        dto.setFilePath(session.getFilePath());
+        return dto;
+    }
+}
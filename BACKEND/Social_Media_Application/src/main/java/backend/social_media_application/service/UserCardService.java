@@ -0,0 +1,93 @@
+package backend.social_media_application.service;
+
+import backend.social_media_application.dto.UserCard;
+import backend.social_media_application.model.User;
+import backend.social_media_application.repository.UserRepository;
+import backend.social_media_application.util.LruCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Service
+public class UserCardService {
+
+    private final UserRepository userRepository;
+    private final LruCache<String, UserCard> cache;
+
+    public UserCardService(UserRepository userRepository,
+                           @Value("${app.user-card.cache-size:10000}") int cacheSize) {
+        this.userRepository = userRepository;
+        this.cache = new LruCache<>(cacheSize);
+    }
+
+    /**
+     * Get the card for a single user, or null if the user doesn't exist
+     */
+    public UserCard getCard(String userId) {
+        return hydrate(Collections.singletonList(userId)).get(userId);
+    }
+
+    /**
+     * Resolve cards for many users at once, keyed by id in request order.
+     * Unknown ids are left out of the result.
+     */
+    public Map<String, UserCard> hydrate(Collection<String> userIds) {
+        Map<String, UserCard> cards = new LinkedHashMap<>();
+        List<String> misses = new ArrayList<>();
+
+        for (String userId : userIds) {
+            if (userId == null || cards.containsKey(userId)) {
+                continue;
+            }
+            UserCard card = cache.get(userId);
+            if (card != null) {
+                cards.put(userId, card);
+            } else {
+                // Keep the slot so the result preserves request order
+                cards.put(userId, null);
+                misses.add(userId);
+            }
+        }
+
+        if (!misses.isEmpty()) {
+            for (User user : userRepository.findCardsByIdIn(misses)) {
+                UserCard card = toCard(user);
+                cache.put(card.id(), card);
+                cards.put(card.id(), card);
+            }
+        }
+
+        cards.values().removeIf(card -> card == null);
+        return cards;
+    }
+
+    /**
+     * Drop a cached card after the user's name, avatar or verified flag changes
+     */
+    public void invalidate(String userId) {
+        cache.remove(userId);
+    }
+
+    private UserCard toCard(User user) {
+        return new UserCard(
+                user.getId(),
+                user.getUsername(),
+                displayName(user),
+                user.getAvatar(),
+                user.isVerified()
+        );
+    }
+
+    private String displayName(User user) {
+        String first = user.getFirstName() != null ? user.getFirstName().trim() : "";
+        String last = user.getLastName() != null ? user.getLastName().trim() : "";
+        String name = (first + " " + last).trim();
+        return name.isEmpty() ? user.getUsername() : name;
+    }
+}
@@ -0,0 +1,170 @@
+package backend.social_media_application.service;
+
+import backend.social_media_application.model.UserSequence;
+import backend.social_media_application.repository.UserSequenceRepository;
+import backend.social_media_application.util.LruCache;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * Assigns users small, dense, never-reused integers so they can be stored in
+ * compressed bitmaps. Numbers are handed out lazily, the first time a user is
+ * added to an audience.
+ */
+@Service
+public class UserSequenceService {
+
+    public static final int NONE = -1;
+
+    private static final String COUNTERS = "counters";
+    private static final String COUNTER_ID = "user_seq";
+
+    // How long "no number yet" is trusted; numbers assigned on other nodes show up after this
+    private static final long UNASSIGNED_TTL_MS = 30_000;
+
+    private final UserSequenceRepository userSequenceRepository;
+    private final MongoTemplate mongoTemplate;
+
+    // Assignments never change once made, so both directions can be cached freely
+    private final LruCache<String, Integer> seqByUser;
+    private final LruCache<Integer, String> userBySeq;
+    // Users without a number, with when that answer expires
+    private final LruCache<String, Long> unassignedUntil;
+
+    public UserSequenceService(UserSequenceRepository userSequenceRepository,
+                               MongoTemplate mongoTemplate,
+                               @Value("${app.audiences.sequence-cache-size:100000}") int cacheSize) {
+        this.userSequenceRepository = userSequenceRepository;
+        this.mongoTemplate = mongoTemplate;
+        this.seqByUser = new LruCache<>(cacheSize);
+        this.userBySeq = new LruCache<>(cacheSize);
+        this.unassignedUntil = new LruCache<>(cacheSize);
+    }
+
+    /**
+     * Get the user's number without assigning one, or NONE
+     */
+    public int findSeq(String userId) {
+        if (userId == null) {
+            return NONE;
+        }
+        Integer cached = seqByUser.get(userId);
+        if (cached != null) {
+            return cached;
+        }
+        // Most viewers are never added to an audience, so the miss is cached too
+        Long until = unassignedUntil.get(userId);
+        if (until != null && until > System.currentTimeMillis()) {
+            return NONE;
+        }
+        return userSequenceRepository.findById(userId)
+                .map(sequence -> {
+                    remember(sequence);
+                    return sequence.getSeq();
+                })
+                .orElseGet(() -> {
+                    unassignedUntil.put(userId, System.currentTimeMillis() + UNASSIGNED_TTL_MS);
+                    return NONE;
+                });
+    }
+
+    /**
+     * Get numbers for many users, assigning any that are missing
+     */
+    public Map<String, Integer> getOrAssignSeqs(Collection<String> userIds) {
+        Map<String, Integer> seqs = new HashMap<>(userIds.size() * 2);
+        List<String> misses = new ArrayList<>();
+        for (String userId : userIds) {
+            Integer cached = seqByUser.get(userId);
+            if (cached != null) {
+                seqs.put(userId, cached);
+            } else if (!seqs.containsKey(userId)) {
+                misses.add(userId);
+            }
+        }
+        if (misses.isEmpty()) {
+            return seqs;
+        }
+
+        for (UserSequence sequence : userSequenceRepository.findByUserIdIn(misses)) {
+            remember(sequence);
+            seqs.put(sequence.getUserId(), sequence.getSeq());
+        }
+
+        List<String> unassigned = misses.stream().filter(id -> !seqs.containsKey(id)).distinct().toList();
+        if (!unassigned.isEmpty()) {
+            // Reserve a block of numbers with one counter update
+            int next = reserve(unassigned.size());
+            for (String userId : unassigned) {
+                seqs.put(userId, assign(userId, next++));
+            }
+        }
+        return seqs;
+    }
+
+    /**
+     * Map numbers back to user ids. Unknown numbers are left out.
+     */
+    public Map<Integer, String> findUserIds(Collection<Integer> seqs) {
+        Map<Integer, String> userIds = new HashMap<>(seqs.size() * 2);
+        List<Integer> misses = new ArrayList<>();
+        for (Integer seq : seqs) {
+            String cached = userBySeq.get(seq);
+            if (cached != null) {
+                userIds.put(seq, cached);
+            } else {
+                misses.add(seq);
+            }
+        }
+        if (!misses.isEmpty()) {
+            for (UserSequence sequence : userSequenceRepository.findBySeqIn(misses)) {
+                remember(sequence);
+                userIds.put(sequence.getSeq(), sequence.getUserId());
+            }
+        }
+        return userIds;
+    }
+
+    private int assign(String userId, int seq) {
+        try {
+            UserSequence sequence = mongoTemplate.insert(new UserSequence(userId, seq));
+            remember(sequence);
+            return seq;
+        } catch (DuplicateKeyException e) {
+            // Another request numbered this user first; the reserved number is simply skipped
+            UserSequence existing = userSequenceRepository.findById(userId).orElseThrow(() -> e);
+            remember(existing);
+            return existing.getSeq();
+        }
+    }
+
+    private int reserve(int count) {
+        Document counter = mongoTemplate.findAndModify(
+                new Query(where("_id").is(COUNTER_ID)),
+                new Update().inc("seq", count),
+                FindAndModifyOptions.options().returnNew(true).upsert(true),
+                Document.class, COUNTERS);
+        // The counter holds the last number handed out
+        return ((Number) counter.get("seq")).intValue() - count + 1;
+    }
+
+    private void remember(UserSequence sequence) {
+        unassignedUntil.remove(sequence.getUserId());
+        seqByUser.put(sequence.getUserId(), sequence.getSeq());
+        userBySeq.put(sequence.getSeq(), sequence.getUserId());
+    }
+}
@@ -0,0 +1,6 @@
+package backend.social_media_application.service.storage;
+
+import java.time.Instant;
+
+public record BlobInfo(String key, long size, Instant lastModified) {
+}
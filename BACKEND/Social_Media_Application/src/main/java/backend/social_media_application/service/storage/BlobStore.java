@@ -0,0 +1,63 @@
+package backend.social_media_application.service.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Where uploaded files finally live. Keys are relative paths such as
+ * "blobs/ab/cd/<sha256>.jpg" or "avatars/x.png".
+ *
+ * Files are always staged on local disk first (to hash them and to survive
+ * slow clients), then handed over whole with {@link #put}, so implementations
+ * never see partial content.
+ */
+public interface BlobStore {
+
+    /**
+     * Store the staged file under the key, replacing any existing blob. The
+     * source file is consumed: it is moved or deleted once stored.
+     */
+    void put(String key, Path source) throws IOException;
+
+    /**
+     * Size and modification time of a blob, or empty if it doesn't exist
+     */
+    Optional<BlobInfo> stat(String key) throws IOException;
+
+    /**
+     * Stream length bytes of the blob starting at offset
+     */
+    InputStream open(String key, long offset, long length) throws IOException;
+
+    /**
+     * Delete a blob; returns false if it didn't exist
+     */
+    boolean delete(String key) throws IOException;
+
+    /**
+     * Mark the blob as recently used, so age-based cleanup leaves it alone.
+     * Throws NoSuchFileException if the blob is gone.
+     */
+    void touch(String key) throws IOException;
+
+    /**
+     * Visit every stored blob
+     */
+    void list(Consumer<BlobInfo> visitor) throws IOException;
+
+    /**
+     * The blob's file on local disk, if this store keeps one, for zero-copy serving
+     */
+    default Optional<Path> localPath(String key) {
+        return Optional.empty();
+    }
+
+    /**
+     * Release threads or connections the store owns; called on shutdown
+     */
+    default void close() {
+    }
+}
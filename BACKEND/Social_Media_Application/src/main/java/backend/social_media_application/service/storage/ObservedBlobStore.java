@@ -0,0 +1,76 @@
+package backend.social_media_application.service.storage;
+
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Wraps a blob store so every call shows up as a "storage.blob" span (and
+ * timer) tagged with the operation and store type. For open() the span
+ * covers opening the stream, not reading it.
+ */
+public class ObservedBlobStore implements BlobStore {
+
+    private final BlobStore delegate;
+    private final String storeType;
+    private final ObservationRegistry observationRegistry;
+
+    public ObservedBlobStore(BlobStore delegate, String storeType, ObservationRegistry observationRegistry) {
+        this.delegate = delegate;
+        this.storeType = storeType;
+        this.observationRegistry = observationRegistry;
+    }
+
+    @Override
+    public void put(String key, Path source) throws IOException {
+        observation("put", key).observeChecked(() -> delegate.put(key, source));
+    }
+
+    @Override
+    public Optional<BlobInfo> stat(String key) throws IOException {
+        return observation("stat", key).observeChecked(() -> delegate.stat(key));
+    }
+
+    @Override
+    public InputStream open(String key, long offset, long length) throws IOException {
+        return observation("open", key).observeChecked(() -> delegate.open(key, offset, length));
+    }
+
+    @Override
+    public boolean delete(String key) throws IOException {
+        return observation("delete", key).observeChecked(() -> delegate.delete(key));
+    }
+
+    @Override
+    public void touch(String key) throws IOException {
+        observation("touch", key).observeChecked(() -> delegate.touch(key));
+    }
+
+    @Override
+    public void list(Consumer<BlobInfo> visitor) throws IOException {
+        observation("list", null).observeChecked(() -> delegate.list(visitor));
+    }
+
+    @Override
+    public Optional<Path> localPath(String key) {
+        return delegate.localPath(key);
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+
+    private Observation observation(String operation, String key) {
+        Observation observation = Observation.createNotStarted("storage.blob", observationRegistry)
+                .contextualName("blob " + operation)
+                .lowCardinalityKeyValue("operation", operation)
+                .lowCardinalityKeyValue("store", storeType);
+        return key != null ? observation.highCardinalityKeyValue("key", key) : observation;
+    }
+}
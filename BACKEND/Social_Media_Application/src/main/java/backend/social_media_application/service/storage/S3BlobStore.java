@@ -0,0 +1,235 @@
+package backend.social_media_application.service.storage;
+
+import backend.social_media_application.util.ImageTypeSniffer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+import software.amazon.awssdk.services.s3.model.MetadataDirective;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+import software.amazon.awssdk.services.s3.model.S3Object;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/**
+ * Blobs in an S3-compatible bucket (AWS S3, MinIO, Ceph RGW, ...), so every
+ * app node sees the same files.
+ *
+ * Files up to one part are stored with a single PUT. Larger ones use a
+ * multipart upload whose parts are read from the staged file with positional
+ * reads and sent in parallel, so memory stays at parallelism x part size.
+ * Reads are streamed straight from the GET response.
+ */
+public class S3BlobStore implements BlobStore {
+    private static final Logger logger = LoggerFactory.getLogger(S3BlobStore.class);
+
+    // S3 rejects multipart parts smaller than this, except the last
+    public static final long MIN_PART_SIZE = 5L * 1024 * 1024;
+
+    private final S3Client s3;
+    private final String bucket;
+    private final long partSize;
+    private final ExecutorService uploadExecutor;
+    private final boolean ownsExecutor;
+
+    /**
+     * Upload parts on a pool of the given size, owned by this store
+     */
+    public S3BlobStore(S3Client s3, String bucket, long partSize, int uploadParallelism) {
+        this(s3, bucket, partSize, Executors.newFixedThreadPool(uploadParallelism, runnable -> {
+            Thread thread = new Thread(runnable, "s3-upload");
+            thread.setDaemon(true);
+            return thread;
+        }), true);
+    }
+
+    /**
+     * Upload parts on an executor owned by the caller
+     */
+    public S3BlobStore(S3Client s3, String bucket, long partSize, ExecutorService uploadExecutor) {
+        this(s3, bucket, partSize, uploadExecutor, false);
+    }
+
+    private S3BlobStore(S3Client s3, String bucket, long partSize, ExecutorService uploadExecutor,
+                        boolean ownsExecutor) {
+        this.s3 = s3;
+        this.bucket = bucket;
+        this.partSize = partSize;
+        this.uploadExecutor = uploadExecutor;
+        this.ownsExecutor = ownsExecutor;
+    }
+
+    @Override
+    public void put(String key, Path source) throws IOException {
+        long size = Files.size(source);
+        String contentType = MediaTypeFactory.getMediaType(key)
+                .map(MediaType::toString)
+                .filter(ImageTypeSniffer::isImageType)
+                .orElse(MediaType.APPLICATION_OCTET_STREAM_VALUE);
+        try {
+            if (size <= partSize) {
+                s3.putObject(request -> request.bucket(bucket).key(key).contentType(contentType),
+                        RequestBody.fromFile(source));
+            } else {
+                putMultipart(key, source, size, contentType);
+            }
+        } catch (S3Exception ex) {
+            throw new IOException("Could not store " + key + " in bucket " + bucket, ex);
+        }
+        Files.deleteIfExists(source);
+    }
+
+    private void putMultipart(String key, Path source, long size, String contentType) throws IOException {
+        String uploadId = s3.createMultipartUpload(request -> request.bucket(bucket).key(key)
+                .contentType(contentType)).uploadId();
+        try {
+            int partCount = (int) ((size + partSize - 1) / partSize);
+            List<Future<CompletedPart>> futures = new ArrayList<>(partCount);
+            for (int i = 0; i < partCount; i++) {
+                int partNumber = i + 1;
+                long offset = i * partSize;
+                int length = (int) Math.min(partSize, size - offset);
+                futures.add(uploadExecutor.submit(() -> uploadPart(key, uploadId, source, partNumber, offset, length)));
+            }
+
+            List<CompletedPart> parts = new ArrayList<>(partCount);
+            for (Future<CompletedPart> future : futures) {
+                parts.add(future.get());
+            }
+            s3.completeMultipartUpload(request -> request.bucket(bucket).key(key).uploadId(uploadId)
+                    .multipartUpload(upload -> upload.parts(parts)));
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            abort(key, uploadId);
+            throw new IOException("Interrupted while storing " + key, ex);
+        } catch (ExecutionException | RuntimeException ex) {
+            abort(key, uploadId);
+            Throwable cause = ex instanceof ExecutionException ? ex.getCause() : ex;
+            throw new IOException("Could not store " + key + " in bucket " + bucket, cause);
+        }
+    }
+
+    private CompletedPart uploadPart(String key, String uploadId, Path source, int partNumber,
+                                     long offset, int length) {
+        // Each part reads its own slice, so parts can go out in any order
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        try (FileChannel channel = FileChannel.open(source, StandardOpenOption.READ)) {
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, offset + buffer.position()) < 0) {
+                    throw new IOException("Staged file shrank while uploading " + key);
+                }
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        String etag = s3.uploadPart(request -> request.bucket(bucket).key(key).uploadId(uploadId)
+                        .partNumber(partNumber).contentLength((long) length),
+                RequestBody.fromBytes(buffer.array())).eTag();
+        return CompletedPart.builder().partNumber(partNumber).eTag(etag).build();
+    }
+
+    private void abort(String key, String uploadId) {
+        try {
+            s3.abortMultipartUpload(request -> request.bucket(bucket).key(key).uploadId(uploadId));
+        } catch (RuntimeException ex) {
+            logger.warn("Could not abort multipart upload {} for {}: {}", uploadId, key, ex.getMessage());
+        }
+    }
+
+    @Override
+    public Optional<BlobInfo> stat(String key) throws IOException {
+        try {
+            HeadObjectResponse head = s3.headObject(request -> request.bucket(bucket).key(key));
+            return Optional.of(new BlobInfo(key, head.contentLength(), head.lastModified()));
+        } catch (S3Exception ex) {
+            if (ex.statusCode() == 404) {
+                return Optional.empty();
+            }
+            throw new IOException("Could not read " + key + " from bucket " + bucket, ex);
+        }
+    }
+
+    @Override
+    public InputStream open(String key, long offset, long length) throws IOException {
+        if (length <= 0) {
+            return InputStream.nullInputStream();
+        }
+        try {
+            String range = "bytes=" + offset + "-" + (offset + length - 1);
+            return s3.getObject(request -> request.bucket(bucket).key(key).range(range));
+        } catch (S3Exception ex) {
+            throw new IOException("Could not read " + key + " from bucket " + bucket, ex);
+        }
+    }
+
+    @Override
+    public boolean delete(String key) throws IOException {
+        try {
+            boolean existed = stat(key).isPresent();
+            s3.deleteObject(request -> request.bucket(bucket).key(key));
+            return existed;
+        } catch (S3Exception ex) {
+            throw new IOException("Could not delete " + key + " from bucket " + bucket, ex);
+        }
+    }
+
+    @Override
+    public void touch(String key) throws IOException {
+        try {
+            // A server-side copy onto itself is the only way to bump LastModified. It must
+            // REPLACE the metadata, which drops anything not sent again, so carry it across.
+            HeadObjectResponse head = s3.headObject(request -> request.bucket(bucket).key(key));
+            s3.copyObject(request -> request.sourceBucket(bucket).sourceKey(key)
+                    .destinationBucket(bucket).destinationKey(key)
+                    .metadataDirective(MetadataDirective.REPLACE)
+                    .contentType(head.contentType())
+                    .cacheControl(head.cacheControl())
+                    .contentDisposition(head.contentDisposition())
+                    .contentEncoding(head.contentEncoding())
+                    .metadata(head.metadata()));
+        } catch (S3Exception ex) {
+            if (ex.statusCode() == 404) {
+                throw new NoSuchFileException(key);
+            }
+            throw new IOException("Could not touch " + key + " in bucket " + bucket, ex);
+        }
+    }
+
+    @Override
+    public void list(Consumer<BlobInfo> visitor) throws IOException {
+        try {
+            for (S3Object object : s3.listObjectsV2Paginator(request -> request.bucket(bucket)).contents()) {
+                visitor.accept(new BlobInfo(object.key(), object.size(), object.lastModified()));
+            }
+        } catch (S3Exception ex) {
+            throw new IOException("Could not list bucket " + bucket, ex);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (ownsExecutor) {
+            uploadExecutor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package backend.social_media_application.util;
+
+/**
+ * Minimal Bloom filter over string keys using double hashing.
+ * Not thread-safe for writes: shared filters should be treated as read-only,
+ * with writers adding to a copy and publishing that instead.
+ */
+public class BloomFilter {
+
+    private final long[] bits;
+    private final int bitCount;
+    private final int hashCount;
+    private final int capacity;
+    private int size;
+
+    /**
+     * Size a filter for the expected number of keys at the given false positive rate
+     */
+    public BloomFilter(int expectedKeys, double falsePositiveRate) {
+        int keys = Math.max(expectedKeys, 1);
+        double ln2 = Math.log(2);
+        int m = (int) Math.ceil(-keys * Math.log(falsePositiveRate) / (ln2 * ln2));
+        this.bitCount = Math.max(64, m);
+        this.bits = new long[(bitCount + 63) >>> 6];
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / keys * ln2));
+        this.capacity = keys;
+    }
+
+    private BloomFilter(BloomFilter source) {
+        this.bits = source.bits.clone();
+        this.bitCount = source.bitCount;
+        this.hashCount = source.hashCount;
+        this.capacity = source.capacity;
+        this.size = source.size;
+    }
+
+    /**
+     * Independent copy with the same size and contents
+     */
+    public BloomFilter copy() {
+        return new BloomFilter(this);
+    }
+
+    public void put(String key) {
+        long hash = hash64(key);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            int bit = ((h1 + i * h2) & Integer.MAX_VALUE) % bitCount;
+            bits[bit >>> 6] |= 1L << bit;
+        }
+        size++;
+    }
+
+    public boolean mightContain(String key) {
+        long hash = hash64(key);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            int bit = ((h1 + i * h2) & Integer.MAX_VALUE) % bitCount;
+            if ((bits[bit >>> 6] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * True once more keys were added than the filter was sized for
+     */
+    public boolean isOverCapacity() {
+        return size > capacity;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long sizeInBytes() {
+        return (long) bits.length * Long.BYTES;
+    }
+
+    // FNV-1a over the chars followed by a murmur finalizer to spread the bits
+    private static long hash64(String key) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            h ^= key.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,121 @@
+package backend.social_media_application.util;
+
+import java.awt.image.BufferedImage;
+
+/**
+ * BlurHash encoder (https://blurha.sh): packs a few DCT components of an
+ * image into a short base83 string that clients decode into a blurred
+ * placeholder. Feed it a small image; the cost is pixels x components.
+ */
+public class BlurHash {
+
+    private static final String BASE83 =
+            "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz#$%*+,-.:;=?@[]^_{|}~";
+
+    // sRGB byte -> linear light, shared by every encode
+    private static final double[] SRGB_TO_LINEAR = new double[256];
+
+    static {
+        for (int i = 0; i < 256; i++) {
+            double v = i / 255.0;
+            SRGB_TO_LINEAR[i] = v <= 0.04045 ? v / 12.92 : Math.pow((v + 0.055) / 1.055, 2.4);
+        }
+    }
+
+    /**
+     * Encode with the given number of horizontal and vertical components (1-9 each)
+     */
+    public static String encode(BufferedImage image, int componentsX, int componentsY) {
+        if (componentsX < 1 || componentsX > 9 || componentsY < 1 || componentsY > 9) {
+            throw new IllegalArgumentException("Components must be between 1 and 9");
+        }
+        int width = image.getWidth();
+        int height = image.getHeight();
+        int[] pixels = image.getRGB(0, 0, width, height, null, 0, width);
+
+        double[][] factors = new double[componentsX * componentsY][3];
+        double[] cosX = new double[width];
+        double[] cosY = new double[height];
+        for (int j = 0; j < componentsY; j++) {
+            for (int y = 0; y < height; y++) {
+                cosY[y] = Math.cos(Math.PI * j * y / height);
+            }
+            for (int i = 0; i < componentsX; i++) {
+                for (int x = 0; x < width; x++) {
+                    cosX[x] = Math.cos(Math.PI * i * x / width);
+                }
+                double r = 0;
+                double g = 0;
+                double b = 0;
+                for (int y = 0; y < height; y++) {
+                    for (int x = 0; x < width; x++) {
+                        double basis = cosX[x] * cosY[y];
+                        int rgb = pixels[y * width + x];
+                        r += basis * SRGB_TO_LINEAR[(rgb >> 16) & 0xFF];
+                        g += basis * SRGB_TO_LINEAR[(rgb >> 8) & 0xFF];
+                        b += basis * SRGB_TO_LINEAR[rgb & 0xFF];
+                    }
+                }
+                double scale = (i == 0 && j == 0 ? 1.0 : 2.0) / (width * height);
+                factors[j * componentsX + i] = new double[]{r * scale, g * scale, b * scale};
+            }
+        }
+
+        StringBuilder hash = new StringBuilder();
+        encode83(hash, (componentsX - 1) + (componentsY - 1) * 9, 1);
+
+        double maxAc = 0;
+        for (int k = 1; k < factors.length; k++) {
+            for (double value : factors[k]) {
+                maxAc = Math.max(maxAc, Math.abs(value));
+            }
+        }
+        double acRange;
+        if (factors.length > 1) {
+            int quantisedMax = (int) Math.max(0, Math.min(82, Math.floor(maxAc * 166 - 0.5)));
+            acRange = (quantisedMax + 1) / 166.0;
+            encode83(hash, quantisedMax, 1);
+        } else {
+            acRange = 1;
+            encode83(hash, 0, 1);
+        }
+
+        double[] dc = factors[0];
+        encode83(hash, (linearToSrgb(dc[0]) << 16) + (linearToSrgb(dc[1]) << 8) + linearToSrgb(dc[2]), 4);
+        for (int k = 1; k < factors.length; k++) {
+            double[] ac = factors[k];
+            int quantR = quantiseAc(ac[0], acRange);
+            int quantG = quantiseAc(ac[1], acRange);
+            int quantB = quantiseAc(ac[2], acRange);
+            encode83(hash, quantR * 19 * 19 + quantG * 19 + quantB, 2);
+        }
+        return hash.toString();
+    }
+
+    private static int quantiseAc(double value, double range) {
+        double scaled = value / range;
+        double signedRoot = Math.copySign(Math.sqrt(Math.abs(scaled)), scaled);
+        return (int) Math.max(0, Math.min(18, Math.floor(signedRoot * 9 + 9.5)));
+    }
+
+    private static int linearToSrgb(double value) {
+        double v = Math.max(0, Math.min(1, value));
+        double srgb = v <= 0.0031308 ? v * 12.92 : 1.055 * Math.pow(v, 1 / 2.4) - 0.055;
+        return (int) Math.round(srgb * 255);
+    }
+
+    private static void encode83(StringBuilder out, int value, int length) {
+        for (int i = 1; i <= length; i++) {
+            int digit = (value / pow83(length - i)) % 83;
+            out.append(BASE83.charAt(digit));
+        }
+    }
+
+    private static int pow83(int exponent) {
+        int result = 1;
+        for (int i = 0; i < exponent; i++) {
+            result *= 83;
+        }
+        return result;
+    }
+}
@@ -0,0 +1,87 @@
+package backend.social_media_application.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Thread-safe LRU of small file contents held in direct (off-heap) buffers,
+ * bounded by total bytes rather than entry count. Only meant for files that
+ * never change once written, since entries are never revalidated.
+ */
+public class DirectBufferCache {
+
+    private final long capacityBytes;
+    private final int maxEntryBytes;
+    private final Map<String, ByteBuffer> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long usedBytes;
+
+    public DirectBufferCache(long capacityBytes, int maxEntryBytes) {
+        this.capacityBytes = capacityBytes;
+        this.maxEntryBytes = maxEntryBytes;
+    }
+
+    /**
+     * Get a read-only view of the cached contents, or null
+     */
+    public synchronized ByteBuffer get(String key) {
+        ByteBuffer buffer = entries.get(key);
+        return buffer != null ? buffer.asReadOnlyBuffer() : null;
+    }
+
+    /**
+     * True if a file of this size would be cached at all
+     */
+    public boolean accepts(long size) {
+        return size > 0 && size <= maxEntryBytes && size <= capacityBytes;
+    }
+
+    /**
+     * Read a file of the given size into a direct buffer and cache it. Returns
+     * a read-only view, or null if the file is too big to cache or turns out
+     * shorter than expected.
+     */
+    public ByteBuffer load(String key, InputStream in, long size) throws IOException {
+        if (!accepts(size)) {
+            return null;
+        }
+        ByteBuffer buffer = ByteBuffer.allocateDirect((int) size);
+        ReadableByteChannel channel = Channels.newChannel(in);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                return null;
+            }
+        }
+        buffer.flip();
+        put(key, buffer);
+        return buffer.asReadOnlyBuffer();
+    }
+
+    private synchronized void put(String key, ByteBuffer buffer) {
+        ByteBuffer previous = entries.put(key, buffer);
+        if (previous != null) {
+            usedBytes -= previous.capacity();
+        }
+        usedBytes += buffer.capacity();
+
+        // Evicted buffers are freed by the GC once no response still holds them
+        Iterator<ByteBuffer> eldest = entries.values().iterator();
+        while (usedBytes > capacityBytes && eldest.hasNext()) {
+            usedBytes -= eldest.next().capacity();
+            eldest.remove();
+        }
+    }
+
+    public synchronized long usedBytes() {
+        return usedBytes;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+}
@@ -0,0 +1,98 @@
+package backend.social_media_application.util;
+
+import backend.social_media_application.exception.BadRequestException;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Identifies image uploads from their first bytes instead of trusting the
+ * file name or the Content-Type the client sent.
+ */
+public class ImageTypeSniffer {
+
+    // Enough for the longest signature below (RIFF....WEBP)
+    public static final int HEADER_BYTES = 12;
+
+    /**
+     * The image type the header starts with, or null if it isn't one we accept
+     */
+    public static String sniff(byte[] header, int length) {
+        if (startsWith(header, length, 0xFF, 0xD8, 0xFF)) {
+            return "image/jpeg";
+        }
+        if (startsWith(header, length, 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A)) {
+            return "image/png";
+        }
+        if (startsWith(header, length, 'G', 'I', 'F', '8')) {
+            return "image/gif";
+        }
+        if (length >= HEADER_BYTES && startsWith(header, length, 'R', 'I', 'F', 'F')
+                && header[8] == 'W' && header[9] == 'E' && header[10] == 'B' && header[11] == 'P') {
+            return "image/webp";
+        }
+        return null;
+    }
+
+    /**
+     * The image type a file starts with, or null if it isn't one we accept
+     */
+    public static String sniff(Path file) throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            byte[] header = in.readNBytes(HEADER_BYTES);
+            return sniff(header, header.length);
+        }
+    }
+
+    /**
+     * Extension blobs of a sniffed image type are stored under
+     */
+    public static String extensionFor(String imageType) {
+        return switch (imageType) {
+            case "image/jpeg" -> "jpg";
+            case "image/png" -> "png";
+            case "image/gif" -> "gif";
+            case "image/webp" -> "webp";
+            default -> throw new IllegalArgumentException("Not a supported image type: " + imageType);
+        };
+    }
+
+    /**
+     * True for the types sniff can return; uploads are never served as anything else
+     */
+    public static boolean isImageType(String contentType) {
+        return "image/jpeg".equals(contentType) || "image/png".equals(contentType)
+                || "image/gif".equals(contentType) || "image/webp".equals(contentType);
+    }
+
+    /**
+     * Check the stream starts like an image and return a stream that still
+     * yields every byte. Only the header is read, so anything else is rejected
+     * before the rest of the body is transferred.
+     */
+    public static InputStream requireImage(InputStream in) throws IOException {
+        InputStream buffered = in.markSupported() ? in : new BufferedInputStream(in);
+        buffered.mark(HEADER_BYTES);
+        byte[] header = buffered.readNBytes(HEADER_BYTES);
+        buffered.reset();
+        if (sniff(header, header.length) == null) {
+            throw new BadRequestException("Unsupported image type; expected JPEG, PNG, GIF or WebP");
+        }
+        return buffered;
+    }
+
+    private static boolean startsWith(byte[] data, int length, int... signature) {
+        if (length < signature.length) {
+            return false;
+        }
+        for (int i = 0; i < signature.length; i++) {
+            if ((data[i] & 0xFF) != signature[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,132 @@
+package backend.social_media_application.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Small thread-safe LRU map used for in-memory read caches.
+ *
+ * Entries can optionally expire after a fixed time, which bounds how long a
+ * value changed on another node can be served from this one.
+ */
+public class LruCache<K, V> {
+
+    private final Map<K, Entry<V>> entries;
+    private final long ttlMillis;
+
+    // Bumped by remove and clear, so loads that started before an invalidation aren't stored
+    private long generation;
+
+    public LruCache(int maxEntries) {
+        this(maxEntries, 0);
+    }
+
+    /**
+     * @param ttlMillis how long an entry is served after it was stored; 0 keeps entries until evicted
+     */
+    public LruCache(int maxEntries, long ttlMillis) {
+        this.ttlMillis = ttlMillis;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    public synchronized V get(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expired()) {
+            entries.remove(key);
+            return null;
+        }
+        return entry.value();
+    }
+
+    public synchronized void put(K key, V value) {
+        entries.put(key, new Entry<>(value, expiresAt()));
+    }
+
+    /**
+     * Current generation; read it before loading a value to store with putLoaded
+     */
+    public synchronized long generation() {
+        return generation;
+    }
+
+    /**
+     * Store a value loaded after generation() returned the given generation.
+     * Nothing is stored if the cache was invalidated since, because the load
+     * may have read data from before the change, or if another entry was put
+     * meanwhile, because that one is newer. Returns the value now cached, or
+     * the loaded value if it wasn't stored.
+     */
+    public synchronized V putLoaded(K key, V value, long loadedAt) {
+        Entry<V> current = entries.get(key);
+        if (current != null && !current.expired()) {
+            return current.value();
+        }
+        if (loadedAt == generation) {
+            entries.put(key, new Entry<>(value, expiresAt()));
+        }
+        return value;
+    }
+
+    /**
+     * Replace an entry only if it still holds the expected value, so a
+     * refresh never overwrites a newer write
+     */
+    public synchronized boolean replace(K key, V expected, V value) {
+        Entry<V> current = entries.get(key);
+        if (current == null || current.value() != expected) {
+            return false;
+        }
+        entries.put(key, new Entry<>(value, expiresAt()));
+        return true;
+    }
+
+    /**
+     * Load a missing entry. The loader runs outside the lock so a slow loader
+     * doesn't block other readers; its result is stored through putLoaded.
+     */
+    public V computeIfAbsent(K key, Function<K, V> loader) {
+        V value = get(key);
+        if (value != null) {
+            return value;
+        }
+        long loadedAt = generation();
+        V loaded = loader.apply(key);
+        if (loaded == null) {
+            return null;
+        }
+        return putLoaded(key, loaded, loadedAt);
+    }
+
+    public synchronized void remove(K key) {
+        entries.remove(key);
+        generation++;
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        generation++;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private long expiresAt() {
+        return ttlMillis > 0 ? System.currentTimeMillis() + ttlMillis : Long.MAX_VALUE;
+    }
+
+    private record Entry<V>(V value, long expiresAt) {
+        boolean expired() {
+            return expiresAt != Long.MAX_VALUE && System.currentTimeMillis() >= expiresAt;
+        }
+    }
+}
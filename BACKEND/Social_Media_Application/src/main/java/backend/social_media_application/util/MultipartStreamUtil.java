@@ -0,0 +1,55 @@
+package backend.social_media_application.util;
+
+import backend.social_media_application.exception.BadRequestException;
+import jakarta.servlet.http.HttpServletRequest;
+import org.apache.commons.fileupload2.core.DiskFileItem;
+import org.apache.commons.fileupload2.core.DiskFileItemFactory;
+import org.apache.commons.fileupload2.core.FileItemInput;
+import org.apache.commons.fileupload2.core.FileItemInputIterator;
+import org.apache.commons.fileupload2.jakarta.servlet6.JakartaServletFileUpload;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Reads multipart uploads straight from the request body, without Spring's
+ * multipart resolver spooling the parts to memory or disk first.
+ * Needs spring.servlet.multipart.resolve-lazily=true so nothing else consumes
+ * the body before the controller runs.
+ */
+public class MultipartStreamUtil {
+
+    // Room for the part headers, boundaries and small form fields around the file
+    private static final long ENVELOPE_BYTES = 64 * 1024;
+    // The upload endpoints take one file and maybe a few fields
+    private static final long MAX_PARTS = 8;
+    private static final int MAX_PART_HEADER_BYTES = 1024;
+
+    public record StreamedFile(String filename, String contentType, InputStream inputStream) {
+    }
+
+    /**
+     * Advance to the named file part and return a stream over its bytes.
+     * The stream is only valid until the request body is read any further.
+     */
+    public static StreamedFile openFilePart(HttpServletRequest request, String fieldName, long maxBytes)
+            throws IOException {
+        if (!JakartaServletFileUpload.isMultipartContent(request)) {
+            throw new BadRequestException("Expected a multipart/form-data request");
+        }
+
+        JakartaServletFileUpload<DiskFileItem, DiskFileItemFactory> upload = new JakartaServletFileUpload<>();
+        upload.setMaxFileSize(maxBytes);
+        upload.setMaxSize(maxBytes + ENVELOPE_BYTES);
+        upload.setMaxFileCount(MAX_PARTS);
+        upload.setMaxPartHeaderSize(MAX_PART_HEADER_BYTES);
+        FileItemInputIterator items = upload.getItemIterator(request);
+        while (items.hasNext()) {
+            FileItemInput item = items.next();
+            if (!item.isFormField() && fieldName.equals(item.getFieldName())) {
+                return new StreamedFile(item.getName(), item.getContentType(), item.getInputStream());
+            }
+        }
+        throw new BadRequestException("Missing file part: " + fieldName);
+    }
+}
@@ -0,0 +1,130 @@
+package backend.social_media_application.util;
+
+import backend.social_media_application.model.PrivacySettings;
+import backend.social_media_application.model.ProfileSection;
+import backend.social_media_application.model.ViewerRelation;
+import backend.social_media_application.model.Visibility;
+
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Immutable, compiled form of a user's PrivacySettings.
+ *
+ * Each section's visibility ordinal is packed into two bits of an int, and the
+ * set of sections visible to every viewer relation is precomputed as a
+ * bitmask, so checking a request is a couple of integer operations.
+ * SPECIFIC_FRIENDS sections also keep their audience id, and are granted per
+ * viewer by an audience membership check.
+ */
+public final class PrivacyPolicy {
+
+    private static final int BITS_PER_SECTION = 2;
+    private static final int SECTION_MASK = (1 << BITS_PER_SECTION) - 1;
+
+    public static final PrivacyPolicy DEFAULT = compile(new PrivacySettings());
+
+    private final Visibility profileVisibility;
+    private final int packedSections;
+    private final int[] visibleSectionsByRelation;
+
+    // SPECIFIC_FRIENDS sections that have an audience, and their audience ids by section ordinal
+    private final int audienceSections;
+    private final String[] sectionAudiences;
+
+    private PrivacyPolicy(Visibility profileVisibility, int packedSections, String[] sectionAudiences) {
+        this.profileVisibility = profileVisibility;
+        this.packedSections = packedSections;
+        this.sectionAudiences = sectionAudiences;
+
+        ViewerRelation[] relations = ViewerRelation.values();
+        this.visibleSectionsByRelation = new int[relations.length];
+        for (ViewerRelation relation : relations) {
+            int mask = 0;
+            for (ProfileSection section : ProfileSection.all()) {
+                if (relation.canSee(sectionVisibility(section))) {
+                    mask |= section.bit();
+                }
+            }
+            visibleSectionsByRelation[relation.ordinal()] = mask;
+        }
+
+        int withAudience = 0;
+        for (ProfileSection section : ProfileSection.all()) {
+            if (sectionVisibility(section) == Visibility.SPECIFIC_FRIENDS && sectionAudiences[section.ordinal()] != null) {
+                withAudience |= section.bit();
+            }
+        }
+        this.audienceSections = withAudience;
+    }
+
+    /**
+     * Compile stored settings, falling back to the defaults for missing or invalid values
+     */
+    public static PrivacyPolicy compile(PrivacySettings settings) {
+        Visibility profile = Visibility.of(settings.getProfileVisibility());
+        if (profile == null) {
+            profile = Visibility.PUBLIC;
+        }
+
+        Map<String, String> sections = settings.getSectionVisibility();
+        Map<String, String> audiences = settings.getSectionAudiences();
+        String[] sectionAudiences = new String[ProfileSection.all().length];
+        int packed = 0;
+        for (ProfileSection section : ProfileSection.all()) {
+            Visibility visibility = sections != null ? Visibility.of(sections.get(section.name())) : null;
+            if (visibility == null) {
+                visibility = DEFAULT != null ? DEFAULT.sectionVisibility(section) : Visibility.FRIENDS;
+            }
+            packed |= visibility.ordinal() << (section.ordinal() * BITS_PER_SECTION);
+            if (audiences != null) {
+                sectionAudiences[section.ordinal()] = audiences.get(section.name());
+            }
+        }
+        return new PrivacyPolicy(profile, packed, sectionAudiences);
+    }
+
+    public Visibility getProfileVisibility() {
+        return profileVisibility;
+    }
+
+    public Visibility sectionVisibility(ProfileSection section) {
+        return Visibility.fromOrdinal((packedSections >>> (section.ordinal() * BITS_PER_SECTION)) & SECTION_MASK);
+    }
+
+    public boolean canViewProfile(ViewerRelation relation) {
+        return relation.canSee(profileVisibility);
+    }
+
+    /**
+     * Bitmask of ProfileSection bits the given relation may see
+     */
+    public int visibleSections(ViewerRelation relation) {
+        return visibleSectionsByRelation[relation.ordinal()];
+    }
+
+    /**
+     * Bitmask of ProfileSection bits the viewer may see, adding SPECIFIC_FRIENDS
+     * sections whose audience contains the viewer
+     */
+    public int visibleSections(ViewerRelation relation, Predicate<String> audienceMember) {
+        int mask = visibleSectionsByRelation[relation.ordinal()];
+        if (relation == ViewerRelation.OWNER || audienceSections == 0) {
+            return mask;
+        }
+        for (ProfileSection section : ProfileSection.all()) {
+            if ((audienceSections & section.bit()) != 0 && audienceMember.test(sectionAudiences[section.ordinal()])) {
+                mask |= section.bit();
+            }
+        }
+        return mask;
+    }
+
+    public String sectionAudience(ProfileSection section) {
+        return sectionAudiences[section.ordinal()];
+    }
+
+    public static boolean isVisible(int sectionMask, ProfileSection section) {
+        return (sectionMask & section.bit()) != 0;
+    }
+}
@@ -1,6 +1,7 @@
 package backend.social_media_application.util;
 
-import backend.social_media_application.model.PrivacySettings;
+import backend.social_media_application.model.ViewerRelation;
+import backend.social_media_application.model.Visibility;
 
 public class PrivacyUtil {
 
@@ -9,24 +10,26 @@ public class PrivacyUtil {
      */
     public static boolean canAccessContent(String contentVisibility, String currentUserId,
                                            String contentOwnerId, boolean areConnected) {
+        return canAccessContent(contentVisibility, currentUserId, contentOwnerId, areConnected, false);
+    }
+
+    /**
+     * Check access where SPECIFIC_FRIENDS content is shared with an audience
+     * the viewer may belong to
+     */
+    public static boolean canAccessContent(String contentVisibility, String currentUserId,
+                                           String contentOwnerId, boolean areConnected,
+                                           boolean inAudience) {
         // If viewing own content, always allow access
         if (currentUserId != null && currentUserId.equals(contentOwnerId)) {
             return true;
         }
 
-        switch (contentVisibility) {
-            case "PUBLIC":
-                return true;
-            case "FRIENDS":
-                return areConnected;
-            case "SPECIFIC_FRIENDS":
-                // Would need additional logic to check specific friends
-                return false;
-            case "ONLY_ME":
-                return false;
-            default:
-                return false;
+        Visibility visibility = Visibility.of(contentVisibility);
+        if (visibility == Visibility.SPECIFIC_FRIENDS) {
+            return inAudience;
         }
+        return ViewerRelation.of(false, areConnected).canSee(visibility);
     }
 
     /**
@@ -40,4 +43,4 @@ public class PrivacyUtil {
         }
         return null;
     }
-}
\ No newline at end of file
+}
@@ -1,5 +1,6 @@
 package backend.social_media_application.util;
 
+import backend.social_media_application.security.UserPrincipal;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 
@@ -19,6 +20,20 @@ public class SecurityUtil {
         return authentication.getName();
     }
 
+    /**
+     * Get the database id of the current user, or null if not authenticated
+     */
+    public static String getCurrentUserObjectId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+
+        if (authentication == null || !authentication.isAuthenticated()
+                || !(authentication.getPrincipal() instanceof UserPrincipal principal)) {
+            return null;
+        }
+
+        return principal.getId();
+    }
+
     /**
      * Check if the current user is authenticated
      */
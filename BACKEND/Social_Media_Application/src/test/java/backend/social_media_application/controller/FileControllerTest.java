@@ -0,0 +1,123 @@
+package backend.social_media_application.controller;
+
+import backend.social_media_application.service.FileStorageService;
+import backend.social_media_application.service.ImagePipelineService;
+import backend.social_media_application.service.storage.FileSystemBlobStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class FileControllerTest {
+
+    @TempDir
+    Path uploadDir;
+
+    private MockMvc mockMvc;
+    private String blobPath;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        FileStorageService fileStorageService =
+                new FileStorageService(new FileSystemBlobStore(uploadDir), uploadDir.toString());
+        fileStorageService.init();
+        ImagePipelineService imagePipelineService = new ImagePipelineService(fileStorageService,
+                mock(MongoTemplate.class), new SimpleMeterRegistry(), new int[]{64}, 0.85f, 1, 10, 100);
+
+        // Written directly since uploads only accept real images; serving doesn't look at the bytes
+        blobPath = FileStorageService.blobPath("b94d27b9934d3e08a52e52d7da7dabfac484efe37a5380ee9088f7ace2efcde9", "png");
+        Files.createDirectories(uploadDir.resolve(blobPath).getParent());
+        Files.writeString(uploadDir.resolve(blobPath), "hello world");
+        mockMvc = MockMvcBuilders.standaloneSetup(new FileController(fileStorageService, imagePipelineService,
+                DataSize.ofMegabytes(1), DataSize.ofKilobytes(64))).build();
+    }
+
+    @Test
+    public void testServesContentAddressedFileWithStrongEtagAndRanges() throws Exception {
+        String etag = "\"b94d27b9934d3e08a52e52d7da7dabfac484efe37a5380ee9088f7ace2efcde9\"";
+
+        mockMvc.perform(get("/api/files/" + blobPath))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", etag))
+                .andExpect(header().string("Cache-Control", "public, max-age=31536000, immutable"))
+                .andExpect(header().string("Content-Type", "image/png"))
+                .andExpect(content().string("hello world"));
+
+        mockMvc.perform(get("/api/files/" + blobPath).header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+
+        mockMvc.perform(get("/api/files/" + blobPath).header("Range", "bytes=6-"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string("Content-Range", "bytes 6-10/11"))
+                .andExpect(content().string("world"));
+
+        mockMvc.perform(get("/api/files/" + blobPath).header("Range", "bytes=20-"))
+                .andExpect(status().isRequestedRangeNotSatisfiable());
+
+        mockMvc.perform(get("/api/files/.sessions/abc.part"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    public void testOriginalStandingInForVariantIsNotCachedAsImmutable() throws Exception {
+        String etag = "\"b94d27b9934d3e08a52e52d7da7dabfac484efe37a5380ee9088f7ace2efcde9\"";
+
+        mockMvc.perform(get("/api/files/" + blobPath).param("size", "64"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "W/" + etag))
+                .andExpect(header().string("Cache-Control", "no-cache"))
+                .andExpect(content().string("hello world"));
+
+        // Revalidation still works for the stand-in
+        mockMvc.perform(get("/api/files/" + blobPath).param("size", "64").header("If-None-Match", "W/" + etag))
+                .andExpect(status().isNotModified());
+
+        // Once the variant exists it replaces the original under the same URL
+        Path variant = uploadDir.resolve(ImagePipelineService.variantPath(blobPath, 64));
+        Files.createDirectories(variant.getParent());
+        Files.writeString(variant, "small");
+        mockMvc.perform(get("/api/files/" + blobPath).param("size", "64").header("If-None-Match", "W/" + etag))
+                .andExpect(status().isOk())
+                .andExpect(content().string("small"));
+
+        // No configured variant is big enough, so the original is the final answer
+        mockMvc.perform(get("/api/files/" + blobPath).param("size", "512"))
+                .andExpect(header().string("ETag", etag))
+                .andExpect(header().string("Cache-Control", "public, max-age=31536000, immutable"));
+    }
+
+    @Test
+    public void testNonImageExtensionsAreServedAsOctetStream() throws Exception {
+        Path page = uploadDir.resolve("blobs/00/00/legacy.html");
+        Files.createDirectories(page.getParent());
+        Files.writeString(page, "<script>alert(1)</script>");
+
+        mockMvc.perform(get("/api/files/blobs/00/00/legacy.html"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", "application/octet-stream"));
+    }
+
+    @Test
+    public void testParseRange() {
+        assertArrayEquals(new long[]{0, 4}, FileController.parseRange("bytes=0-4", 10));
+        assertArrayEquals(new long[]{7, 9}, FileController.parseRange("bytes=-3", 10));
+        assertArrayEquals(new long[]{5, 9}, FileController.parseRange("bytes=5-100", 10));
+        assertArrayEquals(new long[0], FileController.parseRange("bytes=0-1,3-4", 10));
+        assertNull(FileController.parseRange("bytes=10-", 10));
+    }
+}
@@ -0,0 +1,22 @@
+package backend.social_media_application.controller;
+
+import backend.social_media_application.exception.BadRequestException;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class UploadControllerTest {
+
+    @Test
+    public void testParseContentRange() {
+        assertArrayEquals(new long[]{0, 1023}, UploadController.parseContentRange("bytes 0-1023/4096"));
+        assertArrayEquals(new long[]{1024, 2047}, UploadController.parseContentRange(" bytes 1024-2047/* "));
+
+        assertThrows(BadRequestException.class, () -> UploadController.parseContentRange("bytes 10-5/100"));
+        assertThrows(BadRequestException.class, () -> UploadController.parseContentRange("bytes=0-10"));
+        assertThrows(BadRequestException.class, () -> UploadController.parseContentRange("bytes -10/100"));
+        assertThrows(BadRequestException.class,
+                () -> UploadController.parseContentRange("bytes 0-99999999999999999999/100"));
+    }
+}
@@ -0,0 +1,166 @@
+package backend.social_media_application.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Open-model load: journeys start on a Poisson schedule at the target rate
+ * whether or not earlier ones have finished, like real users arriving. A
+ * slow server therefore builds up concurrency instead of quietly lowering
+ * the offered load, and the first step of each journey is timed from its
+ * scheduled start so generator lag shows up as latency (no coordinated
+ * omission).
+ *
+ * Each journey runs on its own virtual thread and records its steps through
+ * a {@link Session}. Samples taken during warmup are dropped.
+ */
+final class OpenModelLoadGenerator {
+
+    // 1 us to 1 min at 3 significant digits
+    private static final long MAX_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+    private final double arrivalsPerSecond;
+    private final long warmupNanos;
+    private final long durationNanos;
+    private final Map<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+    private final AtomicLong lateStarts = new AtomicLong();
+    private volatile long measureFrom;
+
+    OpenModelLoadGenerator(double arrivalsPerSecond, long warmupSeconds, long durationSeconds) {
+        this.arrivalsPerSecond = arrivalsPerSecond;
+        this.warmupNanos = TimeUnit.SECONDS.toNanos(warmupSeconds);
+        this.durationNanos = TimeUnit.SECONDS.toNanos(durationSeconds);
+    }
+
+    /**
+     * Run journeys at the configured rate for warmup + duration, then wait
+     * for the ones still in flight
+     */
+    void run(Consumer<Session> journey) throws InterruptedException {
+        Random random = new Random(1);
+        long start = System.nanoTime();
+        measureFrom = start + warmupNanos;
+        long end = measureFrom + durationNanos;
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            long next = start;
+            while (next < end) {
+                long scheduled = next;
+                long wait = scheduled - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                } else if (wait < -TimeUnit.MILLISECONDS.toNanos(1)) {
+                    lateStarts.incrementAndGet();
+                }
+                executor.execute(() -> journey.accept(new Session(scheduled)));
+                // Exponential gaps make the arrivals a Poisson process
+                next += (long) (-Math.log(1 - random.nextDouble()) / arrivalsPerSecond * 1e9);
+            }
+        }
+    }
+
+    /**
+     * Per-endpoint table, plus one .hgrm percentile file per endpoint in dir
+     */
+    String report(Path dir) throws IOException {
+        Files.createDirectories(dir);
+        double seconds = durationNanos / 1e9;
+        StringBuilder report = new StringBuilder(String.format(
+                "%-16s %8s %7s %9s %9s %9s %9s %9s %9s%n",
+                "endpoint", "count", "errors", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms"));
+        for (Map.Entry<String, Endpoint> entry : new TreeMap<>(endpoints).entrySet()) {
+            Histogram histogram = entry.getValue().latencies;
+            report.append(String.format("%-16s %8d %7d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                    entry.getKey(), histogram.getTotalCount(), entry.getValue().errors.get(),
+                    histogram.getTotalCount() / seconds,
+                    millis(histogram.getValueAtPercentile(50)), millis(histogram.getValueAtPercentile(90)),
+                    millis(histogram.getValueAtPercentile(99)), millis(histogram.getValueAtPercentile(99.9)),
+                    millis(histogram.getMaxValue())));
+            try (PrintStream out = new PrintStream(Files.newOutputStream(dir.resolve(entry.getKey() + ".hgrm")))) {
+                // Microsecond samples, printed in milliseconds
+                histogram.outputPercentileDistribution(out, 1000.0);
+            }
+        }
+        report.append(String.format("offered %.1f journeys/s, %d started more than 1 ms late%n",
+                arrivalsPerSecond, lateStarts.get()));
+        Files.writeString(dir.resolve("summary.txt"), report);
+        return report.toString();
+    }
+
+    Map<String, Endpoint> endpoints() {
+        return endpoints;
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+
+    static final class Endpoint {
+        final Histogram latencies = new ConcurrentHistogram(MAX_LATENCY_MICROS, 3);
+        final AtomicLong errors = new AtomicLong();
+    }
+
+    /**
+     * One journey's clock. The first step is timed from the scheduled
+     * arrival, later ones from when they were sent.
+     */
+    final class Session {
+        private long stepStart;
+
+        private Session(long scheduledStart) {
+            this.stepStart = scheduledStart;
+        }
+
+        /**
+         * Time one request. Returns its response, or null if it failed to send.
+         */
+        HttpResponse<String> step(String endpoint, Step step) {
+            long begin = stepStart;
+            HttpResponse<String> response;
+            try {
+                response = step.call();
+            } catch (Exception ex) {
+                response = null;
+            }
+            int status = response != null ? response.statusCode() : -1;
+            long now = System.nanoTime();
+            stepStart = now;
+            if (begin >= measureFrom) {
+                Endpoint stats = endpoints.computeIfAbsent(endpoint, name -> new Endpoint());
+                stats.latencies.recordValue(Math.min(MAX_LATENCY_MICROS, TimeUnit.NANOSECONDS.toMicros(now - begin)));
+                if (status < 200 || status >= 300) {
+                    stats.errors.incrementAndGet();
+                }
+            }
+            return response;
+        }
+
+        /**
+         * Start timing the next step from now, e.g. after client-side work
+         */
+        void resetClock() {
+            stepStart = System.nanoTime();
+        }
+    }
+
+    @FunctionalInterface
+    interface Step {
+        HttpResponse<String> call() throws Exception;
+    }
+}
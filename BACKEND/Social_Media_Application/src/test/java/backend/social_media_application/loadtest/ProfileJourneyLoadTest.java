@@ -0,0 +1,107 @@
+package backend.social_media_application.loadtest;
+
+import com.icegreen.greenmail.util.GreenMail;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Boots the whole app against an in-memory Mongo-compatible server, a
+ * GreenMail SMTP server and a temp upload dir, then drives signup, verify,
+ * login, profile and upload journeys at an open-model arrival rate.
+ *
+ * Runs only with -Ploadtest. Tune with -Dloadtest.rate (journeys/s),
+ * -Dloadtest.warmup and -Dloadtest.duration (s) and -Dloadtest.new-share
+ * (fraction of arrivals that are new members). Results go to stdout and
+ * target/loadtest/.
+ */
+@Tag("loadtest")
+// Log levels are set here rather than in stubs(): the logging system is configured before
+// dynamic properties are registered, so it would never see them
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "logging.level.backend.social_media_application=WARN",
+        "logging.level.com.icegreen=WARN",
+        "logging.level.de.bwaldvogel=ERROR"
+})
+public class ProfileJourneyLoadTest {
+
+    private static final MongoServer mongoServer = new MongoServer(new MemoryBackend());
+    private static final GreenMail greenMail = new GreenMail(ServerSetupTest.SMTP.dynamicPort());
+    private static final Path uploadDir;
+
+    static {
+        InetSocketAddress address = mongoServer.bind();
+        System.setProperty("loadtest.mongo.uri", "mongodb://" + address.getHostString() + ":" + address.getPort());
+        greenMail.start();
+        try {
+            uploadDir = Files.createTempDirectory("loadtest-uploads");
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    @LocalServerPort
+    private int port;
+
+    @DynamicPropertySource
+    static void stubs(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.mongodb.uri", () -> System.getProperty("loadtest.mongo.uri"));
+        registry.add("spring.data.mongodb.database", () -> "loadtest");
+        registry.add("spring.mail.host", () -> "127.0.0.1");
+        registry.add("spring.mail.port", () -> greenMail.getSmtp().getPort());
+        registry.add("spring.mail.username", () -> "");
+        registry.add("spring.mail.password", () -> "");
+        registry.add("spring.mail.properties.mail.smtp.auth", () -> "false");
+        registry.add("spring.mail.properties.mail.smtp.starttls.enable", () -> "false");
+        registry.add("spring.mail.properties.mail.smtp.starttls.required", () -> "false");
+        registry.add("app.file.upload-dir", uploadDir::toString);
+        // Background jobs would compete with the measured requests
+        registry.add("app.suggestions.enabled", () -> "false");
+        registry.add("app.uploads.gc.enabled", () -> "false");
+        registry.add("management.tracing.sampling.probability", () -> "0");
+    }
+
+    @AfterAll
+    static void stopStubs() {
+        greenMail.stop();
+        mongoServer.shutdownNow();
+    }
+
+    @Test
+    public void testMixedJourneys() throws Exception {
+        double rate = Double.parseDouble(System.getProperty("loadtest.rate", "5"));
+        long warmup = Long.parseLong(System.getProperty("loadtest.warmup", "10"));
+        long duration = Long.parseLong(System.getProperty("loadtest.duration", "30"));
+        double newShare = Double.parseDouble(System.getProperty("loadtest.new-share", "0.2"));
+
+        UserJourneys journeys = new UserJourneys("http://localhost:" + port, greenMail);
+        OpenModelLoadGenerator generator = new OpenModelLoadGenerator(rate, warmup, duration);
+        generator.run(session -> journeys.mixed(session, newShare));
+
+        System.out.print(generator.report(Paths.get("target", "loadtest")));
+
+        assertFalse(generator.endpoints().isEmpty(), "no requests were measured");
+        generator.endpoints().forEach((endpoint, stats) -> {
+            long count = stats.latencies.getTotalCount();
+            assertTrue(stats.errors.get() <= count / 100, endpoint + ": " + stats.errors.get()
+                    + " of " + count + " requests failed");
+        });
+    }
+}
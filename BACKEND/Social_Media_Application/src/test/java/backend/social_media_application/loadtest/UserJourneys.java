@@ -0,0 +1,194 @@
+package backend.social_media_application.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.icegreen.greenmail.util.GreenMail;
+import com.icegreen.greenmail.util.GreenMailUtil;
+import jakarta.mail.internet.MimeMessage;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The scenarios the load test drives over real HTTP. New members go through
+ * signup, email verification (reading the OTP from the SMTP stand-in),
+ * login, profile read/update and an avatar upload; returning members log in,
+ * read someone's profile and update their own.
+ */
+final class UserJourneys {
+
+    private static final Pattern OTP = Pattern.compile("verification is: (\\d+)");
+    private static final String PASSWORD = "load-test-password";
+    private static final String BOUNDARY = "----loadtest7MA4YWxkTrZu0gW";
+
+    private final String baseUrl;
+    private final GreenMail greenMail;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final List<Account> members = new CopyOnWriteArrayList<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private final byte[] avatar = avatar();
+
+    record Account(String username, String email) {
+    }
+
+    UserJourneys(String baseUrl, GreenMail greenMail) {
+        this.baseUrl = baseUrl;
+        this.greenMail = greenMail;
+    }
+
+    /**
+     * Pick a journey: newShare of arrivals are new members, the rest returning
+     * ones (new members too until some have signed up)
+     */
+    void mixed(OpenModelLoadGenerator.Session session, double newShare) {
+        if (members.isEmpty() || ThreadLocalRandom.current().nextDouble() < newShare) {
+            newMember(session);
+        } else {
+            returningMember(session);
+        }
+    }
+
+    void newMember(OpenModelLoadGenerator.Session session) {
+        long n = sequence.incrementAndGet();
+        Account account = new Account("lt" + n, "lt" + n + "@loadtest.local");
+
+        if (!ok(session.step("signup", () -> post("/api/auth/signup", null, Map.of(
+                "username", account.username(), "email", account.email(), "password", PASSWORD,
+                "firstName", "Load", "lastName", "Tester" + n))))) {
+            return;
+        }
+        String otp = readOtp(account.email());
+        session.resetClock();
+        if (otp == null || !ok(session.step("verify-email", () -> post("/api/auth/verify-email", null,
+                Map.of("email", account.email(), "otp", otp))))) {
+            return;
+        }
+        String token = login(session, account);
+        if (token == null) {
+            return;
+        }
+        session.step("profile-read", () -> get("/api/profiles/" + account.username(), token));
+        session.step("profile-update", () -> patch("/api/profiles", token, Map.of(
+                "bio", "Joined during load test " + n, "currentCity", "Colombo")));
+        session.step("avatar-upload", () -> upload("/api/profiles/avatar", token));
+        members.add(account);
+    }
+
+    void returningMember(OpenModelLoadGenerator.Session session) {
+        Account account = members.get(ThreadLocalRandom.current().nextInt(members.size()));
+        String token = login(session, account);
+        if (token == null) {
+            return;
+        }
+        Account other = members.get(ThreadLocalRandom.current().nextInt(members.size()));
+        session.step("profile-read", () -> get("/api/profiles/" + other.username(), token));
+        session.step("profile-update", () -> patch("/api/profiles", token, Map.of(
+                "bio", "Updated at " + System.currentTimeMillis())));
+    }
+
+    private String login(OpenModelLoadGenerator.Session session, Account account) {
+        HttpResponse<String> response = session.step("login", () -> post("/api/auth/login", null,
+                Map.of("email", account.email(), "password", PASSWORD)));
+        if (!ok(response)) {
+            return null;
+        }
+        try {
+            JsonNode token = objectMapper.readTree(response.body()).get("token");
+            return token != null ? token.asText() : null;
+        } catch (IOException ex) {
+            return null;
+        }
+    }
+
+    private String readOtp(String email) {
+        // Signup sends the mail before responding, so it is already there
+        MimeMessage[] messages = greenMail.getReceivedMessagesForDomain(email);
+        if (messages.length == 0) {
+            return null;
+        }
+        Matcher matcher = OTP.matcher(GreenMailUtil.getBody(messages[messages.length - 1]));
+        return matcher.find() ? matcher.group(1) : null;
+    }
+
+    private HttpResponse<String> get(String path, String token) throws Exception {
+        return send(request(path, token).GET());
+    }
+
+    private HttpResponse<String> post(String path, String token, Map<String, ?> body) throws Exception {
+        return send(request(path, token).header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body))));
+    }
+
+    private HttpResponse<String> patch(String path, String token, Map<String, ?> body) throws Exception {
+        return send(request(path, token).header("Content-Type", "application/json")
+                .method("PATCH", HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body))));
+    }
+
+    private HttpResponse<String> upload(String path, String token) throws Exception {
+        ByteArrayOutputStream body = new ByteArrayOutputStream(avatar.length + 256);
+        body.writeBytes(("--" + BOUNDARY + "\r\n"
+                + "Content-Disposition: form-data; name=\"file\"; filename=\"avatar.png\"\r\n"
+                + "Content-Type: image/png\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+        body.writeBytes(avatar);
+        body.writeBytes(("\r\n--" + BOUNDARY + "--\r\n").getBytes(StandardCharsets.US_ASCII));
+        return send(request(path, token)
+                .header("Content-Type", "multipart/form-data; boundary=" + BOUNDARY)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body.toByteArray())));
+    }
+
+    private HttpRequest.Builder request(String path, String token) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(30));
+        return token != null ? builder.header("Authorization", "Bearer " + token) : builder;
+    }
+
+    private HttpResponse<String> send(HttpRequest.Builder request) throws Exception {
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static boolean ok(HttpResponse<String> response) {
+        return response != null && response.statusCode() / 100 == 2;
+    }
+
+    // A 512x512 photo-like PNG (gradient plus shapes), so resizing and hashing do real work
+    private static byte[] avatar() {
+        BufferedImage image = new BufferedImage(512, 512, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        for (int y = 0; y < 512; y++) {
+            graphics.setColor(new Color(y / 2, 128, 255 - y / 2));
+            graphics.drawLine(0, y, 511, y);
+        }
+        graphics.setColor(Color.ORANGE);
+        graphics.fillOval(128, 96, 256, 256);
+        graphics.dispose();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            ImageIO.write(image, "png", out);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,148 @@
+package backend.social_media_application.logging;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.util.LogbackMDCAdapter;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.OutputStreamAppender;
+import org.junit.jupiter.api.Test;
+
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Request threads logging at once through a slow console-like sink: with a
+ * synchronous appender every call queues on the output lock, behind the
+ * AsyncAppender calls only enqueue. Prints per-call latency for both setups
+ * and how many events reached the sink; the sink here is deliberately slower
+ * than the producers, so the async setup sheds INFO events once its queue
+ * fills instead of stalling requests.
+ */
+public class AsyncLoggingBenchmarkTest {
+
+    private static final int THREADS = 8;
+    private static final int MESSAGES_PER_THREAD = 2_000;
+    // Roughly a terminal or a container log pipe under pressure
+    private static final long WRITE_NANOS = 20_000;
+
+    @Test
+    public void testAsyncLoggingKeepsRequestThreadsOffTheOutputLock() throws Exception {
+        long[] sync = run(false);
+        long[] async = run(true);
+
+        System.out.printf("sync logging:  p50 %d us, p99 %d us, max %d us%n",
+                percentile(sync, 50) / 1000, percentile(sync, 99) / 1000, sync[sync.length - 1] / 1000);
+        System.out.printf("async logging: p50 %d us, p99 %d us, max %d us%n",
+                percentile(async, 50) / 1000, percentile(async, 99) / 1000, async[async.length - 1] / 1000);
+
+        assertTrue(percentile(async, 99) < percentile(sync, 99),
+                "async p99 should be below sync p99");
+    }
+
+    private long[] run(boolean async) throws Exception {
+        LoggerContext context = new LoggerContext();
+        context.setMDCAdapter(new LogbackMDCAdapter());
+        SlowOutputStream out = new SlowOutputStream(WRITE_NANOS);
+        Logger logger = logger(context, out, async);
+
+        long[] latencies = new long[THREADS * MESSAGES_PER_THREAD];
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] threads = new Thread[THREADS];
+        for (int t = 0; t < THREADS; t++) {
+            int offset = t * MESSAGES_PER_THREAD;
+            threads[t] = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < MESSAGES_PER_THREAD; i++) {
+                    long begin = System.nanoTime();
+                    logger.info("Served profile {} for user {}", i, offset);
+                    latencies[offset + i] = System.nanoTime() - begin;
+                }
+            });
+            threads[t].start();
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        context.stop();
+
+        System.out.printf("%s logging: %d of %d events written%n", async ? "async" : "sync",
+                out.writes.get(), latencies.length);
+        Arrays.sort(latencies);
+        return latencies;
+    }
+
+    private static Logger logger(LoggerContext context, OutputStream out, boolean async) {
+        PatternLayoutEncoder pattern = new PatternLayoutEncoder();
+        pattern.setContext(context);
+        pattern.setPattern("%msg%n");
+
+        RedactingEncoder encoder = new RedactingEncoder();
+        encoder.setContext(context);
+        encoder.setDelegate(pattern);
+        encoder.start();
+
+        OutputStreamAppender<ILoggingEvent> console = new OutputStreamAppender<>();
+        console.setContext(context);
+        console.setEncoder(encoder);
+        console.setOutputStream(out);
+        console.start();
+
+        Appender<ILoggingEvent> appender = console;
+        if (async) {
+            AsyncAppender asyncAppender = new AsyncAppender();
+            asyncAppender.setContext(context);
+            asyncAppender.setQueueSize(8192);
+            asyncAppender.setNeverBlock(true);
+            asyncAppender.addAppender(console);
+            asyncAppender.start();
+            appender = asyncAppender;
+        }
+
+        Logger logger = context.getLogger("benchmark");
+        logger.setAdditive(false);
+        logger.addAppender(appender);
+        return logger;
+    }
+
+    private static long percentile(long[] sorted, int percentile) {
+        return sorted[Math.min(sorted.length - 1, sorted.length * percentile / 100)];
+    }
+
+    /**
+     * Sink that takes a fixed time per write, like a terminal or pipe
+     */
+    private static final class SlowOutputStream extends OutputStream {
+        private final long writeNanos;
+        private final AtomicLong writes = new AtomicLong();
+
+        SlowOutputStream(long writeNanos) {
+            this.writeNanos = writeNanos;
+        }
+
+        @Override
+        public void write(int b) {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public synchronized void write(byte[] b, int off, int len) {
+            long until = System.nanoTime() + writeNanos;
+            while (System.nanoTime() < until) {
+                Thread.onSpinWait();
+            }
+            writes.incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package backend.social_media_application.security;
+
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.tracing.handler.DefaultTracingObservationHandler;
+import io.micrometer.tracing.otel.bridge.OtelBaggageManager;
+import io.micrometer.tracing.otel.bridge.OtelCurrentTraceContext;
+import io.micrometer.tracing.otel.bridge.OtelTracer;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.exporter.logging.otlp.OtlpJsonLoggingSpanExporter;
+import io.opentelemetry.sdk.testing.exporter.InMemorySpanExporter;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetailsService;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class JwtAuthenticationFilterTest {
+
+    private final InMemorySpanExporter spans = InMemorySpanExporter.create();
+    private SdkTracerProvider tracerProvider;
+    private ObservationRegistry observationRegistry;
+
+    @BeforeEach
+    public void setUp() {
+        // Same bridge the app uses, with spans kept in memory and also logged as OTLP JSON
+        tracerProvider = SdkTracerProvider.builder()
+                .addSpanProcessor(SimpleSpanProcessor.create(spans))
+                .addSpanProcessor(SimpleSpanProcessor.create(OtlpJsonLoggingSpanExporter.create()))
+                .build();
+        OtelCurrentTraceContext traceContext = new OtelCurrentTraceContext();
+        OtelTracer tracer = new OtelTracer(tracerProvider.get("test"), traceContext, event -> {
+        }, new OtelBaggageManager(traceContext, List.of(), List.of()));
+        observationRegistry = ObservationRegistry.create();
+        observationRegistry.observationConfig().observationHandler(new DefaultTracingObservationHandler(tracer));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        SecurityContextHolder.clearContext();
+        tracerProvider.close();
+    }
+
+    @Test
+    public void testTokenCheckAndUserLoadAreChildSpans() throws Exception {
+        JwtTokenProvider tokenProvider = mock(JwtTokenProvider.class);
+        when(tokenProvider.validateToken("abc")).thenReturn(true);
+        when(tokenProvider.getUserIdFromToken("abc")).thenReturn("alice@example.com");
+        UserDetailsService userDetailsService = mock(UserDetailsService.class);
+        when(userDetailsService.loadUserByUsername("alice@example.com"))
+                .thenReturn(User.withUsername("alice@example.com").password("x").build());
+
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/profile");
+        request.addHeader("Authorization", "Bearer abc");
+        new JwtAuthenticationFilter(tokenProvider, userDetailsService, observationRegistry)
+                .doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+
+        assertNotNull(SecurityContextHolder.getContext().getAuthentication());
+        Map<String, SpanData> byName = spans.getFinishedSpanItems().stream()
+                .collect(Collectors.toMap(SpanData::getName, Function.identity()));
+        SpanData root = byName.get("jwt authentication");
+        assertEquals("authenticated", root.getAttributes().get(AttributeKey.stringKey("outcome")));
+        assertEquals(root.getSpanId(), byName.get("jwt verify").getParentSpanId());
+        assertEquals(root.getSpanId(), byName.get("user load").getParentSpanId());
+    }
+
+    @Test
+    public void testInvalidTokenSkipsUserLoad() throws Exception {
+        JwtTokenProvider tokenProvider = mock(JwtTokenProvider.class);
+        UserDetailsService userDetailsService = mock(UserDetailsService.class);
+
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/profile");
+        request.addHeader("Authorization", "Bearer forged");
+        new JwtAuthenticationFilter(tokenProvider, userDetailsService, observationRegistry)
+                .doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+
+        List<SpanData> finished = spans.getFinishedSpanItems();
+        assertEquals(List.of("jwt verify", "jwt authentication"), finished.stream().map(SpanData::getName).toList());
+        assertEquals("invalid", finished.get(1).getAttributes().get(AttributeKey.stringKey("outcome")));
+    }
+}
@@ -0,0 +1,67 @@
+package backend.social_media_application.service;
+
+import backend.social_media_application.model.Audience;
+import backend.social_media_application.repository.AudienceRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.roaringbitmap.RoaringBitmap;
+
+import java.nio.ByteBuffer;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class AudienceServiceTest {
+
+    private AudienceRepository audienceRepository;
+    private UserSequenceService userSequenceService;
+
+    @BeforeEach
+    public void setUp() {
+        audienceRepository = mock(AudienceRepository.class);
+        userSequenceService = mock(UserSequenceService.class);
+        when(userSequenceService.findSeq("viewer")).thenReturn(7);
+    }
+
+    @Test
+    public void testEditOnAnotherNodeIsPickedUpByVersion() throws Exception {
+        AudienceService audienceService = new AudienceService(audienceRepository, userSequenceService,
+                mock(UserCardService.class), 100, 20);
+        when(audienceRepository.findById("close")).thenReturn(Optional.of(audience(1L, 7)));
+        when(audienceRepository.findVersionById("close")).thenReturn(Optional.of(audience(1L)));
+        assertTrue(audienceService.isMember("close", "viewer"));
+
+        // Unchanged version: the cached bitmap is kept without reading it again
+        Thread.sleep(40);
+        assertTrue(audienceService.isMember("close", "viewer"));
+        verify(audienceRepository, times(1)).findById("close");
+
+        // Another node removed the viewer
+        when(audienceRepository.findById("close")).thenReturn(Optional.of(audience(2L)));
+        when(audienceRepository.findVersionById("close")).thenReturn(Optional.of(audience(2L)));
+        Thread.sleep(40);
+        assertFalse(audienceService.isMember("close", "viewer"));
+
+        // And then deleted the audience
+        when(audienceRepository.findVersionById("close")).thenReturn(Optional.empty());
+        Thread.sleep(40);
+        assertFalse(audienceService.isOwnedBy("close", "owner"));
+    }
+
+    private static Audience audience(Long version, int... members) {
+        Audience audience = new Audience();
+        audience.setId("close");
+        audience.setOwnerId("owner");
+        audience.setVersion(version);
+        RoaringBitmap bitmap = RoaringBitmap.bitmapOf(members);
+        ByteBuffer buffer = ByteBuffer.allocate(bitmap.serializedSizeInBytes());
+        bitmap.serialize(buffer);
+        audience.setMembers(buffer.array());
+        return audience;
+    }
+}
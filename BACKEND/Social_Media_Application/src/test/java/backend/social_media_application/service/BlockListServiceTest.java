@@ -0,0 +1,103 @@
+package backend.social_media_application.service;
+
+import backend.social_media_application.model.Block;
+import backend.social_media_application.repository.BlockRepository;
+import com.mongodb.client.result.UpdateResult;
+import org.bson.BsonObjectId;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class BlockListServiceTest {
+
+    private BlockRepository blockRepository;
+    private MongoTemplate mongoTemplate;
+    private BlockListService blockListService;
+
+    @BeforeEach
+    public void setUp() {
+        blockRepository = mock(BlockRepository.class);
+        mongoTemplate = mock(MongoTemplate.class);
+        when(mongoTemplate.upsert(any(Query.class), any(Update.class), eq(Block.class)))
+                .thenReturn(UpdateResult.acknowledged(0, 0L, new BsonObjectId()));
+        blockListService = new BlockListService(blockRepository, mongoTemplate, 100);
+        ReflectionTestUtils.setField(blockListService, "preload", true);
+    }
+
+    @Test
+    public void testFailedLoadFallsBackToDatabase() {
+        when(mongoTemplate.stream(any(Query.class), eq(Document.class), eq("blocks")))
+                .thenThrow(new IllegalStateException("connection refused"));
+        when(blockRepository.existsByBlockerIdAndBlockedId("alice", "bob")).thenReturn(true);
+        when(blockRepository.findEdgesBetween(eq("alice"), anyCollection())).thenReturn(List.of(edge("alice", "bob")));
+
+        blockListService.loadFilters();
+
+        assertTrue(blockListService.isBlockedEitherWay("alice", "bob"));
+        assertEquals(0, blockListService.findBlockedAmong("alice", List.of("bob", "carol")).nextSetBit(0));
+
+        // The next sync retries the load; once it succeeds a filter miss is trusted again
+        when(mongoTemplate.stream(any(Query.class), eq(Document.class), eq("blocks")))
+                .thenReturn(Stream.of(edgeDocument("alice", "bob")));
+        blockListService.syncFilters();
+        assertFalse(blockListService.isBlockedEitherWay("carol", "dave"));
+        verify(blockRepository, never()).existsByBlockerIdAndBlockedId("carol", "dave");
+    }
+
+    @Test
+    public void testBlockDuringLoadIsKept() {
+        when(mongoTemplate.stream(any(Query.class), eq(Document.class), eq("blocks")))
+                .thenReturn(Stream.of(edgeDocument("alice", "bob"))
+                        .peek(edge -> blockListService.block("alice", "carol", null)));
+
+        blockListService.loadFilters();
+
+        assertTrue(blockListService.isBlockedEitherWay("alice", "carol"));
+        assertTrue(blockListService.isBlockedEitherWay("carol", "alice"));
+        assertFalse(blockListService.isBlockedEitherWay("alice", "dave"));
+    }
+
+    @Test
+    public void testSyncPicksUpBlocksFromOtherNodes() {
+        when(mongoTemplate.stream(any(Query.class), eq(Document.class), eq("blocks")))
+                .thenReturn(Stream.empty());
+        blockListService.loadFilters();
+        assertFalse(blockListService.isBlockedEitherWay("alice", "bob"));
+
+        when(mongoTemplate.stream(any(Query.class), eq(Document.class), eq("blocks")))
+                .thenReturn(Stream.of(edgeDocument("bob", "alice")));
+        when(blockRepository.existsByBlockerIdAndBlockedId("bob", "alice")).thenReturn(true);
+        blockListService.syncFilters();
+
+        assertTrue(blockListService.isBlockedEitherWay("alice", "bob"));
+    }
+
+    private static Document edgeDocument(String blockerId, String blockedId) {
+        return new Document("blockerId", blockerId).append("blockedId", blockedId);
+    }
+
+    private static Block edge(String blockerId, String blockedId) {
+        Block block = new Block();
+        block.setBlockerId(blockerId);
+        block.setBlockedId(blockedId);
+        return block;
+    }
+}
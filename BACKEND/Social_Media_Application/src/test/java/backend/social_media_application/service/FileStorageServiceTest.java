@@ -0,0 +1,123 @@
+package backend.social_media_application.service;
+
+import backend.social_media_application.exception.BadRequestException;
+import backend.social_media_application.exception.FileStorageException;
+import backend.social_media_application.service.storage.FileSystemBlobStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class FileStorageServiceTest {
+
+    private static final byte[] GIF = "GIF89a hello".getBytes(StandardCharsets.ISO_8859_1);
+
+    @TempDir
+    Path uploadDir;
+
+    private FileStorageService fileStorageService;
+
+    @BeforeEach
+    public void setUp() {
+        fileStorageService = new FileStorageService(new FileSystemBlobStore(uploadDir), uploadDir.toString());
+        fileStorageService.init();
+    }
+
+    @Test
+    public void testStoreStreamWritesFileWithHashAndSize() throws Exception {
+        byte[] content = "hello".getBytes(StandardCharsets.UTF_8);
+
+        FileStorageService.StoredFile stored = fileStorageService.storeStream(
+                new ByteArrayInputStream(content), "avatars", "hello.txt");
+
+        assertEquals("avatars/hello.txt", stored.path());
+        assertEquals(5, stored.size());
+        assertEquals("2cf24dba5fb0a30e26e83b2ac5b9e29e1b161e5c1fa7425e73043362938b9824", stored.sha256());
+        assertArrayEquals(content, Files.readAllBytes(uploadDir.resolve("avatars/hello.txt")));
+    }
+
+    @Test
+    public void testStoreStreamRejectsEmptyInputAndLeavesNoTempFiles() throws Exception {
+        assertThrows(FileStorageException.class, () -> fileStorageService.storeStream(
+                new ByteArrayInputStream(new byte[0]), "avatars", "empty.txt"));
+
+        try (var files = Files.list(uploadDir.resolve(".staging"))) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    public void testChunksWrittenOutOfOrderAssembleIntoOneFile() throws Exception {
+        fileStorageService.writeChunk("abc123", 6, new ByteArrayInputStream(GIF, 6, 6), 6);
+        fileStorageService.writeChunk("abc123", 0, new ByteArrayInputStream(GIF, 0, 6), 6);
+
+        // The extension comes from the content, not the name the client sent
+        FileStorageService.StoredFile stored = fileStorageService.storeCompletedUpload("abc123", "hello.html");
+
+        assertEquals(12, stored.size());
+        assertEquals(sha256(GIF), stored.sha256());
+        assertEquals(FileStorageService.blobPath(sha256(GIF), "gif"), stored.path());
+        assertArrayEquals(GIF, Files.readAllBytes(uploadDir.resolve(stored.path())));
+    }
+
+    @Test
+    public void testStoreBlobUsesShardedHashPathAndDeduplicates() throws Exception {
+        FileStorageService.StoredFile first = fileStorageService.storeBlob(new ByteArrayInputStream(GIF), "me.JPG");
+        FileStorageService.StoredFile second = fileStorageService.storeBlob(new ByteArrayInputStream(GIF), "copy.html");
+
+        String sha = sha256(GIF);
+        String expected = "blobs/" + sha.substring(0, 2) + "/" + sha.substring(2, 4) + "/" + sha + ".gif";
+        assertEquals(expected, first.path());
+        assertEquals(expected, second.path());
+        try (var files = Files.list(uploadDir.resolve("blobs"))) {
+            // Only the shard directory; no temp files left behind
+            assertEquals(1, files.count());
+        }
+    }
+
+    @Test
+    public void testBlobCollectedBetweenStatAndTouchIsStoredAgain() throws Exception {
+        // The orphan collector deletes the existing blob just before the upload touches it
+        FileStorageService racing = new FileStorageService(new FileSystemBlobStore(uploadDir) {
+            @Override
+            public void touch(String key) throws IOException {
+                delete(key);
+                super.touch(key);
+            }
+        }, uploadDir.toString());
+        racing.init();
+        racing.storeBlob(new ByteArrayInputStream(GIF), "a.gif");
+
+        FileStorageService.StoredFile stored = racing.storeBlob(new ByteArrayInputStream(GIF), "b.gif");
+
+        assertArrayEquals(GIF, Files.readAllBytes(uploadDir.resolve(stored.path())));
+    }
+
+    @Test
+    public void testNonImagesAreRejectedWhateverTheirName() throws Exception {
+        byte[] html = "<html><script>alert(1)</script>".getBytes(StandardCharsets.UTF_8);
+
+        assertThrows(BadRequestException.class,
+                () -> fileStorageService.storeBlob(new ByteArrayInputStream(html), "avatar.png"));
+        try (var files = Files.list(uploadDir.resolve(".staging"))) {
+            assertEquals(0, files.count());
+        }
+        assertFalse(Files.exists(uploadDir.resolve("blobs")) && Files.list(uploadDir.resolve("blobs")).findAny().isPresent());
+    }
+
+    private static String sha256(byte[] content) throws Exception {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+    }
+}
@@ -0,0 +1,73 @@
+package backend.social_media_application.service;
+
+import backend.social_media_application.model.User;
+import backend.social_media_application.service.storage.FileSystemBlobStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+public class ImagePipelineServiceTest {
+
+    @TempDir
+    Path uploadDir;
+
+    private MongoTemplate mongoTemplate;
+    private ImagePipelineService imagePipelineService;
+
+    @BeforeEach
+    public void setUp() {
+        FileStorageService fileStorageService =
+                new FileStorageService(new FileSystemBlobStore(uploadDir), uploadDir.toString());
+        fileStorageService.init();
+        mongoTemplate = mock(MongoTemplate.class);
+        imagePipelineService = new ImagePipelineService(fileStorageService, mongoTemplate,
+                new SimpleMeterRegistry(), new int[]{64, 256, 1024}, 0.85f, 1, 10, 100);
+    }
+
+    @Test
+    public void testProcessWritesDownscaledVariantsOnly() throws Exception {
+        ImageIO.write(new BufferedImage(800, 400, BufferedImage.TYPE_INT_ARGB), "png",
+                uploadDir.resolve("avatars/photo.png").toFile());
+
+        imagePipelineService.process(ImagePipelineService.Kind.AVATAR, "user1", "avatars/photo.png");
+
+        BufferedImage medium = ImageIO.read(uploadDir.resolve("avatars/variants/photo_256.jpg").toFile());
+        assertEquals(256, medium.getWidth());
+        assertEquals(128, medium.getHeight());
+        assertEquals(64, ImageIO.read(uploadDir.resolve("avatars/variants/photo_64.jpg").toFile()).getWidth());
+        // Never upscaled past the original
+        assertFalse(Files.exists(uploadDir.resolve("avatars/variants/photo_1024.jpg")));
+
+        assertEquals("avatars/variants/photo_64.jpg", imagePipelineService.resolveVariant("avatars/photo.png", 40));
+        assertEquals("avatars/variants/photo_256.jpg", imagePipelineService.resolveVariant("avatars/photo.png", 200));
+        assertEquals("avatars/photo.png", imagePipelineService.resolveVariant("avatars/photo.png", 600));
+
+        // 4x3 components; transparent pixels are flattened onto white, so the average colour is FFFFFF
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).updateFirst(any(Query.class), update.capture(), eq(User.class));
+        String placeholder = (String) update.getValue().getUpdateObject().get("$set", Document.class)
+                .get("avatarPlaceholder");
+        assertEquals(28, placeholder.length());
+        assertTrue(placeholder.startsWith("L"), placeholder);
+        assertEquals("TSUA", placeholder.substring(2, 6));
+    }
+}
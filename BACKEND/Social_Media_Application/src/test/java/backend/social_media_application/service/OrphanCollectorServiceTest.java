@@ -0,0 +1,93 @@
+package backend.social_media_application.service;
+
+import backend.social_media_application.model.Profile;
+import backend.social_media_application.model.User;
+import backend.social_media_application.service.storage.FileSystemBlobStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class OrphanCollectorServiceTest {
+
+    @TempDir
+    Path uploadDir;
+
+    private OrphanCollectorService collector;
+
+    @BeforeEach
+    public void setUp() {
+        FileStorageService fileStorageService =
+                new FileStorageService(new FileSystemBlobStore(uploadDir), uploadDir.toString());
+        fileStorageService.init();
+        ImagePipelineService imagePipelineService = new ImagePipelineService(fileStorageService,
+                mock(MongoTemplate.class), new SimpleMeterRegistry(), new int[]{64, 256}, 0.85f, 1, 10, 100);
+
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+        when(mongoTemplate.getCollectionName(User.class)).thenReturn("users");
+        when(mongoTemplate.getCollectionName(Profile.class)).thenReturn("profiles");
+        when(mongoTemplate.stream(any(Query.class), eq(Document.class), eq("users")))
+                .thenAnswer(invocation -> Stream.of(new Document("avatar", "blobs/aa/bb/kept.jpg")));
+        when(mongoTemplate.stream(any(Query.class), eq(Document.class), eq("profiles")))
+                .thenAnswer(invocation -> Stream.of(new Document("coverPhoto", "covers/cover.png")));
+
+        collector = new OrphanCollectorService(mongoTemplate, fileStorageService, imagePipelineService);
+        ReflectionTestUtils.setField(collector, "graceHours", 24L);
+        ReflectionTestUtils.setField(collector, "deletesPerSecond", 0);
+    }
+
+    @Test
+    public void testCollectDeletesOnlyOldUnreferencedFiles() throws Exception {
+        Path kept = write("blobs/aa/bb/kept.jpg", true);
+        Path keptVariant = write("blobs/aa/bb/variants/kept_64.jpg", true);
+        Path cover = write("covers/cover.png", true);
+        Path orphan = write("avatars/old.jpg", true);
+        Path staleTemp = write(".staging/upload-123.tmp", true);
+        Path recent = write("blobs/cc/dd/recent.jpg", false);
+        Path part = write(".sessions/abc.part", true);
+
+        OrphanCollectorService.Report report = collector.collect(true);
+        assertEquals(1, report.orphanFiles());
+        assertEquals(0, report.deletedFiles());
+        assertTrue(Files.exists(orphan));
+        assertTrue(Files.exists(staleTemp));
+
+        report = collector.collect(false);
+        assertEquals(1, report.deletedFiles());
+        assertEquals(1, report.stagingFilesDeleted());
+        assertFalse(Files.exists(orphan));
+        assertFalse(Files.exists(staleTemp));
+        for (Path path : new Path[]{kept, keptVariant, cover, recent, part}) {
+            assertTrue(Files.exists(path), path.toString());
+        }
+    }
+
+    private Path write(String relativePath, boolean old) throws Exception {
+        Path path = uploadDir.resolve(relativePath);
+        Files.createDirectories(path.getParent());
+        Files.writeString(path, relativePath);
+        if (old) {
+            Files.setLastModifiedTime(path, FileTime.from(Instant.now().minus(Duration.ofDays(2))));
+        }
+        return path;
+    }
+}
@@ -0,0 +1,53 @@
+package backend.social_media_application.service;
+
+import backend.social_media_application.model.PrivacySettings;
+import backend.social_media_application.model.ProfileSection;
+import backend.social_media_application.util.PrivacyPolicy;
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class PrivacyEvaluatorTest {
+
+    @Test
+    public void testEvaluateAppliesPolicyBlocksAndConnections() {
+        PrivacySettings friendsOnly = new PrivacySettings();
+        friendsOnly.setSectionVisibility("BASIC_INFO", "FRIENDS");
+        PrivacyPolicy friendsPolicy = PrivacyPolicy.compile(friendsOnly);
+
+        PrivacyPolicyService policies = mock(PrivacyPolicyService.class);
+        when(policies.getPolicies(any())).thenReturn(Map.of(
+                "friend", friendsPolicy,
+                "stranger", friendsPolicy));
+
+        BlockListService blocks = mock(BlockListService.class);
+        BitSet blocked = new BitSet();
+        blocked.set(3);
+        when(blocks.findBlockedAmong(eq("viewer"), anyList())).thenReturn(blocked);
+
+        SocialGraphService graph = new SocialGraphService(null, null);
+        graph.addEdge("viewer", "friend");
+        graph.addEdge("friend", "viewer");
+
+        PrivacyEvaluator evaluator = new PrivacyEvaluator(policies, blocks, graph, mock(AudienceService.class));
+        List<String> owners = List.of("friend", "stranger", "public", "blocker", "viewer");
+        BitSet allowed = evaluator.evaluate("viewer", owners, ProfileSection.BASIC_INFO);
+
+        BitSet expected = new BitSet();
+        expected.set(0); // connected, so FRIENDS is visible
+        expected.set(2); // default policy keeps basic info public
+        expected.set(4); // own profile
+        assertEquals(expected, allowed);
+        assertEquals(List.of("friend", "public", "viewer"),
+                evaluator.filterVisible("viewer", owners, ProfileSection.BASIC_INFO));
+    }
+}
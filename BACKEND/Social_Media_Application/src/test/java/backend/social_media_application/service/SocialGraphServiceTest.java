@@ -0,0 +1,139 @@
+package backend.social_media_application.service;
+
+import backend.social_media_application.repository.FollowRepository;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class SocialGraphServiceTest {
+
+    private SocialGraphService graph;
+
+    @BeforeEach
+    public void setUp() {
+        graph = new SocialGraphService(null, null);
+    }
+
+    @Test
+    public void testConnectionRequiresFollowInBothDirections() {
+        graph.addEdge("alice", "bob");
+        assertTrue(graph.follows("alice", "bob"));
+        assertFalse(graph.areConnected("alice", "bob"));
+
+        graph.addEdge("bob", "alice");
+        assertTrue(graph.areConnected("alice", "bob"));
+        assertTrue(graph.areConnected("bob", "alice"));
+
+        graph.removeEdge("bob", "alice");
+        assertFalse(graph.areConnected("alice", "bob"));
+        assertFalse(graph.areConnected("alice", "unknown"));
+    }
+
+    @Test
+    public void testMutualConnectionCount() {
+        for (int i = 0; i < 200; i++) {
+            graph.addEdge("alice", "user" + i);
+            if (i % 2 == 0) {
+                graph.addEdge("bob", "user" + i);
+            }
+        }
+        graph.addEdge("carol", "user4");
+
+        assertEquals(100, graph.mutualConnectionCount("alice", "bob"));
+        assertEquals(1, graph.mutualConnectionCount("carol", "alice"));
+        assertEquals(0, graph.mutualConnectionCount("carol", "nobody"));
+    }
+
+    @Test
+    public void testDuplicateEdgesAreIgnored() {
+        graph.addEdge("alice", "bob");
+        graph.addEdge("alice", "bob");
+        graph.removeEdge("alice", "carol");
+
+        SocialGraphService.GraphStats stats = graph.getStats();
+        assertEquals(2, stats.users());
+        assertEquals(1, stats.edges());
+        assertTrue(stats.bytesPerEdge() > 0);
+    }
+
+    @Test
+    public void testFailedLoadFallsBackToDatabaseUntilRetrySucceeds() {
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+        FollowRepository followRepository = mock(FollowRepository.class);
+        SocialGraphService preloaded = new SocialGraphService(mongoTemplate, followRepository);
+        ReflectionTestUtils.setField(preloaded, "preload", true);
+        when(mongoTemplate.stream(any(Query.class), eq(Document.class), eq("follows")))
+                .thenThrow(new IllegalStateException("connection refused"));
+        when(followRepository.existsByFollowerIdAndFolloweeId(anyString(), anyString())).thenReturn(true);
+
+        preloaded.loadGraph();
+        assertFalse(preloaded.isLoaded());
+        assertTrue(preloaded.areConnected("alice", "bob"));
+
+        when(mongoTemplate.stream(any(Query.class), eq(Document.class), eq("follows")))
+                .thenReturn(Stream.of(edge("alice", "bob")));
+        preloaded.retryLoad();
+        assertTrue(preloaded.isLoaded());
+        assertTrue(preloaded.follows("alice", "bob"));
+        assertFalse(preloaded.areConnected("alice", "bob"));
+    }
+
+    @Test
+    public void testFollowsDuringLoadAreKept() {
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+        SocialGraphService preloaded = new SocialGraphService(mongoTemplate, mock(FollowRepository.class));
+        ReflectionTestUtils.setField(preloaded, "preload", true);
+        // bob follows carol and alice unfollows bob while the stream is still running
+        when(mongoTemplate.stream(any(Query.class), eq(Document.class), eq("follows")))
+                .thenReturn(Stream.of(edge("alice", "bob"), edge("bob", "alice")).peek(edge -> {
+                    preloaded.addEdge("bob", "carol");
+                    preloaded.removeEdge("alice", "bob");
+                }));
+
+        preloaded.loadGraph();
+
+        assertTrue(preloaded.follows("bob", "carol"));
+        assertTrue(preloaded.follows("bob", "alice"));
+        assertFalse(preloaded.follows("alice", "bob"));
+    }
+
+    @Test
+    public void testSyncAppliesChangesFromOtherNodes() {
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+        SocialGraphService preloaded = new SocialGraphService(mongoTemplate, mock(FollowRepository.class));
+        ReflectionTestUtils.setField(preloaded, "preload", true);
+        when(mongoTemplate.stream(any(Query.class), eq(Document.class), eq("follows")))
+                .thenReturn(Stream.of(edge("alice", "bob"), edge("bob", "alice")));
+        preloaded.loadGraph();
+        assertTrue(preloaded.areConnected("alice", "bob"));
+
+        // Elsewhere alice unfollowed bob, carol unfollowed and re-followed alice, and dave followed bob
+        when(mongoTemplate.stream(any(Query.class), eq(Document.class), eq("follow_removals")))
+                .thenReturn(Stream.of(edge("alice", "bob"), edge("carol", "alice")));
+        when(mongoTemplate.stream(any(Query.class), eq(Document.class), eq("follows")))
+                .thenReturn(Stream.of(edge("carol", "alice"), edge("dave", "bob")));
+        preloaded.syncEdges();
+
+        assertFalse(preloaded.areConnected("alice", "bob"));
+        assertTrue(preloaded.follows("carol", "alice"));
+        assertTrue(preloaded.follows("dave", "bob"));
+    }
+
+    private static Document edge(String followerId, String followeeId) {
+        return new Document("followerId", followerId).append("followeeId", followeeId);
+    }
+}
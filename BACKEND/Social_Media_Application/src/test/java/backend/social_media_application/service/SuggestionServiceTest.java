@@ -0,0 +1,127 @@
+package backend.social_media_application.service;
+
+import backend.social_media_application.model.FriendSuggestions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SuggestionServiceTest {
+
+    private static final int NO_TOKEN = -1;
+
+    @Test
+    public void testTopKKeepsBestEntriesInDescendingOrder() {
+        SuggestionService.TopK topK = new SuggestionService.TopK(3);
+        int[] scores = {5, 1, 9, 7, 3, 9, 2};
+        for (int candidate = 0; candidate < scores.length; candidate++) {
+            topK.offer(scores[candidate], candidate);
+        }
+
+        long[] ranked = topK.drainDescending();
+        assertArrayEquals(new int[]{9, 9, 7},
+                Arrays.stream(ranked).mapToInt(SuggestionService.TopK::score).toArray());
+        // Ties go to the higher candidate id
+        assertEquals(5, SuggestionService.TopK.candidate(ranked[0]));
+        assertEquals(2, SuggestionService.TopK.candidate(ranked[1]));
+        assertEquals(3, SuggestionService.TopK.candidate(ranked[2]));
+
+        // Draining resets the heap for the next user
+        assertEquals(0, topK.drainDescending().length);
+    }
+
+    @Test
+    public void testScoringRanksMutualsThenAffinity() {
+        // 0 follows 1 and 2; both follow 3, only 1 follows 4 and 5
+        int[][] following = {{1, 2}, {3, 4, 5}, {3}, {}, {}, {}};
+        int[][] interests = new int[6][];
+        interests[0] = new int[]{0, 1};
+        interests[5] = new int[]{0, 1};
+        int[] city = filled(6, NO_TOKEN);
+        city[0] = 2;
+        city[4] = 2;
+        SuggestionService.BatchInput input = input(following, new boolean[6], new boolean[6], interests, city);
+
+        List<FriendSuggestions.Suggestion> suggestions =
+                SuggestionService.suggestFor(input, 0, new SuggestionService.Scratch(6, 10));
+
+        assertEquals(List.of("u3", "u5", "u4"), ids(suggestions));
+        assertEquals(2, suggestions.get(0).getMutualCount());
+        assertEquals(20, suggestions.get(0).getScore());
+        assertEquals(10 + 2 * 3, suggestions.get(1).getScore());
+        assertEquals(10 + 5, suggestions.get(2).getScore());
+    }
+
+    @Test
+    public void testOptOutsAreRespected() {
+        int[][] following = {{1}, {2, 3}, {}, {}};
+        int[][] interests = new int[4][];
+        interests[0] = new int[]{0};
+        interests[3] = new int[]{0};
+        boolean[] hidden = new boolean[4];
+        boolean[] noData = new boolean[4];
+        hidden[2] = true;
+        noData[3] = true;
+        SuggestionService.BatchInput input = input(following, hidden, noData, interests, filled(4, NO_TOKEN));
+
+        List<FriendSuggestions.Suggestion> suggestions =
+                SuggestionService.suggestFor(input, 0, new SuggestionService.Scratch(4, 10));
+
+        // Hidden users are never suggested, and opting out of data use drops the affinity bonus
+        assertEquals(List.of("u3"), ids(suggestions));
+        assertEquals(10, suggestions.get(0).getScore());
+    }
+
+    @Test
+    public void testPopularFolloweeIsSampledNotTruncated() {
+        int limit = SuggestionService.MAX_SECOND_DEGREE_PER_FRIEND;
+        int n = 2 + 2 * limit;
+        int[][] following = new int[n][];
+        Arrays.fill(following, new int[0]);
+        following[0] = new int[]{1};
+        following[1] = IntStream.range(2, n).toArray();
+
+        Set<String> seen = new HashSet<>();
+        SuggestionService.Scratch scratch = new SuggestionService.Scratch(n, n);
+        for (int rotation = 0; rotation < 8; rotation++) {
+            SuggestionService.BatchInput input = new SuggestionService.BatchInput(names(n), following,
+                    new boolean[n], new boolean[n], new int[n][], filled(n, NO_TOKEN), filled(n, NO_TOKEN), rotation);
+            List<FriendSuggestions.Suggestion> suggestions = SuggestionService.suggestFor(input, 0, scratch);
+            assertEquals(limit, suggestions.size());
+            ids(suggestions).forEach(seen::add);
+        }
+
+        // Across batches the window moves, so accounts past the first slice are reached too
+        assertTrue(seen.size() > limit);
+        assertFalse(seen.contains("u0"));
+    }
+
+    private static SuggestionService.BatchInput input(int[][] following, boolean[] hidden, boolean[] noData,
+                                                      int[][] interests, int[] city) {
+        int n = following.length;
+        return new SuggestionService.BatchInput(names(n), following, hidden, noData, interests, city,
+                filled(n, NO_TOKEN), 0);
+    }
+
+    private static String[] names(int n) {
+        return IntStream.range(0, n).mapToObj(i -> "u" + i).toArray(String[]::new);
+    }
+
+    private static int[] filled(int n, int value) {
+        int[] values = new int[n];
+        Arrays.fill(values, value);
+        return values;
+    }
+
+    private static List<String> ids(List<FriendSuggestions.Suggestion> suggestions) {
+        return suggestions.stream().map(FriendSuggestions.Suggestion::getUserId).toList();
+    }
+}
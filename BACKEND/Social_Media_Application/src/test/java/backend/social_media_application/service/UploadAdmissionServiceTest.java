@@ -0,0 +1,47 @@
+package backend.social_media_application.service;
+
+import backend.social_media_application.exception.UploadRejectedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.util.unit.DataSize;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class UploadAdmissionServiceTest {
+
+    private UploadAdmissionService admission;
+
+    @BeforeEach
+    public void setUp() {
+        admission = new UploadAdmissionService(new SimpleMeterRegistry(), DataSize.ofMegabytes(20), 2,
+                DataSize.ofMegabytes(10), 5);
+    }
+
+    @Test
+    public void testPerUserCapAndGlobalBudget() {
+        UploadAdmissionService.Permit first = admission.admit("alice", 6 * 1024 * 1024);
+        UploadAdmissionService.Permit second = admission.admit("alice", 6 * 1024 * 1024);
+
+        UploadRejectedException tooMany = assertThrows(UploadRejectedException.class,
+                () -> admission.admit("alice", 1024));
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, tooMany.getStatus());
+        assertEquals(5, tooMany.getRetryAfterSeconds());
+
+        // Unknown length reserves the 10MB request limit, which no longer fits
+        UploadRejectedException full = assertThrows(UploadRejectedException.class,
+                () -> admission.admit("bob", -1));
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, full.getStatus());
+        assertEquals(0, admission.uploadsInProgress("bob"));
+
+        first.release();
+        first.release();
+        assertEquals(6 * 1024 * 1024, admission.inFlightBytes());
+        admission.admit("bob", -1).release();
+        second.release();
+        assertEquals(0, admission.inFlightBytes());
+        assertEquals(0, admission.uploadsInProgress("alice"));
+    }
+}
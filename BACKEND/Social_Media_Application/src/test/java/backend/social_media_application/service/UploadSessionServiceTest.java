@@ -0,0 +1,186 @@
+package backend.social_media_application.service;
+
+import backend.social_media_application.dto.UploadSessionDTO;
+import backend.social_media_application.dto.UploadSessionRequest;
+import backend.social_media_application.exception.BadRequestException;
+import backend.social_media_application.model.UploadSession;
+import backend.social_media_application.repository.UploadSessionRepository;
+import backend.social_media_application.service.storage.FileSystemBlobStore;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.mongodb.repository.support.MongoRepositoryFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+public class UploadSessionServiceTest {
+
+    private static final byte[] CONTENT = "GIF89a 0123456789abcdefghijklmnopq".getBytes(StandardCharsets.ISO_8859_1);
+
+    @TempDir
+    Path uploadDir;
+
+    private MongoServer mongoServer;
+    private MongoClient mongoClient;
+    private MongoTemplate mongoTemplate;
+    private ProfileService profileService;
+    private UploadSessionService uploadSessionService;
+
+    @BeforeEach
+    public void setUp() {
+        mongoServer = new MongoServer(new MemoryBackend());
+        InetSocketAddress address = mongoServer.bind();
+        mongoClient = MongoClients.create("mongodb://" + address.getHostString() + ":" + address.getPort());
+        mongoTemplate = new MongoTemplate(mongoClient, "test");
+
+        FileStorageService fileStorageService =
+                new FileStorageService(new FileSystemBlobStore(uploadDir), uploadDir.toString());
+        fileStorageService.init();
+        profileService = mock(ProfileService.class);
+        uploadSessionService = new UploadSessionService(
+                new MongoRepositoryFactory(mongoTemplate).getRepository(UploadSessionRepository.class),
+                fileStorageService, profileService, mongoTemplate);
+        ReflectionTestUtils.setField(uploadSessionService, "maxUploadSize", DataSize.ofMegabytes(10));
+        ReflectionTestUtils.setField(uploadSessionService, "sessionTtlHours", 24L);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        mongoClient.close();
+        mongoServer.shutdown();
+    }
+
+    @Test
+    public void testResumeFromOffsetAfterRetriesAndGaps() throws Exception {
+        String id = createSession().getUploadId();
+
+        assertEquals(16, write(id, 0, 16).getOffset());
+        // A gap would leave a hole in the part file
+        assertThrows(BadRequestException.class, () -> write(id, 20, 4));
+        // After a reconnect the client asks where to resume; an overlapping retry is fine
+        assertEquals(16, uploadSessionService.getSession("user1", id).getOffset());
+        assertEquals(24, write(id, 12, 12).getOffset());
+        assertEquals(CONTENT.length, write(id, 24, CONTENT.length - 24).getOffset());
+
+        assertArrayEquals(CONTENT, Files.readAllBytes(uploadDir.resolve(".sessions").resolve(id + ".part")));
+    }
+
+    @Test
+    public void testConcurrentCommitsStoreTheFileOnce() throws Exception {
+        String id = createSession().getUploadId();
+        write(id, 0, CONTENT.length);
+
+        CountDownLatch storing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(profileService.uploadAvatarFromSession(anyString(), anyString(), anyString())).thenAnswer(invocation -> {
+            storing.countDown();
+            release.await(10, TimeUnit.SECONDS);
+            return "blobs/ab/cd/abcd.png";
+        });
+
+        CompletableFuture<UploadSessionDTO> first =
+                CompletableFuture.supplyAsync(() -> uploadSessionService.commit("user1", id));
+        storing.await(10, TimeUnit.SECONDS);
+        assertThrows(BadRequestException.class, () -> uploadSessionService.commit("user1", id));
+        release.countDown();
+
+        assertEquals("COMMITTED", first.get(10, TimeUnit.SECONDS).getStatus());
+        assertEquals("blobs/ab/cd/abcd.png", uploadSessionService.commit("user1", id).getFilePath());
+        verify(profileService, times(1)).uploadAvatarFromSession(anyString(), anyString(), anyString());
+    }
+
+    @Test
+    public void testFailedCommitCanBeRetried() {
+        String id = createSession().getUploadId();
+        write(id, 0, CONTENT.length);
+        when(profileService.uploadAvatarFromSession(anyString(), anyString(), anyString()))
+                .thenThrow(new IllegalStateException("disk full"))
+                .thenReturn("blobs/ab/cd/abcd.png");
+
+        assertThrows(IllegalStateException.class, () -> uploadSessionService.commit("user1", id));
+        assertEquals("OPEN", uploadSessionService.getSession("user1", id).getStatus());
+        assertEquals("COMMITTED", uploadSessionService.commit("user1", id).getStatus());
+    }
+
+    @Test
+    public void testImageHeaderCannotBeReplacedAfterTheFirstChunk() {
+        String id = createSession().getUploadId();
+        write(id, 0, CONTENT.length);
+
+        // Only a chunk at 0, which the controller sniffs, may write the header
+        assertThrows(BadRequestException.class, () -> uploadSessionService.writeChunk("user1", id, 1, 4,
+                new ByteArrayInputStream("html".getBytes(StandardCharsets.UTF_8))));
+
+        // Bytes that reach the part file some other way are still caught at commit
+        uploadSessionService.writeChunk("user1", id, 0, 6,
+                new ByteArrayInputStream("<html>".getBytes(StandardCharsets.UTF_8)));
+        assertThrows(BadRequestException.class, () -> uploadSessionService.commit("user1", id));
+        assertEquals("OPEN", uploadSessionService.getSession("user1", id).getStatus());
+        verify(profileService, times(0)).uploadAvatarFromSession(anyString(), anyString(), anyString());
+    }
+
+    @Test
+    public void testCleanupSkipsCommitsInProgress() {
+        String id = createSession().getUploadId();
+        write(id, 0, CONTENT.length);
+        mongoTemplate.updateFirst(new Query(where("_id").is(id)), new Update()
+                .set("status", UploadSession.Status.COMMITTING)
+                .set("commitStartedAt", LocalDateTime.now())
+                .set("expiresAt", LocalDateTime.now().minusMinutes(1)), UploadSession.class);
+
+        uploadSessionService.removeExpiredSessions();
+
+        assertTrue(Files.exists(uploadDir.resolve(".sessions").resolve(id + ".part")));
+        assertEquals("COMMITTING", uploadSessionService.getSession("user1", id).getStatus());
+
+        // Once the commit is stale the session is treated as abandoned
+        mongoTemplate.updateFirst(new Query(where("_id").is(id)),
+                new Update().set("commitStartedAt", LocalDateTime.now().minusHours(1)), UploadSession.class);
+        uploadSessionService.removeExpiredSessions();
+
+        assertFalse(Files.exists(uploadDir.resolve(".sessions").resolve(id + ".part")));
+    }
+
+    private UploadSessionDTO createSession() {
+        UploadSessionRequest request = new UploadSessionRequest();
+        request.setKind("AVATAR");
+        request.setFilename("photo.png");
+        request.setSize(CONTENT.length);
+        return uploadSessionService.createSession("user1", request);
+    }
+
+    private UploadSessionDTO write(String id, int start, int length) {
+        return uploadSessionService.writeChunk("user1", id, start, length,
+                new ByteArrayInputStream(CONTENT, start, length));
+    }
+}
@@ -0,0 +1,72 @@
+package backend.social_media_application.service;
+
+import backend.social_media_application.model.Audience;
+import backend.social_media_application.model.UserSequence;
+import backend.social_media_application.repository.AudienceRepository;
+import backend.social_media_application.repository.UserSequenceRepository;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class UserSequenceServiceTest {
+
+    private UserSequenceRepository userSequenceRepository;
+    private MongoTemplate mongoTemplate;
+    private UserSequenceService userSequenceService;
+
+    @BeforeEach
+    public void setUp() {
+        userSequenceRepository = mock(UserSequenceRepository.class);
+        mongoTemplate = mock(MongoTemplate.class);
+        when(userSequenceRepository.findById(anyString())).thenReturn(Optional.empty());
+        userSequenceService = new UserSequenceService(userSequenceRepository, mongoTemplate, 100);
+    }
+
+    @Test
+    public void testMissingNumberIsCachedUntilAssigned() {
+        assertEquals(UserSequenceService.NONE, userSequenceService.findSeq("viewer"));
+        assertEquals(UserSequenceService.NONE, userSequenceService.findSeq("viewer"));
+        verify(userSequenceRepository, times(1)).findById("viewer");
+
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+                eq(Document.class), eq("counters"))).thenReturn(new Document("seq", 7));
+        when(mongoTemplate.insert(any(UserSequence.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        userSequenceService.getOrAssignSeqs(List.of("viewer"));
+
+        assertEquals(7, userSequenceService.findSeq("viewer"));
+        verify(userSequenceRepository, times(1)).findById("viewer");
+    }
+
+    @Test
+    public void testMembershipLooksUpViewerOnce() {
+        AudienceRepository audienceRepository = mock(AudienceRepository.class);
+        when(audienceRepository.findById(anyString())).thenReturn(Optional.of(new Audience()));
+        AudienceService audienceService = new AudienceService(audienceRepository, userSequenceService,
+                mock(UserCardService.class), 100, 10_000);
+
+        Predicate<String> member = audienceService.membershipOf("viewer");
+        for (int i = 0; i < 50; i++) {
+            assertFalse(member.test("audience" + i));
+        }
+        assertFalse(audienceService.isMember("audience0", "viewer"));
+        verify(userSequenceRepository, times(1)).findById("viewer");
+    }
+}
@@ -0,0 +1,155 @@
+package backend.social_media_application.service.storage;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.core.checksums.RequestChecksumCalculation;
+import software.amazon.awssdk.core.checksums.ResponseChecksumValidation;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the same scenarios against the filesystem store and the S3 store
+ * (talking to an in-process S3 stand-in), and logs the throughput of each.
+ */
+public class BlobStoreIntegrationTest {
+    private static final Logger logger = LoggerFactory.getLogger(BlobStoreIntegrationTest.class);
+
+    private static final int PART_SIZE = 256 * 1024;
+
+    private static FakeS3Server s3Server;
+    private static S3Client s3Client;
+    private static ExecutorService uploadExecutor;
+
+    @TempDir
+    Path tempDir;
+
+    @BeforeAll
+    public static void startS3() throws Exception {
+        s3Server = new FakeS3Server("uploads");
+        s3Client = S3Client.builder()
+                .endpointOverride(s3Server.endpoint())
+                .region(Region.US_EAST_1)
+                .forcePathStyle(true)
+                .requestChecksumCalculation(RequestChecksumCalculation.WHEN_REQUIRED)
+                .responseChecksumValidation(ResponseChecksumValidation.WHEN_REQUIRED)
+                .credentialsProvider(StaticCredentialsProvider.create(AwsBasicCredentials.create("test", "test")))
+                .build();
+        uploadExecutor = Executors.newFixedThreadPool(4);
+    }
+
+    @AfterAll
+    public static void stopS3() {
+        uploadExecutor.shutdownNow();
+        s3Client.close();
+        s3Server.close();
+    }
+
+    private BlobStore store(String type) {
+        // Part size below the S3 minimum so small test files still go through multipart
+        return "s3".equals(type)
+                ? new S3BlobStore(s3Client, "uploads", PART_SIZE, uploadExecutor)
+                : new FileSystemBlobStore(tempDir.resolve("store"));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"filesystem", "s3"})
+    public void testPutStatRangeListAndDelete(String type) throws Exception {
+        BlobStore store = store(type);
+        String key = "blobs/ab/cd/" + type + ".png";
+        Instant before = Instant.now().minusSeconds(1);
+
+        Path source = stage("hello world".getBytes(StandardCharsets.UTF_8));
+        store.put(key, source);
+        assertFalse(Files.exists(source));
+
+        BlobInfo info = store.stat(key).orElseThrow();
+        assertEquals(11, info.size());
+        assertTrue(info.lastModified().isAfter(before));
+        try (InputStream in = store.open(key, 6, 5)) {
+            assertEquals("world", new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+
+        List<String> keys = new ArrayList<>();
+        store.list(blob -> keys.add(blob.key()));
+        assertTrue(keys.contains(key));
+
+        store.touch(key);
+        if ("s3".equals(type)) {
+            // The self-copy that bumps LastModified must keep the content type
+            assertEquals("image/png", s3Client.headObject(request -> request.bucket("uploads").key(key)).contentType());
+        }
+        assertTrue(store.delete(key));
+        assertFalse(store.delete(key));
+        assertTrue(store.stat(key).isEmpty());
+        assertThrows(NoSuchFileException.class, () -> store.touch(key));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"filesystem", "s3"})
+    public void testLargeBlobRoundTripsAndReportsThroughput(String type) throws Exception {
+        BlobStore store = store(type);
+        byte[] content = new byte[16 * 1024 * 1024 + 123];
+        new Random(42).nextBytes(content);
+        String key = "covers/large-" + type + ".bin";
+
+        long start = System.nanoTime();
+        store.put(key, stage(content));
+        long putNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        byte[] read;
+        try (InputStream in = store.open(key, 0, content.length)) {
+            read = in.readAllBytes();
+        }
+        long getNanos = System.nanoTime() - start;
+
+        assertArrayEquals(content, read);
+        try (InputStream in = store.open(key, PART_SIZE - 10, 20)) {
+            byte[] expected = new byte[20];
+            System.arraycopy(content, PART_SIZE - 10, expected, 0, 20);
+            assertArrayEquals(expected, in.readAllBytes());
+        }
+        if ("s3".equals(type)) {
+            assertEquals(0, s3Server.openUploads());
+        }
+        logger.info("{} blob store: put {} MB/s, get {} MB/s", type,
+                String.format("%.1f", megabytesPerSecond(content.length, putNanos)),
+                String.format("%.1f", megabytesPerSecond(content.length, getNanos)));
+        store.delete(key);
+    }
+
+    private Path stage(byte[] content) throws Exception {
+        Path staged = Files.createTempFile(tempDir, "staged-", ".tmp");
+        Files.write(staged, content);
+        return staged;
+    }
+
+    private static double megabytesPerSecond(long bytes, long nanos) {
+        return bytes / (1024.0 * 1024.0) / (nanos / 1e9);
+    }
+}
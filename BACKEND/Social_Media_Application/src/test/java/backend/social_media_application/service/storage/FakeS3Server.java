@@ -0,0 +1,282 @@
+package backend.social_media_application.service.storage;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+
+/**
+ * In-memory stand-in for a MinIO-style S3 endpoint: one path-style bucket,
+ * plain and multipart PUTs, ranged GETs, HEAD, DELETE, self-copy and
+ * ListObjectsV2. Content-Type is kept; other metadata, auth and checksums are
+ * not.
+ */
+class FakeS3Server implements AutoCloseable {
+
+    private record StoredObject(byte[] data, Instant lastModified, String etag, String contentType) {
+    }
+
+    private final HttpServer server;
+    private final String bucket;
+    private final Map<String, StoredObject> objects = new ConcurrentHashMap<>();
+    private final Map<String, NavigableMap<Integer, byte[]>> uploads = new ConcurrentHashMap<>();
+    private final Map<String, String> uploadContentTypes = new ConcurrentHashMap<>();
+
+    FakeS3Server(String bucket) throws IOException {
+        this.bucket = bucket;
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newFixedThreadPool(8));
+        server.createContext("/", this::handle);
+        server.start();
+    }
+
+    URI endpoint() {
+        return URI.create("http://127.0.0.1:" + server.getAddress().getPort());
+    }
+
+    int objectCount() {
+        return objects.size();
+    }
+
+    int openUploads() {
+        return uploads.size();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String path = exchange.getRequestURI().getRawPath();
+            String prefix = "/" + bucket;
+            if (!path.startsWith(prefix)) {
+                send(exchange, 404, error("NoSuchBucket"));
+                return;
+            }
+            String key = URLDecoder.decode(path.substring(prefix.length()).replaceFirst("^/", ""),
+                    StandardCharsets.UTF_8);
+            Map<String, String> query = query(exchange.getRequestURI().getRawQuery());
+            String method = exchange.getRequestMethod();
+
+            if (key.isEmpty() && "GET".equals(method)) {
+                list(exchange);
+            } else if ("PUT".equals(method) && query.containsKey("uploadId")) {
+                byte[] data = body(exchange);
+                uploads.get(query.get("uploadId")).put(Integer.parseInt(query.get("partNumber")), data);
+                exchange.getResponseHeaders().set("ETag", etag(data));
+                send(exchange, 200, new byte[0]);
+            } else if ("PUT".equals(method) && exchange.getRequestHeaders().containsKey("x-amz-copy-source")) {
+                body(exchange);
+                StoredObject source = objects.get(key);
+                if (source == null) {
+                    send(exchange, 404, error("NoSuchKey"));
+                    return;
+                }
+                // Like S3, REPLACE takes the metadata from the request and drops the source's
+                boolean replace = "REPLACE".equals(exchange.getRequestHeaders().getFirst("x-amz-metadata-directive"));
+                StoredObject copy = new StoredObject(source.data(), Instant.now(), source.etag(),
+                        replace ? exchange.getRequestHeaders().getFirst("Content-Type") : source.contentType());
+                objects.put(key, copy);
+                send(exchange, 200, xml("<CopyObjectResult><ETag>" + copy.etag() + "</ETag><LastModified>"
+                        + iso(copy.lastModified()) + "</LastModified></CopyObjectResult>"));
+            } else if ("PUT".equals(method)) {
+                byte[] data = body(exchange);
+                StoredObject object = new StoredObject(data, Instant.now(), etag(data),
+                        exchange.getRequestHeaders().getFirst("Content-Type"));
+                objects.put(key, object);
+                exchange.getResponseHeaders().set("ETag", object.etag());
+                send(exchange, 200, new byte[0]);
+            } else if ("POST".equals(method) && query.containsKey("uploads")) {
+                String uploadId = UUID.randomUUID().toString();
+                uploads.put(uploadId, new ConcurrentSkipListMap<>());
+                String contentType = exchange.getRequestHeaders().getFirst("Content-Type");
+                if (contentType != null) {
+                    uploadContentTypes.put(uploadId, contentType);
+                }
+                send(exchange, 200, xml("<InitiateMultipartUploadResult><Bucket>" + bucket + "</Bucket><Key>"
+                        + key + "</Key><UploadId>" + uploadId + "</UploadId></InitiateMultipartUploadResult>"));
+            } else if ("POST".equals(method) && query.containsKey("uploadId")) {
+                body(exchange);
+                NavigableMap<Integer, byte[]> parts = uploads.remove(query.get("uploadId"));
+                ByteArrayOutputStream assembled = new ByteArrayOutputStream();
+                for (byte[] part : parts.values()) {
+                    assembled.write(part);
+                }
+                byte[] data = assembled.toByteArray();
+                StoredObject object = new StoredObject(data, Instant.now(), etag(data),
+                        uploadContentTypes.remove(query.get("uploadId")));
+                objects.put(key, object);
+                send(exchange, 200, xml("<CompleteMultipartUploadResult><Bucket>" + bucket + "</Bucket><Key>"
+                        + key + "</Key><ETag>" + object.etag() + "</ETag></CompleteMultipartUploadResult>"));
+            } else if ("DELETE".equals(method) && query.containsKey("uploadId")) {
+                uploads.remove(query.get("uploadId"));
+                uploadContentTypes.remove(query.get("uploadId"));
+                send(exchange, 204, null);
+            } else if ("DELETE".equals(method)) {
+                objects.remove(key);
+                send(exchange, 204, null);
+            } else if ("HEAD".equals(method)) {
+                StoredObject object = objects.get(key);
+                if (object == null) {
+                    exchange.sendResponseHeaders(404, -1);
+                    return;
+                }
+                headers(exchange, object, object.data().length);
+                exchange.sendResponseHeaders(200, -1);
+            } else if ("GET".equals(method)) {
+                get(exchange, key);
+            } else {
+                send(exchange, 405, error("MethodNotAllowed"));
+            }
+        }
+    }
+
+    private void get(HttpExchange exchange, String key) throws IOException {
+        StoredObject object = objects.get(key);
+        if (object == null) {
+            send(exchange, 404, error("NoSuchKey"));
+            return;
+        }
+        byte[] data = object.data();
+        String range = exchange.getRequestHeaders().getFirst("Range");
+        if (range == null) {
+            headers(exchange, object, data.length);
+            send(exchange, 200, data);
+            return;
+        }
+        String[] bounds = range.substring("bytes=".length()).split("-");
+        int start = Integer.parseInt(bounds[0]);
+        int end = bounds.length > 1 ? Math.min(Integer.parseInt(bounds[1]), data.length - 1) : data.length - 1;
+        if (start >= data.length) {
+            send(exchange, 416, error("InvalidRange"));
+            return;
+        }
+        byte[] slice = new byte[end - start + 1];
+        System.arraycopy(data, start, slice, 0, slice.length);
+        headers(exchange, object, slice.length);
+        exchange.getResponseHeaders().set("Content-Range", "bytes " + start + "-" + end + "/" + data.length);
+        send(exchange, 206, slice);
+    }
+
+    private void list(HttpExchange exchange) throws IOException {
+        StringBuilder xml = new StringBuilder("<ListBucketResult><Name>").append(bucket)
+                .append("</Name><IsTruncated>false</IsTruncated><KeyCount>").append(objects.size())
+                .append("</KeyCount>");
+        new ConcurrentSkipListMap<>(objects).forEach((key, object) -> xml.append("<Contents><Key>").append(key)
+                .append("</Key><Size>").append(object.data().length).append("</Size><LastModified>")
+                .append(iso(object.lastModified())).append("</LastModified><ETag>").append(object.etag())
+                .append("</ETag></Contents>"));
+        send(exchange, 200, xml(xml.append("</ListBucketResult>").toString()));
+    }
+
+    private static void headers(HttpExchange exchange, StoredObject object, long length) {
+        exchange.getResponseHeaders().set("Content-Length", Long.toString(length));
+        exchange.getResponseHeaders().set("ETag", object.etag());
+        if (object.contentType() != null) {
+            exchange.getResponseHeaders().set("Content-Type", object.contentType());
+        }
+        exchange.getResponseHeaders().set("Last-Modified",
+                DateTimeFormatter.RFC_1123_DATE_TIME.format(object.lastModified().atOffset(ZoneOffset.UTC)));
+    }
+
+    private static void send(HttpExchange exchange, int status, byte[] body) throws IOException {
+        if (body == null || "HEAD".equals(exchange.getRequestMethod())) {
+            exchange.sendResponseHeaders(status, -1);
+            return;
+        }
+        exchange.sendResponseHeaders(status, body.length == 0 ? -1 : body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    /**
+     * Request body, with aws-chunked framing ("<hex size>[;chunk-signature=...]\r\n<data>\r\n",
+     * ended by a zero-size chunk and optional trailers) removed
+     */
+    private static byte[] body(HttpExchange exchange) throws IOException {
+        byte[] raw = exchange.getRequestBody().readAllBytes();
+        String sha = exchange.getRequestHeaders().getFirst("x-amz-content-sha256");
+        if (sha == null || !sha.startsWith("STREAMING")) {
+            return raw;
+        }
+        ByteArrayOutputStream decoded = new ByteArrayOutputStream();
+        int position = 0;
+        while (position < raw.length) {
+            int lineEnd = indexOfCrlf(raw, position);
+            String header = new String(raw, position, lineEnd - position, StandardCharsets.US_ASCII);
+            int size = Integer.parseInt(header.split(";")[0].trim(), 16);
+            position = lineEnd + 2;
+            if (size == 0) {
+                break;
+            }
+            decoded.write(raw, position, size);
+            position += size + 2;
+        }
+        return decoded.toByteArray();
+    }
+
+    private static int indexOfCrlf(byte[] data, int from) throws IOException {
+        for (int i = from; i + 1 < data.length; i++) {
+            if (data[i] == '\r' && data[i + 1] == '\n') {
+                return i;
+            }
+        }
+        throw new IOException("Malformed aws-chunked body");
+    }
+
+    private static Map<String, String> query(String rawQuery) {
+        Map<String, String> params = new HashMap<>();
+        if (rawQuery == null) {
+            return params;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int eq = pair.indexOf('=');
+            String name = URLDecoder.decode(eq >= 0 ? pair.substring(0, eq) : pair, StandardCharsets.UTF_8);
+            String value = eq >= 0 ? URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8) : "";
+            params.put(name, value);
+        }
+        return params;
+    }
+
+    private static String etag(byte[] data) {
+        try {
+            return "\"" + HexFormat.of().formatHex(MessageDigest.getInstance("MD5").digest(data)) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String iso(Instant instant) {
+        return DateTimeFormatter.ISO_INSTANT.format(instant);
+    }
+
+    private static byte[] error(String code) {
+        return xml("<Error><Code>" + code + "</Code><Message>" + code + "</Message></Error>");
+    }
+
+    private static byte[] xml(String body) {
+        return ("<?xml version=\"1.0\" encoding=\"UTF-8\"?>" + body).getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,52 @@
+package backend.social_media_application.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BloomFilterTest {
+
+    @Test
+    public void testNoFalseNegativesAndBoundedFalsePositives() {
+        BloomFilter filter = new BloomFilter(1000, 0.01);
+        for (int i = 0; i < 1000; i++) {
+            filter.put("user" + i);
+        }
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(filter.mightContain("user" + i));
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain("other" + i)) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < 2000, "false positives: " + falsePositives);
+    }
+
+    @Test
+    public void testOverCapacity() {
+        BloomFilter filter = new BloomFilter(2, 0.01);
+        filter.put("a");
+        filter.put("b");
+        assertFalse(filter.isOverCapacity());
+        filter.put("c");
+        assertTrue(filter.isOverCapacity());
+    }
+
+    @Test
+    public void testCopyIsIndependent() {
+        BloomFilter filter = new BloomFilter(100, 0.01);
+        filter.put("a");
+        BloomFilter copy = filter.copy();
+        copy.put("b");
+
+        assertTrue(copy.mightContain("a"));
+        assertTrue(copy.mightContain("b"));
+        assertFalse(filter.mightContain("b"));
+        assertEquals(1, filter.size());
+    }
+}
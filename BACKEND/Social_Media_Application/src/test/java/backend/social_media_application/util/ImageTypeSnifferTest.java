@@ -0,0 +1,33 @@
+package backend.social_media_application.util;
+
+import backend.social_media_application.exception.BadRequestException;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class ImageTypeSnifferTest {
+
+    @Test
+    public void testSniffsSignaturesAndKeepsStreamIntact() throws Exception {
+        byte[] png = {(byte) 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A, 0, 0, 0, 13, 'I', 'H', 'D', 'R'};
+        byte[] webp = "RIFF\0\0\0\0WEBPVP8 ".getBytes(StandardCharsets.ISO_8859_1);
+
+        assertEquals("image/png", ImageTypeSniffer.sniff(png, png.length));
+        assertEquals("image/jpeg", ImageTypeSniffer.sniff(new byte[]{(byte) 0xFF, (byte) 0xD8, (byte) 0xFF}, 3));
+        assertEquals("image/webp", ImageTypeSniffer.sniff(webp, webp.length));
+        assertNull(ImageTypeSniffer.sniff(png, 4));
+
+        InputStream checked = ImageTypeSniffer.requireImage(new ByteArrayInputStream(png));
+        assertArrayEquals(png, checked.readAllBytes());
+
+        assertThrows(BadRequestException.class, () -> ImageTypeSniffer.requireImage(
+                new ByteArrayInputStream("<html><script>".getBytes(StandardCharsets.UTF_8))));
+    }
+}
@@ -0,0 +1,65 @@
+package backend.social_media_application.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class LruCacheTest {
+
+    @Test
+    public void testLoadDoesNotReplaceEntryPutWhileLoading() {
+        LruCache<String, String> cache = new LruCache<>(10);
+
+        // A writer refreshes the entry while a reader is still loading the old value
+        String value = cache.computeIfAbsent("audience", key -> {
+            cache.put(key, "new");
+            return "old";
+        });
+
+        assertEquals("new", value);
+        assertEquals("new", cache.get("audience"));
+    }
+
+    @Test
+    public void testLoadRacingAnInvalidationIsNotStored() {
+        LruCache<String, String> cache = new LruCache<>(10);
+
+        // The user tightens their settings while a reader is loading the old policy
+        String value = cache.computeIfAbsent("policy", key -> {
+            cache.remove(key);
+            return "old";
+        });
+
+        assertEquals("old", value);
+        assertNull(cache.get("policy"));
+
+        long loadedAt = cache.generation();
+        cache.remove("other");
+        cache.putLoaded("policy", "old", loadedAt);
+        assertNull(cache.get("policy"));
+    }
+
+    @Test
+    public void testEntriesExpireAfterTtl() throws Exception {
+        LruCache<String, String> cache = new LruCache<>(10, 20);
+        cache.put("a", "1");
+        assertEquals("1", cache.get("a"));
+
+        Thread.sleep(40);
+        assertNull(cache.get("a"));
+        assertEquals("2", cache.computeIfAbsent("a", key -> "2"));
+    }
+
+    @Test
+    public void testEvictsLeastRecentlyUsed() {
+        LruCache<String, Integer> cache = new LruCache<>(2);
+        cache.put("a", 1);
+        cache.put("b", 2);
+        cache.get("a");
+        cache.put("c", 3);
+
+        assertEquals(1, cache.get("a"));
+        assertNull(cache.get("b"));
+    }
+}
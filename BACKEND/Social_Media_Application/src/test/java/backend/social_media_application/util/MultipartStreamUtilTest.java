@@ -0,0 +1,35 @@
+package backend.social_media_application.util;
+
+import org.apache.commons.fileupload2.core.FileUploadSizeException;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class MultipartStreamUtilTest {
+
+    @Test
+    public void testStreamsFilePartAndRejectsOversizedHeaders() throws Exception {
+        MultipartStreamUtil.StreamedFile file = MultipartStreamUtil.openFilePart(
+                request("Content-Disposition: form-data; name=\"file\"; filename=\"a.gif\""), "file", 1024);
+        assertEquals("a.gif", file.filename());
+        assertArrayEquals("GIF89a".getBytes(StandardCharsets.ISO_8859_1), file.inputStream().readAllBytes());
+
+        // Unbounded part headers were the CVE-2025-48976 denial of service
+        String huge = "Content-Disposition: form-data; name=\"file\"; filename=\"a.gif\"\r\nX-Padding: " + "x".repeat(10_000);
+        assertThrows(FileUploadSizeException.class,
+                () -> MultipartStreamUtil.openFilePart(request(huge), "file", 1024));
+    }
+
+    private static MockHttpServletRequest request(String partHeaders) {
+        String body = "--boundary\r\n" + partHeaders + "\r\n\r\nGIF89a\r\n--boundary--\r\n";
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/profiles/avatar/stream");
+        request.setContentType("multipart/form-data; boundary=boundary");
+        request.setContent(body.getBytes(StandardCharsets.ISO_8859_1));
+        return request;
+    }
+}
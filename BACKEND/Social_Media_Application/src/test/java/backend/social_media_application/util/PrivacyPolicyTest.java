@@ -0,0 +1,93 @@
+package backend.social_media_application.util;
+
+import backend.social_media_application.model.PrivacySettings;
+import backend.social_media_application.model.ProfileSection;
+import backend.social_media_application.model.ViewerRelation;
+import backend.social_media_application.model.Visibility;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PrivacyPolicyTest {
+
+    @Test
+    public void testDefaultSectionsPerRelation() {
+        PrivacyPolicy policy = PrivacyPolicy.DEFAULT;
+
+        int stranger = policy.visibleSections(ViewerRelation.STRANGER);
+        assertTrue(PrivacyPolicy.isVisible(stranger, ProfileSection.BASIC_INFO));
+        assertTrue(PrivacyPolicy.isVisible(stranger, ProfileSection.INTERESTS));
+        assertFalse(PrivacyPolicy.isVisible(stranger, ProfileSection.EDUCATION));
+
+        int friend = policy.visibleSections(ViewerRelation.FRIEND);
+        assertTrue(PrivacyPolicy.isVisible(friend, ProfileSection.EDUCATION));
+        assertFalse(PrivacyPolicy.isVisible(friend, ProfileSection.CONTACT_INFO));
+
+        int owner = policy.visibleSections(ViewerRelation.OWNER);
+        assertTrue(PrivacyPolicy.isVisible(owner, ProfileSection.CONTACT_INFO));
+    }
+
+    @Test
+    public void testCompileOverridesAndIgnoresInvalidValues() {
+        PrivacySettings settings = new PrivacySettings();
+        settings.setProfileVisibility("FRIENDS");
+        settings.setSectionVisibility("EDUCATION", "PUBLIC");
+        settings.setSectionVisibility("INTERESTS", "NOT_A_VISIBILITY");
+        settings.setSectionVisibility("NOT_A_SECTION", "PUBLIC");
+
+        PrivacyPolicy policy = PrivacyPolicy.compile(settings);
+
+        assertEquals(Visibility.PUBLIC, policy.sectionVisibility(ProfileSection.EDUCATION));
+        assertEquals(Visibility.PUBLIC, policy.sectionVisibility(ProfileSection.INTERESTS));
+        assertFalse(settings.getSectionVisibility().containsKey("NOT_A_SECTION"));
+        assertFalse(policy.canViewProfile(ViewerRelation.STRANGER));
+        assertTrue(policy.canViewProfile(ViewerRelation.FRIEND));
+    }
+
+    @Test
+    public void testCanAccessContent() {
+        assertTrue(PrivacyUtil.canAccessContent("ONLY_ME", "owner", "owner", false));
+        assertTrue(PrivacyUtil.canAccessContent("FRIENDS", "viewer", "owner", true));
+        assertFalse(PrivacyUtil.canAccessContent("FRIENDS", "viewer", "owner", false));
+        assertFalse(PrivacyUtil.canAccessContent("bogus", "viewer", "owner", true));
+    }
+
+    @Test
+    public void testSpecificFriendsSectionsFollowAudienceMembership() {
+        PrivacySettings settings = new PrivacySettings();
+        settings.setSectionVisibility("CONTACT_INFO", "SPECIFIC_FRIENDS");
+        settings.setSectionAudience("CONTACT_INFO", "close-friends");
+
+        PrivacyPolicy policy = PrivacyPolicy.compile(settings);
+
+        int member = policy.visibleSections(ViewerRelation.STRANGER, "close-friends"::equals);
+        int outsider = policy.visibleSections(ViewerRelation.FRIEND, audienceId -> false);
+        assertTrue(PrivacyPolicy.isVisible(member, ProfileSection.CONTACT_INFO));
+        assertFalse(PrivacyPolicy.isVisible(outsider, ProfileSection.CONTACT_INFO));
+
+        assertTrue(PrivacyUtil.canAccessContent("SPECIFIC_FRIENDS", "viewer", "owner", false, true));
+        assertFalse(PrivacyUtil.canAccessContent("SPECIFIC_FRIENDS", "viewer", "owner", true, false));
+    }
+
+    @Test
+    public void testSettingsOnlyKeepValuesThatDifferFromDefaults() {
+        PrivacySettings settings = new PrivacySettings();
+        assertFalse(settings.hasOverrides());
+        assertEquals(PrivacySettings.DEFAULT_SECTION_VISIBILITY, settings.getSectionVisibility());
+
+        settings.setProfileVisibility("PUBLIC");
+        settings.setSectionVisibility("BASIC_INFO", "PUBLIC");
+        settings.setAllowSearchEngines(true);
+        assertFalse(settings.hasOverrides());
+
+        settings.setSectionVisibility("EDUCATION", "ONLY_ME");
+        assertTrue(settings.hasOverrides());
+        assertEquals("ONLY_ME", settings.getSectionVisibility().get("EDUCATION"));
+        assertEquals("PUBLIC", settings.getSectionVisibility().get("INTERESTS"));
+
+        settings.setSectionVisibility("EDUCATION", "FRIENDS");
+        assertFalse(settings.hasOverrides());
+    }
+}
@@ -0,0 +1,145 @@
+package backend.social_media_application.benchmarks;
+
+import backend.social_media_application.model.Education;
+import backend.social_media_application.model.Profile;
+import backend.social_media_application.model.User;
+import backend.social_media_application.model.Visibility;
+import backend.social_media_application.model.WorkExperience;
+
+import java.lang.reflect.Field;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Deterministic test data shaped like real accounts: a handful of education
+ * and work entries, tens of interests and, for heavy users, hundreds of life
+ * events with mixed visibility.
+ */
+final class Fixtures {
+
+    private static final String[] VISIBILITIES = {
+            Visibility.PUBLIC.name(), Visibility.FRIENDS.name(), Visibility.SPECIFIC_FRIENDS.name(),
+            Visibility.ONLY_ME.name(), null
+    };
+
+    private Fixtures() {
+    }
+
+    static User user(String id) {
+        User user = new User();
+        user.setId(id);
+        user.setUsername("user" + id);
+        user.setEmail("user" + id + "@example.com");
+        user.setFirstName("Alex");
+        user.setLastName("Perera");
+        user.setAvatar("blobs/3f/a2/3fa2c0ffee.jpg");
+        user.setAvatarVariants(Map.of("64", "blobs/3f/a2/3fa2c0ffee_64.jpg",
+                "256", "blobs/3f/a2/3fa2c0ffee_256.jpg", "1024", "blobs/3f/a2/3fa2c0ffee_1024.jpg"));
+        user.setAvatarPlaceholder("LKO2?U%2Tw=w]~RBVZRi};RPxuwH");
+        user.setBio("Software engineer, runner and amateur photographer. Coffee first, then code.");
+        user.setFollowerCount(1834);
+        user.setFollowingCount(412);
+        return user;
+    }
+
+    static Profile profile(String userId, int lifeEvents, int interests) {
+        Random random = new Random(42);
+        Profile profile = new Profile();
+        profile.setId("p" + userId);
+        profile.setUserId(userId);
+        profile.setCoverPhoto("blobs/9c/01/9c01beef.jpg");
+        profile.setBirthDate(LocalDate.of(1994, 5, 17));
+        profile.setGender("female");
+        profile.setRelationshipStatus("In a relationship");
+        profile.setPhoneNumber("+94 77 123 4567");
+        profile.setWebsite("https://example.com/alex");
+        profile.setAlternativeEmail("alex@example.org");
+        profile.setCurrentCity("Colombo");
+        profile.setHometown("Kandy");
+        profile.setPlacesLived(new ArrayList<>(List.of("Kandy", "Colombo", "Singapore", "Berlin")));
+        profile.setInterests(words("interest", interests));
+        profile.setMusic(words("band", interests));
+        profile.setMovies(words("movie", interests));
+        profile.setBooks(words("book", interests));
+        profile.setSports(words("sport", interests / 4 + 1));
+
+        List<Profile.LifeEvent> events = new ArrayList<>(lifeEvents);
+        for (int i = 0; i < lifeEvents; i++) {
+            Profile.LifeEvent event = new Profile.LifeEvent();
+            event.setId("e" + i);
+            event.setTitle("Life event " + i);
+            event.setDescription("Moved, started a job, finished a course or travelled somewhere memorable #" + i);
+            event.setDate(LocalDate.of(2000 + i % 25, 1 + i % 12, 1 + i % 28));
+            event.setCategory(i % 3 == 0 ? "work" : i % 3 == 1 ? "education" : "travel");
+            event.setVisibility(VISIBILITIES[random.nextInt(VISIBILITIES.length)]);
+            if (Visibility.SPECIFIC_FRIENDS.name().equals(event.getVisibility())) {
+                event.setAudienceId("a" + random.nextInt(8));
+            }
+            events.add(event);
+        }
+        profile.setLifeEvents(events);
+        return profile;
+    }
+
+    static List<Education> educations(String userId, int count) {
+        List<Education> educations = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Education education = new Education();
+            education.setId("ed" + i);
+            education.setUserId(userId);
+            education.setInstitution("University " + i);
+            education.setDegree("BSc");
+            education.setFieldOfStudy("Computer Science");
+            education.setStartDate(LocalDate.of(2010 + i, 9, 1));
+            education.setEndDate(LocalDate.of(2014 + i, 6, 30));
+            education.setDescription("Coursework in distributed systems and databases");
+            education.setVisibility(VISIBILITIES[i % VISIBILITIES.length]);
+            educations.add(education);
+        }
+        return educations;
+    }
+
+    static List<WorkExperience> workExperiences(String userId, int count) {
+        List<WorkExperience> workExperiences = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            WorkExperience work = new WorkExperience();
+            work.setId("w" + i);
+            work.setUserId(userId);
+            work.setCompany("Company " + i);
+            work.setPosition("Engineer");
+            work.setLocation("Colombo");
+            work.setStartDate(LocalDate.of(2014 + i, 7, 1));
+            work.setCurrent(i == count - 1);
+            work.setDescription("Backend services, on-call and mentoring");
+            work.setVisibility(VISIBILITIES[i % VISIBILITIES.length]);
+            workExperiences.add(work);
+        }
+        return workExperiences;
+    }
+
+    /**
+     * Set an @Value field on a bean constructed outside Spring
+     */
+    static void inject(Object target, String field, Object value) {
+        try {
+            Field f = target.getClass().getDeclaredField(field);
+            f.setAccessible(true);
+            f.set(target, value);
+        } catch (ReflectiveOperationException ex) {
+            throw new IllegalStateException("Could not set " + field, ex);
+        }
+    }
+
+    private static Set<String> words(String prefix, int count) {
+        Set<String> words = new HashSet<>(count * 2);
+        for (int i = 0; i < count; i++) {
+            words.add(prefix + "-" + i);
+        }
+        return words;
+    }
+}
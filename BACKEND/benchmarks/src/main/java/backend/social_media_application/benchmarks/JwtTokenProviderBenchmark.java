@@ -0,0 +1,71 @@
+package backend.social_media_application.benchmarks;
+
+import backend.social_media_application.security.JwtTokenProvider;
+import backend.social_media_application.security.UserPrincipal;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token issue on login and the check every authenticated request pays
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtTokenProviderBenchmark {
+
+    private JwtTokenProvider tokenProvider;
+    private Authentication authentication;
+    private String token;
+    private String tamperedToken;
+
+    @Setup
+    public void setUp() {
+        tokenProvider = new JwtTokenProvider();
+        // HS512 needs at least a 512-bit key
+        Fixtures.inject(tokenProvider, "jwtSecret", "benchmark-secret-".repeat(4));
+        Fixtures.inject(tokenProvider, "jwtExpiration", 86_400_000L);
+
+        UserPrincipal principal = new UserPrincipal("665f1c2e9b1d8a3f4c2e7a10", "alex@example.com", "",
+                List.of(new SimpleGrantedAuthority("ROLE_USER")));
+        authentication = new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
+        token = tokenProvider.generateToken(authentication);
+        tamperedToken = token.substring(0, token.length() - 4) + "AAAA";
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return tokenProvider.generateToken(authentication);
+    }
+
+    @Benchmark
+    public boolean validateToken() {
+        return tokenProvider.validateToken(token);
+    }
+
+    @Benchmark
+    public boolean validateTamperedToken() {
+        return tokenProvider.validateToken(tamperedToken);
+    }
+
+    @Benchmark
+    public String getUserIdFromToken() {
+        return tokenProvider.getUserIdFromToken(token);
+    }
+}
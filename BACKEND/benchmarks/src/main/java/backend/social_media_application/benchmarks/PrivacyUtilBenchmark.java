@@ -0,0 +1,62 @@
+package backend.social_media_application.benchmarks;
+
+import backend.social_media_application.model.Visibility;
+import backend.social_media_application.util.PrivacyUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-item access check run for every field and list entry of a profile
+ * view. Inputs are varied so the branch predictor and JIT can't settle on
+ * a single path.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PrivacyUtilBenchmark {
+
+    private static final int CHECKS = 1024;
+
+    private final String[] visibilities = new String[CHECKS];
+    private final String[] viewers = new String[CHECKS];
+    private final boolean[] connected = new boolean[CHECKS];
+    private final boolean[] inAudience = new boolean[CHECKS];
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(7);
+        Visibility[] values = Visibility.values();
+        for (int i = 0; i < CHECKS; i++) {
+            visibilities[i] = values[random.nextInt(values.length)].name();
+            // One check in ten is the owner looking at their own profile
+            viewers[i] = random.nextInt(10) == 0 ? "owner" : "viewer" + random.nextInt(100);
+            connected[i] = random.nextBoolean();
+            inAudience[i] = random.nextInt(4) == 0;
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CHECKS)
+    public void canAccessContent(Blackhole blackhole) {
+        for (int i = 0; i < CHECKS; i++) {
+            blackhole.consume(PrivacyUtil.canAccessContent(visibilities[i], viewers[i], "owner",
+                    connected[i], inAudience[i]));
+        }
+    }
+}
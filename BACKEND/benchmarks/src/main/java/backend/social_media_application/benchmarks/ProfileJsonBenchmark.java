@@ -0,0 +1,55 @@
+package backend.social_media_application.benchmarks;
+
+import backend.social_media_application.dto.mapper.ProfileMapper;
+import backend.social_media_application.dto.profile.ProfileDTO;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writing the profile response body, with an ObjectMapper set up the way
+ * Spring Boot configures the app's one (spring.jackson.default-property-inclusion=non_null).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProfileJsonBenchmark {
+
+    @Param({"20", "500"})
+    private int lifeEvents;
+
+    private ObjectMapper objectMapper;
+    private ProfileDTO profile;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json()
+                .serializationInclusion(JsonInclude.Include.NON_NULL)
+                .build();
+        profile = new ProfileMapper().toProfileDTO(Fixtures.user("1001"),
+                Fixtures.profile("1001", lifeEvents, lifeEvents / 5 + 10),
+                Fixtures.educations("1001", 4), Fixtures.workExperiences("1001", 8));
+    }
+
+    @Benchmark
+    public byte[] writeValueAsBytes() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(profile);
+    }
+}
@@ -0,0 +1,73 @@
+package backend.social_media_application.benchmarks;
+
+import backend.social_media_application.dto.mapper.ProfileMapper;
+import backend.social_media_application.dto.profile.ProfileDTO;
+import backend.social_media_application.model.Education;
+import backend.social_media_application.model.PrivacySettings;
+import backend.social_media_application.model.Profile;
+import backend.social_media_application.model.User;
+import backend.social_media_application.model.ViewerRelation;
+import backend.social_media_application.model.WorkExperience;
+import backend.social_media_application.util.PrivacyPolicy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Building the privacy-filtered profile view for each kind of viewer, from a
+ * typical profile up to a heavy one with hundreds of life events.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProfileMapperBenchmark {
+
+    @Param({"20", "500"})
+    private int lifeEvents;
+
+    @Param({"OWNER", "FRIEND", "STRANGER"})
+    private ViewerRelation relation;
+
+    private final ProfileMapper profileMapper = new ProfileMapper();
+    private final Set<String> audiences = Set.of("a1", "a3");
+    private User user;
+    private Profile profile;
+    private List<Education> educations;
+    private List<WorkExperience> workExperiences;
+    private PrivacyPolicy policy;
+
+    @Setup
+    public void setUp() {
+        user = Fixtures.user("1001");
+        profile = Fixtures.profile("1001", lifeEvents, lifeEvents / 5 + 10);
+        educations = Fixtures.educations("1001", 4);
+        workExperiences = Fixtures.workExperiences("1001", 8);
+
+        PrivacySettings settings = new PrivacySettings();
+        // Strangers still see life events, so every relation walks the list
+        settings.setSectionVisibility("CONTACT_INFO", "FRIENDS");
+        settings.setSectionVisibility("LIFE_EVENTS", "PUBLIC");
+        policy = PrivacyPolicy.compile(settings);
+    }
+
+    @Benchmark
+    public ProfileDTO toProfileDTO() {
+        return profileMapper.toProfileDTO(user, profile, educations, workExperiences, policy, relation,
+                audiences::contains);
+    }
+}
@@ -0,0 +1,399 @@
+package backend.social_media_application.benchmarks.dataset;
+
+import backend.social_media_application.model.Block;
+import backend.social_media_application.model.Education;
+import backend.social_media_application.model.Follow;
+import backend.social_media_application.model.PrivacySettings;
+import backend.social_media_application.model.Profile;
+import backend.social_media_application.model.User;
+import backend.social_media_application.model.Visibility;
+import backend.social_media_application.model.WorkExperience;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.InsertManyOptions;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fills a Mongo database with synthetic users, profiles, privacy settings,
+ * education, work history, follows and blocks, shaped like a real social
+ * network: follower counts follow a Zipf popularity curve, life-event and
+ * block lists are Pareto-distributed.
+ *
+ * Users are split into chunks that parallel producers turn into documents
+ * (through the app's own mapping, so they look exactly like what the app
+ * writes) and insert with unordered insertMany batches. Every user shares
+ * one pre-computed BCrypt hash. Each user's random stream is seeded from its
+ * index and ids are derived from the seed and index, so the same options
+ * always produce the same data; only timestamps are relative to the run.
+ *
+ * Indexes are not created here; start the app against the database (it
+ * creates them on boot) after loading, which is faster than indexing while
+ * inserting.
+ *
+ * Usage: java -cp benchmarks.jar backend.social_media_application.benchmarks.dataset.DatasetGenerator
+ *        --uri=mongodb://localhost:27017 --database=Social_Media --users=1000000 [--key=value ...]
+ */
+public class DatasetGenerator {
+
+    static final String PASSWORD = "password123";
+
+    private static final String[] SECTIONS = {
+            "BASIC_INFO", "WORK_EXPERIENCE", "EDUCATION", "CONTACT_INFO", "RELATIONSHIPS", "LIFE_EVENTS", "INTERESTS"
+    };
+    private static final String[] VISIBILITIES = {
+            Visibility.PUBLIC.name(), Visibility.FRIENDS.name(), Visibility.ONLY_ME.name()
+    };
+    private static final String[] CITIES = {"Colombo", "Kandy", "Galle", "Jaffna", "Singapore", "Berlin", "London"};
+    private static final String[] CATEGORIES = {"work", "education", "travel", "family", "health", "milestone"};
+
+    // Id kinds, kept in the byte after the id timestamp so each kind has its own index space
+    private static final int USER_ID = 0;
+    private static final int PROFILE_ID = 1;
+    private static final int SETTINGS_ID = 2;
+    private static final int LIFE_EVENT_ID = 3;
+    private static final int ID_EPOCH_SECONDS = 1_704_067_200; // 2024-01-01T00:00:00Z
+
+    private final int users;
+    private final int producers;
+    private final int batchSize;
+    private final long seed;
+    private final double popularityExponent;
+    private final int followingMin;
+    private final int followingMax;
+    private final double followingAlpha;
+    private final int lifeEventsMax;
+    private final double lifeEventsAlpha;
+    private final double blockerShare;
+    private final int blocksMax;
+    private final double blocksAlpha;
+    private final double privacyOverrideShare;
+
+    private final MongoConverter converter;
+    private final Map<String, MongoCollection<Document>> collections = new HashMap<>();
+    private final Map<String, AtomicLong> inserted = new HashMap<>();
+    private final String passwordHash;
+
+    private ObjectId[] userIds;
+    private AtomicIntegerArray followerCounts;
+    private int[] followingCounts;
+    private HeavyTail.Zipf popularity;
+
+    DatasetGenerator(Map<String, String> options, MongoTemplate mongoTemplate) {
+        this.users = Integer.parseInt(options.getOrDefault("users", "100000"));
+        this.producers = Integer.parseInt(options.getOrDefault("producers",
+                String.valueOf(Runtime.getRuntime().availableProcessors())));
+        this.batchSize = Integer.parseInt(options.getOrDefault("batch", "1000"));
+        this.seed = Long.parseLong(options.getOrDefault("seed", "42"));
+        this.popularityExponent = Double.parseDouble(options.getOrDefault("popularity-exponent", "1.0"));
+        this.followingMin = Integer.parseInt(options.getOrDefault("following-min", "5"));
+        this.followingMax = Integer.parseInt(options.getOrDefault("following-max", "2000"));
+        this.followingAlpha = Double.parseDouble(options.getOrDefault("following-alpha", "1.5"));
+        this.lifeEventsMax = Integer.parseInt(options.getOrDefault("life-events-max", "1000"));
+        this.lifeEventsAlpha = Double.parseDouble(options.getOrDefault("life-events-alpha", "1.2"));
+        this.blockerShare = Double.parseDouble(options.getOrDefault("blocker-share", "0.05"));
+        this.blocksMax = Integer.parseInt(options.getOrDefault("blocks-max", "10000"));
+        this.blocksAlpha = Double.parseDouble(options.getOrDefault("blocks-alpha", "0.8"));
+        this.privacyOverrideShare = Double.parseDouble(options.getOrDefault("privacy-override-share", "0.3"));
+
+        this.converter = mongoTemplate.getConverter();
+        for (Class<?> type : List.of(User.class, Profile.class, PrivacySettings.class, Education.class,
+                WorkExperience.class, Follow.class, Block.class)) {
+            String name = mongoTemplate.getCollectionName(type);
+            collections.put(name, mongoTemplate.getCollection(name));
+            inserted.put(name, new AtomicLong());
+        }
+        // Hashing per user would make BCrypt the whole cost of generation
+        this.passwordHash = new BCryptPasswordEncoder().encode(PASSWORD);
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --key=value, got " + arg);
+            }
+            options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+        }
+        String uri = options.getOrDefault("uri", "mongodb://localhost:27017");
+        String database = options.getOrDefault("database", "Social_Media");
+
+        try (MongoClient client = MongoClients.create(uri)) {
+            MongoTemplate mongoTemplate = new MongoTemplate(client, database);
+            if (Boolean.parseBoolean(options.getOrDefault("drop", "false"))) {
+                mongoTemplate.getDb().drop();
+            }
+            new DatasetGenerator(options, mongoTemplate).run();
+        }
+    }
+
+    void run() throws Exception {
+        long start = System.nanoTime();
+        userIds = new ObjectId[users];
+        for (int i = 0; i < users; i++) {
+            userIds[i] = objectId(USER_ID, i);
+        }
+        followerCounts = new AtomicIntegerArray(users);
+        followingCounts = new int[users];
+        popularity = new HeavyTail.Zipf(users, popularityExponent);
+
+        // Edges first, so the users can be written with their final counts
+        inParallel(this::writeGraph);
+        inParallel(this::writeUsers);
+
+        double seconds = (System.nanoTime() - start) / 1e9;
+        long total = 0;
+        for (Map.Entry<String, AtomicLong> entry : inserted.entrySet()) {
+            System.out.printf("%-18s %,12d%n", entry.getKey(), entry.getValue().get());
+            total += entry.getValue().get();
+        }
+        System.out.printf("%,d documents in %.1f s (%,.0f docs/s); every password is \"%s\"%n",
+                total, seconds, total / seconds, PASSWORD);
+    }
+
+    private interface ChunkWriter {
+        void write(int from, int to);
+    }
+
+    private void inParallel(ChunkWriter writer) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(producers);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int from = 0; from < users; from += batchSize) {
+                int chunkStart = from;
+                int chunkEnd = Math.min(users, from + batchSize);
+                futures.add(executor.submit(() -> writer.write(chunkStart, chunkEnd)));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private void writeGraph(int from, int to) {
+        List<Object> follows = new ArrayList<>(batchSize * 16);
+        List<Object> blocks = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = from; i < to; i++) {
+            SplittableRandom random = random(i, 1);
+            int following = HeavyTail.pareto(random, followingMin, followingAlpha, Math.min(followingMax, users - 1));
+            Set<Integer> followees = new HashSet<>(following * 2);
+            // Popular accounts get picked over and over; give up on the rare unlucky user instead of looping
+            for (int attempts = 0; followees.size() < following && attempts < following * 4; attempts++) {
+                int followee = popularity.next(random);
+                if (followee != i && followees.add(followee)) {
+                    Follow follow = new Follow();
+                    follow.setFollowerId(userIds[i].toHexString());
+                    follow.setFolloweeId(userIds[followee].toHexString());
+                    follow.setCreatedAt(now.minusMinutes(random.nextInt(525_600)));
+                    follows.add(follow);
+                    followerCounts.incrementAndGet(followee);
+                }
+            }
+            followingCounts[i] = followees.size();
+            follows = flushIfFull(Follow.class, follows);
+
+            if (random.nextDouble() < blockerShare) {
+                int count = HeavyTail.pareto(random, 1, blocksAlpha, Math.min(blocksMax, users - 1));
+                Set<Integer> blocked = new HashSet<>(count * 2);
+                while (blocked.size() < count) {
+                    int target = random.nextInt(users);
+                    if (target != i && blocked.add(target)) {
+                        Block block = new Block();
+                        block.setBlockerId(userIds[i].toHexString());
+                        block.setBlockedId(userIds[target].toHexString());
+                        block.setBlockedAt(System.currentTimeMillis() - random.nextLong(31_536_000_000L));
+                        blocks.add(block);
+                    }
+                    blocks = flushIfFull(Block.class, blocks);
+                }
+            }
+        }
+        insert(Follow.class, follows);
+        insert(Block.class, blocks);
+    }
+
+    private void writeUsers(int from, int to) {
+        List<Object> userDocs = new ArrayList<>(to - from);
+        List<Object> profiles = new ArrayList<>(to - from);
+        List<Object> settings = new ArrayList<>();
+        List<Object> educations = new ArrayList<>();
+        List<Object> works = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = from; i < to; i++) {
+            SplittableRandom random = random(i, 2);
+            String userId = userIds[i].toHexString();
+            ObjectId profileId = objectId(PROFILE_ID, i);
+
+            User user = new User();
+            user.setId(userId);
+            user.setUsername("user" + i);
+            user.setEmail("user" + i + "@example.com");
+            user.setPassword(passwordHash);
+            user.setFirstName("First" + i);
+            user.setLastName("Last" + (i % 9973));
+            user.setBio(random.nextInt(3) == 0 ? null : "Synthetic user " + i + " from " + pick(random, CITIES));
+            user.setFollowerCount(followerCounts.get(i));
+            user.setFollowingCount(followingCounts[i]);
+            user.setVerified(true);
+            user.setActive(true);
+            user.setProfileId(profileId.toHexString());
+            user.setCreatedAt(now.minusDays(random.nextInt(3650)));
+            user.setUpdatedAt(now);
+
+            Profile profile = new Profile();
+            profile.setId(profileId.toHexString());
+            profile.setUserId(userId);
+            profile.setBirthDate(LocalDate.of(1960 + random.nextInt(45), 1 + random.nextInt(12), 1 + random.nextInt(28)));
+            profile.setCurrentCity(pick(random, CITIES));
+            profile.setHometown(pick(random, CITIES));
+            profile.setInterests(words(random, "interest", 20));
+            profile.setMusic(words(random, "band", 15));
+            profile.setMovies(words(random, "movie", 15));
+            profile.setBooks(words(random, "book", 10));
+            profile.setSports(words(random, "sport", 5));
+            profile.setLifeEvents(lifeEvents(random, i));
+            profile.setCreatedAt(user.getCreatedAt());
+            profile.setUpdatedAt(now);
+            profiles.add(profile);
+
+            if (random.nextDouble() < privacyOverrideShare) {
+                PrivacySettings privacySettings = new PrivacySettings();
+                ObjectId settingsId = objectId(SETTINGS_ID, i);
+                privacySettings.setId(settingsId.toHexString());
+                privacySettings.setUserId(userId);
+                // Setters drop values equal to the defaults, like the app stores them
+                for (int s = 0; s < 1 + random.nextInt(3); s++) {
+                    privacySettings.setSectionVisibility(pick(random, SECTIONS), pick(random, VISIBILITIES));
+                }
+                if (random.nextInt(10) == 0) {
+                    privacySettings.setProfileVisibility(Visibility.FRIENDS.name());
+                }
+                if (privacySettings.hasOverrides()) {
+                    settings.add(privacySettings);
+                    user.setPrivacySettingsId(settingsId.toHexString());
+                }
+            }
+            userDocs.add(user);
+
+            for (int e = random.nextInt(4); e > 0; e--) {
+                Education education = new Education();
+                education.setUserId(userId);
+                education.setInstitution("University " + random.nextInt(500));
+                education.setDegree(random.nextBoolean() ? "BSc" : "MSc");
+                education.setFieldOfStudy("Field " + random.nextInt(60));
+                education.setStartDate(LocalDate.of(1980 + random.nextInt(40), 9, 1));
+                education.setVisibility(pick(random, VISIBILITIES));
+                educations.add(education);
+            }
+            for (int w = random.nextInt(6); w > 0; w--) {
+                WorkExperience work = new WorkExperience();
+                work.setUserId(userId);
+                work.setCompany("Company " + random.nextInt(5000));
+                work.setPosition("Position " + random.nextInt(200));
+                work.setLocation(pick(random, CITIES));
+                work.setStartDate(LocalDate.of(1985 + random.nextInt(40), 1 + random.nextInt(12), 1));
+                work.setCurrent(w == 1 && random.nextBoolean());
+                work.setVisibility(pick(random, VISIBILITIES));
+                works.add(work);
+            }
+        }
+        insert(User.class, userDocs);
+        insert(Profile.class, profiles);
+        insert(PrivacySettings.class, settings);
+        insert(Education.class, educations);
+        insert(WorkExperience.class, works);
+    }
+
+    private List<Profile.LifeEvent> lifeEvents(SplittableRandom random, int userIndex) {
+        // Most users have none or a few; some have hundreds
+        int count = HeavyTail.pareto(random, 0, lifeEventsAlpha, lifeEventsMax);
+        List<Profile.LifeEvent> events = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Profile.LifeEvent event = new Profile.LifeEvent();
+            event.setId(objectId(LIFE_EVENT_ID, (long) userIndex * lifeEventsMax + i).toHexString());
+            event.setTitle("Event " + i);
+            event.setDescription("Synthetic life event " + i);
+            event.setDate(LocalDate.of(1990 + random.nextInt(35), 1 + random.nextInt(12), 1 + random.nextInt(28)));
+            event.setCategory(pick(random, CATEGORIES));
+            event.setVisibility(pick(random, VISIBILITIES));
+            events.add(event);
+        }
+        return events;
+    }
+
+    private List<Object> flushIfFull(Class<?> type, List<Object> batch) {
+        if (batch.size() < batchSize) {
+            return batch;
+        }
+        insert(type, batch);
+        return new ArrayList<>(batchSize);
+    }
+
+    private void insert(Class<?> type, List<Object> entities) {
+        if (entities.isEmpty()) {
+            return;
+        }
+        List<Document> documents = new ArrayList<>(entities.size());
+        for (Object entity : entities) {
+            Document document = new Document();
+            converter.write(entity, document);
+            documents.add(document);
+        }
+        String name = converter.getMappingContext().getRequiredPersistentEntity(type).getCollection();
+        // Unordered: the server can apply the batch in parallel and one bad document doesn't stop the rest
+        collections.get(name).insertMany(documents, new InsertManyOptions().ordered(false));
+        inserted.get(name).addAndGet(documents.size());
+    }
+
+    /**
+     * Id that depends only on the seed, kind and index rather than on the
+     * clock and machine: the seed picks the timestamp, the kind and index
+     * fill the remaining eight bytes
+     */
+    private ObjectId objectId(int kind, long index) {
+        ByteBuffer bytes = ByteBuffer.allocate(12);
+        bytes.putInt(ID_EPOCH_SECONDS + (int) Math.floorMod(seed, 1L << 24));
+        bytes.putLong((long) kind << 56 | index);
+        return new ObjectId(bytes.array());
+    }
+
+    private SplittableRandom random(int userIndex, int stream) {
+        return new SplittableRandom(seed * 31 + userIndex * 4L + stream);
+    }
+
+    private static String pick(SplittableRandom random, String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    private static Set<String> words(SplittableRandom random, String prefix, int max) {
+        int count = random.nextInt(max + 1);
+        Set<String> words = new HashSet<>(count * 2);
+        for (int i = 0; i < count; i++) {
+            words.add(prefix + "-" + random.nextInt(max * 20));
+        }
+        return words;
+    }
+}
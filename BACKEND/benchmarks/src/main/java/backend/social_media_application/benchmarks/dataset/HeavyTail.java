@@ -0,0 +1,52 @@
+package backend.social_media_application.benchmarks.dataset;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Skewed distributions for synthetic social data: a few accounts with huge
+ * follower counts or block lists and a long tail of small ones.
+ */
+final class HeavyTail {
+
+    private HeavyTail() {
+    }
+
+    /**
+     * Pareto-distributed integer in [min, max]; smaller alpha means a heavier tail
+     */
+    static int pareto(SplittableRandom random, int min, double alpha, int max) {
+        if (max <= min) {
+            return min;
+        }
+        // Sample from [base, ...) and shift into [min, max]; base only differs from min when min is 0
+        int base = Math.max(min, 1);
+        double value = base / Math.pow(1 - random.nextDouble(), 1 / alpha);
+        return (int) Math.min(max - min + base, Math.floor(value)) - base + min;
+    }
+
+    /**
+     * Picks ranks 0..n-1 with probability proportional to 1/(rank+1)^exponent,
+     * so low ranks are the popular accounts. Shared and read-only once built.
+     */
+    static final class Zipf {
+        private final double[] cumulative;
+
+        Zipf(int n, double exponent) {
+            cumulative = new double[n];
+            double sum = 0;
+            for (int i = 0; i < n; i++) {
+                sum += 1 / Math.pow(i + 1, exponent);
+                cumulative[i] = sum;
+            }
+            for (int i = 0; i < n; i++) {
+                cumulative[i] /= sum;
+            }
+        }
+
+        int next(SplittableRandom random) {
+            int index = Arrays.binarySearch(cumulative, random.nextDouble());
+            return Math.min(cumulative.length - 1, index >= 0 ? index : -index - 1);
+        }
+    }
+}